@@ -0,0 +1,78 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+/**
+ * Entry point of the benchmark profile. Takes the usual JMH command line (see jmh.args in
+ * pom.xml) and, after the normal JMH report, prints a scaling table per benchmark: time and bytes
+ * allocated per scheduled run, so it is easy to see where the engine stops scaling linearly.
+ * The allocation columns need the gc profiler (-prof gc).
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Collection<RunResult> results = new Runner(new CommandLineOptions(args)).run();
+
+        List<RunResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparing((RunResult r) -> r.getParams().getBenchmark())
+                .thenComparing(BenchmarkMain::otherParams)
+                .thenComparingInt(r -> runCount(r)));
+        String currentBenchmark = null;
+        for (RunResult result : sorted) {
+            String benchmark = result.getParams().getBenchmark();
+            if (!benchmark.equals(currentBenchmark)) {
+                currentBenchmark = benchmark;
+                System.out.println();
+                System.out.println("Scaling: " + benchmark);
+                System.out.printf("%10s %14s %16s %16s %16s  %s%n", "runs", "ops/s", "us/run", "B/op", "B/run", "params");
+            }
+            int runs = runCount(result);
+            double opsPerSecond = opsPerSecond(result);
+            double microsPerRun = 1_000_000.0 / opsPerSecond / Math.max(1, runs);
+            double bytesPerOp = allocatedBytesPerOp(result.getSecondaryResults());
+            System.out.printf("%10d %14.2f %16.3f %16.0f %16.1f  %s%n", runs, opsPerSecond, microsPerRun,
+                    bytesPerOp, bytesPerOp / Math.max(1, runs), otherParams(result));
+        }
+    }
+
+    // Throughput scores are operations per time unit; the other modes score time per operation.
+    private static double opsPerSecond(RunResult result) {
+        double score = result.getPrimaryResult().getScore();
+        double unitSeconds = result.getParams().getTimeUnit().toNanos(1) / 1e9;
+        return result.getParams().getMode() == Mode.Throughput ? score / unitSeconds : 1 / (score * unitSeconds);
+    }
+
+    private static int runCount(RunResult result) {
+        String runCount = result.getParams().getParam("runCount");
+        return runCount == null ? 0 : Integer.parseInt(runCount);
+    }
+
+    // Parameters other than runCount and seed, e.g. "depotCount=12 parallelism=0"
+    private static String otherParams(RunResult result) {
+        return result.getParams().getParamsKeys().stream()
+                .filter(key -> !key.equals("runCount") && !key.equals("seed"))
+                .map(key -> key + "=" + result.getParams().getParam(key))
+                .collect(Collectors.joining(" "));
+    }
+
+    // Label is "gc.alloc.rate.norm" (older JMH versions prefix it with a dot)
+    private static double allocatedBytesPerOp(Map<String, Result> secondaryResults) {
+        return secondaryResults.entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith("gc.alloc.rate.norm"))
+                .mapToDouble(entry -> entry.getValue().getScore())
+                .findFirst().orElse(Double.NaN);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Scoring a finished solution on its own, separated from the solve that produced it. The engine tracks
+// the score while it assigns, so this should stay flat across runCount.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculateScoreBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int runCount;
+
+    @Param("42")
+    long seed;
+
+    private SolveCheckpoint solved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticFleet fleet = SyntheticFleet.generate(seed, runCount);
+        SchedulingService schedulingService = new SchedulingService();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            solved = schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, SolveListener.NONE);
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+
+    @Benchmark
+    public int calculateScore() {
+        SchedulingService.applyScore(solved.solution, solved.engine.scoreTracker);
+        return solved.solution.getScore();
+    }
+}
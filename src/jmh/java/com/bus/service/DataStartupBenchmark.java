@@ -0,0 +1,123 @@
+package com.bus.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.RouteRun;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// Loading the data at startup, from the seven JSON files against the binary snapshot of the same
+// data. One cold load per fork, as at a real start: nothing has been compiled yet, and the setup
+// writes the files without reading them. Add warmup iterations to compare the warmed-up paths.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class DataStartupBenchmark {
+
+    @Param({"10000", "100000"})
+    int runCount;
+
+    @Param("42")
+    long seed;
+
+    private Path directory;
+    private Path snapshot;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticFleet fleet = SyntheticFleet.generate(seed, runCount);
+        Set<String> terminalIds = new LinkedHashSet<>();
+        for (BusRoute route : fleet.routes) {
+            terminalIds.add(route.getStartTerminalId());
+            terminalIds.add(route.getEndTerminalId());
+        }
+        List<BusTerminal> terminals = terminalIds.stream().map(id -> new BusTerminal(id, "Terminal " + id)).toList();
+        List<BusStop> stops = new ArrayList<>(fleet.depots);
+        stops.addAll(terminals);
+        // Run ids as the loader gives them: both paths build the same records, only the order of the lists differs
+        List<RouteRun> runs = fleet.runs.stream().map(run -> new RouteRun(DatasetLoader.runId(run.getBusRouteId(), run.getDepartureTime()),
+                run.getBusRouteId(), run.getDepartureTime(), 0)).toList();
+
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        directory = Files.createTempDirectory("bus-data-benchmark");
+        objectMapper.writeValue(directory.resolve("bus_stops.json").toFile(), List.of());
+        objectMapper.writeValue(directory.resolve("bus_depots.json").toFile(), fleet.depots);
+        objectMapper.writeValue(directory.resolve("bus_terminals.json").toFile(), terminals);
+        objectMapper.writeValue(directory.resolve("buses.json").toFile(), fleet.buses.stream().map(DataStartupBenchmark::busRecord).toList());
+        objectMapper.writeValue(directory.resolve("bus_drivers.json").toFile(), fleet.drivers);
+        objectMapper.writeValue(directory.resolve("bus_routes.json").toFile(), fleet.routes);
+        Map<String, List<String>> departuresByRoute = new LinkedHashMap<>();
+        for (RouteRun run : runs) {
+            departuresByRoute.computeIfAbsent(run.getBusRouteId(), id -> new ArrayList<>()).add(run.getDepartureTime().toString());
+        }
+        objectMapper.writeValue(directory.resolve("route_runs_config.json").toFile(), departuresByRoute.entrySet().stream()
+                .map(entry -> Map.of("busRouteId", entry.getKey(), "departureTimes", entry.getValue())).toList());
+
+        snapshot = directory.resolve("data.snapshot");
+        Dataset data = Dataset.ofLists("benchmark", stops, fleet.depots, terminals, fleet.buses, fleet.drivers, fleet.routes, runs);
+        DataSnapshot.write(snapshot, data, DatasetLoader.sourceFingerprint(directory));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Dataset json() {
+        return DatasetLoader.load(objectMapper, directory, "benchmark");
+    }
+
+    // Includes checking that the snapshot still matches the JSON files, as every start does.
+    @Benchmark
+    public Dataset snapshot() throws IOException {
+        return DataSnapshot.read(snapshot, DatasetLoader.sourceFingerprint(directory), "benchmark");
+    }
+
+    private static Map<String, Object> busRecord(Bus bus) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("bus_id", bus.getBusId());
+        record.put("number_plate", bus.getNumberPlate());
+        record.put("depotId", bus.getDepotId());
+        record.put("rangeKm", bus.getRangeKm());
+        record.put("currentChargeKm", bus.getCurrentChargeKm());
+        record.put("currentLocationId", bus.getCurrentLocationId());
+        return record;
+    }
+}
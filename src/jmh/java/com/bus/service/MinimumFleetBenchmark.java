@@ -0,0 +1,87 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+// Cost of minimum-fleet vehicle blocks: a full solve with the greedy bus search (minimumFleet=false)
+// or planned blocks (true), and planBlocks, the minimum fleet sweep over every run alone.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MinimumFleetBenchmark {
+
+    @Param({"10000", "50000"})
+    int runCount;
+
+    @Param({"false", "true"})
+    boolean minimumFleet;
+
+    @Param("42")
+    long seed;
+
+    private SyntheticFleet fleet;
+    private SolverConfig config;
+    private GreedyScheduler engine;
+    private List<RouteRun> sortedRuns;
+    private int[] chainOfRun;
+    private SchedulingService schedulingService;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = SyntheticFleet.generate(seed, runCount);
+        config = new SolverConfig();
+        config.setMinimumFleet(minimumFleet);
+        ServiceTime clock = new ServiceTime(LocalTime.of(3, 0));
+        engine = new GreedyScheduler(fleet.buses, fleet.drivers, fleet.routes, clock, ServiceAreas.of(fleet.depots), TravelMatrix.NONE,
+                DepotCapacity.NONE, ChargingNetwork.NONE, config);
+        sortedRuns = new ArrayList<>(fleet.runs);
+        sortedRuns.sort(Comparator.comparingInt(clock::departureMinutes));
+        chainOfRun = new int[sortedRuns.size()];
+        schedulingService = new SchedulingService();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public int planBlocks() {
+        return MinimumFleetBlocks.plan(engine, sortedRuns, chainOfRun);
+    }
+
+    @Benchmark
+    public ScheduleSolution solveSchedule() {
+        return schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, fleet.depots,
+                config, SolveListener.NONE).solution;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.SolverConfig;
+
+// Cost of a multi-day horizon: the same timetable solved days times in a row, each day from the
+// state the one before left. Time and allocation per day should not depend on days.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiDayBenchmark {
+
+    @Param({"10000", "100000"})
+    int runCount;
+
+    @Param({"1", "7"})
+    int days;
+
+    @Param("42")
+    long seed;
+
+    private SyntheticFleet fleet;
+    private SolverConfig config;
+    private SchedulingService schedulingService;
+    private ExecutorService handOff;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        fleet = SyntheticFleet.generate(seed, runCount, 0);
+        config = new SolverConfig();
+        schedulingService = new SchedulingService();
+        handOff = Executors.newSingleThreadExecutor();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+        handOff.shutdownNow();
+    }
+
+    // Assigned runs over the horizon
+    @Benchmark
+    public int solveHorizon() {
+        AtomicInteger assigned = new AtomicInteger();
+        MultiDaySolve.solve(schedulingService, fleet.runs, fleet.buses, fleet.drivers, fleet.routes, fleet.depots, fleet.depots, config, days,
+                SolveListener.NONE, handOff, (day, solution) -> assigned.addAndGet(solution.getAssignedRouteRuns().size() - solution.getUnassignedRunCount()));
+        return assigned.get();
+    }
+}
@@ -0,0 +1,93 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.ChargeRate;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+// Cost of partial charging: the same fleet charged in full on return (partialCharging=false) and
+// topped up along a two-step charge curve at every depot (true). chargeLookups is the table lookup
+// alone, once per bus and minute of a 12 hour day; solveSchedule a full solve.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartialChargingBenchmark {
+
+    private static final List<ChargeRate> FAST_THEN_SLOW = List.of(new ChargeRate(0, 2.5), new ChargeRate(80, 0.8));
+
+    @Param({"10000", "100000"})
+    int runCount;
+
+    @Param({"false", "true"})
+    boolean partialCharging;
+
+    @Param("42")
+    long seed;
+
+    private SyntheticFleet fleet;
+    private ChargeCurve[] curves;
+    private SolverConfig config;
+    private SchedulingService schedulingService;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = SyntheticFleet.generate(seed, runCount, 0, false);
+        config = new SolverConfig();
+        config.setPartialCharging(partialCharging);
+        for (BusDepot depot : fleet.depots) { depot.setHasChargingStation(true); }
+        if (partialCharging) {
+            for (Bus bus : fleet.buses) { bus.setChargeCurve(FAST_THEN_SLOW); }
+        }
+        ChargingNetwork charging = ChargingNetwork.forSolve(fleet.depots, fleet.buses, config);
+        curves = fleet.buses.stream()
+                .map(bus -> partialCharging ? charging.curveOf(bus) : new ChargeCurve(bus.getRangeKm(), null, config.getChargingDurationMins()))
+                .toArray(ChargeCurve[]::new);
+        schedulingService = new SchedulingService();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public long chargeLookups() {
+        long total = 0;
+        for (ChargeCurve curve : curves) {
+            for (int minute = 0; minute < 12 * 60; minute++) { total += curve.chargeAfter(minute % 100, minute); }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public ScheduleSolution solveSchedule() {
+        return schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, fleet.depots,
+                config, SolveListener.NONE).solution;
+    }
+}
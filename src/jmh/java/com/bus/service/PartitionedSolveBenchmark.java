@@ -0,0 +1,68 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.ScheduleSolution;
+
+// Full solve of a network of depots with their own service areas: every part on one thread
+// (parallelism 1) against one thread per core (0). The ratio is the speed-up of the partitioning.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedSolveBenchmark {
+
+    @Param({"10000", "100000"})
+    int runCount;
+
+    @Param("12")
+    int depotCount;
+
+    @Param({"1", "0"})
+    int parallelism;
+
+    @Param("42")
+    long seed;
+
+    private SyntheticFleet fleet;
+    private SchedulingService schedulingService;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = SyntheticFleet.generate(seed, runCount, depotCount);
+        schedulingService = new SchedulingService();
+        schedulingService.partitionParallelism = parallelism;
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public ScheduleSolution solveSchedule() {
+        return schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, fleet.depots,
+                SolveListener.NONE).solution;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.ScheduleSolution;
+
+// Full greedy solve (search, assignment, activity log and scoring) across timetable sizes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveScheduleBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int runCount;
+
+    @Param("42")
+    long seed;
+
+    private SyntheticFleet fleet;
+    private SchedulingService schedulingService;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = SyntheticFleet.generate(seed, runCount);
+        schedulingService = new SchedulingService();
+        // The solver prints a summary per solve; at small sizes that would dominate the measurement
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    // Runs are reused between invocations. The solver never reads the assignments it overwrites,
+    // so every invocation does the same work.
+    @Benchmark
+    public ScheduleSolution solveSchedule() {
+        return schedulingService.solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes);
+    }
+}
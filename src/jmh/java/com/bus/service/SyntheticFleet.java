@@ -0,0 +1,114 @@
+package com.bus.service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.TravelTimeBand;
+
+/**
+ * Seeded generator of scheduling inputs of any size, for the benchmarks. The same (seed, runCount)
+ * always gives the same fleet. Resources grow with the number of runs, roughly like a real
+ * network: a bus does about eight runs a day, a driver about five, and the number of terminals
+ * grows with the square root of the timetable.
+ *
+ * With clusterCount > 0 the network is split into that many depots, each serving its own share of
+ * the terminals, with drivers based at the depots: NetworkPartitioner then finds one part per depot.
+ *
+ * With peakBands every route and depot gets a morning and an evening peak (PEAK_BANDS), so run
+ * durations and deadheads depend on the time of day. The random choices are the same either way.
+ */
+final class SyntheticFleet {
+
+    static final List<TravelTimeBand> PEAK_BANDS = List.of(
+            new TravelTimeBand(LocalTime.of(7, 0), LocalTime.of(10, 0), 1.4),
+            new TravelTimeBand(LocalTime.of(16, 0), LocalTime.of(19, 0), 1.3));
+
+    final List<RouteRun> runs;
+    final List<Bus> buses;
+    final List<BusDriver> drivers;
+    final List<BusRoute> routes;
+    final List<BusDepot> depots;
+
+    private SyntheticFleet(List<RouteRun> runs, List<Bus> buses, List<BusDriver> drivers, List<BusRoute> routes,
+                           List<BusDepot> depots) {
+        this.runs = runs;
+        this.buses = buses;
+        this.drivers = drivers;
+        this.routes = routes;
+        this.depots = depots;
+    }
+
+    static SyntheticFleet generate(long seed, int runCount) {
+        return generate(seed, runCount, 0);
+    }
+
+    static SyntheticFleet generate(long seed, int runCount, int clusterCount) {
+        return generate(seed, runCount, clusterCount, false);
+    }
+
+    static SyntheticFleet generate(long seed, int runCount, int clusterCount, boolean peakBands) {
+        Random random = new Random(seed);
+        int terminalCount = clamp((int) Math.sqrt(runCount), 4, 400);
+        if (clusterCount > 0) { terminalCount = Math.max(terminalCount, clusterCount); }
+        int depotCount = clusterCount > 0 ? clusterCount : clamp(terminalCount / 8, 2, 50);
+        int routeCount = clamp(runCount / 20, 5, 2_000);
+        int busCount = Math.max(5, runCount / 8);
+        int driverCount = Math.max(8, runCount / 5);
+
+        List<BusRoute> routes = new ArrayList<>(routeCount);
+        for (int i = 1; i <= routeCount; i++) {
+            String start = "T" + (1 + random.nextInt(terminalCount));
+            String end = "T" + (1 + random.nextInt(terminalCount));
+            routes.add(new BusRoute("R" + i, "Route " + i, start, end, List.of(start, end),
+                    5 + random.nextInt(40), 15 + random.nextInt(90)));
+            if (peakBands) { routes.get(i - 1).setTravelTimeBands(PEAK_BANDS); }
+        }
+        List<Bus> buses = new ArrayList<>(busCount);
+        for (int i = 1; i <= busCount; i++) {
+            Bus bus = new Bus();
+            bus.setBusIdValue(String.format("B%06d", i));
+            bus.setNumberPlateValue("MH12-" + i);
+            bus.setDepotId("D" + (1 + random.nextInt(depotCount)));
+            bus.setRangeKm(150 + random.nextInt(150));
+            bus.setCurrentChargeKm(60 + random.nextInt(bus.getRangeKm() - 60));
+            bus.setCurrentLocationId(random.nextInt(3) == 0 ? "T" + (1 + random.nextInt(terminalCount)) : bus.getDepotId());
+            buses.add(bus);
+        }
+        List<BusDriver> drivers = new ArrayList<>(driverCount);
+        for (int i = 1; i <= driverCount; i++) {
+            BusDriver driver = new BusDriver("DR" + i, "Driver " + i);
+            if (clusterCount > 0) { driver.setDepotId("D" + (1 + i % depotCount)); }
+            drivers.add(driver);
+        }
+        List<BusDepot> depots = new ArrayList<>(depotCount);
+        for (int i = 1; i <= depotCount; i++) {
+            BusDepot depot = new BusDepot("D" + i, "Depot " + i, busCount);
+            if (clusterCount > 0) {
+                List<String> servedTerminalIds = new ArrayList<>();
+                for (int t = i; t <= terminalCount; t += depotCount) { servedTerminalIds.add("T" + t); }
+                depot.setServedTerminalIds(servedTerminalIds);
+            }
+            if (peakBands) { depot.setTravelTimeBands(PEAK_BANDS); }
+            depots.add(depot);
+        }
+        List<RouteRun> runs = new ArrayList<>(runCount);
+        for (int i = 0; i < runCount; i++) {
+            BusRoute route = routes.get(random.nextInt(routes.size()));
+            // Daytime departures, 05:00 to 16:59; each seed must keep giving the same fleet
+            LocalTime departure = LocalTime.of(5, 0).plusMinutes(random.nextInt(12 * 60));
+            runs.add(new RouteRun(route.getId() + "-" + i, route.getId(), departure, route.travelTimeMinutesAt(departure)));
+        }
+        return new SyntheticFleet(runs, buses, drivers, routes, depots);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
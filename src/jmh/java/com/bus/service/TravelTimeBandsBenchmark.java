@@ -0,0 +1,84 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+// Cost of time-of-day travel times: the same fleet with fixed durations (peakBands=false) and with
+// peak bands on every route and depot (true). runDurations is the lookup alone, solveSchedule a
+// full solve including the deadhead lookups.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TravelTimeBandsBenchmark {
+
+    @Param({"10000", "100000"})
+    int runCount;
+
+    @Param({"false", "true"})
+    boolean peakBands;
+
+    @Param("42")
+    long seed;
+
+    private SyntheticFleet fleet;
+    private BusRoute[] routeOfRun;
+    private SchedulingService schedulingService;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = SyntheticFleet.generate(seed, runCount, 0, peakBands);
+        Map<String, BusRoute> routesById = fleet.routes.stream().collect(Collectors.toMap(BusRoute::getId, Function.identity()));
+        routeOfRun = fleet.runs.stream().map(run -> routesById.get(run.getBusRouteId())).toArray(BusRoute[]::new);
+        schedulingService = new SchedulingService();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public long runDurations() {
+        long total = 0;
+        for (int i = 0; i < routeOfRun.length; i++) {
+            RouteRun run = fleet.runs.get(i);
+            total += routeOfRun[i].travelTimeMinutesAt(run.getDepartureTime());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public ScheduleSolution solveSchedule() {
+        return schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, fleet.depots,
+                new SolverConfig(), SolveListener.NONE).solution;
+    }
+}
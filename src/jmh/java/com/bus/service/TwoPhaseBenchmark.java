@@ -0,0 +1,114 @@
+package com.bus.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+// Cost of two-phase construction: a full solve picking bus and driver per run (twoPhaseConstruction=false)
+// or vehicle blocks first, then driver duties (true), on one network (depotCount=0) or 12 parts
+// solved in parallel (12). vehicleBlocks and driverDuties time each phase alone on one engine.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwoPhaseBenchmark {
+
+    @Param({"10000", "100000"})
+    int runCount;
+
+    @Param({"0", "12"})
+    int depotCount;
+
+    @Param({"false", "true"})
+    boolean twoPhaseConstruction;
+
+    @Param("42")
+    long seed;
+
+    private SyntheticFleet fleet;
+    private SolverConfig config;
+    private ServiceTime clock;
+    private ServiceAreas serviceAreas;
+    private List<RouteRun> sortedRuns;
+    private SchedulingService schedulingService;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = SyntheticFleet.generate(seed, runCount, depotCount);
+        config = new SolverConfig();
+        config.setTwoPhaseConstruction(twoPhaseConstruction);
+        clock = new ServiceTime(LocalTime.of(3, 0));
+        serviceAreas = ServiceAreas.of(fleet.depots);
+        sortedRuns = new ArrayList<>(fleet.runs);
+        sortedRuns.sort(Comparator.comparingInt(clock::departureMinutes));
+        schedulingService = new SchedulingService();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    // An engine with every run's bus picked, for driverDuties; built again before each call.
+    @State(Scope.Thread)
+    public static class Blocks {
+        GreedyScheduler engine;
+
+        @Setup(Level.Invocation)
+        public void buildBlocks(TwoPhaseBenchmark benchmark) {
+            engine = benchmark.newEngine();
+            TwoPhaseConstruction.buildBlocks(engine, benchmark.sortedRuns, SolveListener.NONE, null);
+        }
+    }
+
+    @Benchmark
+    public ScheduleSolution solveSchedule() {
+        return schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, fleet.depots,
+                config, SolveListener.NONE).solution;
+    }
+
+    @Benchmark
+    public GreedyScheduler vehicleBlocks() {
+        GreedyScheduler engine = newEngine();
+        TwoPhaseConstruction.buildBlocks(engine, sortedRuns, SolveListener.NONE, null);
+        return engine;
+    }
+
+    @Benchmark
+    public GreedyScheduler driverDuties(Blocks blocks) {
+        TwoPhaseConstruction.cutDuties(blocks.engine, sortedRuns, SolveListener.NONE, null);
+        return blocks.engine;
+    }
+
+    private GreedyScheduler newEngine() {
+        return new GreedyScheduler(fleet.buses, fleet.drivers, fleet.routes, clock, serviceAreas, TravelMatrix.NONE,
+                DepotCapacity.NONE, ChargingNetwork.NONE, config);
+    }
+}
@@ -1,7 +1,14 @@
 package com.bus;
 
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import com.bus.domain.ScheduleStreamMessage;
+import com.bus.service.ScheduleStreamService;
+
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.websocket.EncodeException;
+import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
 import jakarta.websocket.OnMessage;
@@ -9,31 +16,59 @@ import jakarta.websocket.OnOpen;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
-import java.io.IOException;
-
-import static java.util.Objects.requireNonNull;
 
-@ServerEndpoint("/start-websocket/{name}")
+// Live schedule stream of one solve job: connect to /start-websocket/{jobId} after
+// POST /api/schedule/jobs and receive ScheduleStreamMessage JSON batches until the final message.
+@ServerEndpoint("/start-websocket/{jobId}")
 @ApplicationScoped
 public class StartWebSocket {
 
+    private static final String SUBSCRIBER_KEY = "scheduleStreamSubscriber";
+
+    @Inject
+    ScheduleStreamService scheduleStreamService;
+
     @OnOpen
-    public void onOpen(Session session, @PathParam("name") String name) {
-        System.out.println("onOpen> " + name);
+    public void onOpen(Session session, @PathParam("jobId") String jobId) {
+        Consumer<String> subscriber = json -> session.getAsyncRemote().sendText(json);
+        session.getUserProperties().put(SUBSCRIBER_KEY, subscriber);
+        if (!scheduleStreamService.subscribe(jobId, subscriber)) {
+            ScheduleStreamMessage error = new ScheduleStreamMessage(ScheduleStreamMessage.Type.ERROR, jobId);
+            error.setErrorMessage("Unknown solve job " + jobId);
+            session.getAsyncRemote().sendText(scheduleStreamService.toJson(error));
+            closeQuietly(session, new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "Unknown solve job"));
+        }
     }
 
     @OnClose
-    public void onClose(Session session, @PathParam("name") String name) {
-        System.out.println("onClose> " + name);
+    public void onClose(Session session, @PathParam("jobId") String jobId) {
+        unsubscribe(session, jobId);
     }
 
     @OnError
-    public void onError(Session session, @PathParam("name") String name, Throwable throwable) {
-        System.out.println("onError> " + name + ": " + throwable);
+    public void onError(Session session, @PathParam("jobId") String jobId, Throwable throwable) {
+        System.err.println("Schedule stream error for job " + jobId + ": " + throwable);
+        unsubscribe(session, jobId);
     }
 
     @OnMessage
-    public void onMessage(String message, @PathParam("name") String name) {
-        System.out.println("onMessage> " + name + ": " + message);
+    public void onMessage(String message, @PathParam("jobId") String jobId) {
+        // The channel is push-only; anything the client sends is ignored.
+    }
+
+    @SuppressWarnings("unchecked")
+    private void unsubscribe(Session session, String jobId) {
+        Object subscriber = session.getUserProperties().remove(SUBSCRIBER_KEY);
+        if (subscriber != null) {
+            scheduleStreamService.unsubscribe(jobId, (Consumer<String>) subscriber);
+        }
+    }
+
+    private static void closeQuietly(Session session, CloseReason reason) {
+        try {
+            session.close(reason);
+        } catch (IOException e) {
+            // Already closing
+        }
     }
 }
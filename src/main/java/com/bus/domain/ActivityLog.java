@@ -0,0 +1,461 @@
+package com.bus.domain;
+
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Activity log stored column by column: one primitive array per field instead of an
+ * ActivityLogEntry object per activity, so a solve with hundreds of thousands of activities
+ * allocates a few arrays rather than an object graph per line.
+ *
+ * Entities are kept as an index into a small per-log table, times as int minutes (values of
+ * 1440 and more are after midnight, as in the engine's clock) and descriptions as a template
+ * plus its arguments, turned into text only when read. As a List it reads as ActivityLogEntry
+ * views built on demand, so JSON output and code working on entries see the same shape as before.
+ *
+ * A log can also be layered on a finished one (layeredOn) instead of copying it: the base entries
+ * are only read, and dropping an entity's entries (removeEntity) marks them instead of moving any.
+ * Reading the log, or compact(), turns it into a plain log in one pass.
+ */
+public final class ActivityLog extends AbstractList<ActivityLogEntry> implements RandomAccess {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int NONE = Integer.MIN_VALUE; // Missing time or charge
+    private static final int REMOVED = -1; // Entity of a dropped entry of a layered log
+    private static final int NO_ROW = -1;
+    private static final ActivityLogEntry.ActivityType[] ACTIVITY_TYPES = ActivityLogEntry.ActivityType.values();
+    private static final Description[] DESCRIPTIONS = Description.values();
+
+    // Shared LocalTime per minute of the day, so reading entries does not allocate times
+    private static final LocalTime[] LOCAL_TIMES = new LocalTime[MINUTES_PER_DAY];
+    static {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            LOCAL_TIMES[minute] = LocalTime.of(minute / 60, minute % 60);
+        }
+    }
+
+    // How a description reads, given its two arguments.
+    public enum Description {
+        TEXT,            // The first argument as is
+        RUN,             // Run <run> (Route <route>)
+        TRAVEL,          // Travel from <location> to <location>
+        TRAVEL_TO_DEPOT, // Travel from <terminal> to Depot <depot>
+        CHARGING,        // Charging at Depot <depot>
+        BREAK,           // Mandatory break at <terminal>
+        CHARGER_WAIT,    // Waiting for a charger at Depot <depot>
+        CHARGING_AT;     // Charging at <location>
+
+        String format(String first, String second) {
+            return switch (this) {
+                case TEXT -> first;
+                case RUN -> "Run " + first + " (Route " + second + ")";
+                case TRAVEL -> "Travel from " + first + " to " + second;
+                case TRAVEL_TO_DEPOT -> "Travel from " + first + " to Depot " + second;
+                case CHARGING -> "Charging at Depot " + first;
+                case BREAK -> "Mandatory break at " + first;
+                case CHARGER_WAIT -> "Waiting for a charger at Depot " + first;
+                case CHARGING_AT -> "Charging at " + first;
+            };
+        }
+    }
+
+    // Entity table: index -> type and id, and back
+    private final List<String> entityIds;
+    private final List<ActivityLogEntry.EntityType> entityTypes;
+    private final Map<String, Integer> busIndexes;
+    private final Map<String, Integer> driverIndexes;
+
+    private int size;
+    private int[] entity;
+    private byte[] activityType;
+    private int[] startMinutes;
+    private int[] endMinutes;
+    private String[] startLocationId;
+    private String[] endLocationId;
+    private int[] startChargeKm;
+    private int[] endChargeKm;
+    private byte[] description;
+    private String[] descriptionFirst;
+    private String[] descriptionSecond;
+
+    // Layered log only: entries [0, baseSize) are base's, this log's own columns hold the ones after them
+    private ActivityLog base;
+    private int baseSize;
+    private BitSet removedBaseEntities; // Base entity indexes whose entries are dropped
+    private int[] nextOfEntity; // Own entries of each entity as a linked list, so removeEntity visits only its own
+    private int[] firstOfEntity;
+    private int[] lastOfEntity;
+
+    public ActivityLog() {
+        this(16);
+    }
+
+    public ActivityLog(int initialCapacity) {
+        entityIds = new ArrayList<>();
+        entityTypes = new ArrayList<>();
+        busIndexes = new HashMap<>();
+        driverIndexes = new HashMap<>();
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    // Independent copy of another log.
+    public ActivityLog(ActivityLog other) {
+        other.compact();
+        entityIds = new ArrayList<>(other.entityIds);
+        entityTypes = new ArrayList<>(other.entityTypes);
+        busIndexes = new HashMap<>(other.busIndexes);
+        driverIndexes = new HashMap<>(other.driverIndexes);
+        size = other.size;
+        int capacity = Math.max(other.size, 1);
+        entity = Arrays.copyOf(other.entity, capacity);
+        activityType = Arrays.copyOf(other.activityType, capacity);
+        startMinutes = Arrays.copyOf(other.startMinutes, capacity);
+        endMinutes = Arrays.copyOf(other.endMinutes, capacity);
+        startLocationId = Arrays.copyOf(other.startLocationId, capacity);
+        endLocationId = Arrays.copyOf(other.endLocationId, capacity);
+        startChargeKm = Arrays.copyOf(other.startChargeKm, capacity);
+        endChargeKm = Arrays.copyOf(other.endChargeKm, capacity);
+        description = Arrays.copyOf(other.description, capacity);
+        descriptionFirst = Arrays.copyOf(other.descriptionFirst, capacity);
+        descriptionSecond = Arrays.copyOf(other.descriptionSecond, capacity);
+    }
+
+    /**
+     * A log that starts with base's entries without copying them. base is only read and must not
+     * change while the new log is in use. Appending and removeEntity cost their own entries only;
+     * the first read (or compact()) copies the entries still in place into a plain log, once.
+     */
+    public static ActivityLog layeredOn(ActivityLog base) {
+        base.compact();
+        ActivityLog log = new ActivityLog();
+        log.base = base;
+        log.baseSize = base.size;
+        log.removedBaseEntities = new BitSet();
+        log.nextOfEntity = new int[log.entity.length];
+        log.firstOfEntity = new int[0];
+        log.lastOfEntity = new int[0];
+        return log;
+    }
+
+    public static LocalTime toLocalTime(int minutes) {
+        return LOCAL_TIMES[Math.floorMod(minutes, MINUTES_PER_DAY)];
+    }
+
+    // Appends an activity without locations or charge and returns its index.
+    public int append(ActivityLogEntry.EntityType entityType, String entityId, ActivityLogEntry.ActivityType activity,
+                      int startMinutes, int endMinutes, Description description, String first, String second) {
+        if (size == entity.length) { allocate(size * 2); }
+        int index = size++;
+        this.entity[index] = entityIndex(entityType, entityId);
+        if (base != null) { link(index); }
+        this.activityType[index] = (byte) activity.ordinal();
+        this.startMinutes[index] = startMinutes;
+        this.endMinutes[index] = endMinutes;
+        this.startLocationId[index] = null;
+        this.endLocationId[index] = null;
+        this.startChargeKm[index] = NONE;
+        this.endChargeKm[index] = NONE;
+        this.description[index] = (byte) description.ordinal();
+        this.descriptionFirst[index] = first;
+        this.descriptionSecond[index] = second;
+        modCount++;
+        return baseSize + index;
+    }
+
+    public void setLocations(int index, String startLocationId, String endLocationId) {
+        this.startLocationId[index - baseSize] = startLocationId;
+        this.endLocationId[index - baseSize] = endLocationId;
+    }
+
+    public void setStartChargeKm(int index, int chargeKm) {
+        startChargeKm[index - baseSize] = chargeKm;
+    }
+
+    public void setEndChargeKm(int index, int chargeKm) {
+        endChargeKm[index - baseSize] = chargeKm;
+    }
+
+    // Appends entries [from, to) of another log, in order.
+    public void appendAll(ActivityLog other, int from, int to) {
+        compact();
+        other.compact();
+        copyRows(other, from, to);
+    }
+
+    private void copyRows(ActivityLog other, int from, int to) {
+        int count = to - from;
+        if (size + count > entity.length) { allocate(Math.max(size + count, size * 2)); }
+        for (int i = from; i < to; i++) { // Entity indexes are per log
+            int otherEntity = other.entity[i];
+            entity[size + i - from] = entityIndex(other.entityTypes.get(otherEntity), other.entityIds.get(otherEntity));
+        }
+        System.arraycopy(other.activityType, from, activityType, size, count);
+        System.arraycopy(other.startMinutes, from, startMinutes, size, count);
+        System.arraycopy(other.endMinutes, from, endMinutes, size, count);
+        System.arraycopy(other.startLocationId, from, startLocationId, size, count);
+        System.arraycopy(other.endLocationId, from, endLocationId, size, count);
+        System.arraycopy(other.startChargeKm, from, startChargeKm, size, count);
+        System.arraycopy(other.endChargeKm, from, endChargeKm, size, count);
+        System.arraycopy(other.description, from, description, size, count);
+        System.arraycopy(other.descriptionFirst, from, descriptionFirst, size, count);
+        System.arraycopy(other.descriptionSecond, from, descriptionSecond, size, count);
+        size += count;
+        modCount++;
+    }
+
+    // Drops every activity of one bus or driver, keeping the order of the rest. On a layered log this
+    // only marks the entity's entries; otherwise it is one pass over the log.
+    public void removeEntity(ActivityLogEntry.EntityType entityType, String entityId) {
+        Integer index = indexesOf(entityType).get(entityId);
+        if (base != null) {
+            Integer baseIndex = base.indexesOf(entityType).get(entityId);
+            if (baseIndex != null) { removedBaseEntities.set(baseIndex); }
+            if (index != null && index < firstOfEntity.length) {
+                for (int row = firstOfEntity[index]; row != NO_ROW; row = nextOfEntity[row]) {
+                    entity[row] = REMOVED;
+                    startLocationId[row] = endLocationId[row] = descriptionFirst[row] = descriptionSecond[row] = null;
+                }
+                firstOfEntity[index] = lastOfEntity[index] = NO_ROW;
+            }
+            modCount++;
+        } else if (index != null) {
+            int removed = index;
+            retain(i -> entity[i] != removed);
+        }
+    }
+
+    /**
+     * Turns a layered log into a plain one: the base entries still in place, then this log's own,
+     * in order, in new columns. Does nothing on a plain log.
+     */
+    public void compact() {
+        if (base == null) { return; }
+        ActivityLog flat = new ActivityLog(baseSize + size);
+        int from = NO_ROW;
+        for (int i = 0; i <= baseSize; i++) { // Copies each stretch of kept entries at once
+            boolean kept = i < baseSize && !removedBaseEntities.get(base.entity[i]);
+            if (kept && from == NO_ROW) { from = i; }
+            if (!kept && from != NO_ROW) {
+                flat.copyRows(base, from, i);
+                from = NO_ROW;
+            }
+        }
+        for (int i = 0; i <= size; i++) {
+            boolean kept = i < size && entity[i] != REMOVED;
+            if (kept && from == NO_ROW) { from = i; }
+            if (!kept && from != NO_ROW) {
+                flat.copyRows(this, from, i);
+                from = NO_ROW;
+            }
+        }
+        entityIds.clear();
+        entityIds.addAll(flat.entityIds);
+        entityTypes.clear();
+        entityTypes.addAll(flat.entityTypes);
+        busIndexes.clear();
+        busIndexes.putAll(flat.busIndexes);
+        driverIndexes.clear();
+        driverIndexes.putAll(flat.driverIndexes);
+        size = flat.size;
+        entity = flat.entity;
+        activityType = flat.activityType;
+        startMinutes = flat.startMinutes;
+        endMinutes = flat.endMinutes;
+        startLocationId = flat.startLocationId;
+        endLocationId = flat.endLocationId;
+        startChargeKm = flat.startChargeKm;
+        endChargeKm = flat.endChargeKm;
+        description = flat.description;
+        descriptionFirst = flat.descriptionFirst;
+        descriptionSecond = flat.descriptionSecond;
+        base = null;
+        baseSize = 0;
+        removedBaseEntities = null;
+        nextOfEntity = firstOfEntity = lastOfEntity = null; // Same entries in the same order: not a modification
+    }
+
+    /**
+     * Matches the indexes of entries of one entity type and id (null: any) that overlap
+     * [fromMinutes, toMinutes) on the engine's clock. Pass Integer.MIN_VALUE and MAX_VALUE for an
+     * open window; entries without times only match when both ends are open. Entries are
+     * compared column by column, without building them.
+     */
+    public IntPredicate filter(ActivityLogEntry.EntityType entityType, String entityId, int fromMinutes, int toMinutes) {
+        compact();
+        boolean[] entityMatches = new boolean[entityIds.size()];
+        for (int i = 0; i < entityMatches.length; i++) {
+            entityMatches[i] = (entityType == null || entityTypes.get(i) == entityType) && (entityId == null || entityIds.get(i).equals(entityId));
+        }
+        boolean anyTime = fromMinutes == Integer.MIN_VALUE && toMinutes == Integer.MAX_VALUE;
+        return i -> entityMatches[entity[i]] && (anyTime || startMinutes[i] != NONE && startMinutes[i] < toMinutes
+                && (endMinutes[i] > fromMinutes || startMinutes[i] >= fromMinutes)); // Instants count at their start
+    }
+
+    @Override
+    public ActivityLogEntry get(int index) {
+        compact();
+        if (index < 0 || index >= size) { throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size); }
+        ActivityLogEntry entry = new ActivityLogEntry(entityTypes.get(entity[index]), entityIds.get(entity[index]),
+                ACTIVITY_TYPES[activityType[index]], timeOrNull(startMinutes[index]), timeOrNull(endMinutes[index]),
+                DESCRIPTIONS[description[index]].format(descriptionFirst[index], descriptionSecond[index]));
+        entry.setStartLocationId(startLocationId[index]);
+        entry.setEndLocationId(endLocationId[index]);
+        entry.setStartChargeKm(startChargeKm[index] == NONE ? null : startChargeKm[index]);
+        entry.setEndChargeKm(endChargeKm[index] == NONE ? null : endChargeKm[index]);
+        return entry;
+    }
+
+    // The entry's start as the log keeps it: minutes since midnight at the start of the service day, so
+    // 1440 and more after midnight, which the entry's LocalTime cannot tell. Integer.MIN_VALUE if it has none.
+    public int startMinutes(int index) {
+        compact();
+        Objects.checkIndex(index, size);
+        return startMinutes[index];
+    }
+
+    // The entry's end, as startMinutes(int).
+    public int endMinutes(int index) {
+        compact();
+        Objects.checkIndex(index, size);
+        return endMinutes[index];
+    }
+
+    @Override
+    public int size() {
+        compact();
+        return size;
+    }
+
+    // Stores a copy of the entry's fields: later changes to the entry do not reach the log.
+    @Override
+    public boolean add(ActivityLogEntry entry) {
+        return add(entry, minutesOrNone(entry.getStartTime()), minutesOrNone(entry.getEndTime()));
+    }
+
+    // As add(entry), with the times given as startMinutes(int) and endMinutes(int) return them.
+    public boolean add(ActivityLogEntry entry, int startMinutes, int endMinutes) {
+        int index = append(entry.getEntityType(), entry.getEntityId(), entry.getActivityType(),
+                startMinutes, endMinutes, Description.TEXT, entry.getDescription(), null);
+        setLocations(index, entry.getStartLocationId(), entry.getEndLocationId());
+        if (entry.getStartChargeKm() != null) { setStartChargeKm(index, entry.getStartChargeKm()); }
+        if (entry.getEndChargeKm() != null) { setEndChargeKm(index, entry.getEndChargeKm()); }
+        return true;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super ActivityLogEntry> filter) {
+        compact();
+        return retain(i -> !filter.test(get(i)));
+    }
+
+    @Override
+    public void clear() {
+        compact();
+        Arrays.fill(startLocationId, 0, size, null);
+        Arrays.fill(endLocationId, 0, size, null);
+        Arrays.fill(descriptionFirst, 0, size, null);
+        Arrays.fill(descriptionSecond, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    // Compacts the columns down to the entries keep accepts.
+    private boolean retain(IntPredicate keep) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!keep.test(i)) { continue; }
+            if (kept != i) {
+                entity[kept] = entity[i];
+                activityType[kept] = activityType[i];
+                startMinutes[kept] = startMinutes[i];
+                endMinutes[kept] = endMinutes[i];
+                startLocationId[kept] = startLocationId[i];
+                endLocationId[kept] = endLocationId[i];
+                startChargeKm[kept] = startChargeKm[i];
+                endChargeKm[kept] = endChargeKm[i];
+                description[kept] = description[i];
+                descriptionFirst[kept] = descriptionFirst[i];
+                descriptionSecond[kept] = descriptionSecond[i];
+            }
+            kept++;
+        }
+        if (kept == size) { return false; }
+        Arrays.fill(startLocationId, kept, size, null);
+        Arrays.fill(endLocationId, kept, size, null);
+        Arrays.fill(descriptionFirst, kept, size, null);
+        Arrays.fill(descriptionSecond, kept, size, null);
+        size = kept;
+        modCount++;
+        return true;
+    }
+
+    private int entityIndex(ActivityLogEntry.EntityType entityType, String entityId) {
+        Map<String, Integer> indexes = indexesOf(entityType);
+        Integer index = indexes.get(entityId);
+        if (index == null) {
+            index = entityIds.size();
+            entityIds.add(entityId);
+            entityTypes.add(entityType);
+            indexes.put(entityId, index);
+        }
+        return index;
+    }
+
+    // Appends an own entry to its entity's list (layered log only).
+    private void link(int row) {
+        int entityIndex = entity[row];
+        if (entityIndex >= firstOfEntity.length) {
+            int length = Math.max(entityIndex + 1, firstOfEntity.length * 2);
+            int oldLength = firstOfEntity.length;
+            firstOfEntity = Arrays.copyOf(firstOfEntity, length);
+            lastOfEntity = Arrays.copyOf(lastOfEntity, length);
+            Arrays.fill(firstOfEntity, oldLength, length, NO_ROW);
+            Arrays.fill(lastOfEntity, oldLength, length, NO_ROW);
+        }
+        nextOfEntity[row] = NO_ROW;
+        if (lastOfEntity[entityIndex] == NO_ROW) {
+            firstOfEntity[entityIndex] = row;
+        } else {
+            nextOfEntity[lastOfEntity[entityIndex]] = row;
+        }
+        lastOfEntity[entityIndex] = row;
+    }
+
+    private Map<String, Integer> indexesOf(ActivityLogEntry.EntityType entityType) {
+        return entityType == ActivityLogEntry.EntityType.BUS ? busIndexes : driverIndexes;
+    }
+
+    private void allocate(int capacity) {
+        entity = entity == null ? new int[capacity] : Arrays.copyOf(entity, capacity);
+        activityType = activityType == null ? new byte[capacity] : Arrays.copyOf(activityType, capacity);
+        startMinutes = startMinutes == null ? new int[capacity] : Arrays.copyOf(startMinutes, capacity);
+        endMinutes = endMinutes == null ? new int[capacity] : Arrays.copyOf(endMinutes, capacity);
+        startLocationId = startLocationId == null ? new String[capacity] : Arrays.copyOf(startLocationId, capacity);
+        endLocationId = endLocationId == null ? new String[capacity] : Arrays.copyOf(endLocationId, capacity);
+        startChargeKm = startChargeKm == null ? new int[capacity] : Arrays.copyOf(startChargeKm, capacity);
+        endChargeKm = endChargeKm == null ? new int[capacity] : Arrays.copyOf(endChargeKm, capacity);
+        description = description == null ? new byte[capacity] : Arrays.copyOf(description, capacity);
+        descriptionFirst = descriptionFirst == null ? new String[capacity] : Arrays.copyOf(descriptionFirst, capacity);
+        descriptionSecond = descriptionSecond == null ? new String[capacity] : Arrays.copyOf(descriptionSecond, capacity);
+        if (nextOfEntity != null) { nextOfEntity = Arrays.copyOf(nextOfEntity, capacity); }
+    }
+
+    private static LocalTime timeOrNull(int minutes) {
+        return minutes == NONE ? null : toLocalTime(minutes);
+    }
+
+    private static int minutesOrNone(LocalTime time) {
+        return time == null ? NONE : time.getHour() * 60 + time.getMinute();
+    }
+}
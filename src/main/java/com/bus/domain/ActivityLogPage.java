@@ -0,0 +1,32 @@
+package com.bus.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One page of a solution's activity log (GET .../activities). Pass nextCursor back as cursor for the next page.
+public class ActivityLogPage {
+
+    private List<ActivityLogEntry> entries = new ArrayList<>(); // In log order
+    private String nextCursor;                                  // Null on the last page
+
+    public ActivityLogPage() {}
+
+    public ActivityLogPage(List<ActivityLogEntry> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ActivityLogEntry> getEntries() { return entries; }
+    public void setEntries(List<ActivityLogEntry> entries) { this.entries = entries; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    @Override
+    public String toString() {
+        return "ActivityLogPage{" +
+               "entries=" + entries.size() +
+               ", nextCursor='" + nextCursor + '\'' +
+               '}';
+    }
+}
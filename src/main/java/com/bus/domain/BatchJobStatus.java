@@ -0,0 +1,52 @@
+package com.bus.domain;
+
+import java.time.Instant;
+
+// Progress of a POST /api/schedule/batch job; its results are paged from /batch/{id}/results.
+public class BatchJobStatus {
+
+    private String batchId;
+    private SolveJobStatus.State state; // RUNNING from submission until every configuration is solved or dropped
+    private int configCount;
+    private int solvedCount;            // Configurations with a result, failed ones included
+    private int failedCount;
+    private boolean cancelRequested;
+    private Instant submittedAt;
+    private Instant finishedAt;
+
+    public BatchJobStatus() {}
+
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public SolveJobStatus.State getState() { return state; }
+    public void setState(SolveJobStatus.State state) { this.state = state; }
+
+    public int getConfigCount() { return configCount; }
+    public void setConfigCount(int configCount) { this.configCount = configCount; }
+
+    public int getSolvedCount() { return solvedCount; }
+    public void setSolvedCount(int solvedCount) { this.solvedCount = solvedCount; }
+
+    public int getFailedCount() { return failedCount; }
+    public void setFailedCount(int failedCount) { this.failedCount = failedCount; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    public Instant getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(Instant submittedAt) { this.submittedAt = submittedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    @Override
+    public String toString() {
+        return "BatchJobStatus{" +
+               "batchId='" + batchId + '\'' +
+               ", state=" + state +
+               ", solvedCount=" + solvedCount +
+               ", configCount=" + configCount +
+               '}';
+    }
+}
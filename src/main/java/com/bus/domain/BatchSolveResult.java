@@ -0,0 +1,47 @@
+package com.bus.domain;
+
+import java.util.List;
+
+// Outcome of one configuration of POST /api/schedule/batch: the score of its solve, or why it failed.
+public class BatchSolveResult {
+
+    private int index;                  // Position of the configuration in the request
+    private SolverConfig solverConfig;  // Effective configuration: the defaults with the request's overrides
+    private int score;
+    private List<ConstraintScore> scoreBreakdown;
+    private int unassignedRunCount;
+    private int totalBusesUsedCount;
+    private long solveMillis;
+    private String error;               // Set if the solve failed; the score fields are then 0
+
+    public BatchSolveResult() {}
+
+    public BatchSolveResult(int index, SolverConfig solverConfig) {
+        this.index = index;
+        this.solverConfig = solverConfig;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public SolverConfig getSolverConfig() { return solverConfig; }
+    public void setSolverConfig(SolverConfig solverConfig) { this.solverConfig = solverConfig; }
+
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+
+    public List<ConstraintScore> getScoreBreakdown() { return scoreBreakdown; }
+    public void setScoreBreakdown(List<ConstraintScore> scoreBreakdown) { this.scoreBreakdown = scoreBreakdown; }
+
+    public int getUnassignedRunCount() { return unassignedRunCount; }
+    public void setUnassignedRunCount(int unassignedRunCount) { this.unassignedRunCount = unassignedRunCount; }
+
+    public int getTotalBusesUsedCount() { return totalBusesUsedCount; }
+    public void setTotalBusesUsedCount(int totalBusesUsedCount) { this.totalBusesUsedCount = totalBusesUsedCount; }
+
+    public long getSolveMillis() { return solveMillis; }
+    public void setSolveMillis(long solveMillis) { this.solveMillis = solveMillis; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
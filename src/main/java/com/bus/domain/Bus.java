@@ -1,5 +1,6 @@
 package com.bus.domain;
 
+import java.util.List;
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -16,6 +17,7 @@ public class Bus {
     private int rangeKm;
     private int currentChargeKm;
     private String currentLocationId;
+    private List<ChargeRate> chargeCurve; // Optional: charging speed by state of charge (see ChargeRate); unset = linear
 
     public Bus() {}
 
@@ -54,6 +56,14 @@ public class Bus {
     public String getCurrentLocationId() { return currentLocationId; }
     public void setCurrentLocationId(String currentLocationId) { this.currentLocationId = currentLocationId; }
 
+    public List<ChargeRate> getChargeCurve() { return chargeCurve; }
+
+    // Throws IllegalArgumentException for an invalid curve (see ChargeRate).
+    public void setChargeCurve(List<ChargeRate> chargeCurve) {
+        ChargeRate.validate(chargeCurve);
+        this.chargeCurve = chargeCurve;
+    }
+
     @Override
     public String toString() {
         return "Bus{" +
@@ -1,10 +1,15 @@
 package com.bus.domain;
 
+import java.util.List;
 import java.util.Objects;
 
 public class BusDepot extends BusStop {
     private int maxCapacity; // Max number of buses it can accommodate
     private boolean hasChargingStation;
+    private Integer chargerCount; // Optional: buses that can charge at once; unset = no limit (see DepotCapacity)
+    private List<String> servedTerminalIds; // Optional: the only terminals its buses and drivers start runs from
+    private List<TravelTimeBand> travelTimeBands; // Optional: deadheads to and from this depot by time of day
+    private double[] travelTimeFactors; // travelTimeBands by bucket, null without bands
 
     public BusDepot() {
         super();
@@ -33,6 +38,45 @@ public class BusDepot extends BusStop {
         this.hasChargingStation = hasChargingStation;
     }
 
+    public Integer getChargerCount() {
+        return chargerCount;
+    }
+
+    public void setChargerCount(Integer chargerCount) {
+        this.chargerCount = chargerCount;
+    }
+
+    public List<String> getServedTerminalIds() {
+        return servedTerminalIds;
+    }
+
+    public void setServedTerminalIds(List<String> servedTerminalIds) {
+        this.servedTerminalIds = servedTerminalIds;
+    }
+
+    public List<TravelTimeBand> getTravelTimeBands() {
+        return travelTimeBands;
+    }
+
+    // Throws IllegalArgumentException for invalid bands (see TravelTimeBand).
+    public void setTravelTimeBands(List<TravelTimeBand> travelTimeBands) {
+        this.travelTimeFactors = TravelTimeBand.factorsByBucket(travelTimeBands);
+        this.travelTimeBands = travelTimeBands;
+    }
+
+    public boolean hasTravelTimeBands() {
+        return travelTimeFactors != null;
+    }
+
+    // Factor on deadhead times at this minute of the service day (1440 and more after midnight).
+    public double travelTimeFactorAt(int minute) {
+        return travelTimeFactors == null ? 1 : travelTimeFactors[TravelTimeBand.bucketOf(minute)];
+    }
+
+    public double maxTravelTimeFactor() {
+        return TravelTimeBand.maxFactor(travelTimeFactors);
+    }
+
     @Override
     public String toString() {
         return "BusDepot{" +
@@ -40,6 +84,9 @@ public class BusDepot extends BusStop {
                ", name='" + getName() + '\'' +
                ", maxCapacity=" + maxCapacity +
                ", hasChargingStation=" + hasChargingStation +
+               ", chargerCount=" + chargerCount +
+               ", servedTerminalIds=" + servedTerminalIds +
+               ", travelTimeBands=" + travelTimeBands +
                '}';
     }
 
@@ -49,11 +96,13 @@ public class BusDepot extends BusStop {
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false; // Checks id from BusStop
         BusDepot busDepot = (BusDepot) o;
-        return maxCapacity == busDepot.maxCapacity && hasChargingStation == busDepot.hasChargingStation;
+        return maxCapacity == busDepot.maxCapacity && hasChargingStation == busDepot.hasChargingStation
+                && Objects.equals(chargerCount, busDepot.chargerCount) && Objects.equals(servedTerminalIds, busDepot.servedTerminalIds)
+                && Objects.equals(travelTimeBands, busDepot.travelTimeBands);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), maxCapacity, hasChargingStation);
+        return Objects.hash(super.hashCode(), maxCapacity, hasChargingStation, chargerCount, servedTerminalIds, travelTimeBands);
     }
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import java.util.Objects;
 public class BusDriver {
     private String id;
     private String name;
+    private String depotId; // Optional home depot; drivers without one can work anywhere in the network
+    private int drivingMinsThisWeek; // Driving already done this week, before the day being solved (counts towards maxDrivingMinsPerWeek)
     // We'll add more properties like current shift hours, last break time etc. later
 
     public BusDriver() {
@@ -31,11 +33,29 @@ public class BusDriver {
         this.name = name;
     }
 
+    public String getDepotId() {
+        return depotId;
+    }
+
+    public void setDepotId(String depotId) {
+        this.depotId = depotId;
+    }
+
+    public int getDrivingMinsThisWeek() {
+        return drivingMinsThisWeek;
+    }
+
+    public void setDrivingMinsThisWeek(int drivingMinsThisWeek) {
+        this.drivingMinsThisWeek = drivingMinsThisWeek;
+    }
+
     @Override
     public String toString() {
         return "BusDriver{" +
                "id='" + id + '\'' +
                ", name='" + name + '\'' +
+               ", depotId='" + depotId + '\'' +
+               ", drivingMinsThisWeek=" + drivingMinsThisWeek +
                '}';
     }
 
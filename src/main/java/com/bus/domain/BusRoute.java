@@ -1,5 +1,6 @@
 package com.bus.domain;
 
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Objects;
 
@@ -11,6 +12,8 @@ public class BusRoute {
     private List<String> stopIds; // Ordered list of stop IDs, includes start and end
     private int totalDistanceKm;
     private int travelTimeMinutes; // Time to complete this one-way route
+    private List<TravelTimeBand> travelTimeBands; // Optional: other times by departure time of day
+    private double[] travelTimeFactors; // travelTimeBands by bucket, null without bands
 
     // Constructors
     public BusRoute() {
@@ -83,6 +86,31 @@ public class BusRoute {
         this.travelTimeMinutes = travelTimeMinutes;
     }
 
+    public List<TravelTimeBand> getTravelTimeBands() {
+        return travelTimeBands;
+    }
+
+    // Throws IllegalArgumentException for invalid bands (see TravelTimeBand).
+    public void setTravelTimeBands(List<TravelTimeBand> travelTimeBands) {
+        this.travelTimeFactors = TravelTimeBand.factorsByBucket(travelTimeBands);
+        this.travelTimeBands = travelTimeBands;
+    }
+
+    // Duration of a run leaving at this time: travelTimeMinutes times the factor of its band, rounded up.
+    public int travelTimeMinutesAt(LocalTime departureTime) {
+        if (travelTimeFactors == null) { return travelTimeMinutes; }
+        double factor = travelTimeFactors[TravelTimeBand.bucketOf(departureTime.getHour() * 60 + departureTime.getMinute())];
+        return (int) Math.ceil(travelTimeMinutes * factor);
+    }
+
+    // The shortest run duration at any time of day.
+    public int shortestTravelTimeMinutes() {
+        if (travelTimeFactors == null) { return travelTimeMinutes; }
+        double factor = travelTimeFactors[0];
+        for (double bucketFactor : travelTimeFactors) { factor = Math.min(factor, bucketFactor); }
+        return (int) Math.ceil(travelTimeMinutes * factor);
+    }
+
     // toString, equals, and hashCode
     @Override
     public String toString() {
@@ -94,6 +122,7 @@ public class BusRoute {
                ", stopIds=" + stopIds +
                ", totalDistanceKm=" + totalDistanceKm +
                ", travelTimeMinutes=" + travelTimeMinutes +
+               ", travelTimeBands=" + travelTimeBands +
                '}';
     }
 
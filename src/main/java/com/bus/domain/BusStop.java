@@ -5,9 +5,8 @@ import java.util.Objects;
 public class BusStop {
     private String id;
     private String name;
-    // We can add coordinates later if needed for distance calculations
-    // private double latitude;
-    // private double longitude;
+    private Double latitude;  // WGS84 degrees; optional, see TravelMatrix
+    private Double longitude;
 
     // Constructors
     public BusStop() {
@@ -35,6 +34,26 @@ public class BusStop {
         this.name = name;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
     // toString, equals, and hashCode
     @Override
     public String toString() {
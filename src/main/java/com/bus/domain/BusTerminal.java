@@ -1,8 +1,9 @@
 package com.bus.domain;
 
+import java.util.Objects;
+
 public class BusTerminal extends BusStop {
-    // Terminals might have specific properties in the future,
-    // for now, it's mainly a type distinction.
+    private boolean hasChargingStation; // Buses waiting here can top up (partial charging only)
 
     public BusTerminal() {
         super();
@@ -12,14 +13,34 @@ public class BusTerminal extends BusStop {
         super(id, name);
     }
 
+    public boolean isHasChargingStation() {
+        return hasChargingStation;
+    }
+
+    public void setHasChargingStation(boolean hasChargingStation) {
+        this.hasChargingStation = hasChargingStation;
+    }
+
     @Override
     public String toString() {
         return "BusTerminal{" +
                "id='" + getId() + '\'' +
                ", name='" + getName() + '\'' +
+               ", hasChargingStation=" + hasChargingStation +
                '}';
     }
-    // Equals and hashCode are inherited from BusStop and should work fine
-    // if based on 'id'. If we add terminal-specific fields that affect equality,
-    // we'd need to override them here.
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false; // Checks id from BusStop
+        BusTerminal busTerminal = (BusTerminal) o;
+        return hasChargingStation == busTerminal.hasChargingStation;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), hasChargingStation);
+    }
+}
@@ -0,0 +1,48 @@
+package com.bus.domain;
+
+import java.util.List;
+
+/**
+ * One step of a bus's charge curve: from this state of charge (percent of its range) up to the
+ * next step, the bus gains kmPerMinute of range per minute on a charger. Batteries charge slower
+ * as they fill, so later steps usually have lower rates. The first step starts at 0%.
+ */
+public class ChargeRate {
+
+    private int fromPercent;
+    private double kmPerMinute;
+
+    public ChargeRate() {}
+
+    public ChargeRate(int fromPercent, double kmPerMinute) {
+        this.fromPercent = fromPercent;
+        this.kmPerMinute = kmPerMinute;
+    }
+
+    public int getFromPercent() { return fromPercent; }
+    public void setFromPercent(int fromPercent) { this.fromPercent = fromPercent; }
+
+    public double getKmPerMinute() { return kmPerMinute; }
+    public void setKmPerMinute(double kmPerMinute) { this.kmPerMinute = kmPerMinute; }
+
+    // Throws IllegalArgumentException unless the steps start at 0%, rise below 100% and all charge.
+    static void validate(List<ChargeRate> curve) {
+        if (curve == null || curve.isEmpty()) { return; }
+        int previousPercent = -1;
+        for (ChargeRate rate : curve) {
+            if (rate == null) { throw new IllegalArgumentException("charge curve has an empty step"); }
+            if (previousPercent < 0 ? rate.fromPercent != 0 : rate.fromPercent <= previousPercent || rate.fromPercent >= 100) {
+                throw new IllegalArgumentException("charge curve steps must start at 0% and rise below 100%, found " + rate.fromPercent + "%");
+            }
+            if (!(rate.kmPerMinute > 0 && rate.kmPerMinute < Double.POSITIVE_INFINITY)) {
+                throw new IllegalArgumentException("charge rate must be above 0 km per minute, was " + rate.kmPerMinute);
+            }
+            previousPercent = rate.fromPercent;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChargeRate{fromPercent=" + fromPercent + ", kmPerMinute=" + kmPerMinute + '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.bus.domain;
+
+// One term of a solution's score: how often a constraint is hit and what that costs.
+public class ConstraintScore {
+
+    private String constraint;      // Stable id, e.g. UNASSIGNED_RUN
+    private String description;     // e.g. "unassigned runs"
+    private int matchCount;
+    private int weight;             // Score per match (penalties are negative)
+    private int score;              // matchCount * weight
+
+    public ConstraintScore() {}
+
+    public ConstraintScore(String constraint, String description, int matchCount, int weight) {
+        this.constraint = constraint;
+        this.description = description;
+        this.matchCount = matchCount;
+        this.weight = weight;
+        this.score = matchCount * weight;
+    }
+
+    public String getConstraint() { return constraint; }
+    public void setConstraint(String constraint) { this.constraint = constraint; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public int getMatchCount() { return matchCount; }
+    public void setMatchCount(int matchCount) { this.matchCount = matchCount; }
+
+    public int getWeight() { return weight; }
+    public void setWeight(int weight) { this.weight = weight; }
+
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+
+    @Override
+    public String toString() {
+        return matchCount + " " + description + " (penalty: " + score + ").";
+    }
+}
@@ -0,0 +1,78 @@
+package com.bus.domain;
+
+import java.time.Instant;
+
+public class DataLoadStatus {
+
+    private String source;              // Data directory, or classpath:/data for the bundled files
+    private boolean watching;           // Changes in the directory are reloaded automatically
+    private int successfulLoads;        // Including the one at startup
+    private int failedReloads;          // Rejected reloads: the previous data stayed in place
+    private long startupLoadMillis;
+    private long lastLoadMillis;        // Duration of the last successful load
+    private long lastLoadPeakHeapBytes; // Highest heap use during the last successful load (whole JVM, including the data it replaced)
+    private boolean lastLoadFromSnapshot; // The last load read the binary data snapshot instead of the JSON files
+    private Instant lastLoadedAt;
+    private Instant lastFailedAt;
+    private String lastError;
+
+    public DataLoadStatus() {}
+
+    public DataLoadStatus(DataLoadStatus other) {
+        this.source = other.source;
+        this.watching = other.watching;
+        this.successfulLoads = other.successfulLoads;
+        this.failedReloads = other.failedReloads;
+        this.startupLoadMillis = other.startupLoadMillis;
+        this.lastLoadMillis = other.lastLoadMillis;
+        this.lastLoadPeakHeapBytes = other.lastLoadPeakHeapBytes;
+        this.lastLoadFromSnapshot = other.lastLoadFromSnapshot;
+        this.lastLoadedAt = other.lastLoadedAt;
+        this.lastFailedAt = other.lastFailedAt;
+        this.lastError = other.lastError;
+    }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public boolean isWatching() { return watching; }
+    public void setWatching(boolean watching) { this.watching = watching; }
+
+    public int getSuccessfulLoads() { return successfulLoads; }
+    public void setSuccessfulLoads(int successfulLoads) { this.successfulLoads = successfulLoads; }
+
+    public int getFailedReloads() { return failedReloads; }
+    public void setFailedReloads(int failedReloads) { this.failedReloads = failedReloads; }
+
+    public long getStartupLoadMillis() { return startupLoadMillis; }
+    public void setStartupLoadMillis(long startupLoadMillis) { this.startupLoadMillis = startupLoadMillis; }
+
+    public long getLastLoadMillis() { return lastLoadMillis; }
+    public void setLastLoadMillis(long lastLoadMillis) { this.lastLoadMillis = lastLoadMillis; }
+
+    public long getLastLoadPeakHeapBytes() { return lastLoadPeakHeapBytes; }
+    public void setLastLoadPeakHeapBytes(long lastLoadPeakHeapBytes) { this.lastLoadPeakHeapBytes = lastLoadPeakHeapBytes; }
+
+    public boolean isLastLoadFromSnapshot() { return lastLoadFromSnapshot; }
+    public void setLastLoadFromSnapshot(boolean lastLoadFromSnapshot) { this.lastLoadFromSnapshot = lastLoadFromSnapshot; }
+
+    public Instant getLastLoadedAt() { return lastLoadedAt; }
+    public void setLastLoadedAt(Instant lastLoadedAt) { this.lastLoadedAt = lastLoadedAt; }
+
+    public Instant getLastFailedAt() { return lastFailedAt; }
+    public void setLastFailedAt(Instant lastFailedAt) { this.lastFailedAt = lastFailedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    @Override
+    public String toString() {
+        return "DataLoadStatus{" +
+               "source='" + source + '\'' +
+               ", successfulLoads=" + successfulLoads +
+               ", failedReloads=" + failedReloads +
+               ", lastLoadMillis=" + lastLoadMillis +
+               ", lastLoadPeakHeapBytes=" + lastLoadPeakHeapBytes +
+               '}';
+    }
+}
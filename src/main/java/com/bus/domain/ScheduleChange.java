@@ -0,0 +1,90 @@
+package com.bus.domain;
+
+import java.time.LocalTime;
+
+// One disruption applied to a finished schedule, see POST /api/schedule/jobs/{jobId}/changes.
+public class ScheduleChange {
+
+    public enum Type {
+        BUS_UNAVAILABLE,    // busId, optional fromTime (whole day if missing)
+        DRIVER_UNAVAILABLE, // driverId, optional fromTime (whole day if missing)
+        RUN_ADDED,          // busRouteId, departureTime, optional runId
+        RUN_REMOVED         // runId
+    }
+
+    private Type type;
+    private String busId;
+    private String driverId;
+    private LocalTime fromTime; // Runs arriving after this lose the resource
+    private String runId;
+    private String busRouteId;
+    private LocalTime departureTime;
+
+    public ScheduleChange() {}
+
+    public ScheduleChange(Type type) {
+        this.type = type;
+    }
+
+    public static ScheduleChange busUnavailable(String busId, LocalTime fromTime) {
+        ScheduleChange change = new ScheduleChange(Type.BUS_UNAVAILABLE);
+        change.setBusId(busId);
+        change.setFromTime(fromTime);
+        return change;
+    }
+
+    public static ScheduleChange driverUnavailable(String driverId, LocalTime fromTime) {
+        ScheduleChange change = new ScheduleChange(Type.DRIVER_UNAVAILABLE);
+        change.setDriverId(driverId);
+        change.setFromTime(fromTime);
+        return change;
+    }
+
+    public static ScheduleChange runAdded(String runId, String busRouteId, LocalTime departureTime) {
+        ScheduleChange change = new ScheduleChange(Type.RUN_ADDED);
+        change.setRunId(runId);
+        change.setBusRouteId(busRouteId);
+        change.setDepartureTime(departureTime);
+        return change;
+    }
+
+    public static ScheduleChange runRemoved(String runId) {
+        ScheduleChange change = new ScheduleChange(Type.RUN_REMOVED);
+        change.setRunId(runId);
+        return change;
+    }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getBusId() { return busId; }
+    public void setBusId(String busId) { this.busId = busId; }
+
+    public String getDriverId() { return driverId; }
+    public void setDriverId(String driverId) { this.driverId = driverId; }
+
+    public LocalTime getFromTime() { return fromTime; }
+    public void setFromTime(LocalTime fromTime) { this.fromTime = fromTime; }
+
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
+
+    public String getBusRouteId() { return busRouteId; }
+    public void setBusRouteId(String busRouteId) { this.busRouteId = busRouteId; }
+
+    public LocalTime getDepartureTime() { return departureTime; }
+    public void setDepartureTime(LocalTime departureTime) { this.departureTime = departureTime; }
+
+    @Override
+    public String toString() {
+        return "ScheduleChange{" +
+               "type=" + type +
+               ", busId='" + busId + '\'' +
+               ", driverId='" + driverId + '\'' +
+               ", fromTime=" + fromTime +
+               ", runId='" + runId + '\'' +
+               ", busRouteId='" + busRouteId + '\'' +
+               ", departureTime=" + departureTime +
+               '}';
+    }
+}
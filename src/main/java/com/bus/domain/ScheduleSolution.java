@@ -9,11 +9,18 @@ public class ScheduleSolution {
     private String scoreExplanation;
     private int unassignedRunCount;
     private int totalBusesUsedCount;
-    private List<ActivityLogEntry> activityLog; // NEW: For detailed activity timeline
+    private Integer minimumFleetSize; // Fewest buses that can cover the runs, with SolverConfig.minimumFleet; null otherwise
+    private Integer horizonDay; // Day of a multi-day solve, from 1 (POST /api/schedule/horizon); null for a single day
+    private List<ActivityLogEntry> activityLog; // NEW: For detailed activity timeline (columnar ActivityLog, reads as entries)
+    private List<ConstraintScore> scoreBreakdown; // Per-constraint terms that add up to score
+    private String solutionId;     // Id in the solution history (/api/solutions), null if not stored
+    private String datasetVersion; // Version of the data it was solved from, null for data passed in directly
+    private SolverConfig solverConfig; // Rules and weights it was solved with
 
     public ScheduleSolution() {
         this.assignedRouteRuns = new ArrayList<>();
-        this.activityLog = new ArrayList<>(); // Initialize
+        this.activityLog = new ActivityLog(); // Initialize
+        this.scoreBreakdown = new ArrayList<>();
         this.score = 0;
         this.scoreExplanation = "Not yet scored.";
         this.unassignedRunCount = 0;
@@ -22,10 +29,11 @@ public class ScheduleSolution {
 
     public ScheduleSolution(List<RouteRun> processedRuns) {
         this.assignedRouteRuns = processedRuns;
-        this.activityLog = new ArrayList<>(); // Initialize
+        this.activityLog = new ActivityLog(); // Initialize
+        this.scoreBreakdown = new ArrayList<>();
         this.score = 0;
         this.scoreExplanation = "Not yet scored.";
-        // unassignedRunCount and totalBusesUsedCount will be set by calculateScore
+        // unassignedRunCount and totalBusesUsedCount will be set by SchedulingService.applyScore
     }
 
     // Getters and Setters for existing fields
@@ -35,6 +43,9 @@ public class ScheduleSolution {
     public int getScore() { return score; }
     public void setScore(int score) { this.score = score; }
 
+    public List<ConstraintScore> getScoreBreakdown() { return scoreBreakdown; }
+    public void setScoreBreakdown(List<ConstraintScore> scoreBreakdown) { this.scoreBreakdown = scoreBreakdown; }
+
     public String getScoreExplanation() { return scoreExplanation; }
     public void setScoreExplanation(String scoreExplanation) { this.scoreExplanation = scoreExplanation; }
 
@@ -44,6 +55,21 @@ public class ScheduleSolution {
     public int getTotalBusesUsedCount() { return totalBusesUsedCount; }
     public void setTotalBusesUsedCount(int totalBusesUsedCount) { this.totalBusesUsedCount = totalBusesUsedCount; }
 
+    public Integer getMinimumFleetSize() { return minimumFleetSize; }
+    public void setMinimumFleetSize(Integer minimumFleetSize) { this.minimumFleetSize = minimumFleetSize; }
+
+    public Integer getHorizonDay() { return horizonDay; }
+    public void setHorizonDay(Integer horizonDay) { this.horizonDay = horizonDay; }
+
+    public String getSolutionId() { return solutionId; }
+    public void setSolutionId(String solutionId) { this.solutionId = solutionId; }
+
+    public String getDatasetVersion() { return datasetVersion; }
+    public void setDatasetVersion(String datasetVersion) { this.datasetVersion = datasetVersion; }
+
+    public SolverConfig getSolverConfig() { return solverConfig; }
+    public void setSolverConfig(SolverConfig solverConfig) { this.solverConfig = solverConfig; }
+
     // Getter and Setter for activityLog (NEW)
     public List<ActivityLogEntry> getActivityLog() { return activityLog; }
     public void setActivityLog(List<ActivityLogEntry> activityLog) { this.activityLog = activityLog; }
@@ -51,11 +77,27 @@ public class ScheduleSolution {
     // Convenience method to add a single log entry
     public void addActivityLogEntry(ActivityLogEntry entry) {
         if (this.activityLog == null) {
-            this.activityLog = new ArrayList<>();
+            this.activityLog = new ActivityLog();
         }
         this.activityLog.add(entry);
     }
 
+    // Shallow copy with an empty activity log, for clients that page through the log separately.
+    public ScheduleSolution withoutActivityLog() {
+        ScheduleSolution copy = new ScheduleSolution(assignedRouteRuns);
+        copy.score = score;
+        copy.scoreExplanation = scoreExplanation;
+        copy.unassignedRunCount = unassignedRunCount;
+        copy.totalBusesUsedCount = totalBusesUsedCount;
+        copy.minimumFleetSize = minimumFleetSize;
+        copy.horizonDay = horizonDay;
+        copy.scoreBreakdown = scoreBreakdown;
+        copy.solutionId = solutionId;
+        copy.datasetVersion = datasetVersion;
+        copy.solverConfig = solverConfig;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "ScheduleSolution{" +
@@ -0,0 +1,81 @@
+package com.bus.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One message pushed over the schedule websocket while a solve job runs.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ScheduleStreamMessage {
+
+    public enum Type {
+        BATCH,      // Runs processed and activities logged since the previous batch
+        COMPLETED,  // Final score; the full solution stays available from /api/schedule/jobs/{id}/result
+        FAILED,
+        CANCELLED,
+        ERROR       // Subscription problem, e.g. unknown job id
+    }
+
+    private Type type;
+    private String jobId;
+    private long sequence;          // Increases by one per message on a job's channel
+    private int runsProcessed;
+    private int totalRuns;
+    private int currentScore;
+    private List<RouteRun> runs = new ArrayList<>();
+    private List<ActivityLogEntry> activities = new ArrayList<>();
+
+    // Only set on the final message
+    private Integer score;
+    private String scoreExplanation;
+    private Integer unassignedRunCount;
+    private Integer totalBusesUsedCount;
+    private String errorMessage;
+
+    public ScheduleStreamMessage() {}
+
+    public ScheduleStreamMessage(Type type, String jobId) {
+        this.type = type;
+        this.jobId = jobId;
+    }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+
+    public int getRunsProcessed() { return runsProcessed; }
+    public void setRunsProcessed(int runsProcessed) { this.runsProcessed = runsProcessed; }
+
+    public int getTotalRuns() { return totalRuns; }
+    public void setTotalRuns(int totalRuns) { this.totalRuns = totalRuns; }
+
+    public int getCurrentScore() { return currentScore; }
+    public void setCurrentScore(int currentScore) { this.currentScore = currentScore; }
+
+    public List<RouteRun> getRuns() { return runs; }
+    public void setRuns(List<RouteRun> runs) { this.runs = runs; }
+
+    public List<ActivityLogEntry> getActivities() { return activities; }
+    public void setActivities(List<ActivityLogEntry> activities) { this.activities = activities; }
+
+    public Integer getScore() { return score; }
+    public void setScore(Integer score) { this.score = score; }
+
+    public String getScoreExplanation() { return scoreExplanation; }
+    public void setScoreExplanation(String scoreExplanation) { this.scoreExplanation = scoreExplanation; }
+
+    public Integer getUnassignedRunCount() { return unassignedRunCount; }
+    public void setUnassignedRunCount(Integer unassignedRunCount) { this.unassignedRunCount = unassignedRunCount; }
+
+    public Integer getTotalBusesUsedCount() { return totalBusesUsedCount; }
+    public void setTotalBusesUsedCount(Integer totalBusesUsedCount) { this.totalBusesUsedCount = totalBusesUsedCount; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
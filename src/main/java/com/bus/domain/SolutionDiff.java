@@ -0,0 +1,108 @@
+package com.bus.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// What changed from one stored solution to another (GET /api/solutions/diff?from=...&to=...).
+public class SolutionDiff {
+
+    // A run whose bus or driver differs. Null ids mean unassigned.
+    public static class RunChange {
+        private String runId;
+        private String fromBusId;
+        private String toBusId;
+        private String fromDriverId;
+        private String toDriverId;
+
+        public RunChange() {}
+
+        public RunChange(String runId, String fromBusId, String toBusId, String fromDriverId, String toDriverId) {
+            this.runId = runId;
+            this.fromBusId = fromBusId;
+            this.toBusId = toBusId;
+            this.fromDriverId = fromDriverId;
+            this.toDriverId = toDriverId;
+        }
+
+        public String getRunId() { return runId; }
+        public void setRunId(String runId) { this.runId = runId; }
+        public String getFromBusId() { return fromBusId; }
+        public void setFromBusId(String fromBusId) { this.fromBusId = fromBusId; }
+        public String getToBusId() { return toBusId; }
+        public void setToBusId(String toBusId) { this.toBusId = toBusId; }
+        public String getFromDriverId() { return fromDriverId; }
+        public void setFromDriverId(String fromDriverId) { this.fromDriverId = fromDriverId; }
+        public String getToDriverId() { return toDriverId; }
+        public void setToDriverId(String toDriverId) { this.toDriverId = toDriverId; }
+    }
+
+    // The runs a bus or driver gained and lost between the two solutions.
+    public static class ResourceChange {
+        private String id;
+        private List<String> runsGained = new ArrayList<>();
+        private List<String> runsLost = new ArrayList<>();
+
+        public ResourceChange() {}
+
+        public ResourceChange(String id) {
+            this.id = id;
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public List<String> getRunsGained() { return runsGained; }
+        public void setRunsGained(List<String> runsGained) { this.runsGained = runsGained; }
+        public List<String> getRunsLost() { return runsLost; }
+        public void setRunsLost(List<String> runsLost) { this.runsLost = runsLost; }
+    }
+
+    private String fromSolutionId;
+    private String toSolutionId;
+    private boolean sameDataset;        // Both solved from the same data version
+    private int scoreChange;            // to.score - from.score
+    private List<RunChange> runChanges = new ArrayList<>();
+    private List<ResourceChange> busChanges = new ArrayList<>();
+    private List<ResourceChange> driverChanges = new ArrayList<>();
+    private List<String> runsOnlyInFrom = new ArrayList<>(); // Removed from the timetable
+    private List<String> runsOnlyInTo = new ArrayList<>();   // Added to the timetable
+
+    public SolutionDiff() {}
+
+    public String getFromSolutionId() { return fromSolutionId; }
+    public void setFromSolutionId(String fromSolutionId) { this.fromSolutionId = fromSolutionId; }
+
+    public String getToSolutionId() { return toSolutionId; }
+    public void setToSolutionId(String toSolutionId) { this.toSolutionId = toSolutionId; }
+
+    public boolean isSameDataset() { return sameDataset; }
+    public void setSameDataset(boolean sameDataset) { this.sameDataset = sameDataset; }
+
+    public int getScoreChange() { return scoreChange; }
+    public void setScoreChange(int scoreChange) { this.scoreChange = scoreChange; }
+
+    public List<RunChange> getRunChanges() { return runChanges; }
+    public void setRunChanges(List<RunChange> runChanges) { this.runChanges = runChanges; }
+
+    public List<ResourceChange> getBusChanges() { return busChanges; }
+    public void setBusChanges(List<ResourceChange> busChanges) { this.busChanges = busChanges; }
+
+    public List<ResourceChange> getDriverChanges() { return driverChanges; }
+    public void setDriverChanges(List<ResourceChange> driverChanges) { this.driverChanges = driverChanges; }
+
+    public List<String> getRunsOnlyInFrom() { return runsOnlyInFrom; }
+    public void setRunsOnlyInFrom(List<String> runsOnlyInFrom) { this.runsOnlyInFrom = runsOnlyInFrom; }
+
+    public List<String> getRunsOnlyInTo() { return runsOnlyInTo; }
+    public void setRunsOnlyInTo(List<String> runsOnlyInTo) { this.runsOnlyInTo = runsOnlyInTo; }
+
+    @Override
+    public String toString() {
+        return "SolutionDiff{" +
+               "fromSolutionId='" + fromSolutionId + '\'' +
+               ", toSolutionId='" + toSolutionId + '\'' +
+               ", runChanges=" + runChanges.size() +
+               ", busChanges=" + busChanges.size() +
+               ", driverChanges=" + driverChanges.size() +
+               '}';
+    }
+}
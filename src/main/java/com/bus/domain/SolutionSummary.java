@@ -0,0 +1,92 @@
+package com.bus.domain;
+
+import java.time.Instant;
+import java.util.List;
+
+// One entry of the solution history (GET /api/solutions): everything but the runs and the activity log.
+public class SolutionSummary {
+
+    public enum Origin {
+        SOLVE,   // POST /api/schedule/solve
+        JOB,     // Background solve job; the solution id is the job id
+        CHANGES, // Changes applied to an earlier solution, see basedOnSolutionId
+        HORIZON  // One day of POST /api/schedule/horizon; basedOnSolutionId is the day before
+    }
+
+    private String solutionId;
+    private Origin origin;
+    private String basedOnSolutionId;
+    private Instant savedAt;
+    private String datasetVersion;
+    private int score;
+    private String scoreExplanation;
+    private List<ConstraintScore> scoreBreakdown;
+    private int runCount;
+    private int unassignedRunCount;
+    private int totalBusesUsedCount;
+    private int activityLogSize;
+
+    public SolutionSummary() {}
+
+    public SolutionSummary(String solutionId, Origin origin, String basedOnSolutionId, ScheduleSolution solution) {
+        this.solutionId = solutionId;
+        this.origin = origin;
+        this.basedOnSolutionId = basedOnSolutionId;
+        this.savedAt = Instant.now();
+        this.datasetVersion = solution.getDatasetVersion();
+        this.score = solution.getScore();
+        this.scoreExplanation = solution.getScoreExplanation();
+        this.scoreBreakdown = solution.getScoreBreakdown();
+        this.runCount = solution.getAssignedRouteRuns() == null ? 0 : solution.getAssignedRouteRuns().size();
+        this.unassignedRunCount = solution.getUnassignedRunCount();
+        this.totalBusesUsedCount = solution.getTotalBusesUsedCount();
+        this.activityLogSize = solution.getActivityLog() == null ? 0 : solution.getActivityLog().size();
+    }
+
+    public String getSolutionId() { return solutionId; }
+    public void setSolutionId(String solutionId) { this.solutionId = solutionId; }
+
+    public Origin getOrigin() { return origin; }
+    public void setOrigin(Origin origin) { this.origin = origin; }
+
+    public String getBasedOnSolutionId() { return basedOnSolutionId; }
+    public void setBasedOnSolutionId(String basedOnSolutionId) { this.basedOnSolutionId = basedOnSolutionId; }
+
+    public Instant getSavedAt() { return savedAt; }
+    public void setSavedAt(Instant savedAt) { this.savedAt = savedAt; }
+
+    public String getDatasetVersion() { return datasetVersion; }
+    public void setDatasetVersion(String datasetVersion) { this.datasetVersion = datasetVersion; }
+
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+
+    public String getScoreExplanation() { return scoreExplanation; }
+    public void setScoreExplanation(String scoreExplanation) { this.scoreExplanation = scoreExplanation; }
+
+    public List<ConstraintScore> getScoreBreakdown() { return scoreBreakdown; }
+    public void setScoreBreakdown(List<ConstraintScore> scoreBreakdown) { this.scoreBreakdown = scoreBreakdown; }
+
+    public int getRunCount() { return runCount; }
+    public void setRunCount(int runCount) { this.runCount = runCount; }
+
+    public int getUnassignedRunCount() { return unassignedRunCount; }
+    public void setUnassignedRunCount(int unassignedRunCount) { this.unassignedRunCount = unassignedRunCount; }
+
+    public int getTotalBusesUsedCount() { return totalBusesUsedCount; }
+    public void setTotalBusesUsedCount(int totalBusesUsedCount) { this.totalBusesUsedCount = totalBusesUsedCount; }
+
+    public int getActivityLogSize() { return activityLogSize; }
+    public void setActivityLogSize(int activityLogSize) { this.activityLogSize = activityLogSize; }
+
+    @Override
+    public String toString() {
+        return "SolutionSummary{" +
+               "solutionId='" + solutionId + '\'' +
+               ", origin=" + origin +
+               ", savedAt=" + savedAt +
+               ", datasetVersion='" + datasetVersion + '\'' +
+               ", score=" + score +
+               '}';
+    }
+}
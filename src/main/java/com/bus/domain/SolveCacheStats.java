@@ -0,0 +1,52 @@
+package com.bus.domain;
+
+// Counters of the solve cache behind POST /api/schedule/solve, see GET /api/schedule/cache.
+public class SolveCacheStats {
+
+    private int capacity;     // Solutions kept at most (0 = caching off)
+    private int size;         // Solutions kept now, including solves still running
+    private long hits;        // Answered with a finished solution
+    private long coalesced;   // Waited for an identical solve already running instead of starting another
+    private long misses;      // Started a solve
+    private long evictions;   // Least recently used solutions dropped to stay within capacity
+
+    public SolveCacheStats() {}
+
+    public SolveCacheStats(int capacity, int size, long hits, long coalesced, long misses, long evictions) {
+        this.capacity = capacity;
+        this.size = size;
+        this.hits = hits;
+        this.coalesced = coalesced;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getCoalesced() { return coalesced; }
+    public void setCoalesced(long coalesced) { this.coalesced = coalesced; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public long getEvictions() { return evictions; }
+    public void setEvictions(long evictions) { this.evictions = evictions; }
+
+    @Override
+    public String toString() {
+        return "SolveCacheStats{" +
+               "size=" + size + "/" + capacity +
+               ", hits=" + hits +
+               ", coalesced=" + coalesced +
+               ", misses=" + misses +
+               ", evictions=" + evictions +
+               '}';
+    }
+}
@@ -0,0 +1,81 @@
+package com.bus.domain;
+
+import java.time.Instant;
+import java.util.List;
+
+public class SolveJobStatus {
+
+    public enum State {
+        QUEUED,     // Waiting for a free solver thread
+        RUNNING,
+        COMPLETED,  // Result available from /jobs/{id}/result
+        FAILED,
+        CANCELLED
+    }
+
+    private String jobId;
+    private State state;
+    private int runsProcessed;
+    private int totalRuns;
+    private int currentScore;       // Score of the partial schedule built so far
+    private boolean cancelRequested;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String errorMessage;
+    private String basedOnJobId;    // Job whose result was changed to produce this one, if any
+    private int horizonDays;        // Days planned by a POST /api/schedule/horizon job, 0 for other jobs
+    private List<SolutionSummary> days; // Of a horizon job: the days stored so far, in order
+
+    public SolveJobStatus() {}
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public int getRunsProcessed() { return runsProcessed; }
+    public void setRunsProcessed(int runsProcessed) { this.runsProcessed = runsProcessed; }
+
+    public int getTotalRuns() { return totalRuns; }
+    public void setTotalRuns(int totalRuns) { this.totalRuns = totalRuns; }
+
+    public int getCurrentScore() { return currentScore; }
+    public void setCurrentScore(int currentScore) { this.currentScore = currentScore; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    public Instant getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(Instant submittedAt) { this.submittedAt = submittedAt; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public String getBasedOnJobId() { return basedOnJobId; }
+    public void setBasedOnJobId(String basedOnJobId) { this.basedOnJobId = basedOnJobId; }
+
+    public int getHorizonDays() { return horizonDays; }
+    public void setHorizonDays(int horizonDays) { this.horizonDays = horizonDays; }
+
+    public List<SolutionSummary> getDays() { return days; }
+    public void setDays(List<SolutionSummary> days) { this.days = days; }
+
+    @Override
+    public String toString() {
+        return "SolveJobStatus{" +
+               "jobId='" + jobId + '\'' +
+               ", state=" + state +
+               ", runsProcessed=" + runsProcessed +
+               ", totalRuns=" + totalRuns +
+               ", currentScore=" + currentScore +
+               '}';
+    }
+}
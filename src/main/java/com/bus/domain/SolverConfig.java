@@ -0,0 +1,189 @@
+package com.bus.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Engine rules and score weights of one solve. The defaults are the values the engine has always
+ * used; bus.scheduler.solver.* changes them for every solve and a request can override any of
+ * them for its own. Each solution carries the configuration it was solved with.
+ */
+public class SolverConfig {
+
+    // --- Bus movements and charging ---
+    private int depotToTerminalTravelMins = 15;
+    private int depotToTerminalDistanceKm = 5;
+    private int terminalToDepotTravelMins = 20;
+    private int terminalToDepotDistanceKm = 10;
+    private int chargingDurationMins = 120;
+    private double minChargeFractionAfterReturn = 0.20; // Below this share of its range a bus charges on returning
+    private int minimalNextRouteDistanceKm = 20;        // Charge kept for the shortest next trip, beyond the depot run
+    private boolean partialCharging = false;            // Top up at any charger while idle, along each bus's charge curve, instead of full charges
+
+    // --- Deadheads between stops with coordinates (see TravelMatrix); the fixed values above apply to the others ---
+    private int deadheadSpeedKmh = 25;
+    private double roadDistanceFactor = 1.3;            // Road distance per km as the crow flies
+    private boolean repositionBuses = false;            // Buses parked away from their home depot may drive to any start terminal
+
+    // --- Driver working time ---
+    private int maxContinuousDrivingMins = 4 * 60;
+    private int mandatoryBreakMins = 30;
+    private int maxDrivingMinsPerDay = 10 * 60;
+    private int maxDrivingMinsPerWeek = 56 * 60;        // Counts the driving carried over from earlier days (see MultiDaySolve)
+    private int breakResetWaitMins = 15;                // A wait this long resets the continuous driving time
+    private int driverTravelBetweenTerminalsMins = 15;
+
+    // --- Construction ---
+    private boolean twoPhaseConstruction = false;       // Bus blocks for all runs first, then cut into driver duties (see TwoPhaseConstruction)
+    private boolean minimumFleet = false;               // Two-phase, with the bus blocks planned on the fewest buses (see MinimumFleetBlocks)
+
+    // --- Score weights, per match (penalties are negative) ---
+    private int unassignedRunWeight = -1000;
+    private int busUsedWeight = -100;
+
+    public SolverConfig() {}
+
+    public SolverConfig(SolverConfig other) {
+        this.depotToTerminalTravelMins = other.depotToTerminalTravelMins;
+        this.depotToTerminalDistanceKm = other.depotToTerminalDistanceKm;
+        this.terminalToDepotTravelMins = other.terminalToDepotTravelMins;
+        this.terminalToDepotDistanceKm = other.terminalToDepotDistanceKm;
+        this.chargingDurationMins = other.chargingDurationMins;
+        this.minChargeFractionAfterReturn = other.minChargeFractionAfterReturn;
+        this.minimalNextRouteDistanceKm = other.minimalNextRouteDistanceKm;
+        this.partialCharging = other.partialCharging;
+        this.deadheadSpeedKmh = other.deadheadSpeedKmh;
+        this.roadDistanceFactor = other.roadDistanceFactor;
+        this.repositionBuses = other.repositionBuses;
+        this.maxContinuousDrivingMins = other.maxContinuousDrivingMins;
+        this.mandatoryBreakMins = other.mandatoryBreakMins;
+        this.maxDrivingMinsPerDay = other.maxDrivingMinsPerDay;
+        this.maxDrivingMinsPerWeek = other.maxDrivingMinsPerWeek;
+        this.breakResetWaitMins = other.breakResetWaitMins;
+        this.driverTravelBetweenTerminalsMins = other.driverTravelBetweenTerminalsMins;
+        this.twoPhaseConstruction = other.twoPhaseConstruction;
+        this.minimumFleet = other.minimumFleet;
+        this.unassignedRunWeight = other.unassignedRunWeight;
+        this.busUsedWeight = other.busUsedWeight;
+    }
+
+    // Every rule this configuration breaks; empty if it can be solved with.
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        notNegative(errors, "depotToTerminalTravelMins", depotToTerminalTravelMins);
+        notNegative(errors, "depotToTerminalDistanceKm", depotToTerminalDistanceKm);
+        notNegative(errors, "terminalToDepotTravelMins", terminalToDepotTravelMins);
+        notNegative(errors, "terminalToDepotDistanceKm", terminalToDepotDistanceKm);
+        notNegative(errors, "chargingDurationMins", chargingDurationMins);
+        if (!(minChargeFractionAfterReturn >= 0 && minChargeFractionAfterReturn <= 1)) {
+            errors.add("minChargeFractionAfterReturn must be between 0 and 1, was " + minChargeFractionAfterReturn);
+        }
+        notNegative(errors, "minimalNextRouteDistanceKm", minimalNextRouteDistanceKm);
+        if (deadheadSpeedKmh < 1) { errors.add("deadheadSpeedKmh must be at least 1, was " + deadheadSpeedKmh); }
+        if (!(roadDistanceFactor >= 1 && roadDistanceFactor <= 10)) { errors.add("roadDistanceFactor must be between 1 and 10, was " + roadDistanceFactor); }
+        if (maxContinuousDrivingMins < 1) { errors.add("maxContinuousDrivingMins must be at least 1, was " + maxContinuousDrivingMins); }
+        notNegative(errors, "mandatoryBreakMins", mandatoryBreakMins);
+        if (maxDrivingMinsPerDay < 1) { errors.add("maxDrivingMinsPerDay must be at least 1, was " + maxDrivingMinsPerDay); }
+        if (maxDrivingMinsPerWeek < 1) { errors.add("maxDrivingMinsPerWeek must be at least 1, was " + maxDrivingMinsPerWeek); }
+        notNegative(errors, "breakResetWaitMins", breakResetWaitMins);
+        notNegative(errors, "driverTravelBetweenTerminalsMins", driverTravelBetweenTerminalsMins);
+        if (unassignedRunWeight > 0) { errors.add("unassignedRunWeight is a penalty and must not be positive, was " + unassignedRunWeight); }
+        if (busUsedWeight > 0) { errors.add("busUsedWeight is a penalty and must not be positive, was " + busUsedWeight); }
+        return errors;
+    }
+
+    private static void notNegative(List<String> errors, String name, int value) {
+        if (value < 0) { errors.add(name + " must not be negative, was " + value); }
+    }
+
+    public int getDepotToTerminalTravelMins() { return depotToTerminalTravelMins; }
+    public void setDepotToTerminalTravelMins(int depotToTerminalTravelMins) { this.depotToTerminalTravelMins = depotToTerminalTravelMins; }
+
+    public int getDepotToTerminalDistanceKm() { return depotToTerminalDistanceKm; }
+    public void setDepotToTerminalDistanceKm(int depotToTerminalDistanceKm) { this.depotToTerminalDistanceKm = depotToTerminalDistanceKm; }
+
+    public int getTerminalToDepotTravelMins() { return terminalToDepotTravelMins; }
+    public void setTerminalToDepotTravelMins(int terminalToDepotTravelMins) { this.terminalToDepotTravelMins = terminalToDepotTravelMins; }
+
+    public int getTerminalToDepotDistanceKm() { return terminalToDepotDistanceKm; }
+    public void setTerminalToDepotDistanceKm(int terminalToDepotDistanceKm) { this.terminalToDepotDistanceKm = terminalToDepotDistanceKm; }
+
+    public int getChargingDurationMins() { return chargingDurationMins; }
+    public void setChargingDurationMins(int chargingDurationMins) { this.chargingDurationMins = chargingDurationMins; }
+
+    public double getMinChargeFractionAfterReturn() { return minChargeFractionAfterReturn; }
+    public void setMinChargeFractionAfterReturn(double minChargeFractionAfterReturn) { this.minChargeFractionAfterReturn = minChargeFractionAfterReturn; }
+
+    public int getMinimalNextRouteDistanceKm() { return minimalNextRouteDistanceKm; }
+    public void setMinimalNextRouteDistanceKm(int minimalNextRouteDistanceKm) { this.minimalNextRouteDistanceKm = minimalNextRouteDistanceKm; }
+
+    public boolean isPartialCharging() { return partialCharging; }
+    public void setPartialCharging(boolean partialCharging) { this.partialCharging = partialCharging; }
+
+    public int getDeadheadSpeedKmh() { return deadheadSpeedKmh; }
+    public void setDeadheadSpeedKmh(int deadheadSpeedKmh) { this.deadheadSpeedKmh = deadheadSpeedKmh; }
+
+    public double getRoadDistanceFactor() { return roadDistanceFactor; }
+    public void setRoadDistanceFactor(double roadDistanceFactor) { this.roadDistanceFactor = roadDistanceFactor; }
+
+    public boolean isRepositionBuses() { return repositionBuses; }
+    public void setRepositionBuses(boolean repositionBuses) { this.repositionBuses = repositionBuses; }
+
+    public int getMaxContinuousDrivingMins() { return maxContinuousDrivingMins; }
+    public void setMaxContinuousDrivingMins(int maxContinuousDrivingMins) { this.maxContinuousDrivingMins = maxContinuousDrivingMins; }
+
+    public int getMandatoryBreakMins() { return mandatoryBreakMins; }
+    public void setMandatoryBreakMins(int mandatoryBreakMins) { this.mandatoryBreakMins = mandatoryBreakMins; }
+
+    public int getMaxDrivingMinsPerDay() { return maxDrivingMinsPerDay; }
+    public void setMaxDrivingMinsPerDay(int maxDrivingMinsPerDay) { this.maxDrivingMinsPerDay = maxDrivingMinsPerDay; }
+
+    public int getMaxDrivingMinsPerWeek() { return maxDrivingMinsPerWeek; }
+    public void setMaxDrivingMinsPerWeek(int maxDrivingMinsPerWeek) { this.maxDrivingMinsPerWeek = maxDrivingMinsPerWeek; }
+
+    public int getBreakResetWaitMins() { return breakResetWaitMins; }
+    public void setBreakResetWaitMins(int breakResetWaitMins) { this.breakResetWaitMins = breakResetWaitMins; }
+
+    public int getDriverTravelBetweenTerminalsMins() { return driverTravelBetweenTerminalsMins; }
+    public void setDriverTravelBetweenTerminalsMins(int driverTravelBetweenTerminalsMins) { this.driverTravelBetweenTerminalsMins = driverTravelBetweenTerminalsMins; }
+
+    public boolean isTwoPhaseConstruction() { return twoPhaseConstruction; }
+    public void setTwoPhaseConstruction(boolean twoPhaseConstruction) { this.twoPhaseConstruction = twoPhaseConstruction; }
+
+    public boolean isMinimumFleet() { return minimumFleet; }
+    public void setMinimumFleet(boolean minimumFleet) { this.minimumFleet = minimumFleet; }
+
+    public int getUnassignedRunWeight() { return unassignedRunWeight; }
+    public void setUnassignedRunWeight(int unassignedRunWeight) { this.unassignedRunWeight = unassignedRunWeight; }
+
+    public int getBusUsedWeight() { return busUsedWeight; }
+    public void setBusUsedWeight(int busUsedWeight) { this.busUsedWeight = busUsedWeight; }
+
+    // Lists every value: equal strings solve the same way (part of the solve cache key).
+    @Override
+    public String toString() {
+        return "SolverConfig{" +
+               "depotToTerminalTravelMins=" + depotToTerminalTravelMins +
+               ", depotToTerminalDistanceKm=" + depotToTerminalDistanceKm +
+               ", terminalToDepotTravelMins=" + terminalToDepotTravelMins +
+               ", terminalToDepotDistanceKm=" + terminalToDepotDistanceKm +
+               ", chargingDurationMins=" + chargingDurationMins +
+               ", minChargeFractionAfterReturn=" + minChargeFractionAfterReturn +
+               ", minimalNextRouteDistanceKm=" + minimalNextRouteDistanceKm +
+               ", partialCharging=" + partialCharging +
+               ", deadheadSpeedKmh=" + deadheadSpeedKmh +
+               ", roadDistanceFactor=" + roadDistanceFactor +
+               ", repositionBuses=" + repositionBuses +
+               ", maxContinuousDrivingMins=" + maxContinuousDrivingMins +
+               ", mandatoryBreakMins=" + mandatoryBreakMins +
+               ", maxDrivingMinsPerDay=" + maxDrivingMinsPerDay +
+               ", maxDrivingMinsPerWeek=" + maxDrivingMinsPerWeek +
+               ", breakResetWaitMins=" + breakResetWaitMins +
+               ", driverTravelBetweenTerminalsMins=" + driverTravelBetweenTerminalsMins +
+               ", twoPhaseConstruction=" + twoPhaseConstruction +
+               ", minimumFleet=" + minimumFleet +
+               ", unassignedRunWeight=" + unassignedRunWeight +
+               ", busUsedWeight=" + busUsedWeight +
+               '}';
+    }
+}
@@ -0,0 +1,99 @@
+package com.bus.domain;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Travel times in part of the day, as a factor on the usual time: 1.4 for a trip that takes 40%
+ * longer at peak. A band covers [from, to) and runs past midnight when to is not after from; its
+ * ends are on whole BUCKET_MINUTES. Used by BusRoute (run durations) and BusDepot (deadheads to
+ * and from the depot).
+ */
+public class TravelTimeBand {
+
+    public static final int BUCKET_MINUTES = 15;
+    static final int BUCKETS = 24 * 60 / BUCKET_MINUTES;
+
+    private LocalTime from;
+    private LocalTime to;
+    private double factor;
+
+    public TravelTimeBand() {}
+
+    public TravelTimeBand(LocalTime from, LocalTime to, double factor) {
+        this.from = from;
+        this.to = to;
+        this.factor = factor;
+    }
+
+    public LocalTime getFrom() { return from; }
+    public void setFrom(LocalTime from) { this.from = from; }
+
+    public LocalTime getTo() { return to; }
+    public void setTo(LocalTime to) { this.to = to; }
+
+    public double getFactor() { return factor; }
+    public void setFactor(double factor) { this.factor = factor; }
+
+    // The factor in each bucket of the day (1 outside the bands), or null without bands. Throws
+    // IllegalArgumentException for a band without times, off the bucket grid, with a factor
+    // outside (0, 10] or overlapping another.
+    static double[] factorsByBucket(List<TravelTimeBand> bands) {
+        if (bands == null || bands.isEmpty()) { return null; }
+        double[] factors = new double[BUCKETS];
+        for (TravelTimeBand band : bands) {
+            if (band == null || band.from == null || band.to == null) { throw new IllegalArgumentException("travel time band without from and to"); }
+            if (!(band.factor > 0 && band.factor <= 10)) { throw new IllegalArgumentException("travel time factor must be above 0 and at most 10, was " + band.factor); }
+            int first = bucketOf(band.from);
+            int last = bucketOf(band.to);
+            int bucket = first;
+            do {
+                if (factors[bucket] != 0) { throw new IllegalArgumentException("travel time band from " + band.from + " overlaps another band"); }
+                factors[bucket] = band.factor;
+                bucket = (bucket + 1) % BUCKETS;
+            } while (bucket != last);
+        }
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (factors[bucket] == 0) { factors[bucket] = 1; }
+        }
+        return factors;
+    }
+
+    private static int bucketOf(LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute();
+        if (minute % BUCKET_MINUTES != 0 || time.getSecond() != 0 || time.getNano() != 0) {
+            throw new IllegalArgumentException("travel time band boundary " + time + " is not on a whole " + BUCKET_MINUTES + " minutes");
+        }
+        return minute / BUCKET_MINUTES;
+    }
+
+    // Any minute of the service day, including the 1440 and more after midnight.
+    static int bucketOf(int minute) {
+        return Math.floorMod(minute, 24 * 60) / BUCKET_MINUTES;
+    }
+
+    // The largest factor in the table, 1 without one.
+    static double maxFactor(double[] factorsByBucket) {
+        return factorsByBucket == null ? 1 : Arrays.stream(factorsByBucket).max().orElse(1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TravelTimeBand that = (TravelTimeBand) o;
+        return Double.compare(factor, that.factor) == 0 && Objects.equals(from, that.from) && Objects.equals(to, that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, factor);
+    }
+
+    @Override
+    public String toString() {
+        return "TravelTimeBand{from=" + from + ", to=" + to + ", factor=" + factor + '}';
+    }
+}
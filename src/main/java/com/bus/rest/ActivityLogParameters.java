@@ -0,0 +1,69 @@
+package com.bus.rest;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.ActivityLogPage;
+import com.bus.domain.ScheduleSolution;
+import com.bus.service.ActivityLogService;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Query parameters of the activity log endpoints: ?entityType=BUS&entityId=B0001&from=06:00&to=10:00
+ * selects, cursor and limit page (JSON). With Accept: application/x-ndjson the selected entries
+ * are streamed instead, one per line, from the cursor to the end.
+ */
+public class ActivityLogParameters {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    @QueryParam("entityType")
+    String entityType;
+
+    @QueryParam("entityId")
+    String entityId;
+
+    @QueryParam("from")
+    String from;
+
+    @QueryParam("to")
+    String to;
+
+    @QueryParam("cursor")
+    String cursor;
+
+    @QueryParam("limit")
+    Integer limit;
+
+    ActivityLogPage page(ActivityLogService activityLogService, ScheduleSolution solution) {
+        try {
+            return activityLogService.page(solution, select(activityLogService), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    // Written straight to the response as the client reads it; nothing is buffered beyond the next few entries.
+    StreamingOutput stream(ActivityLogService activityLogService, ScheduleSolution solution) {
+        ActivityLogService.Selection selection = select(activityLogService);
+        try {
+            activityLogService.checkCursor(solution, cursor); // While an error can still be a 400
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return out -> activityLogService.write(solution, selection, cursor, out);
+    }
+
+    private ActivityLogService.Selection select(ActivityLogService activityLogService) {
+        try {
+            return activityLogService.select(entityType == null ? null : ActivityLogEntry.EntityType.valueOf(entityType),
+                    entityId, from == null ? null : LocalTime.parse(from), to == null ? null : LocalTime.parse(to));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid activity log filter: " + e.getMessage());
+        }
+    }
+}
@@ -1,21 +1,24 @@
 package com.bus.rest;
 
-import java.util.List; // Import all
-
-import com.bus.domain.Bus;
-import com.bus.domain.BusDepot;
-import com.bus.domain.BusDriver;
-import com.bus.domain.BusRoute;
-import com.bus.domain.BusStop;
-import com.bus.domain.BusTerminal;
-import com.bus.domain.RouteRun;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.bus.domain.DataLoadStatus;
 import com.bus.service.DataService;
+import com.bus.service.Dataset;
 
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 
 @Path("/api/data")
 public class DataResource {
@@ -26,49 +29,92 @@ public class DataResource {
     @GET
     @Path("/allstops") // Combined list of all stop types
     @Produces(MediaType.APPLICATION_JSON)
-    public List<BusStop> getAllBusStops() {
-        return dataService.getAllBusStops();
+    public Response getAllBusStops(@Context Request request) {
+        Dataset data = dataService.getDataset();
+        return versioned(request, data, data::busStops);
     }
 
     @GET
     @Path("/depots")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<BusDepot> getAllBusDepots() {
-        return dataService.getAllBusDepots();
+    public Response getAllBusDepots(@Context Request request) {
+        Dataset data = dataService.getDataset();
+        return versioned(request, data, data::busDepots);
     }
 
     @GET
     @Path("/terminals")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<BusTerminal> getAllBusTerminals() {
-        return dataService.getAllBusTerminals();
+    public Response getAllBusTerminals(@Context Request request) {
+        Dataset data = dataService.getDataset();
+        return versioned(request, data, data::busTerminals);
     }
 
     @GET
     @Path("/buses")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Bus> getAllBuses() {
-        return dataService.getAllBuses();
+    public Response getAllBuses(@Context Request request) {
+        Dataset data = dataService.getDataset();
+        return versioned(request, data, data::buses);
     }
 
     @GET
     @Path("/drivers")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<BusDriver> getAllBusDrivers() {
-        return dataService.getAllBusDrivers();
+    public Response getAllBusDrivers(@Context Request request) {
+        Dataset data = dataService.getDataset();
+        return versioned(request, data, data::busDrivers);
     }
 
     @GET
     @Path("/busroutes") // Route templates
     @Produces(MediaType.APPLICATION_JSON)
-    public List<BusRoute> getAllBusRoutes() {
-        return dataService.getAllBusRoutes();
+    public Response getAllBusRoutes(@Context Request request) {
+        Dataset data = dataService.getDataset();
+        return versioned(request, data, data::busRoutes);
     }
 
     @GET
     @Path("/routeruns") // The actual runs to be scheduled
     @Produces(MediaType.APPLICATION_JSON)
-    public List<RouteRun> getRouteRunsToSchedule() {
-        return dataService.getRouteRunsToSchedule();
+    public Response getRouteRunsToSchedule(@Context Request request) {
+        Dataset data = dataService.getDataset();
+        return versioned(request, data, data::routeRunsToSchedule);
+    }
+
+    // The data version is the ETag: a client sending it back in If-None-Match gets 304 Not Modified,
+    // and nothing is serialised, until the data is reloaded. no-cache makes browsers always ask.
+    // The tag is weak because the body may go out gzipped or not (quarkus.http.enable-compression),
+    // and If-None-Match compares weakly.
+    private static Response versioned(Request request, Dataset data, Supplier<List<?>> entity) {
+        EntityTag tag = new EntityTag(data.version(), true);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        return Response.ok(entity.get()).tag(tag).cacheControl(cacheControl).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    // --- Loading ---
+
+    @GET
+    @Path("/status") // Where the data comes from, load times and reload failures
+    @Produces(MediaType.APPLICATION_JSON)
+    public DataLoadStatus getLoadStatus() {
+        return dataService.getLoadStatus();
+    }
+
+    @POST
+    @Path("/reload")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response reload() {
+        try {
+            return Response.ok(dataService.reload()).build();
+        } catch (IllegalStateException e) {
+            // The files are not a valid dataset; the previous data is still in use
+            return Response.status(422).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build();
+        }
     }
-}
\ No newline at end of file
+}
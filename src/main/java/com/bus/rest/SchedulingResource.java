@@ -1,24 +1,280 @@
 package com.bus.rest;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.bus.domain.ActivityLogPage;
+import com.bus.domain.BatchJobStatus;
+import com.bus.domain.BatchSolveResult;
+import com.bus.domain.ScheduleChange;
 import com.bus.domain.ScheduleSolution;
-import com.bus.service.SchedulingService;
+import com.bus.domain.SolveCacheStats;
+import com.bus.domain.SolveJobStatus;
+import com.bus.domain.SolverConfig;
+import com.bus.service.ActivityLogService;
+import com.bus.service.BatchSolveService;
+import com.bus.service.HorizonSolveService;
+import com.bus.service.SolveCache;
+import com.bus.service.SolveJobService;
+import com.bus.service.SolverConfigService;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST; // Using POST as it might modify server state or is a complex query
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 @Path("/api/schedule")
 public class SchedulingResource {
 
     @Inject
-    SchedulingService schedulingService;
+    SolveCache solveCache;
+
+    @Inject
+    SolveJobService solveJobService;
+
+    @Inject
+    ActivityLogService activityLogService;
+
+    @Inject
+    SolverConfigService solverConfigService;
 
+    @Inject
+    BatchSolveService batchSolveService;
+
+    @Inject
+    HorizonSolveService horizonSolveService;
+
+    // The body, if any, overrides solver rules and weights for this solve: {"mandatoryBreakMins": 45}
     @POST // Or GET if you prefer and it's idempotent, but POST is safer for "actions"
     @Path("/solve")
     @Produces(MediaType.APPLICATION_JSON)
-    public ScheduleSolution solve() {
-        return schedulingService.solveSchedule();
+    public Response solve(String solverOverrides) {
+        SolverConfig config = solverConfig(solverOverrides);
+        ScheduleSolution solution = solveCache.solve(config); // Unchanged inputs get the solution already computed
+        if (solution.getSolutionId() == null) { return Response.ok(solution).build(); } // Not in the history
+        return Response.ok(solution).location(URI.create("/api/solutions/" + solution.getSolutionId())).build();
+    }
+
+    @GET
+    @Path("/cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SolveCacheStats getSolveCacheStats() {
+        return solveCache.getStats();
+    }
+
+    // The configuration a solve without overrides uses (bus.scheduler.solver.*).
+    @GET
+    @Path("/solver-config")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SolverConfig getSolverConfig() {
+        return solverConfigService.defaults();
+    }
+
+    // Queues one solve of the current data per override object and returns the batch's status at
+    // once; every configuration is checked before any solve starts. The scores are read from
+    // /batch/{id}/results while the batch runs.
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response submitBatch(List<JsonNode> solverOverrides) {
+        if (solverOverrides == null || solverOverrides.isEmpty()) { throw new BadRequestException("No solver configurations given"); }
+        if (solverOverrides.size() > batchSolveService.getQueueCapacity()) {
+            throw new BadRequestException("At most " + batchSolveService.getQueueCapacity() + " configurations per batch");
+        }
+        List<SolverConfig> configs = new ArrayList<>(solverOverrides.size());
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < solverOverrides.size(); i++) {
+            try {
+                configs.add(solverConfigService.resolve(solverOverrides.get(i)));
+            } catch (IllegalArgumentException e) {
+                errors.add("[" + i + "] " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) { throw new BadRequestException(String.join("; ", errors)); }
+        try {
+            BatchJobStatus status = batchSolveService.submit(configs);
+            return Response.accepted(status).location(URI.create("/api/schedule/batch/" + status.getBatchId())).build();
+        } catch (RejectedExecutionException e) {
+            // The queue is shared by all batches and has no room for this one yet
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).header("Retry-After", "30")
+                    .entity("Too many batch solves queued, try again later.").type(MediaType.TEXT_PLAIN).build();
+        }
+    }
+
+    @GET
+    @Path("/batch/{batchId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public BatchJobStatus getBatchStatus(@PathParam("batchId") String batchId) {
+        BatchJobStatus status = batchSolveService.getStatus(batchId);
+        if (status == null) { throw new NotFoundException("Unknown batch " + batchId); }
+        return status;
+    }
+
+    // Results of the configurations offset to offset + limit - 1 that are solved so far, in request order.
+    @GET
+    @Path("/batch/{batchId}/results")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<BatchSolveResult> getBatchResults(@PathParam("batchId") String batchId,
+                                                  @QueryParam("offset") @DefaultValue("0") int offset,
+                                                  @QueryParam("limit") @DefaultValue("100") int limit) {
+        if (offset < 0 || limit < 1 || limit > 1000) { throw new BadRequestException("offset must be 0 or more and limit 1 to 1000"); }
+        List<BatchSolveResult> results = batchSolveService.getResults(batchId, offset, limit);
+        if (results == null) { throw new NotFoundException("Unknown batch " + batchId); }
+        return results;
+    }
+
+    // Configurations not yet solved are dropped; the results so far stay readable.
+    @DELETE
+    @Path("/batch/{batchId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public BatchJobStatus cancelBatch(@PathParam("batchId") String batchId) {
+        BatchJobStatus status = batchSolveService.cancel(batchId);
+        if (status == null) { throw new NotFoundException("Unknown batch " + batchId); }
+        return status;
+    }
+
+    // Plans this many days of the timetable in a row, each starting from the bus charge and location
+    // and driver hours the day before left. Runs as a solve job: GET /jobs/{id} lists the days stored
+    // in the history so far (GET /api/solutions/{id}) and DELETE /jobs/{id} stops it.
+    // The body, if any, overrides solver rules as for /solve.
+    @POST
+    @Path("/horizon")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response solveHorizon(@QueryParam("days") @DefaultValue("7") int days, String solverOverrides) {
+        if (days < 1 || days > horizonSolveService.getMaxDays()) {
+            throw new BadRequestException("days must be between 1 and " + horizonSolveService.getMaxDays());
+        }
+        SolverConfig config = solverConfig(solverOverrides);
+        try {
+            SolveJobStatus status = solveJobService.submitHorizon(config, days);
+            return Response.accepted(status).location(URI.create("/api/schedule/jobs/" + status.getJobId())).build();
+        } catch (RejectedExecutionException e) {
+            return tooManyJobs();
+        }
+    }
+
+    // --- Asynchronous solve jobs ---
+
+    @POST
+    @Path("/jobs")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response submitJob(@QueryParam("activities") @DefaultValue("true") boolean streamActivities, String solverOverrides) {
+        SolverConfig config = solverConfig(solverOverrides); // As for /solve
+        try {
+            // activities=false leaves the activity log out of the stream; page through it once the job is done
+            SolveJobStatus status = solveJobService.submit(streamActivities, config);
+            return Response.accepted(status).location(URI.create("/api/schedule/jobs/" + status.getJobId())).build();
+        } catch (RejectedExecutionException e) {
+            return tooManyJobs();
+        }
+    }
+
+    @GET
+    @Path("/jobs/{jobId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SolveJobStatus getJobStatus(@PathParam("jobId") String jobId) {
+        return requireJob(jobId);
+    }
+
+    @GET
+    @Path("/jobs/{jobId}/result")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJobResult(@PathParam("jobId") String jobId,
+                                 @QueryParam("activityLog") @DefaultValue("true") boolean withActivityLog) {
+        SolveJobStatus status = requireJob(jobId);
+        ScheduleSolution solution = solveJobService.getResult(jobId);
+        if (solution == null) {
+            // Not finished, failed or cancelled: hand back the status so the client can tell which
+            return Response.status(Response.Status.CONFLICT).entity(status).build();
+        }
+        return Response.ok(withActivityLog ? solution : solution.withoutActivityLog()).build();
+    }
+
+    // The result's activity log, a page at a time (see ActivityLogParameters).
+    @GET
+    @Path("/jobs/{jobId}/activities")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJobActivities(@PathParam("jobId") String jobId, @BeanParam ActivityLogParameters parameters) {
+        ScheduleSolution solution = solveJobService.getResult(jobId);
+        if (solution == null) { return Response.status(Response.Status.CONFLICT).entity(requireJob(jobId)).build(); }
+        ActivityLogPage page = parameters.page(activityLogService, solution);
+        return Response.ok(page).build();
+    }
+
+    @GET
+    @Path("/jobs/{jobId}/activities")
+    @Produces(ActivityLogParameters.NDJSON)
+    public Response streamJobActivities(@PathParam("jobId") String jobId, @BeanParam ActivityLogParameters parameters) {
+        ScheduleSolution solution = solveJobService.getResult(jobId);
+        if (solution == null) {
+            return Response.status(Response.Status.CONFLICT).entity(requireJob(jobId)).type(MediaType.APPLICATION_JSON).build();
+        }
+        StreamingOutput activities = parameters.stream(activityLogService, solution);
+        return Response.ok(activities).build();
+    }
+
+    @DELETE
+    @Path("/jobs/{jobId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SolveJobStatus cancelJob(@PathParam("jobId") String jobId) {
+        SolveJobStatus status = solveJobService.cancel(jobId);
+        if (status == null) { throw new NotFoundException("Unknown solve job " + jobId); }
+        return status;
+    }
+
+    // Applies disruptions (bus breakdown, sick driver, added or removed run) to a completed job's
+    // result without re-solving from scratch; the outcome is a new completed job.
+    @POST
+    @Path("/jobs/{jobId}/changes")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response applyChanges(@PathParam("jobId") String jobId, List<ScheduleChange> changes) {
+        if (changes == null || changes.isEmpty()) { throw new BadRequestException("No schedule changes given"); }
+        SolveJobStatus status;
+        try {
+            status = solveJobService.applyChanges(jobId, changes);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(requireJob(jobId)).build();
+        }
+        if (status == null) { throw new NotFoundException("Unknown solve job " + jobId); }
+        return Response.created(URI.create("/api/schedule/jobs/" + status.getJobId())).entity(status).build();
+    }
+
+    private SolverConfig solverConfig(String solverOverrides) {
+        try {
+            return solverConfigService.resolve(solverOverrides);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    // Every solver thread is busy and the queue is full
+    private static Response tooManyJobs() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE).header("Retry-After", "5")
+                .entity("Too many solve jobs in progress, try again later.").type(MediaType.TEXT_PLAIN).build();
+    }
+
+    private SolveJobStatus requireJob(String jobId) {
+        SolveJobStatus status = solveJobService.getStatus(jobId);
+        if (status == null) { throw new NotFoundException("Unknown solve job " + jobId); }
+        return status;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.bus.rest;
+
+import java.util.List;
+
+import com.bus.domain.ActivityLogPage;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionDiff;
+import com.bus.domain.SolutionSummary;
+import com.bus.service.ActivityLogService;
+import com.bus.service.SolutionStore;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+
+// Solutions kept from earlier solves and jobs (see SolutionStore): re-open one instead of solving again.
+@Path("/api/solutions")
+public class SolutionResource {
+
+    @Inject
+    SolutionStore solutionStore;
+
+    @Inject
+    ActivityLogService activityLogService;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<SolutionSummary> getHistory() {
+        return solutionStore.history();
+    }
+
+    @GET
+    @Path("/latest")
+    @Produces(MediaType.APPLICATION_JSON)
+    public ScheduleSolution getLatest() {
+        ScheduleSolution solution = solutionStore.latest();
+        if (solution == null) { throw new NotFoundException("No stored solutions yet"); }
+        return solution;
+    }
+
+    @GET
+    @Path("/{solutionId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public ScheduleSolution getSolution(@PathParam("solutionId") String solutionId,
+                                        @QueryParam("activityLog") @DefaultValue("true") boolean withActivityLog) {
+        ScheduleSolution solution = requireSolution(solutionId);
+        return withActivityLog ? solution : solution.withoutActivityLog(); // The log can be paged through below instead
+    }
+
+    @GET
+    @Path("/{solutionId}/activities")
+    @Produces(MediaType.APPLICATION_JSON)
+    public ActivityLogPage getActivities(@PathParam("solutionId") String solutionId, @BeanParam ActivityLogParameters parameters) {
+        return parameters.page(activityLogService, requireSolution(solutionId));
+    }
+
+    @GET
+    @Path("/{solutionId}/activities")
+    @Produces(ActivityLogParameters.NDJSON)
+    public StreamingOutput streamActivities(@PathParam("solutionId") String solutionId, @BeanParam ActivityLogParameters parameters) {
+        return parameters.stream(activityLogService, requireSolution(solutionId));
+    }
+
+    @GET
+    @Path("/diff")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SolutionDiff diff(@QueryParam("from") String fromSolutionId, @QueryParam("to") String toSolutionId) {
+        if (fromSolutionId == null || toSolutionId == null) { throw new BadRequestException("Both from and to solution ids are required"); }
+        SolutionDiff diff = solutionStore.diff(fromSolutionId, toSolutionId);
+        if (diff == null) { throw new NotFoundException("Unknown solution " + fromSolutionId + " or " + toSolutionId); }
+        return diff;
+    }
+
+    private ScheduleSolution requireSolution(String solutionId) {
+        ScheduleSolution solution = solutionStore.get(solutionId);
+        if (solution == null) { throw new NotFoundException("Unknown solution " + solutionId); }
+        return solution;
+    }
+}
@@ -0,0 +1,131 @@
+package com.bus.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.ActivityLogPage;
+import com.bus.domain.ScheduleSolution;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Reads a solution's activity log a page or a stream at a time, filtered by entity and time
+ * window, so a client showing one bus or driver does not download the whole day. A cursor is the
+ * log index to carry on from: solutions are never modified, so it stays valid for as long as the
+ * solution is kept, and a client that changes its filter can keep its cursor.
+ */
+@ApplicationScoped
+public class ActivityLogService {
+
+    static final int MAX_PAGE_SIZE = 10_000;
+
+    @Inject
+    SchedulingService schedulingService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    // Entries per page when the request does not say
+    @ConfigProperty(name = "bus.scheduler.activity-log.page-size", defaultValue = "500")
+    int defaultPageSize = 500;
+
+    // Which entries to read. Times are of the service day: from 22:00 to 02:00 runs past midnight.
+    public static final class Selection {
+        final ActivityLogEntry.EntityType entityType;
+        final String entityId;
+        final int fromMinutes;
+        final int toMinutes;
+
+        private Selection(ActivityLogEntry.EntityType entityType, String entityId, int fromMinutes, int toMinutes) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.fromMinutes = fromMinutes;
+            this.toMinutes = toMinutes;
+        }
+    }
+
+    // Null arguments do not filter.
+    public Selection select(ActivityLogEntry.EntityType entityType, String entityId, LocalTime from, LocalTime to) {
+        ServiceTime clock = schedulingService.serviceTime();
+        int fromMinutes = from == null ? Integer.MIN_VALUE : clock.toMinutes(from);
+        int toMinutes = to == null ? Integer.MAX_VALUE : clock.toMinutes(to);
+        if (from != null && to != null && toMinutes <= fromMinutes) { toMinutes += ServiceTime.MINUTES_PER_DAY; } // Up to the end of the service day
+        return new Selection(entityType, entityId, fromMinutes, toMinutes);
+    }
+
+    // Throws IllegalArgumentException for a cursor that is not one of this log's.
+    public ActivityLogPage page(ScheduleSolution solution, Selection selection, String cursor, Integer limit) {
+        ActivityLog log = activityLog(solution);
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) { throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE); }
+        IntPredicate matches = filter(log, selection);
+        List<ActivityLogEntry> entries = new ArrayList<>(Math.min(pageSize, 1024));
+        int index = start(log, cursor);
+        for (; index < log.size() && entries.size() < pageSize; index++) {
+            if (matches.test(index)) { entries.add(log.get(index)); }
+        }
+        while (index < log.size() && !matches.test(index)) { index++; } // So the last page says so
+        return new ActivityLogPage(entries, index < log.size() ? Integer.toString(index) : null);
+    }
+
+    /**
+     * Writes every selected entry from the cursor on as newline-delimited JSON, one entry per
+     * line, building each only as it is written. The stream is flushed but not closed.
+     */
+    public void write(ScheduleSolution solution, Selection selection, String cursor, OutputStream out) throws IOException {
+        ActivityLog log = activityLog(solution);
+        IntPredicate matches = filter(log, selection);
+        ObjectWriter writer = objectMapper.writerFor(ActivityLogEntry.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null); // The newlines below separate entries
+        try (generator) {
+            for (int index = start(log, cursor); index < log.size(); index++) {
+                if (!matches.test(index)) { continue; }
+                writer.writeValue(generator, log.get(index));
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    // Throws IllegalArgumentException for a cursor that is not one of this log's.
+    public void checkCursor(ScheduleSolution solution, String cursor) {
+        start(activityLog(solution), cursor);
+    }
+
+    private static IntPredicate filter(ActivityLog log, Selection selection) {
+        return log.filter(selection.entityType, selection.entityId, selection.fromMinutes, selection.toMinutes);
+    }
+
+    private static int start(ActivityLog log, String cursor) {
+        if (cursor == null) { return 0; }
+        try {
+            int index = Integer.parseInt(cursor);
+            if (index >= 0 && index <= log.size()) { return index; }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor " + cursor);
+    }
+
+    // Solutions from this application always have a columnar log; anything else is converted.
+    private static ActivityLog activityLog(ScheduleSolution solution) {
+        if (solution.getActivityLog() instanceof ActivityLog log) { return log; }
+        ActivityLog log = new ActivityLog(solution.getActivityLog() == null ? 0 : solution.getActivityLog().size());
+        if (solution.getActivityLog() != null) { log.addAll(solution.getActivityLog()); }
+        return log;
+    }
+}
@@ -0,0 +1,108 @@
+package com.bus.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.bus.domain.BatchJobStatus;
+import com.bus.domain.BatchSolveResult;
+import com.bus.domain.SolveJobStatus.State;
+import com.bus.domain.SolverConfig;
+
+// One batch of solves, one per configuration. Solver threads fill in the results, REST threads read them.
+class BatchJob implements SolveListener {
+
+    private static final int WAITING = 0;
+    private static final int STARTED = 1;
+    private static final int DROPPED = 2;
+
+    final String id;
+    final Instant submittedAt = Instant.now();
+    final Dataset data; // One version for the whole batch
+    final List<SolverConfig> configs;
+    final Future<?>[] solves; // Set at submission; a cancel that finds one unset still drops its configuration
+
+    private final AtomicIntegerArray claims; // WAITING until its solve starts or the configuration is dropped
+    private final AtomicReferenceArray<BatchSolveResult> results;
+    private int pending; // Configurations neither solved nor dropped
+    private int solvedCount;
+    private int failedCount;
+    private volatile boolean cancelRequested;
+    private Instant finishedAt;
+
+    BatchJob(String id, Dataset data, List<SolverConfig> configs) {
+        this.id = id;
+        this.data = data;
+        this.configs = List.copyOf(configs);
+        this.solves = new Future<?>[configs.size()];
+        this.claims = new AtomicIntegerArray(configs.size());
+        this.results = new AtomicReferenceArray<>(configs.size());
+        this.pending = configs.size();
+    }
+
+    @Override
+    public boolean isCancelled() { return cancelRequested; }
+
+    // Called by the solve of a configuration before it starts; false if the configuration was dropped.
+    boolean start(int index) {
+        return claims.compareAndSet(index, WAITING, STARTED);
+    }
+
+    synchronized void solved(BatchSolveResult result) {
+        results.set(result.getIndex(), result);
+        solvedCount++;
+        if (result.getError() != null) { failedCount++; }
+        done();
+    }
+
+    // A configuration that will not be solved: cancelled while queued or while solving.
+    synchronized void dropped() {
+        done();
+    }
+
+    // Queued configurations are dropped on the spot; running solves stop at the next run they look at.
+    // The dropped ones' futures are cancelled, so purging the executor frees their places in its queue.
+    void requestCancel() {
+        cancelRequested = true;
+        for (int i = 0; i < solves.length; i++) {
+            if (!claims.compareAndSet(i, WAITING, DROPPED)) { continue; }
+            dropped();
+            if (solves[i] != null) { solves[i].cancel(false); }
+        }
+    }
+
+    synchronized boolean isFinished() {
+        return pending == 0;
+    }
+
+    // The results of configurations [offset, offset + limit) solved so far, in request order.
+    List<BatchSolveResult> results(int offset, int limit) {
+        List<BatchSolveResult> page = new ArrayList<>();
+        int end = (int) Math.min(configs.size(), (long) offset + limit);
+        for (int i = Math.max(0, offset); i < end; i++) {
+            BatchSolveResult result = results.get(i);
+            if (result != null) { page.add(result); }
+        }
+        return page;
+    }
+
+    synchronized BatchJobStatus toStatus() {
+        BatchJobStatus status = new BatchJobStatus();
+        status.setBatchId(id);
+        status.setState(pending > 0 ? State.RUNNING : solvedCount < configs.size() ? State.CANCELLED : State.COMPLETED);
+        status.setConfigCount(configs.size());
+        status.setSolvedCount(solvedCount);
+        status.setFailedCount(failedCount);
+        status.setCancelRequested(cancelRequested);
+        status.setSubmittedAt(submittedAt);
+        status.setFinishedAt(finishedAt);
+        return status;
+    }
+
+    private void done() {
+        if (--pending == 0) { finishedAt = Instant.now(); }
+    }
+}
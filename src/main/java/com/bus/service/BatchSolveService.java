@@ -0,0 +1,180 @@
+package com.bus.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.BatchJobStatus;
+import com.bus.domain.BatchSolveResult;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Solves the current data once per configuration, for comparing rules or weights side by side.
+ * A batch is a background job: submit() returns at once and the results are read a page at a
+ * time while the batch runs. Every solve of a batch reads the same Dataset (loaded once, never
+ * copied), and only a summary of each solution is kept, so a sweep over thousands of
+ * configurations costs one dataset, the solves running at that moment and a small result each.
+ * The solutions are not stored in the history; solve the chosen configuration on its own for that.
+ *
+ * Configurations of every batch share one pool of parallelism threads and wait in one bounded
+ * queue; a batch that does not fit in what is left of the queue is turned away whole, with
+ * RejectedExecutionException, and the caller should retry later.
+ *
+ * The batch itself is the parallelism: each solve keeps to its own thread, with the network's
+ * parts solved one after another and a single local search (see
+ * SchedulingService.solveSingleThreaded), so parallelism solves use about as many cores. With
+ * local search enabled a result can therefore differ from solving the configuration on its own.
+ */
+@ApplicationScoped
+public class BatchSolveService {
+
+    @Inject
+    DataService dataService;
+
+    @Inject
+    SchedulingService schedulingService;
+
+    // Solves running at once, over all batches; 0 = one per core
+    @ConfigProperty(name = "bus.scheduler.batch.parallelism", defaultValue = "0")
+    int parallelism;
+
+    // Configurations waiting for a solver thread, over all batches; also the largest batch accepted
+    @ConfigProperty(name = "bus.scheduler.batch.queue-capacity", defaultValue = "10000")
+    int queueCapacity = 10000;
+
+    // Finished batches kept for their results
+    @ConfigProperty(name = "bus.scheduler.batch.retained-finished-batches", defaultValue = "20")
+    int retainedFinishedBatches = 20;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, BatchJob> batches = new ConcurrentHashMap<>();
+    private final Queue<String> finishedBatchIds = new ConcurrentLinkedQueue<>(); // Oldest first
+
+    @PostConstruct
+    void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "batch-solve-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        batches.values().forEach(BatchJob::requestCancel);
+        executor.shutdownNow();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Queues one solve per configuration, against the data loaded now, and returns the batch's
+     * status. Throws IllegalArgumentException for a batch larger than the queue and
+     * RejectedExecutionException when the queue has no room for it at the moment.
+     */
+    public synchronized BatchJobStatus submit(List<SolverConfig> configs) {
+        if (configs.isEmpty() || configs.size() > queueCapacity) {
+            throw new IllegalArgumentException("A batch takes 1 to " + queueCapacity + " configurations, was " + configs.size());
+        }
+        if (executor.getQueue().remainingCapacity() < configs.size()) {
+            throw new RejectedExecutionException("No room in the batch queue for " + configs.size() + " configurations");
+        }
+        BatchJob batch = new BatchJob(UUID.randomUUID().toString(), dataService.getDataset(), configs);
+        batches.put(batch.id, batch);
+        try {
+            for (int i = 0; i < configs.size(); i++) {
+                int index = i;
+                batch.solves[i] = executor.submit(() -> solve(batch, index));
+            }
+        } catch (RejectedExecutionException e) {
+            batches.remove(batch.id);
+            batch.requestCancel();
+            executor.purge();
+            throw e;
+        }
+        return batch.toStatus();
+    }
+
+    // Null if the batch id is unknown or has been evicted.
+    public BatchJobStatus getStatus(String batchId) {
+        BatchJob batch = batches.get(batchId);
+        return batch == null ? null : batch.toStatus();
+    }
+
+    // The results of configurations [offset, offset + limit) solved so far, in request order; null for an unknown batch.
+    public List<BatchSolveResult> getResults(String batchId, int offset, int limit) {
+        BatchJob batch = batches.get(batchId);
+        return batch == null ? null : batch.results(offset, limit);
+    }
+
+    // Results solved so far are kept; the rest are dropped.
+    public BatchJobStatus cancel(String batchId) {
+        BatchJob batch = batches.get(batchId);
+        if (batch == null) { return null; }
+        batch.requestCancel();
+        executor.purge(); // Drop the cancelled solves from the queue so they stop taking up places
+        if (batch.isFinished()) { retire(batch); }
+        return batch.toStatus();
+    }
+
+    private void solve(BatchJob batch, int index) {
+        if (!batch.start(index)) { return; } // Dropped by a cancel
+        try {
+            batch.solved(solve(batch.data, index, batch.configs.get(index), batch));
+        } catch (CancellationException e) {
+            batch.dropped();
+        }
+        if (batch.isFinished()) { retire(batch); }
+    }
+
+    BatchSolveResult solve(Dataset data, int index, SolverConfig config, SolveListener listener) {
+        BatchSolveResult result = new BatchSolveResult(index, config);
+        long start = System.nanoTime();
+        try {
+            ScheduleSolution solution = schedulingService.solveSingleThreaded(data, config, listener).solution;
+            result.setScore(solution.getScore());
+            result.setScoreBreakdown(solution.getScoreBreakdown());
+            result.setUnassignedRunCount(solution.getUnassignedRunCount());
+            result.setTotalBusesUsedCount(solution.getTotalBusesUsedCount());
+        } catch (CancellationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            System.err.println("Batch solve " + index + " failed: " + e.getMessage());
+            result.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        result.setSolveMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // Finished batches stay queryable until more than retainedFinishedBatches have piled up.
+    private synchronized void retire(BatchJob batch) {
+        if (finishedBatchIds.contains(batch.id)) { return; }
+        finishedBatchIds.add(batch.id);
+        while (finishedBatchIds.size() > retainedFinishedBatches) {
+            String oldest = finishedBatchIds.poll();
+            if (oldest != null) { batches.remove(oldest); }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bus.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Buses grouped by current location (terminal or depot) and kept in the order the greedy
+ * solver ranks candidates: buses that already worked today first, by nextAvailableMinutes, then by
+ * bus id; buses still idle since the start of the day last, by bus id.
+ *
+ * A BusState must be removed before its location or nextAvailableMinutes changes and added back
+ * afterwards, otherwise the TreeSets lose track of it.
+ */
+class BusAvailabilityIndex {
+
+    // Same ordering as the candidate comparator the solver used before the index existed.
+    static final Comparator<BusState> SOLVER_ORDER =
+            Comparator.comparing(BusState::isIdleSinceStartOfDay)
+                    .thenComparingInt(BusState::getNextAvailableMinutes)
+                    .thenComparing(bs -> bs.bus.getBusId());
+
+    private static final Comparator<BusState> BY_AVAILABILITY =
+            Comparator.comparingInt(BusState::getNextAvailableMinutes).thenComparing(bs -> bs.bus.getBusId());
+    private static final Comparator<BusState> BY_ID = Comparator.comparing(bs -> bs.bus.getBusId());
+
+    private static class LocationBucket {
+        final TreeSet<BusState> working = new TreeSet<>(BY_AVAILABILITY);
+        final TreeSet<BusState> idle = new TreeSet<>(BY_ID);
+    }
+
+    private final Map<String, LocationBucket> byLocation = new HashMap<>();
+
+    void add(BusState busState) {
+        LocationBucket bucket = byLocation.computeIfAbsent(busState.currentLocationId, id -> new LocationBucket());
+        (busState.isIdleSinceStartOfDay() ? bucket.idle : bucket.working).add(busState);
+    }
+
+    void remove(BusState busState) {
+        LocationBucket bucket = byLocation.get(busState.currentLocationId);
+        if (bucket != null) {
+            (busState.isIdleSinceStartOfDay() ? bucket.idle : bucket.working).remove(busState);
+        }
+    }
+
+    // Every location a bus has been parked at; some may be empty now.
+    Set<String> locationIds() {
+        return byLocation.keySet();
+    }
+
+    /**
+     * First bus (in SOLVER_ORDER) parked at locationId that is free no later than latestAvailableMinutes
+     * and accepted by the suitability check. Buses are visited in order and the walk stops at the
+     * first match, so the cost is a tree descent plus the number of rejected candidates.
+     */
+    BusState findFirst(String locationId, int latestAvailableMinutes, Predicate<BusState> suitable) {
+        LocationBucket bucket = byLocation.get(locationId);
+        if (bucket == null) { return null; }
+        for (BusState busState : bucket.working) {
+            if (busState.nextAvailableMinutes > latestAvailableMinutes) { break; } // Everything after is later still
+            if (suitable.test(busState)) { return busState; }
+        }
+        for (BusState busState : bucket.idle) {
+            if (suitable.test(busState)) { return busState; }
+        }
+        return null;
+    }
+}
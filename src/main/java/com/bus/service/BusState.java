@@ -0,0 +1,48 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bus.domain.Bus;
+
+// Mutable per-solve state of a bus. Kept package-private: only the scheduling engine touches it.
+class BusState {
+    static final int NOT_PARKED = -1;
+    static final int NOT_PLUGGED = -1;
+
+    final Bus bus;
+    int nextAvailableMinutes; // ServiceTime minutes
+    String currentLocationId;
+    int currentChargeKm;
+    int parkedSince = NOT_PARKED; // Minute it took a bay at its home depot, if that depot is tracked (see DepotCapacity)
+    List<DepotCapacity.Booking> depotBookings = List.of(); // Everything it booked there today, to undo on a replay
+    // Partial charging only (see ChargingNetwork): the bus gains charge along its curve from pluggedSince until it leaves
+    ChargeCurve chargeCurve;
+    int pluggedSince = NOT_PLUGGED;
+    DepotCapacity.Booking chargerBooking; // Its charger, at a depot with fewer chargers than buses
+
+    BusState(Bus bus) {
+        this.bus = bus;
+        this.nextAvailableMinutes = ServiceTime.START_OF_DAY;
+        this.currentLocationId = bus.getCurrentLocationId();
+        this.currentChargeKm = bus.getCurrentChargeKm();
+    }
+
+    // Copy for an independent engine (incremental re-solve)
+    BusState(BusState other) {
+        this.bus = other.bus;
+        this.nextAvailableMinutes = other.nextAvailableMinutes;
+        this.currentLocationId = other.currentLocationId;
+        this.currentChargeKm = other.currentChargeKm;
+        this.parkedSince = other.parkedSince;
+        this.depotBookings = other.depotBookings.isEmpty() ? List.of() : new ArrayList<>(other.depotBookings);
+        this.chargeCurve = other.chargeCurve;
+        this.pluggedSince = other.pluggedSince;
+        this.chargerBooking = other.chargerBooking;
+    }
+
+    int getNextAvailableMinutes() { return nextAvailableMinutes; }
+
+    // A bus that has not done anything yet today is still available from the start of the day.
+    boolean isIdleSinceStartOfDay() { return nextAvailableMinutes == ServiceTime.START_OF_DAY; }
+}
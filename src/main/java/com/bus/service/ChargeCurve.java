@@ -0,0 +1,52 @@
+package com.bus.service;
+
+import java.util.List;
+
+import com.bus.domain.ChargeRate;
+
+/**
+ * A bus's charge curve as two lookup tables, built once per distinct curve and range: the whole
+ * minutes a charge from empty takes to reach each km, and the km reached after each minute. So
+ * any top-up is two array reads, whatever the shape of the curve.
+ */
+final class ChargeCurve {
+
+    private final int rangeKm;
+    private final int[] minuteOfKm; // Minutes from empty to reach each km, rounded up
+    private final int[] kmAtMinute; // Km reached from empty after each whole minute
+
+    // Without steps the curve is linear: empty to full in fullChargeMinutes.
+    ChargeCurve(int rangeKm, List<ChargeRate> steps, int fullChargeMinutes) {
+        this.rangeKm = Math.max(0, rangeKm);
+        this.minuteOfKm = new int[this.rangeKm + 1];
+        double minutes = 0;
+        int step = 0;
+        for (int km = 1; km <= this.rangeKm; km++) {
+            if (steps == null || steps.isEmpty()) {
+                minutes = (double) fullChargeMinutes * km / this.rangeKm;
+            } else {
+                int percent = (km - 1) * 100 / this.rangeKm; // The step the km is charged in
+                while (step + 1 < steps.size() && steps.get(step + 1).getFromPercent() <= percent) { step++; }
+                minutes += 1 / steps.get(step).getKmPerMinute();
+            }
+            minuteOfKm[km] = (int) Math.ceil(minutes - 1e-9);
+        }
+        this.kmAtMinute = new int[minuteOfKm[this.rangeKm] + 1];
+        for (int km = 0, minute = 0; minute < kmAtMinute.length; minute++) {
+            while (km < this.rangeKm && minuteOfKm[km + 1] <= minute) { km++; }
+            kmAtMinute[minute] = km;
+        }
+    }
+
+    // Charge after this many minutes on a charger, never above the range.
+    int chargeAfter(int chargeKm, int minutes) {
+        if (minutes <= 0 || chargeKm >= rangeKm) { return chargeKm; }
+        int from = Math.max(0, chargeKm);
+        long minute = (long) minuteOfKm[from] + minutes;
+        return minute >= kmAtMinute.length ? rangeKm : Math.max(chargeKm, kmAtMinute[(int) minute]);
+    }
+
+    int minutesToFull(int chargeKm) {
+        return chargeKm >= rangeKm ? 0 : minuteOfKm[rangeKm] - minuteOfKm[Math.max(0, chargeKm)];
+    }
+}
@@ -0,0 +1,63 @@
+package com.bus.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.SolverConfig;
+
+/**
+ * Where buses of one solve can charge and how fast, for SolverConfig.partialCharging: the depots
+ * and terminals with a charging station, and a ChargeCurve per bus (buses with the same range and
+ * curve share one). NONE keeps the engine's full charges on returning to the depot.
+ */
+final class ChargingNetwork {
+
+    static final ChargingNetwork NONE = new ChargingNetwork(Set.of(), Map.of());
+
+    private final Set<String> chargerLocationIds;
+    private final Map<String, ChargeCurve> curveByBusId;
+
+    private ChargingNetwork(Set<String> chargerLocationIds, Map<String, ChargeCurve> curveByBusId) {
+        this.chargerLocationIds = chargerLocationIds;
+        this.curveByBusId = curveByBusId;
+    }
+
+    static ChargingNetwork forSolve(List<? extends BusStop> stops, List<Bus> buses, SolverConfig config) {
+        if (!config.isPartialCharging()) { return NONE; }
+        Set<String> chargerLocationIds = new HashSet<>();
+        for (BusStop stop : stops) {
+            if ((stop instanceof BusDepot depot && depot.isHasChargingStation())
+                    || (stop instanceof BusTerminal terminal && terminal.isHasChargingStation())) {
+                chargerLocationIds.add(stop.getId());
+            }
+        }
+        Map<String, ChargeCurve> curves = new HashMap<>();
+        Map<String, ChargeCurve> curveByBusId = new HashMap<>();
+        for (Bus bus : buses) {
+            String key = bus.getRangeKm() + ":" + bus.getChargeCurve();
+            curveByBusId.put(bus.getBusId(), curves.computeIfAbsent(key,
+                    k -> new ChargeCurve(bus.getRangeKm(), bus.getChargeCurve(), config.getChargingDurationMins())));
+        }
+        return new ChargingNetwork(chargerLocationIds, curveByBusId);
+    }
+
+    boolean isPartial() {
+        return this != NONE;
+    }
+
+    boolean hasCharger(String locationId) {
+        return chargerLocationIds.contains(locationId);
+    }
+
+    // Null for a bus that is not in this solve.
+    ChargeCurve curveOf(Bus bus) {
+        return curveByBusId.get(bus.getBusId());
+    }
+}
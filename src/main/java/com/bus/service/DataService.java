@@ -1,125 +1,249 @@
 package com.bus.service;
 
 import com.bus.domain.*;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule; // For LocalTime
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
-import java.io.InputStream;
-import java.time.LocalTime;
-import java.util.ArrayList;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * The network, fleet and timetable, loaded from the bundled /data files or from
+ * bus.scheduler.data.dir. A directory is watched: once its files have been quiet for a moment
+ * they are loaded again, and the new Dataset replaces the old one in a single step if, and only
+ * if, it loads and validates completely. Readers always see one whole version.
+ */
 @ApplicationScoped
 public class DataService {
 
     @Inject
     ObjectMapper objectMapper; // Injected by Quarkus
 
-    private final Map<String, BusStop> busStops = new ConcurrentHashMap<>();
-    private final Map<String, BusDepot> busDepots = new ConcurrentHashMap<>();
-    private final Map<String, BusTerminal> busTerminals = new ConcurrentHashMap<>();
-    private final Map<String, Bus> buses = new ConcurrentHashMap<>();
-    private final Map<String, BusDriver> busDrivers = new ConcurrentHashMap<>();
-    private final Map<String, BusRoute> busRoutes = new ConcurrentHashMap<>();
-    private final List<RouteRun> routeRunsToSchedule = new ArrayList<>();
+    // Directory holding the seven data files; unset uses the copies bundled in the application
+    @ConfigProperty(name = "bus.scheduler.data.dir")
+    Optional<String> dataDirectory = Optional.empty();
+
+    // Reload automatically when files in the data directory change
+    @ConfigProperty(name = "bus.scheduler.data.watch", defaultValue = "true")
+    boolean watchDataDirectory = true;
+
+    // A reload starts once the directory has had no changes for this long, so multi-file updates land together
+    @ConfigProperty(name = "bus.scheduler.data.reload-quiet-period-ms", defaultValue = "500")
+    long reloadQuietPeriodMillis = 500;
+
+    // Binary copy of the data, written after each JSON load and read at the next start while the JSON files are unchanged (unset = off)
+    @ConfigProperty(name = "bus.scheduler.data.snapshot")
+    Optional<String> snapshotFile = Optional.empty();
+
+    private volatile Dataset dataset = Dataset.EMPTY;
+    private final DataLoadStatus loadStatus = new DataLoadStatus(); // Guarded by this
+    private final Object loadLock = new Object(); // One load at a time, so a slow load cannot overwrite a later one
+    private final String startupId = Long.toString(System.currentTimeMillis(), 36); // Keeps versions unique across restarts
+    private long loadCount; // Guarded by loadLock
+    private WatchService watchService;
 
     @PostConstruct
     void initializeData() {
         objectMapper.registerModule(new JavaTimeModule());
 
-        loadDataFile("/data/bus_stops.json", new TypeReference<List<BusStop>>() {}, list -> list.forEach(item -> busStops.put(item.getId(), item)));
-        loadDataFile("/data/bus_depots.json", new TypeReference<List<BusDepot>>() {}, list -> list.forEach(item -> {
-            busDepots.put(item.getId(), item);
-            busStops.put(item.getId(), item); 
-        }));
-        loadDataFile("/data/bus_terminals.json", new TypeReference<List<BusTerminal>>() {}, list -> list.forEach(item -> {
-            busTerminals.put(item.getId(), item);
-            busStops.put(item.getId(), item); 
-        }));
-        // ****** THIS IS THE CORRECTED LINE ******
-        loadDataFile("/data/buses.json", new TypeReference<List<Bus>>() {}, list -> list.forEach(item -> buses.put(item.getBusId(), item)));
-        // *****************************************
-        loadDataFile("/data/bus_drivers.json", new TypeReference<List<BusDriver>>() {}, list -> list.forEach(item -> busDrivers.put(item.getId(), item)));
-        loadDataFile("/data/bus_routes.json", new TypeReference<List<BusRoute>>() {}, list -> list.forEach(item -> busRoutes.put(item.getId(), item)));
-
-        List<RouteRunConfigEntry> routeRunConfigs = loadDataFile("/data/route_runs_config.json", new TypeReference<List<RouteRunConfigEntry>>() {}, null);
-        if (routeRunConfigs != null) {
-            for (RouteRunConfigEntry config : routeRunConfigs) {
-                BusRoute route = busRoutes.get(config.getBusRouteId());
-                if (route != null) {
-                    for (String timeStr : config.getDepartureTimes()) {
-                        LocalTime departureTime = LocalTime.parse(timeStr); 
-                        String runId = route.getId() + "-" + departureTime.toString().replace(":", "");
-                        routeRunsToSchedule.add(new RouteRun(runId, route.getId(), departureTime, route.getTravelTimeMinutes()));
-                    }
-                }
-            }
+        Path directory = dataDirectory.map(Path::of).orElse(null);
+        synchronized (this) { loadStatus.setSource(DatasetLoader.describe(directory)); }
+        long loadMillis = loadAndSwap(directory, true);
+        synchronized (this) { loadStatus.setStartupLoadMillis(loadMillis); }
+
+        DataLoadStatus status = getLoadStatus();
+        System.out.println("DataService Initialized with data from " + DatasetLoader.describe(directory)
+                + (status.isLastLoadFromSnapshot() ? " (snapshot " + snapshotFile.get() + ")" : "") + " in " + loadMillis + " ms"
+                + " (peak heap " + status.getLastLoadPeakHeapBytes() / (1024 * 1024) + " MB).");
+        System.out.println(dataset.summary());
+        if (directory != null && watchDataDirectory) {
+            startWatching(directory);
         }
+    }
 
-        System.out.println("DataService Initialized with data from JSON files.");
-        System.out.println("Total Bus Stops (incl. depots, terminals): " + this.busStops.size());
-        System.out.println("Total Depots: " + this.busDepots.size());
-        System.out.println("Total Terminals: " + this.busTerminals.size());
-        System.out.println("Total Buses: " + this.buses.size());
-        System.out.println("Total Drivers: " + this.busDrivers.size());
-        System.out.println("Total Route Templates: " + this.busRoutes.size());
-        System.out.println("Total Route Runs to Schedule: " + this.routeRunsToSchedule.size());
+    @PreDestroy
+    void stopWatching() {
+        WatchService watching;
+        synchronized (this) {
+            watching = watchService;
+            watchService = null;
+            loadStatus.setWatching(false);
+        }
+        if (watching != null) {
+            try {
+                watching.close(); // Ends the watcher thread
+            } catch (IOException e) {
+                System.err.println("Failed to stop watching the data directory: " + e.getMessage());
+            }
+        }
     }
 
-    private <T> List<T> loadDataFile(String filePath, TypeReference<List<T>> typeReference, java.util.function.Consumer<List<T>> processor) {
-        try (InputStream inputStream = DataService.class.getResourceAsStream(filePath)) {
-            if (inputStream == null) {
-                System.err.println("Cannot find data file: " + filePath);
-                return null;
+    // Loads the data source again. Throws IllegalStateException, keeping the current data, if the files are not valid.
+    public DataLoadStatus reload() {
+        try {
+            loadAndSwap(dataDirectory.map(Path::of).orElse(null), false);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loadStatus.setFailedReloads(loadStatus.getFailedReloads() + 1);
+                loadStatus.setLastFailedAt(Instant.now());
+                loadStatus.setLastError(e.getMessage());
             }
-            List<T> list = objectMapper.readValue(inputStream, typeReference);
-            if (processor != null && list != null) {
-                processor.accept(list);
+            throw e;
+        }
+        return getLoadStatus();
+    }
+
+    public synchronized DataLoadStatus getLoadStatus() {
+        return new DataLoadStatus(loadStatus);
+    }
+
+    // The current version of all the data: read it once to get lists that belong together.
+    public Dataset getDataset() {
+        return dataset;
+    }
+
+    // Reloads always read the JSON files, which have changed; a start takes the snapshot if it is up to date.
+    private long loadAndSwap(Path directory, boolean snapshotAllowed) {
+        synchronized (loadLock) {
+            resetHeapPeak();
+            long startNanos = System.nanoTime();
+            String version = startupId + "-" + (loadCount + 1);
+            Path snapshot = snapshotFile.map(Path::of).orElse(null);
+            Long sourceFingerprint = snapshot == null ? null : sourceFingerprint(directory);
+            Dataset loaded = snapshotAllowed && sourceFingerprint != null ? readSnapshot(snapshot, sourceFingerprint, version) : null;
+            boolean fromSnapshot = loaded != null;
+            if (!fromSnapshot) { loaded = DatasetLoader.load(objectMapper, directory, version); }
+            dataset = loaded;
+            loadCount++;
+            long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            long peakHeapBytes = heapPeak();
+            synchronized (this) {
+                loadStatus.setSuccessfulLoads(loadStatus.getSuccessfulLoads() + 1);
+                loadStatus.setLastLoadMillis(loadMillis);
+                loadStatus.setLastLoadPeakHeapBytes(peakHeapBytes);
+                loadStatus.setLastLoadFromSnapshot(fromSnapshot);
+                loadStatus.setLastLoadedAt(Instant.now());
             }
-            return list;
-        } catch (Exception e) {
-            System.err.println("Failed to load data from " + filePath + ": " + e.getMessage());
-            // e.printStackTrace(); // Optional: uncomment for more detailed error during development
+            if (!fromSnapshot && sourceFingerprint != null) { writeSnapshot(snapshot, loaded, sourceFingerprint); }
+            return loadMillis;
+        }
+    }
+
+    // Null if the files cannot be fingerprinted, e.g. one is missing: the JSON load then says what is wrong.
+    private static Long sourceFingerprint(Path directory) {
+        try {
+            return DatasetLoader.sourceFingerprint(directory);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Dataset readSnapshot(Path snapshot, long sourceFingerprint, String version) {
+        if (!Files.exists(snapshot)) { return null; }
+        try {
+            Dataset loaded = DataSnapshot.read(snapshot, sourceFingerprint, version);
+            if (loaded == null) { System.out.println("Data snapshot " + snapshot + " is out of date, loading the JSON files."); }
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot read data snapshot " + snapshot + ", loading the JSON files: " + e.getMessage());
             return null;
         }
     }
 
-    private static class RouteRunConfigEntry {
-        private String busRouteId;
-        private List<String> departureTimes;
+    // A snapshot that cannot be written only costs the next start its head start.
+    private static void writeSnapshot(Path snapshot, Dataset loaded, long sourceFingerprint) {
+        try {
+            DataSnapshot.write(snapshot, loaded, sourceFingerprint);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot write data snapshot " + snapshot + ": " + e.getMessage());
+        }
+    }
+
+    private static void resetHeapPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) { pool.resetPeakUsage(); }
+        }
+    }
+
+    // Sum of the heap pools' peaks since resetHeapPeak(): an upper bound, as pools do not all peak at the same moment.
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) { peak += pool.getPeakUsage().getUsed(); }
+        }
+        return peak;
+    }
 
-        public String getBusRouteId() { return busRouteId; }
-        public void setBusRouteId(String busRouteId) { this.busRouteId = busRouteId; }
-        public List<String> getDepartureTimes() { return departureTimes; }
-        public void setDepartureTimes(List<String> departureTimes) { this.departureTimes = departureTimes; }
+    private void startWatching(Path directory) {
+        try {
+            WatchService watching = directory.getFileSystem().newWatchService();
+            directory.register(watching, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            synchronized (this) {
+                watchService = watching;
+                loadStatus.setWatching(true);
+            }
+            Thread thread = new Thread(() -> watch(watching), "data-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            System.err.println("Cannot watch data directory " + directory + ", changes need a reload: " + e.getMessage());
+        }
     }
 
-    public List<BusStop> getAllBusStops() { return new ArrayList<>(busStops.values()); }
-    public BusStop getBusStopById(String id) { return busStops.get(id); }
-    public List<BusDepot> getAllBusDepots() { return new ArrayList<>(busDepots.values()); }
-    public BusDepot getBusDepotById(String id) { return busDepots.get(id); }
-    public List<BusTerminal> getAllBusTerminals() { return new ArrayList<>(busTerminals.values()); }
-    public BusTerminal getBusTerminalById(String id) { return busTerminals.get(id); }
-    public List<Bus> getAllBuses() { return new ArrayList<>(buses.values()); }
-    public Bus getBusById(String busId) { return buses.get(busId); } // Changed param name for clarity
-    public List<BusDriver> getAllBusDrivers() { return new ArrayList<>(busDrivers.values()); }
-    public BusDriver getBusDriverById(String id) { return busDrivers.get(id); }
-    public List<BusRoute> getAllBusRoutes() { return new ArrayList<>(busRoutes.values()); }
-    public BusRoute getBusRouteById(String id) { return busRoutes.get(id); }
-    public List<RouteRun> getRouteRunsToSchedule() {
-        return new ArrayList<>(routeRunsToSchedule.stream()
-            .map(rr -> {
-                BusRoute route = busRoutes.get(rr.getBusRouteId());
-                int travelTime = (route != null) ? route.getTravelTimeMinutes() : 0;
-                return new RouteRun(rr.getId(), rr.getBusRouteId(), rr.getDepartureTime(), travelTime);
-            })
-            .collect(Collectors.toList()));
+    private void watch(WatchService watching) {
+        try {
+            while (true) {
+                // Any change counts, not only the data files by name: mounted volumes swap a symlink to update them all at once
+                WatchKey key = watching.take();
+                while (key != null) { // Keep collecting until the directory has been quiet for the whole period
+                    key.pollEvents();
+                    key.reset();
+                    key = watching.poll(reloadQuietPeriodMillis, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    DataLoadStatus status = reload();
+                    System.out.println("Data reloaded from " + status.getSource() + " in " + status.getLastLoadMillis() + " ms"
+                            + " (peak heap " + status.getLastLoadPeakHeapBytes() / (1024 * 1024) + " MB).");
+                } catch (RuntimeException e) {
+                    System.err.println("Data reload rejected, keeping the previous data: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
     }
-}
\ No newline at end of file
+
+    // Lists are the current version's own, shared and unmodifiable: no copy per call
+    public List<BusStop> getAllBusStops() { return dataset.busStops(); }
+    public BusStop getBusStopById(String id) { return dataset.busStop(id); }
+    public List<BusDepot> getAllBusDepots() { return dataset.busDepots(); }
+    public BusDepot getBusDepotById(String id) { return dataset.busDepot(id); }
+    public List<BusTerminal> getAllBusTerminals() { return dataset.busTerminals(); }
+    public BusTerminal getBusTerminalById(String id) { return dataset.busTerminal(id); }
+    public List<Bus> getAllBuses() { return dataset.buses(); }
+    public Bus getBusById(String busId) { return dataset.bus(busId); } // Changed param name for clarity
+    public List<BusDriver> getAllBusDrivers() { return dataset.busDrivers(); }
+    public BusDriver getBusDriverById(String id) { return dataset.busDriver(id); }
+    public List<BusRoute> getAllBusRoutes() { return dataset.busRoutes(); }
+    public BusRoute getBusRouteById(String id) { return dataset.busRoute(id); }
+    public List<RouteRun> getRouteRunsToSchedule() { return dataset.routeRunsToSchedule(); } // Shared: solves work on copies
+}
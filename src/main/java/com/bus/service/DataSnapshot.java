@@ -0,0 +1,374 @@
+package com.bus.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.ChargeRate;
+import com.bus.domain.RouteRun;
+import com.bus.domain.TravelTimeBand;
+
+/**
+ * A whole Dataset in one binary file, so a start can skip parsing the JSON files. Written after
+ * every successful JSON load, memory-mapped on the next start, and used only while the
+ * fingerprint of the JSON files it came from still matches (DatasetLoader.sourceFingerprint).
+ *
+ * Every string is stored once in a table and referenced by index, so the objects read back share
+ * their ids; times are seconds of the day and run ids are rebuilt from route and departure.
+ * Lists keep the order the getters returned when the snapshot was written, which is the order the
+ * solver sees. Layout, all big-endian:
+ *
+ *   magic, format version, source fingerprint
+ *   strings: count, then (UTF-8 length, bytes) each
+ *   depots, terminals, stops (kind + index into depots/terminals, or id and name), buses, drivers,
+ *   routes, runs (route index, departure second of day): each a count, then its records
+ *   (depot, terminal and stop records end with a coordinates flag, then latitude and longitude if set;
+ *   depot and route records then have their travel time bands: a count, then from, to and factor each;
+ *   terminal records have a charging station flag before their coordinates, and bus records end with
+ *   their charge curve: a count, then from percent and km per minute each)
+ *   CRC32 of everything before it
+ *
+ * A field added to any of these classes must be added here as well, with FORMAT_VERSION bumped:
+ * snapshots of another format are ignored and rewritten from the JSON files.
+ */
+final class DataSnapshot {
+
+    private static final int MAGIC = 0x42555353; // "BUSS"
+    private static final int FORMAT_VERSION = 6; // 2: stop coordinates, 3: travel time bands, 4: charger count, 5: charge curves and terminal chargers, 6: driving this week
+    private static final int NULL = -1; // String index or list size of a missing value
+
+    private static final byte STOP = 0;
+    private static final byte DEPOT = 1;
+    private static final byte TERMINAL = 2;
+
+    private DataSnapshot() {}
+
+    // Replaces the file in one step, so a start never maps a half-written snapshot.
+    static void write(Path file, Dataset data, long sourceFingerprint) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(64 + 8 * data.routeRunsToSchedule().size());
+        DataOutputStream records = new DataOutputStream(recordBytes);
+
+        Map<BusStop, Integer> depotIndex = new IdentityHashMap<>();
+        records.writeInt(data.busDepots().size());
+        for (BusDepot depot : data.busDepots()) {
+            depotIndex.put(depot, depotIndex.size());
+            writeString(records, strings, depot.getId());
+            writeString(records, strings, depot.getName());
+            records.writeInt(depot.getMaxCapacity());
+            records.writeBoolean(depot.isHasChargingStation());
+            records.writeInt(depot.getChargerCount() == null ? NULL : depot.getChargerCount());
+            writeStrings(records, strings, depot.getServedTerminalIds());
+            writeCoordinates(records, depot);
+            writeBands(records, depot.getTravelTimeBands());
+        }
+        Map<BusStop, Integer> terminalIndex = new IdentityHashMap<>();
+        records.writeInt(data.busTerminals().size());
+        for (BusTerminal terminal : data.busTerminals()) {
+            terminalIndex.put(terminal, terminalIndex.size());
+            writeString(records, strings, terminal.getId());
+            writeString(records, strings, terminal.getName());
+            records.writeBoolean(terminal.isHasChargingStation());
+            writeCoordinates(records, terminal);
+        }
+        records.writeInt(data.busStops().size());
+        for (BusStop stop : data.busStops()) {
+            if (depotIndex.containsKey(stop)) {
+                records.writeByte(DEPOT);
+                records.writeInt(depotIndex.get(stop));
+            } else if (terminalIndex.containsKey(stop)) {
+                records.writeByte(TERMINAL);
+                records.writeInt(terminalIndex.get(stop));
+            } else {
+                records.writeByte(STOP);
+                writeString(records, strings, stop.getId());
+                writeString(records, strings, stop.getName());
+                writeCoordinates(records, stop);
+            }
+        }
+        records.writeInt(data.buses().size());
+        for (Bus bus : data.buses()) {
+            writeString(records, strings, bus.getBusId());
+            writeString(records, strings, bus.getNumberPlate());
+            writeString(records, strings, bus.getDepotId());
+            records.writeInt(bus.getRangeKm());
+            records.writeInt(bus.getCurrentChargeKm());
+            writeString(records, strings, bus.getCurrentLocationId());
+            writeChargeCurve(records, bus.getChargeCurve());
+        }
+        records.writeInt(data.busDrivers().size());
+        for (BusDriver driver : data.busDrivers()) {
+            writeString(records, strings, driver.getId());
+            writeString(records, strings, driver.getName());
+            writeString(records, strings, driver.getDepotId());
+            records.writeInt(driver.getDrivingMinsThisWeek());
+        }
+        Map<String, Integer> routeIndex = new HashMap<>();
+        records.writeInt(data.busRoutes().size());
+        for (BusRoute route : data.busRoutes()) {
+            routeIndex.put(route.getId(), routeIndex.size());
+            writeString(records, strings, route.getId());
+            writeString(records, strings, route.getName());
+            writeString(records, strings, route.getStartTerminalId());
+            writeString(records, strings, route.getEndTerminalId());
+            writeStrings(records, strings, route.getStopIds());
+            records.writeInt(route.getTotalDistanceKm());
+            records.writeInt(route.getTravelTimeMinutes());
+            writeBands(records, route.getTravelTimeBands());
+        }
+        records.writeInt(data.routeRunsToSchedule().size());
+        for (RouteRun run : data.routeRunsToSchedule()) {
+            if (run.getDepartureTime().getNano() != 0) {
+                throw new IllegalArgumentException("run " + run.getId() + " departs at a fraction of a second, which snapshots do not store");
+            }
+            records.writeInt(routeIndex.get(run.getBusRouteId()));
+            records.writeInt(run.getDepartureTime().toSecondOfDay());
+        }
+        records.flush();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileOut = Files.newOutputStream(temporary)) {
+            CheckedOutputStream checked = new CheckedOutputStream(fileOut, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sourceFingerprint);
+            out.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            recordBytes.writeTo(out);
+            out.flush();
+            DataOutputStream trailer = new DataOutputStream(fileOut); // Past the checksummed part
+            trailer.writeLong(checked.getChecksum().getValue());
+            trailer.flush();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The Dataset in the file, or null if it was written from other source files or in another
+     * format. Throws IllegalStateException if the file is damaged.
+     */
+    static Dataset read(Path file, long sourceFingerprint, String version) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays mapped after the channel closes
+        }
+        int end = buffer.limit() - Long.BYTES;
+        if (end < 2 * Integer.BYTES + Long.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a data snapshot: " + file);
+        }
+        if (buffer.getInt(Integer.BYTES) != FORMAT_VERSION || buffer.getLong(2 * Integer.BYTES) != sourceFingerprint) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, end));
+        if (crc.getValue() != buffer.getLong(end)) {
+            throw new IllegalStateException("Damaged data snapshot (checksum mismatch): " + file);
+        }
+        try {
+            buffer.position(2 * Integer.BYTES + Long.BYTES).limit(end);
+            return read(buffer, version);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IllegalStateException("Damaged data snapshot: " + file, e);
+        }
+    }
+
+    private static Dataset read(ByteBuffer buffer, String version) {
+        String[] strings = new String[buffer.getInt()];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length > bytes.length) { bytes = new byte[Math.max(length, 2 * bytes.length)]; }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        List<BusDepot> depots = new ArrayList<>();
+        for (int i = 0, n = buffer.getInt(); i < n; i++) {
+            BusDepot depot = new BusDepot(readString(buffer, strings), readString(buffer, strings), buffer.getInt());
+            depot.setHasChargingStation(buffer.get() != 0);
+            int chargerCount = buffer.getInt();
+            depot.setChargerCount(chargerCount == NULL ? null : chargerCount);
+            depot.setServedTerminalIds(readStrings(buffer, strings));
+            readCoordinates(buffer, depot);
+            depot.setTravelTimeBands(readBands(buffer));
+            depots.add(depot);
+        }
+        List<BusTerminal> terminals = new ArrayList<>();
+        for (int i = 0, n = buffer.getInt(); i < n; i++) {
+            BusTerminal terminal = new BusTerminal(readString(buffer, strings), readString(buffer, strings));
+            terminal.setHasChargingStation(buffer.get() != 0);
+            readCoordinates(buffer, terminal);
+            terminals.add(terminal);
+        }
+        List<BusStop> stops = new ArrayList<>();
+        for (int i = 0, n = buffer.getInt(); i < n; i++) {
+            byte kind = buffer.get();
+            if (kind == DEPOT) {
+                stops.add(depots.get(buffer.getInt()));
+            } else if (kind == TERMINAL) {
+                stops.add(terminals.get(buffer.getInt()));
+            } else if (kind == STOP) {
+                BusStop stop = new BusStop(readString(buffer, strings), readString(buffer, strings));
+                readCoordinates(buffer, stop);
+                stops.add(stop);
+            } else {
+                throw new IllegalArgumentException("unknown kind of stop " + kind);
+            }
+        }
+        List<Bus> buses = new ArrayList<>();
+        for (int i = 0, n = buffer.getInt(); i < n; i++) {
+            Bus bus = new Bus();
+            bus.setBusIdValue(readString(buffer, strings));
+            bus.setNumberPlateValue(readString(buffer, strings));
+            bus.setDepotId(readString(buffer, strings));
+            bus.setRangeKm(buffer.getInt());
+            bus.setCurrentChargeKm(buffer.getInt());
+            bus.setCurrentLocationId(readString(buffer, strings));
+            bus.setChargeCurve(readChargeCurve(buffer));
+            buses.add(bus);
+        }
+        List<BusDriver> drivers = new ArrayList<>();
+        for (int i = 0, n = buffer.getInt(); i < n; i++) {
+            BusDriver driver = new BusDriver(readString(buffer, strings), readString(buffer, strings));
+            driver.setDepotId(readString(buffer, strings));
+            driver.setDrivingMinsThisWeek(buffer.getInt());
+            drivers.add(driver);
+        }
+        List<BusRoute> routes = new ArrayList<>();
+        for (int i = 0, n = buffer.getInt(); i < n; i++) {
+            BusRoute route = new BusRoute(readString(buffer, strings), readString(buffer, strings), readString(buffer, strings),
+                    readString(buffer, strings), readStrings(buffer, strings), buffer.getInt(), buffer.getInt());
+            route.setTravelTimeBands(readBands(buffer));
+            routes.add(route);
+        }
+        int runCount = buffer.getInt();
+        List<RouteRun> runs = new ArrayList<>(runCount);
+        for (int i = 0; i < runCount; i++) {
+            BusRoute route = routes.get(buffer.getInt());
+            int secondOfDay = buffer.getInt();
+            LocalTime departureTime = secondOfDay % 60 == 0 ? ActivityLog.toLocalTime(secondOfDay / 60) : LocalTime.ofSecondOfDay(secondOfDay);
+            runs.add(new RouteRun(DatasetLoader.runId(route.getId(), departureTime), route.getId(), departureTime, route.travelTimeMinutesAt(departureTime)));
+        }
+        if (buffer.hasRemaining()) { throw new IllegalArgumentException(buffer.remaining() + " bytes left over"); }
+        return Dataset.ofLists(version, stops, depots, terminals, buses, drivers, routes, runs);
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> strings, String value) throws IOException {
+        out.writeInt(value == null ? NULL : strings.computeIfAbsent(value, key -> strings.size()));
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> strings, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) { writeString(out, strings, value); }
+    }
+
+    private static void writeCoordinates(DataOutputStream out, BusStop stop) throws IOException {
+        out.writeBoolean(stop.hasCoordinates());
+        if (stop.hasCoordinates()) {
+            out.writeDouble(stop.getLatitude());
+            out.writeDouble(stop.getLongitude());
+        }
+    }
+
+    private static void writeBands(DataOutputStream out, List<TravelTimeBand> bands) throws IOException {
+        if (bands == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(bands.size());
+        for (TravelTimeBand band : bands) {
+            out.writeInt(band.getFrom().toSecondOfDay());
+            out.writeInt(band.getTo().toSecondOfDay());
+            out.writeDouble(band.getFactor());
+        }
+    }
+
+    private static void writeChargeCurve(DataOutputStream out, List<ChargeRate> curve) throws IOException {
+        if (curve == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(curve.size());
+        for (ChargeRate rate : curve) {
+            out.writeInt(rate.getFromPercent());
+            out.writeDouble(rate.getKmPerMinute());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, String[] strings) {
+        int index = buffer.getInt();
+        return index == NULL ? null : strings[index];
+    }
+
+    private static void readCoordinates(ByteBuffer buffer, BusStop stop) {
+        if (buffer.get() != 0) {
+            stop.setLatitude(buffer.getDouble());
+            stop.setLongitude(buffer.getDouble());
+        }
+    }
+
+    // Checked again by the setter they are passed to.
+    private static List<TravelTimeBand> readBands(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size == NULL) { return null; }
+        List<TravelTimeBand> bands = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            bands.add(new TravelTimeBand(LocalTime.ofSecondOfDay(buffer.getInt()), LocalTime.ofSecondOfDay(buffer.getInt()), buffer.getDouble()));
+        }
+        return bands;
+    }
+
+    // Checked again by the setter it is passed to.
+    private static List<ChargeRate> readChargeCurve(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size == NULL) { return null; }
+        List<ChargeRate> curve = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) { curve.add(new ChargeRate(buffer.getInt(), buffer.getDouble())); }
+        return curve;
+    }
+
+    // Mutable, like the lists Jackson gives the JSON loader.
+    private static List<String> readStrings(ByteBuffer buffer, String[] strings) {
+        int size = buffer.getInt();
+        if (size == NULL) { return null; }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) { values.add(readString(buffer, strings)); }
+        return values;
+    }
+}
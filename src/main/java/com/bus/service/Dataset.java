@@ -0,0 +1,241 @@
+package com.bus.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.ChargeRate;
+import com.bus.domain.RouteRun;
+import com.bus.domain.TravelTimeBand;
+
+/**
+ * One complete, validated load of the data files (see DatasetLoader). Never changed once built:
+ * DataService publishes a new instance on reload, so a reader holding one sees a single
+ * consistent version of every map, however many reloads happen meanwhile.
+ *
+ * The lists are built once per load and shared by every caller, so they are unmodifiable.
+ * The objects in them are shared too and must be treated as read-only.
+ */
+public final class Dataset {
+
+    static final Dataset EMPTY = new Dataset("empty", Map.of(), Map.of(), Map.of(), Map.of(), Map.of(), Map.of(), List.of());
+
+    private final String version;
+    private final Map<String, BusStop> busStops; // Includes depots and terminals
+    private final Map<String, BusDepot> busDepots;
+    private final Map<String, BusTerminal> busTerminals;
+    private final Map<String, Bus> buses;
+    private final Map<String, BusDriver> busDrivers;
+    private final Map<String, BusRoute> busRoutes;
+    private final List<RouteRun> routeRunsToSchedule;
+
+    private final List<BusStop> busStopList;
+    private final List<BusDepot> busDepotList;
+    private final List<BusTerminal> busTerminalList;
+    private final List<Bus> busList;
+    private final List<BusDriver> busDriverList;
+    private final List<BusRoute> busRouteList;
+    private volatile String contentHash; // Computed on first use
+
+    Dataset(String version, Map<String, BusStop> busStops, Map<String, BusDepot> busDepots, Map<String, BusTerminal> busTerminals,
+            Map<String, Bus> buses, Map<String, BusDriver> busDrivers, Map<String, BusRoute> busRoutes,
+            List<RouteRun> routeRunsToSchedule) {
+        this(version, busStops, busDepots, busTerminals, buses, busDrivers, busRoutes, List.copyOf(routeRunsToSchedule),
+                List.copyOf(busStops.values()), List.copyOf(busDepots.values()), List.copyOf(busTerminals.values()),
+                List.copyOf(buses.values()), List.copyOf(busDrivers.values()), List.copyOf(busRoutes.values()));
+    }
+
+    private Dataset(String version, Map<String, BusStop> busStops, Map<String, BusDepot> busDepots, Map<String, BusTerminal> busTerminals,
+                    Map<String, Bus> buses, Map<String, BusDriver> busDrivers, Map<String, BusRoute> busRoutes,
+                    List<RouteRun> routeRunsToSchedule, List<BusStop> busStopList, List<BusDepot> busDepotList,
+                    List<BusTerminal> busTerminalList, List<Bus> busList, List<BusDriver> busDriverList, List<BusRoute> busRouteList) {
+        this.version = version;
+        this.busStops = busStops;
+        this.busDepots = busDepots;
+        this.busTerminals = busTerminals;
+        this.buses = buses;
+        this.busDrivers = busDrivers;
+        this.busRoutes = busRoutes;
+        this.routeRunsToSchedule = routeRunsToSchedule;
+        this.busStopList = busStopList;
+        this.busDepotList = busDepotList;
+        this.busTerminalList = busTerminalList;
+        this.busList = busList;
+        this.busDriverList = busDriverList;
+        this.busRouteList = busRouteList;
+    }
+
+    // From lists already in the order the getters return them, as a DataSnapshot stores them.
+    static Dataset ofLists(String version, List<BusStop> busStops, List<BusDepot> busDepots, List<BusTerminal> busTerminals,
+                           List<Bus> buses, List<BusDriver> busDrivers, List<BusRoute> busRoutes, List<RouteRun> routeRunsToSchedule) {
+        return new Dataset(version, index(busStops, BusStop::getId), index(busDepots, BusDepot::getId),
+                index(busTerminals, BusTerminal::getId), index(buses, Bus::getBusId), index(busDrivers, BusDriver::getId),
+                index(busRoutes, BusRoute::getId), List.copyOf(routeRunsToSchedule), List.copyOf(busStops),
+                List.copyOf(busDepots), List.copyOf(busTerminals), List.copyOf(buses), List.copyOf(busDrivers), List.copyOf(busRoutes));
+    }
+
+    // Lookups only: the getters' order comes from the lists.
+    private static <T> Map<String, T> index(List<T> items, Function<T, String> id) {
+        Map<String, T> map = new HashMap<>(items.size() * 4 / 3 + 1);
+        for (T item : items) { map.put(id.apply(item), item); }
+        return map;
+    }
+
+    // Differs for every load, also across restarts: usable as an HTTP entity tag.
+    public String version() { return version; }
+
+    public List<BusStop> busStops() { return busStopList; }
+    public BusStop busStop(String id) { return busStops.get(id); }
+    public List<BusDepot> busDepots() { return busDepotList; }
+    public BusDepot busDepot(String id) { return busDepots.get(id); }
+    public List<BusTerminal> busTerminals() { return busTerminalList; }
+    public BusTerminal busTerminal(String id) { return busTerminals.get(id); }
+    public List<Bus> buses() { return busList; }
+    public Bus bus(String busId) { return buses.get(busId); }
+    public List<BusDriver> busDrivers() { return busDriverList; }
+    public BusDriver busDriver(String id) { return busDrivers.get(id); }
+    public List<BusRoute> busRoutes() { return busRouteList; }
+    public BusRoute busRoute(String id) { return busRoutes.get(id); }
+    public List<RouteRun> routeRunsToSchedule() { return routeRunsToSchedule; }
+
+    /**
+     * SHA-256 over everything a solve reads, in list order (which the solver follows too). Unlike
+     * version() it is the same for a reload of unchanged files. Names and stop lists are left out:
+     * they do not change a schedule. Anything the solver starts to read must be added here.
+     */
+    String contentHash() {
+        String hash = contentHash;
+        if (hash == null) {
+            contentHash = hash = computeContentHash();
+        }
+        return hash;
+    }
+
+    private String computeContentHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest)))) {
+            out.writeInt(busList.size());
+            for (Bus bus : busList) {
+                writeNullable(out, bus.getBusId());
+                writeNullable(out, bus.getDepotId());
+                out.writeInt(bus.getRangeKm());
+                out.writeInt(bus.getCurrentChargeKm());
+                writeNullable(out, bus.getCurrentLocationId());
+                writeChargeCurve(out, bus.getChargeCurve());
+            }
+            out.writeInt(busDriverList.size());
+            for (BusDriver driver : busDriverList) {
+                writeNullable(out, driver.getId());
+                writeNullable(out, driver.getDepotId());
+                out.writeInt(driver.getDrivingMinsThisWeek());
+            }
+            out.writeInt(busDepotList.size());
+            for (BusDepot depot : busDepotList) {
+                writeNullable(out, depot.getId());
+                out.writeInt(depot.getMaxCapacity());
+                out.writeBoolean(depot.isHasChargingStation());
+                out.writeInt(depot.getChargerCount() == null ? -1 : depot.getChargerCount());
+                out.writeInt(depot.getServedTerminalIds() == null ? -1 : depot.getServedTerminalIds().size());
+                if (depot.getServedTerminalIds() != null) {
+                    for (String terminalId : depot.getServedTerminalIds()) { writeNullable(out, terminalId); }
+                }
+                writeBands(out, depot.getTravelTimeBands());
+            }
+            for (BusStop stop : busStopList) { // Deadheads, see TravelMatrix
+                if (!stop.hasCoordinates()) { continue; }
+                writeNullable(out, stop.getId());
+                out.writeDouble(stop.getLatitude());
+                out.writeDouble(stop.getLongitude());
+            }
+            out.writeBoolean(false); // End of the stops with coordinates
+            for (BusTerminal terminal : busTerminalList) { // Chargers, see ChargingNetwork
+                if (terminal.isHasChargingStation()) { writeNullable(out, terminal.getId()); }
+            }
+            out.writeBoolean(false); // End of the terminals with chargers
+            out.writeInt(busRouteList.size());
+            for (BusRoute route : busRouteList) {
+                writeNullable(out, route.getId());
+                writeNullable(out, route.getStartTerminalId());
+                writeNullable(out, route.getEndTerminalId());
+                out.writeInt(route.getTotalDistanceKm());
+                out.writeInt(route.getTravelTimeMinutes());
+                writeBands(out, route.getTravelTimeBands());
+            }
+            out.writeInt(routeRunsToSchedule.size());
+            for (RouteRun run : routeRunsToSchedule) {
+                writeNullable(out, run.getId());
+                writeNullable(out, run.getBusRouteId());
+                out.writeLong(run.getDepartureTime().toNanoOfDay());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not from a null stream
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void writeChargeCurve(DataOutputStream out, List<ChargeRate> curve) throws IOException {
+        out.writeInt(curve == null ? -1 : curve.size());
+        if (curve == null) { return; }
+        for (ChargeRate rate : curve) {
+            out.writeInt(rate.getFromPercent());
+            out.writeDouble(rate.getKmPerMinute());
+        }
+    }
+
+    private static void writeBands(DataOutputStream out, List<TravelTimeBand> bands) throws IOException {
+        out.writeInt(bands == null ? -1 : bands.size());
+        if (bands == null) { return; }
+        for (TravelTimeBand band : bands) {
+            out.writeInt(band.getFrom().toSecondOfDay());
+            out.writeInt(band.getTo().toSecondOfDay());
+            out.writeDouble(band.getFactor());
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) { out.writeUTF(value); }
+    }
+
+    // Fresh RouteRun objects for a solve, which writes its assignments into them.
+    List<RouteRun> routeRunsToSolve() {
+        List<RouteRun> runs = new ArrayList<>(routeRunsToSchedule.size());
+        for (RouteRun run : routeRunsToSchedule) {
+            BusRoute route = busRoutes.get(run.getBusRouteId());
+            runs.add(new RouteRun(run.getId(), run.getBusRouteId(), run.getDepartureTime(), route.travelTimeMinutesAt(run.getDepartureTime())));
+        }
+        return runs;
+    }
+
+    String summary() {
+        return "Total Bus Stops (incl. depots, terminals): " + busStops.size()
+                + "\nTotal Depots: " + busDepots.size()
+                + "\nTotal Terminals: " + busTerminals.size()
+                + "\nTotal Buses: " + buses.size()
+                + "\nTotal Drivers: " + busDrivers.size()
+                + "\nTotal Route Templates: " + busRoutes.size()
+                + "\nTotal Route Runs to Schedule: " + routeRunsToSchedule.size();
+    }
+}
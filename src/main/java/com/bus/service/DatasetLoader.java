@@ -0,0 +1,308 @@
+package com.bus.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.RouteRun;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the seven data files into a Dataset, either from the bundled /data classpath folder or
+ * from a directory on disk. The files are parsed in parallel, then checked together: a missing or
+ * unreadable file, a duplicate id or a reference to something that does not exist rejects the
+ * whole load, listing every problem found, so a half-edited directory never becomes the data.
+ *
+ * Files are streamed: each record is indexed as soon as it has been read, so no file is ever held
+ * as a whole list next to its map. A bad record stops its file at once and is reported with its
+ * line and column. route_runs_config.json is read token by token once bus_routes.json is in, and
+ * "HH:mm" departure times are parsed straight from the parser's buffer into shared LocalTimes.
+ */
+final class DatasetLoader {
+
+    private static final String RUNS_FILE = "route_runs_config.json";
+    private static final List<String> FILE_NAMES = List.of("bus_stops.json", "bus_depots.json", "bus_terminals.json", "buses.json",
+            "bus_drivers.json", "bus_routes.json", RUNS_FILE);
+
+    private final ObjectMapper objectMapper;
+    private final Path directory; // Null: the bundled classpath data
+    private final String version;
+    private final List<String> problems = new ArrayList<>();
+
+    private DatasetLoader(ObjectMapper objectMapper, Path directory, String version) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.version = version;
+    }
+
+    static String describe(Path directory) {
+        return directory == null ? "classpath:/data" : directory.toString();
+    }
+
+    // Changes whenever the files may have: their sizes and modification times in a directory, their contents when bundled.
+    static long sourceFingerprint(Path directory) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(describe(directory).getBytes(StandardCharsets.UTF_8));
+        ByteBuffer sizeAndTime = ByteBuffer.allocate(2 * Long.BYTES);
+        for (String fileName : FILE_NAMES) {
+            crc.update(fileName.getBytes(StandardCharsets.UTF_8));
+            if (directory != null) {
+                BasicFileAttributes attributes = Files.readAttributes(directory.resolve(fileName), BasicFileAttributes.class);
+                sizeAndTime.clear();
+                sizeAndTime.putLong(attributes.size()).putLong(attributes.lastModifiedTime().toMillis()).flip();
+                crc.update(sizeAndTime);
+            } else {
+                try (InputStream inputStream = new CheckedInputStream(open(null, fileName), crc)) {
+                    inputStream.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Throws IllegalStateException naming every problem if the files do not make a valid dataset.
+    static Dataset load(ObjectMapper objectMapper, Path directory, String version) {
+        return new DatasetLoader(objectMapper, directory, version).load();
+    }
+
+    private Dataset load() {
+        List<BusDepot> depotsInFileOrder = new ArrayList<>();
+        List<BusTerminal> terminalsInFileOrder = new ArrayList<>();
+        CompletableFuture<Map<String, BusStop>> stopsFile = indexAsync("bus_stops.json", BusStop.class, BusStop::getId, null);
+        CompletableFuture<Map<String, BusDepot>> depotsFile = indexAsync("bus_depots.json", BusDepot.class, BusDepot::getId, depotsInFileOrder::add);
+        CompletableFuture<Map<String, BusTerminal>> terminalsFile = indexAsync("bus_terminals.json", BusTerminal.class, BusTerminal::getId, terminalsInFileOrder::add);
+        CompletableFuture<Map<String, Bus>> busesFile = indexAsync("buses.json", Bus.class, Bus::getBusId, null);
+        CompletableFuture<Map<String, BusDriver>> driversFile = indexAsync("bus_drivers.json", BusDriver.class, BusDriver::getId, null);
+        CompletableFuture<Map<String, BusRoute>> routesFile = indexAsync("bus_routes.json", BusRoute.class, BusRoute::getId, null);
+        CompletableFuture<List<RouteRun>> runsFile = routesFile.thenApplyAsync(this::readRouteRuns);
+
+        Map<String, BusStop> busStops = join("bus_stops.json", stopsFile);
+        Map<String, BusDepot> busDepots = join("bus_depots.json", depotsFile);
+        Map<String, BusTerminal> busTerminals = join("bus_terminals.json", terminalsFile);
+        Map<String, Bus> buses = join("buses.json", busesFile);
+        Map<String, BusDriver> busDrivers = join("bus_drivers.json", driversFile);
+        Map<String, BusRoute> busRoutes = join("bus_routes.json", routesFile);
+        List<RouteRun> routeRunsToSchedule = busRoutes == null ? null : join(RUNS_FILE, runsFile); // Not read without routes
+        failIfProblems();
+        depotsInFileOrder.forEach(depot -> busStops.put(depot.getId(), depot));
+        terminalsInFileOrder.forEach(terminal -> busStops.put(terminal.getId(), terminal));
+
+        for (BusStop stop : busStops.values()) {
+            if ((stop.getLatitude() == null) != (stop.getLongitude() == null)
+                    || (stop.hasCoordinates() && (!(Math.abs(stop.getLatitude()) <= 90) || !(Math.abs(stop.getLongitude()) <= 180)))) {
+                problems.add("stop " + stop.getId() + " has invalid coordinates " + stop.getLatitude() + ", " + stop.getLongitude());
+            }
+        }
+        for (BusDepot depot : busDepots.values()) {
+            if (depot.getMaxCapacity() < 0 || (depot.getChargerCount() != null && depot.getChargerCount() < 0)) {
+                problems.add("bus_depots.json: depot " + depot.getId() + " has a negative maxCapacity or chargerCount");
+            }
+        }
+        for (Bus bus : buses.values()) {
+            if (!contains(busDepots, bus.getDepotId())) { problems.add("buses.json: bus " + bus.getBusId() + " has unknown depot " + bus.getDepotId()); }
+        }
+        for (BusDriver driver : busDrivers.values()) {
+            if (driver.getDepotId() != null && !contains(busDepots, driver.getDepotId())) {
+                problems.add("bus_drivers.json: driver " + driver.getId() + " has unknown depot " + driver.getDepotId());
+            }
+            if (driver.getDrivingMinsThisWeek() < 0) {
+                problems.add("bus_drivers.json: driver " + driver.getId() + " has a negative drivingMinsThisWeek");
+            }
+        }
+        for (BusRoute route : busRoutes.values()) {
+            if (!contains(busStops, route.getStartTerminalId()) || !contains(busStops, route.getEndTerminalId())) {
+                problems.add("bus_routes.json: route " + route.getId() + " runs between unknown stops "
+                        + route.getStartTerminalId() + " and " + route.getEndTerminalId());
+            }
+        }
+        failIfProblems();
+        return new Dataset(version, busStops, busDepots, busTerminals, buses, busDrivers, busRoutes, routeRunsToSchedule);
+    }
+
+    // ConcurrentHashMap keeps the iteration order the getters have always returned.
+    private <T> CompletableFuture<Map<String, T>> indexAsync(String fileName, Class<T> type, Function<T, String> id, Consumer<T> inFileOrder) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, T> map = new ConcurrentHashMap<>();
+            readRecords(fileName, (parser, start) -> {
+                T item = objectMapper.readValue(parser, type);
+                String itemId = item == null ? null : id.apply(item);
+                if (itemId == null) { throw badRecord(fileName, start, "entry without id"); }
+                if (map.putIfAbsent(itemId, item) != null) { throw badRecord(fileName, start, "duplicate id " + itemId); }
+                if (inFileOrder != null) { inFileOrder.accept(item); }
+            });
+            return map;
+        });
+    }
+
+    // Each entry: {"busRouteId": "R1", "departureTimes": ["08:00", ...]}, for a route in bus_routes.json.
+    private List<RouteRun> readRouteRuns(Map<String, BusRoute> busRoutes) {
+        List<RouteRun> routeRuns = new ArrayList<>();
+        readRecords(RUNS_FILE, (parser, start) -> {
+            if (parser.currentToken() != JsonToken.START_OBJECT) { throw badRecord(RUNS_FILE, start, "expected an object"); }
+            BusRoute route = null;
+            String busRouteId = null;
+            List<LocalTime> departuresBeforeRoute = null; // Only if departureTimes comes before busRouteId
+            boolean hasDepartures = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("busRouteId".equals(field)) {
+                    busRouteId = parser.getValueAsString();
+                    route = busRouteId == null ? null : busRoutes.get(busRouteId);
+                    if (route == null) { throw badRecord(RUNS_FILE, start, "departures for unknown route " + busRouteId); }
+                } else if ("departureTimes".equals(field)) {
+                    hasDepartures = true;
+                    if (parser.currentToken() != JsonToken.START_ARRAY) { throw badRecord(RUNS_FILE, parser.currentTokenLocation(), "departureTimes must be a list"); }
+                    if (route == null) { departuresBeforeRoute = new ArrayList<>(); }
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        LocalTime departureTime = readDepartureTime(parser);
+                        if (route == null) {
+                            departuresBeforeRoute.add(departureTime);
+                        } else {
+                            routeRuns.add(new RouteRun(runId(route.getId(), departureTime), route.getId(), departureTime, route.travelTimeMinutesAt(departureTime)));
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (route == null) { throw badRecord(RUNS_FILE, start, "departures for unknown route " + busRouteId); }
+            if (!hasDepartures) { throw badRecord(RUNS_FILE, start, "route " + busRouteId + " has no departureTimes"); }
+            if (departuresBeforeRoute != null) {
+                for (LocalTime departureTime : departuresBeforeRoute) {
+                    routeRuns.add(new RouteRun(runId(route.getId(), departureTime), route.getId(), departureTime, route.travelTimeMinutesAt(departureTime)));
+                }
+            }
+        });
+        return routeRuns;
+    }
+
+    // The parser is on the departure's string token.
+    private static LocalTime readDepartureTime(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            int minutes = parser.getTextLength() == 5 ? minuteOfHourMinute(parser.getTextCharacters(), parser.getTextOffset()) : -1;
+            if (minutes >= 0) { return ActivityLog.toLocalTime(minutes); }
+            try {
+                return LocalTime.parse(parser.getText()); // Anything else LocalTime accepts, such as 08:00:30
+            } catch (DateTimeParseException e) {
+                // Reported below
+            }
+        }
+        throw badRecord(RUNS_FILE, parser.currentTokenLocation(), "invalid departure time " + parser.getText());
+    }
+
+    // The route id and the departure as LocalTime.toString() gives it without the colons, e.g. R1-0805.
+    static String runId(String routeId, LocalTime departureTime) {
+        if (departureTime.getSecond() != 0 || departureTime.getNano() != 0) {
+            return routeId + "-" + departureTime.toString().replace(":", "");
+        }
+        int hour = departureTime.getHour();
+        int minute = departureTime.getMinute();
+        return new StringBuilder(routeId.length() + 5).append(routeId).append('-')
+                .append((char) ('0' + hour / 10)).append((char) ('0' + hour % 10))
+                .append((char) ('0' + minute / 10)).append((char) ('0' + minute % 10)).toString();
+    }
+
+    // Minute of the day for exactly "HH:mm", or -1.
+    private static int minuteOfHourMinute(char[] chars, int offset) {
+        int hour = twoDigits(chars, offset);
+        int minute = twoDigits(chars, offset + 3);
+        if (chars[offset + 2] != ':' || hour < 0 || hour > 23 || minute < 0 || minute > 59) { return -1; }
+        return hour * 60 + minute;
+    }
+
+    private static int twoDigits(char[] chars, int offset) {
+        char tens = chars[offset];
+        char ones = chars[offset + 1];
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') { return -1; }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    private interface RecordReader {
+        void read(JsonParser parser, JsonLocation start) throws IOException;
+    }
+
+    // Streams the top-level list of a file, one record at a time.
+    private void readRecords(String fileName, RecordReader reader) {
+        try (InputStream inputStream = open(directory, fileName); JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) { throw badRecord(fileName, parser.currentTokenLocation(), "expected a list of entries"); }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) { throw badRecord(fileName, parser.currentLocation(), "unexpected end of file"); }
+                reader.read(parser, parser.currentTokenLocation());
+            }
+        } catch (JsonProcessingException e) {
+            throw badRecord(fileName, e.getLocation(), e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static IllegalStateException badRecord(String fileName, JsonLocation location, String message) {
+        String where = location == null ? "" : " line " + location.getLineNr() + ", column " + location.getColumnNr();
+        return new IllegalStateException(fileName + where + ": " + message);
+    }
+
+    private static InputStream open(Path directory, String fileName) throws IOException {
+        if (directory != null) { return Files.newInputStream(directory.resolve(fileName)); }
+        InputStream inputStream = DatasetLoader.class.getResourceAsStream("/data/" + fileName);
+        if (inputStream == null) { throw new NoSuchFileException("/data/" + fileName); }
+        return inputStream;
+    }
+
+    private <T> T join(String fileName, CompletableFuture<T> file) {
+        try {
+            return file.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof UncheckedIOException) { cause = cause.getCause(); }
+            if (cause instanceof NoSuchFileException) {
+                problems.add(fileName + ": file not found");
+            } else if (cause instanceof IllegalStateException) {
+                problems.add(cause.getMessage()); // Names its file, and where in it
+            } else {
+                problems.add(fileName + ": " + cause.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private static boolean contains(Map<String, ?> map, String id) {
+        return id != null && map.containsKey(id);
+    }
+
+    private void failIfProblems() {
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid data in " + describe(directory) + ": " + String.join("; ", problems));
+        }
+    }
+}
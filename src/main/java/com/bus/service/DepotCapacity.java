@@ -0,0 +1,165 @@
+package com.bus.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+
+/**
+ * Parking bays and chargers of the depots of one solve. A depot has maxCapacity bays (0 = no
+ * limit) and chargerCount chargers (unset = no limit, as before; none without a charging
+ * station). A bus holds a bay at its home depot from the moment it gets back until it leaves for
+ * its next run, and a charger for the whole charge; a bus that needs a charge waits for the first
+ * free one.
+ *
+ * Only depots whose buses could ever run out of bays or chargers are tracked; the others cost
+ * nothing. Built once per solve; the use of the bays and chargers is in each engine's Occupancy.
+ */
+final class DepotCapacity {
+
+    static final DepotCapacity NONE = new DepotCapacity(Map.of());
+
+    static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private record Limits(int bays, int chargers) {}
+
+    // One change a bus made to the use of its home depot: delta on [from, to) of the bays or the chargers.
+    record Booking(boolean charger, int from, int to, int delta) {}
+
+    private final Map<String, Limits> limitsByDepot; // Tracked depots only
+
+    private DepotCapacity(Map<String, Limits> limitsByDepot) {
+        this.limitsByDepot = limitsByDepot;
+    }
+
+    static DepotCapacity forSolve(List<BusDepot> depots, List<Bus> buses) {
+        Map<String, Integer> busesByDepot = new HashMap<>();
+        for (Bus bus : buses) { busesByDepot.merge(bus.getDepotId(), 1, Integer::sum); }
+        Map<String, Limits> limitsByDepot = new HashMap<>();
+        for (BusDepot depot : depots) {
+            int bays = depot.getMaxCapacity() > 0 ? depot.getMaxCapacity() : UNLIMITED;
+            int chargers = depot.getChargerCount() == null ? UNLIMITED : depot.isHasChargingStation() ? depot.getChargerCount() : 0;
+            int homeBuses = busesByDepot.getOrDefault(depot.getId(), 0);
+            if (homeBuses > bays || homeBuses > chargers) { limitsByDepot.put(depot.getId(), new Limits(bays, chargers)); }
+        }
+        return limitsByDepot.isEmpty() ? NONE : new DepotCapacity(limitsByDepot);
+    }
+
+    boolean isEmpty() {
+        return limitsByDepot.isEmpty();
+    }
+
+    boolean tracks(String depotId) {
+        return limitsByDepot.containsKey(depotId);
+    }
+
+    int bays(String depotId) {
+        return limitsByDepot.get(depotId).bays();
+    }
+
+    int chargers(String depotId) {
+        return limitsByDepot.get(depotId).chargers();
+    }
+
+    Occupancy newOccupancy() {
+        return new Occupancy(this);
+    }
+
+    /**
+     * Bays and chargers in use at each tracked depot over the day, for one engine. Timelines are
+     * created on first use, so the engine of one part of a network only holds its own depots.
+     */
+    static final class Occupancy {
+
+        final DepotCapacity capacity;
+        private final Map<String, OccupancyTimeline> bays = new HashMap<>();
+        private final Map<String, OccupancyTimeline> chargers = new HashMap<>();
+        // Timelines of the occupancy this one was copied from, only read: a depot's is copied on first use
+        private final Map<String, OccupancyTimeline> sharedBays = new HashMap<>();
+        private final Map<String, OccupancyTimeline> sharedChargers = new HashMap<>();
+
+        private Occupancy(DepotCapacity capacity) {
+            this.capacity = capacity;
+        }
+
+        // Independent copy. Timelines are copied per depot when first used here, so other must not
+        // change afterwards (a solved engine being copied for rescheduling does not).
+        Occupancy(Occupancy other) {
+            this.capacity = other.capacity;
+            sharedBays.putAll(other.sharedBays);
+            sharedBays.putAll(other.bays);
+            sharedChargers.putAll(other.sharedChargers);
+            sharedChargers.putAll(other.chargers);
+        }
+
+        // Takes over the timelines of the engine of another part of the network (no depot is in two parts).
+        void addAll(Occupancy part) {
+            part.bays.forEach((depotId, timeline) -> {
+                if (bays.putIfAbsent(depotId, timeline) != null) { throw new IllegalStateException("Depot " + depotId + " is in two parts"); }
+            });
+            chargers.putAll(part.chargers);
+            sharedBays.putAll(part.sharedBays);
+            sharedChargers.putAll(part.sharedChargers);
+        }
+
+        // Whether one more bus can park from this minute on, with the caller's own bay (if it holds one) left out.
+        boolean hasFreeBay(String depotId, int from, boolean holdsBay) {
+            int inUse = bays(depotId).max(from, OccupancyTimeline.HORIZON) - (holdsBay ? 1 : 0);
+            return inUse < capacity.bays(depotId);
+        }
+
+        Booking park(String depotId, int from) {
+            return book(depotId, new Booking(false, from, OccupancyTimeline.HORIZON, 1));
+        }
+
+        // A bus parked since any time before leaving: frees its bay from then on.
+        Booking leave(String depotId, int at) {
+            return book(depotId, new Booking(false, at, OccupancyTimeline.HORIZON, -1));
+        }
+
+        // Books the first free charger from this minute on; the booking starts when the charge does.
+        Booking bookCharger(String depotId, int from, int durationMinutes) {
+            int start = chargers(depotId).earliestFree(from, Math.max(1, durationMinutes), capacity.chargers(depotId));
+            return book(depotId, new Booking(true, start, start + durationMinutes, 1));
+        }
+
+        // Ends a booking early at this minute, e.g. a bus unplugged before its charge was done. Returns
+        // what is left of it: the booking itself if it had ended already, null if it had not started.
+        Booking shorten(String depotId, Booking booking, int at) {
+            if (at >= booking.to()) { return booking; }
+            undo(depotId, booking);
+            return at > booking.from() ? book(depotId, new Booking(booking.charger(), booking.from(), at, booking.delta())) : null;
+        }
+
+        // Takes back a booking, e.g. when a bus's day is replayed.
+        void undo(String depotId, Booking booking) {
+            (booking.charger() ? chargers(depotId) : bays(depotId)).add(booking.from(), booking.to(), -booking.delta());
+        }
+
+        private Booking book(String depotId, Booking booking) {
+            (booking.charger() ? chargers(depotId) : bays(depotId)).add(booking.from(), booking.to(), booking.delta());
+            return booking;
+        }
+
+        private OccupancyTimeline chargers(String depotId) {
+            return timeline(chargers, sharedChargers, depotId);
+        }
+
+        private OccupancyTimeline bays(String depotId) {
+            return timeline(bays, sharedBays, depotId);
+        }
+
+        // Even a query changes a timeline (pending updates are pushed down), so a shared one is copied first.
+        private static OccupancyTimeline timeline(Map<String, OccupancyTimeline> own, Map<String, OccupancyTimeline> shared, String depotId) {
+            OccupancyTimeline timeline = own.get(depotId);
+            if (timeline == null) {
+                OccupancyTimeline original = shared.remove(depotId);
+                timeline = original == null ? new OccupancyTimeline() : new OccupancyTimeline(original);
+                own.put(depotId, timeline);
+            }
+            return timeline;
+        }
+    }
+}
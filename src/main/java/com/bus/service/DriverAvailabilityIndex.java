@@ -0,0 +1,72 @@
+package com.bus.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Drivers ordered by their first-fit rank, with a min segment tree over nextAvailableMinutes. The solver takes the first driver in rank order who can make the run, so
+ * the index answers "lowest rank at or after r whose nextAvailableMinutes is no later than t" in
+ * O(log n) and the solver only runs the full legality check on those candidates.
+ *
+ * Drivers who can no longer fit any run today are retired and never visited again.
+ */
+class DriverAvailabilityIndex {
+
+    private static final int RETIRED = Integer.MAX_VALUE;
+
+    private final DriverState[] byRank;
+    private final int size;  // Number of leaves, a power of two
+    private final int[] tree; // tree[1] is the root, leaves start at tree[size]
+
+    DriverAvailabilityIndex(List<DriverState> driversInRankOrder) {
+        this.byRank = driversInRankOrder.toArray(new DriverState[0]);
+        int leaves = 1;
+        while (leaves < Math.max(1, byRank.length)) { leaves <<= 1; }
+        this.size = leaves;
+        this.tree = new int[2 * leaves];
+        Arrays.fill(tree, RETIRED);
+        for (int rank = 0; rank < byRank.length; rank++) {
+            byRank[rank].rank = rank;
+            tree[size + rank] = byRank[rank].nextAvailableMinutes;
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            tree[node] = Math.min(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    DriverState get(int rank) { return byRank[rank]; }
+
+    // Call after the driver's nextAvailableMinutes changed.
+    void update(DriverState driverState) { set(driverState.rank, driverState.nextAvailableMinutes); }
+
+    // Swaps in a new state object for the driver at the same rank.
+    void replace(DriverState driverState) {
+        byRank[driverState.rank] = driverState;
+        update(driverState);
+    }
+
+    void retire(DriverState driverState) { set(driverState.rank, RETIRED); }
+
+    // Lowest rank >= fromRank whose driver is free no later than latestMinutes, or -1.
+    int nextCandidate(int fromRank, int latestMinutes) {
+        if (fromRank >= byRank.length) { return -1; }
+        return descend(1, 0, size - 1, fromRank, latestMinutes);
+    }
+
+    private int descend(int node, int lo, int hi, int fromRank, int latest) {
+        if (hi < fromRank || tree[node] > latest) { return -1; }
+        if (lo == hi) { return lo; }
+        int mid = (lo + hi) >>> 1;
+        int left = descend(2 * node, lo, mid, fromRank, latest);
+        return left >= 0 ? left : descend(2 * node + 1, mid + 1, hi, fromRank, latest);
+    }
+
+    private void set(int rank, int value) {
+        int node = size + rank;
+        tree[node] = value;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            tree[node] = Math.min(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+}
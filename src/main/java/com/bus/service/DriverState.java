@@ -0,0 +1,34 @@
+package com.bus.service;
+
+import com.bus.domain.BusDriver;
+
+// Mutable per-solve state of a driver. Kept package-private: only the scheduling engine touches it.
+class DriverState {
+    final BusDriver driver;
+    int nextAvailableMinutes; // ServiceTime minutes
+    String currentLocationId; // null until the first run: the driver can start at any terminal
+    int continuousDrivingTimeMinutes;
+    int totalDrivingTimeMinutesToday;
+    final int drivingMinutesEarlierThisWeek; // Carried over from the days before (see MultiDaySolve)
+    int rank; // Position in the first-fit search order, see DriverAvailabilityIndex
+
+    DriverState(BusDriver driver) {
+        this.driver = driver;
+        this.nextAvailableMinutes = ServiceTime.START_OF_DAY;
+        this.currentLocationId = null;
+        this.continuousDrivingTimeMinutes = 0;
+        this.totalDrivingTimeMinutesToday = 0;
+        this.drivingMinutesEarlierThisWeek = driver.getDrivingMinsThisWeek();
+    }
+
+    // Copy for an independent engine (incremental re-solve)
+    DriverState(DriverState other) {
+        this.driver = other.driver;
+        this.nextAvailableMinutes = other.nextAvailableMinutes;
+        this.currentLocationId = other.currentLocationId;
+        this.continuousDrivingTimeMinutes = other.continuousDrivingTimeMinutes;
+        this.totalDrivingTimeMinutesToday = other.totalDrivingTimeMinutesToday;
+        this.drivingMinutesEarlierThisWeek = other.drivingMinutesEarlierThisWeek;
+        this.rank = other.rank;
+    }
+}
@@ -0,0 +1,784 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.SolverConfig;
+
+/**
+ * The greedy construction engine: bus/driver state, availability indexes and the activity log of
+ * one solve. SchedulingService drives it run by run; the incremental re-solve reuses the same
+ * search and assignment steps on a copy of a finished engine.
+ *
+ * Assignments are split by role (bus, driver) so a disruption can replace one resource of a run
+ * and keep the other.
+ */
+class GreedyScheduler {
+
+    final Map<String, BusRoute> routeTemplates;
+    final Map<String, BusState> busStates;
+    final Map<String, DriverState> driverStates; // HashMap: its iteration order is the driver first-fit order
+    final ActivityLog activityLog;
+
+    // Runs each resource has done so far, in the order they were assigned (= departure order)
+    final Map<String, List<RouteRun>> runsByBus;
+    final Map<String, List<RouteRun>> runsByDriver;
+
+    // Resources taken out of service (breakdown, sick driver): they keep their past runs but get no new ones
+    final Set<String> withdrawnBusIds;
+    final Set<String> withdrawnDriverIds;
+
+    final ScoreTracker scoreTracker;
+    int minimumFleetSize; // Fewest buses that can cover the runs, when MinimumFleetBlocks planned them; 0 otherwise
+
+    // States this engine shares with the engine it was copied from: copied before their first change here
+    private final Set<String> sharedBusIds = new HashSet<>();
+    private final Set<String> sharedDriverIds = new HashSet<>();
+
+    private final BusAvailabilityIndex busIndex = new BusAvailabilityIndex();
+    private final Set<String> homeDepotIds;
+    private final DriverAvailabilityIndex driverIndex;
+    private final int shortestRouteTravelTimeMinutes;
+    final ServiceTime clock;
+    final ServiceAreas serviceAreas;
+    final SolverConfig config; // Rules and weights of this solve; never modified
+    final TravelMatrix travel; // Deadheads between stops with coordinates; the others use the config's fixed values
+    final DepotCapacity.Occupancy depotUse; // Bays and chargers in use at the depots that can run out of them
+    final ChargingNetwork charging; // Chargers and charge curves for partial charging; NONE charges in full on return
+
+    GreedyScheduler(List<Bus> allBuses, List<BusDriver> allDrivers, List<BusRoute> allRoutes, ServiceTime clock,
+                    ServiceAreas serviceAreas, TravelMatrix travel, DepotCapacity capacity, ChargingNetwork charging, SolverConfig config) {
+        this(clock, serviceAreas, travel, capacity.newOccupancy(), charging, config, allRoutes.stream().collect(Collectors.toMap(BusRoute::getId, route -> route)),
+             allBuses.stream().collect(Collectors.toMap(Bus::getBusId, BusState::new)), driverStates(allDrivers, null),
+             new ActivityLog(), new HashMap<>(), new HashMap<>(), new HashSet<>(), new HashSet<>(), new ScoreTracker(config));
+        startDay(allBuses);
+    }
+
+    // Engine for one part of a network (see NetworkPartitioner): drivers are searched in the order
+    // they have in an engine for the whole network, given by firstFitRanks.
+    GreedyScheduler(List<Bus> allBuses, List<BusDriver> allDrivers, List<BusRoute> allRoutes, ServiceTime clock,
+                    ServiceAreas serviceAreas, TravelMatrix travel, DepotCapacity capacity, ChargingNetwork charging, SolverConfig config,
+                    Map<String, Integer> firstFitRanks) {
+        this(clock, serviceAreas, travel, capacity.newOccupancy(), charging, config, allRoutes.stream().collect(Collectors.toMap(BusRoute::getId, route -> route)),
+             allBuses.stream().collect(Collectors.toMap(Bus::getBusId, BusState::new)), driverStates(allDrivers, firstFitRanks),
+             new ActivityLog(), new HashMap<>(), new HashMap<>(), new HashSet<>(), new HashSet<>(), new ScoreTracker(config));
+        startDay(allBuses);
+    }
+
+    // Buses that start the day at their home depot hold a bay there from the start, and buses at a
+    // charger are plugged in from the start (partial charging).
+    private void startDay(List<Bus> allBuses) {
+        for (Bus bus : allBuses) {
+            startDay(busStates.get(bus.getBusId()));
+        }
+    }
+
+    private void startDay(BusState busState) {
+        prepare(busState);
+        String depotId = busState.bus.getDepotId();
+        if (depotUse.capacity.tracks(depotId) && depotId.equals(busState.currentLocationId)) {
+            book(busState, depotUse.park(depotId, ServiceTime.START_OF_DAY));
+            busState.parkedSince = ServiceTime.START_OF_DAY;
+        }
+        if (depotId.equals(busState.currentLocationId) && chargersLimited(depotId)) { plugIn(busState, ServiceTime.START_OF_DAY); }
+    }
+
+    // A bus at the start of the day, for dry runs that book nothing (see LocalSearchOptimizer).
+    BusState newBusState(Bus bus) {
+        BusState busState = new BusState(bus);
+        prepare(busState);
+        return busState;
+    }
+
+    private void prepare(BusState busState) {
+        if (!charging.isPartial()) { return; }
+        busState.chargeCurve = charging.curveOf(busState.bus);
+        if (charging.hasCharger(busState.currentLocationId) && !chargersLimited(busState.currentLocationId)) {
+            busState.pluggedSince = ServiceTime.START_OF_DAY;
+        }
+    }
+
+    // Partial charging at a depot with fewer chargers than buses: the bus queues for a charger long
+    // enough to fill up, and gives back what it has not used when it leaves (see completeBusRun).
+    private void plugIn(BusState busState, int at) {
+        String depotId = busState.currentLocationId;
+        int minutesToFull = busState.chargeCurve.minutesToFull(busState.currentChargeKm);
+        busState.pluggedSince = BusState.NOT_PLUGGED;
+        busState.chargerBooking = null;
+        if (minutesToFull == 0 || depotUse.capacity.chargers(depotId) == 0) { return; }
+        DepotCapacity.Booking charger = depotUse.bookCharger(depotId, at, minutesToFull);
+        if (charger.from() >= OccupancyTimeline.HORIZON) { return; } // No charger free today
+        book(busState, charger);
+        busState.chargerBooking = charger;
+        busState.pluggedSince = charger.from();
+    }
+
+    private boolean chargersLimited(String locationId) {
+        return charging.isPartial() && charging.hasCharger(locationId) && depotUse.capacity.tracks(locationId)
+                && depotUse.capacity.chargers(locationId) != DepotCapacity.UNLIMITED;
+    }
+
+    private void book(BusState busState, DepotCapacity.Booking booking) {
+        if (busState.depotBookings.isEmpty()) { busState.depotBookings = new ArrayList<>(); }
+        busState.depotBookings.add(booking);
+    }
+
+    // Without ranks, the first-fit order is the iteration order of this HashMap, as it always was.
+    private static Map<String, DriverState> driverStates(List<BusDriver> allDrivers, Map<String, Integer> firstFitRanks) {
+        Map<String, DriverState> driverStates = allDrivers.stream().collect(Collectors.toMap(BusDriver::getId, DriverState::new));
+        if (firstFitRanks != null) { driverStates.forEach((id, state) -> state.rank = firstFitRanks.get(id)); }
+        return driverStates;
+    }
+
+    // First-fit rank of every driver in an engine for the whole driver list.
+    static Map<String, Integer> firstFitRanks(List<BusDriver> allDrivers) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (String driverId : driverStates(allDrivers, null).keySet()) { ranks.put(driverId, ranks.size()); }
+        return ranks;
+    }
+
+    // One engine holding the finished parts of a partitioned solve, as if they had been solved together.
+    static GreedyScheduler merge(List<GreedyScheduler> parts, ActivityLog activityLog, Map<String, Integer> firstFitRanks) {
+        GreedyScheduler first = parts.get(0);
+        Map<String, BusRoute> routeTemplates = new HashMap<>();
+        Map<String, BusState> busStates = new HashMap<>();
+        Map<String, DriverState> driverStates = new HashMap<>();
+        Map<String, List<RouteRun>> runsByBus = new HashMap<>();
+        Map<String, List<RouteRun>> runsByDriver = new HashMap<>();
+        ScoreTracker scoreTracker = new ScoreTracker(first.config);
+        DepotCapacity.Occupancy depotUse = first.depotUse.capacity.newOccupancy();
+        for (GreedyScheduler part : parts) {
+            depotUse.addAll(part.depotUse);
+            routeTemplates.putAll(part.routeTemplates);
+            busStates.putAll(part.busStates);
+            driverStates.putAll(part.driverStates);
+            runsByBus.putAll(part.runsByBus);
+            runsByDriver.putAll(part.runsByDriver);
+            scoreTracker.addAll(part.scoreTracker);
+        }
+        driverStates.forEach((id, state) -> state.rank = firstFitRanks.get(id));
+        GreedyScheduler merged = new GreedyScheduler(first.clock, first.serviceAreas, first.travel, depotUse, first.charging, first.config, routeTemplates,
+                busStates, driverStates, activityLog, runsByBus, runsByDriver, new HashSet<>(), new HashSet<>(), scoreTracker);
+        merged.minimumFleetSize = parts.stream().mapToInt(part -> part.minimumFleetSize).sum(); // Parts share no bus
+        return merged;
+    }
+
+    private GreedyScheduler(ServiceTime clock, ServiceAreas serviceAreas, TravelMatrix travel, DepotCapacity.Occupancy depotUse,
+                            ChargingNetwork charging, SolverConfig config,
+                            Map<String, BusRoute> routeTemplates, Map<String, BusState> busStates,
+                            Map<String, DriverState> driverStates, ActivityLog activityLog,
+                            Map<String, List<RouteRun>> runsByBus, Map<String, List<RouteRun>> runsByDriver,
+                            Set<String> withdrawnBusIds, Set<String> withdrawnDriverIds, ScoreTracker scoreTracker) {
+        this.clock = clock;
+        this.serviceAreas = serviceAreas;
+        this.config = config;
+        this.travel = travel;
+        this.depotUse = depotUse;
+        this.charging = charging;
+        this.routeTemplates = routeTemplates;
+        this.busStates = busStates;
+        this.driverStates = driverStates;
+        this.activityLog = activityLog;
+        this.runsByBus = runsByBus;
+        this.runsByDriver = runsByDriver;
+        this.withdrawnBusIds = withdrawnBusIds;
+        this.withdrawnDriverIds = withdrawnDriverIds;
+        this.scoreTracker = scoreTracker;
+
+        // Availability indexes replace the full bus/driver scans per run.
+        // Drivers keep the first-fit order of driverStates.values() so assignments stay the same.
+        busStates.values().stream().filter(bs -> !withdrawnBusIds.contains(bs.bus.getBusId())).forEach(busIndex::add);
+        this.homeDepotIds = busStates.values().stream().map(bs -> bs.bus.getDepotId()).collect(Collectors.toSet());
+        List<DriverState> driversInRankOrder = new ArrayList<>(driverStates.values());
+        driversInRankOrder.sort((a, b) -> Integer.compare(a.rank, b.rank)); // Stable: a fresh engine without firstFitRanks has all ranks at 0
+        this.driverIndex = new DriverAvailabilityIndex(driversInRankOrder);
+        this.shortestRouteTravelTimeMinutes = routeTemplates.values().stream()
+                .mapToInt(BusRoute::shortestTravelTimeMinutes).min().orElse(0);
+        driverStates.values().stream()
+                .filter(ds -> withdrawnDriverIds.contains(ds.driver.getId()) || isOutOfDrivingTime(ds))
+                .forEach(driverIndex::retire);
+    }
+
+    // Independent copy: states, indexes and per-resource run lists can be changed without touching
+    // this engine. Runs are remapped through runsById (the copies of the solution's runs). Bus and
+    // driver states, depot timelines and the activity log are shared with this engine and copied
+    // (per state, per depot, per entry) only where the copy changes them, so this engine must not
+    // change while the copy is in use: a finished solve's does not, and MinimumFleetBlocks is done
+    // with its trial copies before it builds on the fresh engine they came from.
+    GreedyScheduler copy(Map<String, RouteRun> runsById) {
+        GreedyScheduler copy = new GreedyScheduler(clock, serviceAreas, travel, new DepotCapacity.Occupancy(depotUse), charging, config, routeTemplates,
+                new HashMap<>(busStates), new HashMap<>(driverStates), ActivityLog.layeredOn(activityLog),
+                remap(runsByBus, runsById), remap(runsByDriver, runsById),
+                new HashSet<>(withdrawnBusIds), new HashSet<>(withdrawnDriverIds), new ScoreTracker(scoreTracker));
+        copy.sharedBusIds.addAll(busStates.keySet());
+        copy.sharedDriverIds.addAll(driverStates.keySet());
+        copy.minimumFleetSize = minimumFleetSize;
+        return copy;
+    }
+
+    // The state to change for this bus: its own copy if it is still shared, swapped into the index.
+    private BusState ownBus(BusState busState) {
+        String busId = busState.bus.getBusId();
+        if (!sharedBusIds.remove(busId)) { return busState; }
+        BusState copy = new BusState(busState);
+        busStates.put(busId, copy);
+        if (!withdrawnBusIds.contains(busId)) {
+            busIndex.remove(busState);
+            busIndex.add(copy);
+        }
+        return copy;
+    }
+
+    private DriverState ownDriver(DriverState driverState) {
+        String driverId = driverState.driver.getId();
+        if (!sharedDriverIds.remove(driverId)) { return driverState; }
+        DriverState copy = new DriverState(driverState);
+        driverStates.put(driverId, copy);
+        driverIndex.replace(copy);
+        if (withdrawnDriverIds.contains(driverId) || isOutOfDrivingTime(copy)) { driverIndex.retire(copy); }
+        return copy;
+    }
+
+    private static Map<String, List<RouteRun>> remap(Map<String, List<RouteRun>> runsByResource, Map<String, RouteRun> runsById) {
+        Map<String, List<RouteRun>> copy = new HashMap<>();
+        runsByResource.forEach((id, runs) -> copy.put(id, runs.stream()
+                .map(run -> runsById.get(run.getId())).collect(Collectors.toCollection(ArrayList::new))));
+        return copy;
+    }
+
+    // A run joins the schedule, unassigned until it gets both a bus and a driver.
+    void addRun() {
+        scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, 1);
+    }
+
+    // A run leaves the schedule; release its bus and driver first.
+    void removeRun() {
+        scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, -1);
+    }
+
+    // Full greedy step for one run: best bus, then first driver who fits. Returns true if assigned.
+    boolean scheduleRun(RouteRun run) {
+        BusRoute routeTemplate = routeTemplates.get(run.getBusRouteId());
+        if (routeTemplate == null) { return false; }
+        BusState bestFitBusState = findBus(run, routeTemplate);
+        if (bestFitBusState == null) { return false; }
+        DriverState bestFitDriverState = findDriver(run, routeTemplate);
+        if (bestFitDriverState == null) { return false; }
+        assign(run, routeTemplate, bestFitBusState, bestFitDriverState);
+        return true;
+    }
+
+    // --- Find an available bus: buses already at the start terminal, at their home depot, or (repositioning) anywhere ---
+    BusState findBus(RouteRun run, BusRoute routeTemplate) {
+        return findBus(run, routeTemplate, bs -> true);
+    }
+
+    // Same search among the buses the caller allows.
+    BusState findBus(RouteRun run, BusRoute routeTemplate, Predicate<BusState> allowed) {
+        String requiredStartTerminalId = routeTemplate.getStartTerminalId();
+        int runDeparture = clock.departureMinutes(run);
+        int runArrival = clock.arrivalMinutes(run);
+        Predicate<BusState> suitable = bs -> allowed.test(bs) && serviceAreas.busServes(bs.bus, requiredStartTerminalId)
+                && isBusSuitableForRun(bs, requiredStartTerminalId, runDeparture, routeTemplate) && fitsAtDepot(bs, runDeparture, runArrival, routeTemplate);
+        BusState bestFitBusState = busIndex.findFirst(requiredStartTerminalId, runDeparture, suitable);
+        // Buses elsewhere drive over first: from their home depot, or from anywhere when repositioning
+        for (String locationId : config.isRepositionBuses() ? busIndex.locationIds() : homeDepotIds) {
+            if (locationId.equals(requiredStartTerminalId)) { continue; } // Already covered above
+            int deadheadMinutes = travel.minutes(locationId, requiredStartTerminalId);
+            boolean homeDepotsOnly = deadheadMinutes == TravelMatrix.UNKNOWN || !config.isRepositionBuses();
+            if (deadheadMinutes == TravelMatrix.UNKNOWN) { deadheadMinutes = config.getDepotToTerminalTravelMins(); }
+            deadheadMinutes = travel.atTime(locationId, requiredStartTerminalId, deadheadMinutes, runDeparture);
+            int latestLeave = runDeparture - deadheadMinutes;
+            if (latestLeave < ServiceTime.START_OF_DAY) { continue; } // Idle buses are not time-checked by the index
+            BusState candidate = busIndex.findFirst(locationId, latestLeave,
+                    bs -> (!homeDepotsOnly || locationId.equals(bs.bus.getDepotId())) && suitable.test(bs));
+            if (candidate != null && (bestFitBusState == null
+                    || BusAvailabilityIndex.SOLVER_ORDER.compare(candidate, bestFitBusState) < 0)) {
+                bestFitBusState = candidate;
+            }
+        }
+        return bestFitBusState;
+    }
+
+    // --- Find an available driver: first in rank order who is free by departure ---
+    DriverState findDriver(RouteRun run, BusRoute routeTemplate) {
+        int runDeparture = clock.departureMinutes(run);
+        for (int rank = driverIndex.nextCandidate(0, runDeparture); rank >= 0;
+             rank = driverIndex.nextCandidate(rank + 1, runDeparture)) {
+            DriverState driverState = driverIndex.get(rank);
+            if (isDriverSuitableForRun(driverState, run, routeTemplate)) { return driverState; }
+        }
+        return null;
+    }
+
+    // Whether this bus, in its current state, can reach the start terminal in time with enough charge.
+    boolean canBusTake(BusState busState, RouteRun run, BusRoute routeTemplate) {
+        return serviceAreas.busServes(busState.bus, routeTemplate.getStartTerminalId()) && canBusTake(busState, clock.departureMinutes(run), routeTemplate)
+                && fitsAtDepot(busState, clock.departureMinutes(run), clock.arrivalMinutes(run), routeTemplate);
+    }
+
+    boolean isDriverSuitableForRun(DriverState driverState, RouteRun run, BusRoute routeTemplate) {
+        return serviceAreas.driverServes(driverState.driver, routeTemplate.getStartTerminalId()) && canDriverTake(driverState, clock.departureMinutes(run), clock.arrivalMinutes(run), routeTemplate);
+    }
+
+    // Both resources: logs in the same order the single-pass solver always has.
+    void assign(RouteRun run, BusRoute routeTemplate, BusState busState, DriverState driverState) {
+        busState = ownBus(busState);
+        driverState = ownDriver(driverState);
+        run.setAssignedBusId(busState.bus.getBusId());
+        run.setAssignedDriverId(driverState.driver.getId());
+        scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, -1);
+        logDriverApproach(driverState, run, routeTemplate);
+        int busRouteActivity = logBusApproachAndService(busState, run, routeTemplate);
+        logDriverService(driverState, run, routeTemplate);
+        completeBusRun(busState, run, routeTemplate, busRouteActivity);
+        completeDriverRun(driverState, run, routeTemplate);
+    }
+
+    // Bus role only: the run keeps whatever driver it has.
+    void assignBus(RouteRun run, BusRoute routeTemplate, BusState busState) {
+        busState = ownBus(busState);
+        run.setAssignedBusId(busState.bus.getBusId());
+        if (run.getAssignedDriverId() != null) { scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, -1); }
+        int busRouteActivity = logBusApproachAndService(busState, run, routeTemplate);
+        completeBusRun(busState, run, routeTemplate, busRouteActivity);
+    }
+
+    // Driver role only: the run keeps whatever bus it has.
+    void assignDriver(RouteRun run, BusRoute routeTemplate, DriverState driverState) {
+        driverState = ownDriver(driverState);
+        run.setAssignedDriverId(driverState.driver.getId());
+        if (run.getAssignedBusId() != null) { scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, -1); }
+        logDriverApproach(driverState, run, routeTemplate);
+        logDriverService(driverState, run, routeTemplate);
+        completeDriverRun(driverState, run, routeTemplate);
+    }
+
+    // Takes a resource out of the candidate pool for the rest of the solve (and of later re-solves).
+    void withdrawBus(String busId) {
+        withdrawnBusIds.add(busId);
+        busIndex.remove(busStates.get(busId));
+    }
+
+    void withdrawDriver(String driverId) {
+        withdrawnDriverIds.add(driverId);
+        driverIndex.retire(driverStates.get(driverId));
+    }
+
+    // Takes the bus away from one run; the bus's state is not rewound (see resetBus).
+    void unassignBus(RouteRun run) {
+        List<RouteRun> runs = runsByBus.get(run.getAssignedBusId());
+        runs.remove(run);
+        if (runs.isEmpty()) {
+            runsByBus.remove(run.getAssignedBusId());
+            scoreTracker.add(ScoreTracker.Constraint.BUS_USED, -1);
+        }
+        if (run.getAssignedDriverId() != null) { scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, 1); }
+        run.setAssignedBusId(null);
+    }
+
+    void unassignDriver(RouteRun run) {
+        List<RouteRun> runs = runsByDriver.get(run.getAssignedDriverId());
+        runs.remove(run);
+        if (runs.isEmpty()) { runsByDriver.remove(run.getAssignedDriverId()); }
+        if (run.getAssignedBusId() != null) { scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, 1); }
+        run.setAssignedDriverId(null);
+    }
+
+    // Puts a resource back to its start-of-day state and takes it off all its runs and log
+    // entries, so the caller can replay the runs it should keep. On a copied engine the log entries
+    // are only marked (see ActivityLog.layeredOn); otherwise this costs one pass over the activity log.
+    BusState resetBus(String busId) {
+        BusState old = busStates.get(busId);
+        busIndex.remove(old);
+        for (DepotCapacity.Booking booking : old.depotBookings) { depotUse.undo(old.bus.getDepotId(), booking); }
+        BusState fresh = new BusState(old.bus);
+        busStates.put(busId, fresh);
+        sharedBusIds.remove(busId);
+        startDay(fresh);
+        if (!withdrawnBusIds.contains(busId)) { busIndex.add(fresh); }
+        List<RouteRun> runs = runsByBus.remove(busId);
+        if (runs != null) {
+            scoreTracker.add(ScoreTracker.Constraint.BUS_USED, -1);
+            for (RouteRun run : runs) {
+                if (run.getAssignedDriverId() != null) { scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, 1); }
+                run.setAssignedBusId(null);
+            }
+        }
+        activityLog.removeEntity(ActivityLogEntry.EntityType.BUS, busId);
+        return fresh;
+    }
+
+    DriverState resetDriver(String driverId) {
+        DriverState old = driverStates.get(driverId);
+        DriverState fresh = new DriverState(old.driver);
+        fresh.rank = old.rank;
+        driverStates.put(driverId, fresh);
+        sharedDriverIds.remove(driverId);
+        driverIndex.replace(fresh);
+        if (withdrawnDriverIds.contains(driverId)) { driverIndex.retire(fresh); }
+        List<RouteRun> runs = runsByDriver.remove(driverId);
+        if (runs != null) {
+            for (RouteRun run : runs) {
+                if (run.getAssignedBusId() != null) { scoreTracker.add(ScoreTracker.Constraint.UNASSIGNED_RUN, 1); }
+                run.setAssignedDriverId(null);
+            }
+        }
+        activityLog.removeEntity(ActivityLogEntry.EntityType.DRIVER, driverId);
+        return fresh;
+    }
+
+    // --- State rules, shared by the logged assignments above and the local search's dry runs ---
+
+    boolean canBusTake(BusState busState, int runDeparture, BusRoute routeTemplate) {
+        String requiredStartTerminalId = routeTemplate.getStartTerminalId();
+        int deadheadMinutes = travelToStartMinutes(busState, requiredStartTerminalId, runDeparture);
+        if (deadheadMinutes == TravelMatrix.UNKNOWN) { return false; } // Cannot get there
+        return busState.nextAvailableMinutes + deadheadMinutes <= runDeparture
+                && isBusSuitableForRun(busState, requiredStartTerminalId, runDeparture, routeTemplate);
+    }
+
+    boolean canDriverTake(DriverState driverState, int runDeparture, int runArrival, BusRoute routeTemplate) {
+        int drivingAfterRun = driverState.totalDrivingTimeMinutesToday + (runArrival - runDeparture);
+        if (drivingAfterRun > config.getMaxDrivingMinsPerDay()
+                || driverState.drivingMinutesEarlierThisWeek + drivingAfterRun > config.getMaxDrivingMinsPerWeek()) { return false; }
+        return driverReadyTime(driverState, runDeparture, runArrival, routeTemplate) <= runDeparture;
+    }
+
+    // Bus state after the run: back at its home depot, charged there if it is running low. Returns
+    // true if it charged. With partial charging it plugs in there instead, if the depot has a charger.
+    boolean advanceBus(BusState busState, int runDeparture, int runArrival, BusRoute routeTemplate) {
+        int chargeAfterReturningToDepotKm = chargeAfterReturnKm(busState, runDeparture, routeTemplate);
+        int arrivalAtHomeDepot = runArrival + travelToHomeDepotMinutes(busState, runArrival, routeTemplate);
+        busState.currentLocationId = busState.bus.getDepotId();
+        if (charging.isPartial()) {
+            busState.currentChargeKm = chargeAfterReturningToDepotKm;
+            busState.nextAvailableMinutes = arrivalAtHomeDepot;
+            busState.pluggedSince = charging.hasCharger(busState.currentLocationId) ? arrivalAtHomeDepot : BusState.NOT_PLUGGED;
+            busState.chargerBooking = null;
+            return false;
+        }
+        if (needsCharge(busState, chargeAfterReturningToDepotKm)) {
+            busState.currentChargeKm = busState.bus.getRangeKm();
+            busState.nextAvailableMinutes = arrivalAtHomeDepot + config.getChargingDurationMins();
+            return true;
+        }
+        busState.currentChargeKm = chargeAfterReturningToDepotKm;
+        busState.nextAvailableMinutes = arrivalAtHomeDepot;
+        return false;
+    }
+
+    void advanceDriver(DriverState driverState, int runDeparture, int runArrival, BusRoute routeTemplate) {
+        int routeTravelTimeMinutes = runArrival - runDeparture; // The run's own duration (see BusRoute.travelTimeMinutesAt)
+        int continuousDrivingBeforeRun = effectiveContinuousDrivingMinutes(driverState, runDeparture);
+        if (continuousDrivingBeforeRun + routeTravelTimeMinutes > config.getMaxContinuousDrivingMins()) {
+            continuousDrivingBeforeRun = 0; // The mandatory break before this run resets the counter
+        }
+        driverState.continuousDrivingTimeMinutes = continuousDrivingBeforeRun + routeTravelTimeMinutes;
+        driverState.totalDrivingTimeMinutesToday += routeTravelTimeMinutes;
+        driverState.currentLocationId = routeTemplate.getEndTerminalId();
+        driverState.nextAvailableMinutes = runArrival;
+    }
+
+    private int chargeAfterReturnKm(BusState busState, int runDeparture, BusRoute routeTemplate) {
+        return chargeAtDepartureKm(busState, routeTemplate.getStartTerminalId(), runDeparture)
+                - routeTemplate.getTotalDistanceKm() - travelToHomeDepotKm(busState, routeTemplate);
+    }
+
+    // Charge when the run departs: what the bus has, less the deadhead to the start terminal. With
+    // partial charging, plus what it gained plugged in until it left and waiting at a start terminal
+    // with a charger. Negative if it cannot reach the terminal.
+    private int chargeAtDepartureKm(BusState busState, String requiredStartTerminalId, int runDeparture) {
+        int travelToStartKm = travelToStartKm(busState, requiredStartTerminalId);
+        if (!charging.isPartial()) { return busState.currentChargeKm - travelToStartKm; }
+        int leave = leaveMinutes(busState, requiredStartTerminalId, runDeparture);
+        int charge = chargeAtLeaveKm(busState, leave) - travelToStartKm;
+        if (charge < 0 || busState.currentLocationId.equals(requiredStartTerminalId) || !charging.hasCharger(requiredStartTerminalId)) { return charge; }
+        int deadheadMinutes = travelToStartMinutes(busState, requiredStartTerminalId, runDeparture);
+        return deadheadMinutes == TravelMatrix.UNKNOWN ? charge : busState.chargeCurve.chargeAfter(charge, runDeparture - leave - deadheadMinutes);
+    }
+
+    // When the bus sets off for the run: as soon as it is free, or as late as it can if it is plugged in.
+    private int leaveMinutes(BusState busState, String requiredStartTerminalId, int runDeparture) {
+        if (busState.pluggedSince == BusState.NOT_PLUGGED) { return busState.nextAvailableMinutes; }
+        int deadheadMinutes = travelToStartMinutes(busState, requiredStartTerminalId, runDeparture);
+        return deadheadMinutes == TravelMatrix.UNKNOWN ? busState.nextAvailableMinutes : Math.max(busState.nextAvailableMinutes, runDeparture - deadheadMinutes);
+    }
+
+    private int chargeAtLeaveKm(BusState busState, int leave) {
+        if (busState.pluggedSince == BusState.NOT_PLUGGED || leave <= busState.pluggedSince) { return busState.currentChargeKm; }
+        return busState.chargeCurve.chargeAfter(busState.currentChargeKm, leave - busState.pluggedSince);
+    }
+
+    // Charge the bus starts the next service day with (see MultiDaySolve): with partial charging, what
+    // it gained plugged in until then; otherwise a full charge overnight at its home depot, if the
+    // depot has chargers and the charge fits in before the day starts.
+    int chargeAtNextDayKm(BusState busState) {
+        int nextDayStart = clock.nextServiceDayStart();
+        if (charging.isPartial()) { return chargeAtLeaveKm(busState, Math.max(nextDayStart, busState.nextAvailableMinutes)); }
+        String depotId = busState.bus.getDepotId();
+        if (!depotId.equals(busState.currentLocationId) || (depotUse.capacity.tracks(depotId) && depotUse.capacity.chargers(depotId) == 0)
+                || busState.nextAvailableMinutes + config.getChargingDurationMins() > nextDayStart) { return busState.currentChargeKm; }
+        return busState.bus.getRangeKm();
+    }
+
+    // Running low once back at the depot: below the minimum share of its range, or short of the next depot run and trip.
+    private boolean needsCharge(BusState busState, int chargeAfterReturningToDepotKm) {
+        double chargePercentageAfterReturn = (double) chargeAfterReturningToDepotKm / busState.bus.getRangeKm();
+        boolean canDoMinimalNextOp = chargeAfterReturningToDepotKm >= (config.getDepotToTerminalDistanceKm() + config.getMinimalNextRouteDistanceKm());
+        return chargePercentageAfterReturn < config.getMinChargeFractionAfterReturn() || !canDoMinimalNextOp;
+    }
+
+    // Room at the home depot the bus returns to after the run: a free bay from its return on, and a
+    // charger at all if it will need one. Always true at depots that cannot run out (see DepotCapacity).
+    private boolean fitsAtDepot(BusState busState, int runDeparture, int runArrival, BusRoute routeTemplate) {
+        String depotId = busState.bus.getDepotId();
+        if (!depotUse.capacity.tracks(depotId)) { return true; }
+        if (!charging.isPartial() && depotUse.capacity.chargers(depotId) == 0
+                && needsCharge(busState, chargeAfterReturnKm(busState, runDeparture, routeTemplate))) { return false; }
+        int arrivalAtHomeDepot = runArrival + travelToHomeDepotMinutes(busState, runArrival, routeTemplate);
+        return depotUse.hasFreeBay(depotId, arrivalAtHomeDepot, busState.parkedSince != BusState.NOT_PARKED);
+    }
+
+    // Charge and availability checks for one candidate bus (location and timing are handled by the index).
+    private boolean isBusSuitableForRun(BusState busState, String requiredStartTerminalId, int runDeparture, BusRoute routeTemplate) {
+        int restOfCycleDistanceKm = routeTemplate.getTotalDistanceKm() + travelToHomeDepotKm(busState, routeTemplate);
+        return chargeAtDepartureKm(busState, requiredStartTerminalId, runDeparture) >= restOfCycleDistanceKm;
+    }
+
+    // Deadhead to the start terminal: none if the bus is there, else over the travel matrix, else
+    // the fixed depot run from its home depot. UNKNOWN if it cannot get there: a bus parked anywhere
+    // else only moves when repositioning is on and both ends have coordinates.
+    private int travelToStartMinutes(BusState busState, String requiredStartTerminalId, int runDeparture) {
+        if (busState.currentLocationId.equals(requiredStartTerminalId)) { return 0; }
+        boolean atHomeDepot = busState.currentLocationId.equals(busState.bus.getDepotId());
+        if (!atHomeDepot && !config.isRepositionBuses()) { return TravelMatrix.UNKNOWN; }
+        int minutes = travel.minutes(busState.currentLocationId, requiredStartTerminalId);
+        if (minutes == TravelMatrix.UNKNOWN) {
+            if (!atHomeDepot) { return minutes; }
+            minutes = config.getDepotToTerminalTravelMins();
+        }
+        return travel.atTime(busState.currentLocationId, requiredStartTerminalId, minutes, runDeparture);
+    }
+
+    // Same cases as travelToStartMinutes.
+    private int travelToStartKm(BusState busState, String requiredStartTerminalId) {
+        if (busState.currentLocationId.equals(requiredStartTerminalId)) { return 0; }
+        int km = travel.distanceKm(busState.currentLocationId, requiredStartTerminalId);
+        return km != TravelMatrix.UNKNOWN ? km : config.getDepotToTerminalDistanceKm();
+    }
+
+    private int travelToHomeDepotKm(BusState busState, BusRoute routeTemplate) {
+        if (routeTemplate.getEndTerminalId().equals(busState.bus.getDepotId())) { return 0; }
+        int km = travel.distanceKm(routeTemplate.getEndTerminalId(), busState.bus.getDepotId());
+        return km != TravelMatrix.UNKNOWN ? km : config.getTerminalToDepotDistanceKm();
+    }
+
+    private int travelToHomeDepotMinutes(BusState busState, int runArrival, BusRoute routeTemplate) {
+        return minutesToDepot(busState.bus.getDepotId(), routeTemplate, runArrival);
+    }
+
+    // The deadheads of a bus based at this depot, from the depot to a start terminal and back from a
+    // run's end terminal, as the engine drives them.
+    int minutesFromDepot(String depotId, String startTerminalId, int runDeparture) {
+        if (startTerminalId.equals(depotId)) { return 0; }
+        int minutes = travel.minutes(depotId, startTerminalId);
+        if (minutes == TravelMatrix.UNKNOWN) { minutes = config.getDepotToTerminalTravelMins(); }
+        return travel.atTime(depotId, startTerminalId, minutes, runDeparture);
+    }
+
+    int minutesToDepot(String depotId, BusRoute routeTemplate, int runArrival) {
+        if (routeTemplate.getEndTerminalId().equals(depotId)) { return 0; }
+        int minutes = travel.minutes(routeTemplate.getEndTerminalId(), depotId);
+        if (minutes == TravelMatrix.UNKNOWN) { minutes = config.getTerminalToDepotTravelMins(); }
+        return travel.atTime(routeTemplate.getEndTerminalId(), depotId, minutes, runArrival);
+    }
+
+    // When the driver could start this run: after travelling to the start terminal and any mandatory break.
+    private int driverReadyTime(DriverState driverState, int runDeparture, int runArrival, BusRoute routeTemplate) {
+        int readyTime = driverArrivalAtStartTerminal(driverState, routeTemplate.getStartTerminalId());
+        if (effectiveContinuousDrivingMinutes(driverState, runDeparture) + (runArrival - runDeparture) > config.getMaxContinuousDrivingMins()) {
+            readyTime += config.getMandatoryBreakMins();
+        }
+        return readyTime;
+    }
+
+    private int driverArrivalAtStartTerminal(DriverState driverState, String requiredStartTerminalId) {
+        if (driverState.currentLocationId == null || driverState.currentLocationId.equals(requiredStartTerminalId)) {
+            return driverState.nextAvailableMinutes; // Fresh drivers are assumed to be at the required terminal
+        }
+        int minutes = travel.minutes(driverState.currentLocationId, requiredStartTerminalId);
+        return driverState.nextAvailableMinutes + (minutes != TravelMatrix.UNKNOWN ? minutes : config.getDriverTravelBetweenTerminalsMins());
+    }
+
+    // A long enough wait before the run resets the continuous driving counter.
+    private int effectiveContinuousDrivingMinutes(DriverState driverState, int runDeparture) {
+        if (runDeparture - driverState.nextAvailableMinutes >= config.getBreakResetWaitMins()) {
+            return 0;
+        }
+        return driverState.continuousDrivingTimeMinutes;
+    }
+
+    private void logDriverApproach(DriverState driverState, RouteRun run, BusRoute routeTemplate) {
+        String requiredStartTerminalId = routeTemplate.getStartTerminalId();
+        int driverArrivalTimeAtRequiredTerminal = driverArrivalAtStartTerminal(driverState, requiredStartTerminalId);
+        int availabilityConsideringPotentialBreak = driverReadyTime(driverState, clock.departureMinutes(run), clock.arrivalMinutes(run), routeTemplate);
+        // Log driver travel if it happened
+        if (driverState.currentLocationId != null && !driverState.currentLocationId.equals(requiredStartTerminalId)) {
+            activityLog.append(ActivityLogEntry.EntityType.DRIVER, driverState.driver.getId(),
+                ActivityLogEntry.ActivityType.TRAVEL_TO_START_TERMINAL, driverState.nextAvailableMinutes, driverArrivalTimeAtRequiredTerminal,
+                ActivityLog.Description.TRAVEL, driverState.currentLocationId, requiredStartTerminalId);
+        }
+        // Log break if taken before run
+        if (availabilityConsideringPotentialBreak != driverArrivalTimeAtRequiredTerminal) {
+            activityLog.append(ActivityLogEntry.EntityType.DRIVER, driverState.driver.getId(),
+                ActivityLogEntry.ActivityType.MANDATORY_BREAK,
+                driverArrivalTimeAtRequiredTerminal, // Break starts after arriving at terminal (or being free there)
+                availabilityConsideringPotentialBreak, // Break ends
+                ActivityLog.Description.BREAK, requiredStartTerminalId, null);
+        }
+    }
+
+    // Returns the index of the bus's route service entry, whose end charge is set once the run completes.
+    private int logBusApproachAndService(BusState busState, RouteRun run, BusRoute routeTemplate) {
+        String requiredStartTerminalId = routeTemplate.getStartTerminalId();
+        int runDeparture = clock.departureMinutes(run);
+        int leave = leaveMinutes(busState, requiredStartTerminalId, runDeparture);
+        int chargeAtLeaveKm = chargeAtLeaveKm(busState, leave);
+        // --- Log any top-up where it was plugged in (partial charging) ---
+        logTopUp(busState, busState.currentLocationId, busState.pluggedSince, leave, busState.currentChargeKm, chargeAtLeaveKm);
+        // --- Log Bus Travel to Start Terminal (if occurred) ---
+        int busInitialChargeForRun = chargeAtDepartureKm(busState, requiredStartTerminalId, runDeparture); // Charge when the run starts
+        if (!busState.currentLocationId.equals(requiredStartTerminalId)) { // Travel from the depot (or wherever it is parked)
+            int arrivalAtStartTerminal = leave + travelToStartMinutes(busState, requiredStartTerminalId, runDeparture);
+            activityLog.append(ActivityLogEntry.EntityType.BUS, busState.bus.getBusId(),
+                ActivityLogEntry.ActivityType.TRAVEL_TO_START_TERMINAL,
+                leave, // Start of travel
+                arrivalAtStartTerminal, // Arrival at terminal
+                ActivityLog.Description.TRAVEL, busState.currentLocationId, requiredStartTerminalId);
+            // Waiting at a start terminal with a charger tops up as well (partial charging)
+            logTopUp(busState, requiredStartTerminalId, arrivalAtStartTerminal, runDeparture,
+                    chargeAtLeaveKm - travelToStartKm(busState, requiredStartTerminalId), busInitialChargeForRun);
+        }
+        // --- Log Route Service for Bus ---
+        // The run starts on time: selection guarantees bus and driver are ready by departure.
+        int busRouteActivity = activityLog.append(ActivityLogEntry.EntityType.BUS, busState.bus.getBusId(),
+            ActivityLogEntry.ActivityType.ROUTE_SERVICE, clock.departureMinutes(run), clock.arrivalMinutes(run),
+            ActivityLog.Description.RUN, run.getId(), routeTemplate.getId());
+        activityLog.setLocations(busRouteActivity, requiredStartTerminalId, routeTemplate.getEndTerminalId());
+        activityLog.setStartChargeKm(busRouteActivity, busInitialChargeForRun);
+        return busRouteActivity;
+    }
+
+    // A partial charge at this location from the given minute, if it gained anything: it lasts until
+    // the bus leaves or is full, whichever comes first.
+    private void logTopUp(BusState busState, String locationId, int from, int until, int chargeBeforeKm, int chargeAfterKm) {
+        if (chargeAfterKm <= chargeBeforeKm) { return; }
+        int end = Math.min(until, from + busState.chargeCurve.minutesToFull(chargeBeforeKm));
+        boolean atHomeDepot = locationId.equals(busState.bus.getDepotId());
+        int chargingActivity = activityLog.append(ActivityLogEntry.EntityType.BUS, busState.bus.getBusId(),
+            ActivityLogEntry.ActivityType.CHARGING, from, end,
+            atHomeDepot ? ActivityLog.Description.CHARGING : ActivityLog.Description.CHARGING_AT, locationId, null);
+        activityLog.setStartChargeKm(chargingActivity, chargeBeforeKm);
+        activityLog.setEndChargeKm(chargingActivity, chargeAfterKm);
+    }
+
+    private void logDriverService(DriverState driverState, RouteRun run, BusRoute routeTemplate) {
+        int driverRouteActivity = activityLog.append(ActivityLogEntry.EntityType.DRIVER, driverState.driver.getId(),
+            ActivityLogEntry.ActivityType.ROUTE_SERVICE, clock.departureMinutes(run), clock.arrivalMinutes(run),
+            ActivityLog.Description.RUN, run.getId(), routeTemplate.getId());
+        activityLog.setLocations(driverRouteActivity, routeTemplate.getStartTerminalId(), routeTemplate.getEndTerminalId());
+    }
+
+    private void completeBusRun(BusState busState, RouteRun run, BusRoute routeTemplate, int busRouteActivity) {
+        busIndex.remove(busState); // Re-added once location and availability are final
+        int runDeparture = clock.departureMinutes(run);
+        int runArrivalTimeAtEndTerminal = clock.arrivalMinutes(run);
+        int chargeAtEndOfRouteKm = chargeAtDepartureKm(busState, routeTemplate.getStartTerminalId(), runDeparture)
+                - routeTemplate.getTotalDistanceKm();
+        int travelFromEndToHomeDepotKm = travelToHomeDepotKm(busState, routeTemplate);
+        int arrivalAtHomeDepot = runArrivalTimeAtEndTerminal + travelToHomeDepotMinutes(busState, runArrivalTimeAtEndTerminal, routeTemplate);
+        String busDepotId = busState.bus.getDepotId();
+        int leave = leaveMinutes(busState, routeTemplate.getStartTerminalId(), runDeparture);
+        if (busState.parkedSince != BusState.NOT_PARKED) { // Leaves its bay when it sets off, as logged
+            book(busState, depotUse.leave(busDepotId, leave));
+            busState.parkedSince = BusState.NOT_PARKED;
+        }
+        if (busState.chargerBooking != null) { // Unplugs: the rest of its charger time is free again
+            DepotCapacity.Booking kept = depotUse.shorten(busDepotId, busState.chargerBooking, leave);
+            if (kept != busState.chargerBooking) {
+                busState.depotBookings.remove(busState.chargerBooking);
+                if (kept != null) { busState.depotBookings.add(kept); }
+            }
+        }
+        boolean charged = advanceBus(busState, runDeparture, runArrivalTimeAtEndTerminal, routeTemplate);
+        activityLog.setEndChargeKm(busRouteActivity, chargeAtEndOfRouteKm); // Set end charge for the bus route activity
+        int chargeStart = arrivalAtHomeDepot;
+        if (depotUse.capacity.tracks(busDepotId)) {
+            book(busState, depotUse.park(busDepotId, arrivalAtHomeDepot));
+            busState.parkedSince = arrivalAtHomeDepot;
+            if (chargersLimited(busDepotId)) { plugIn(busState, arrivalAtHomeDepot); }
+            if (charged) { // Queues for the first free charger
+                DepotCapacity.Booking charge = depotUse.bookCharger(busDepotId, arrivalAtHomeDepot, config.getChargingDurationMins());
+                book(busState, charge);
+                chargeStart = charge.from();
+                busState.nextAvailableMinutes = chargeStart + config.getChargingDurationMins();
+            }
+        }
+
+        // --- Log the return to the depot and any charging; the state above already reflects both ---
+        String busRouteEndTerminal = routeTemplate.getEndTerminalId();
+        if (!busRouteEndTerminal.equals(busDepotId)) {
+            int busTravelToDepotLog = activityLog.append(ActivityLogEntry.EntityType.BUS, busState.bus.getBusId(),
+                ActivityLogEntry.ActivityType.TRAVEL_TO_DEPOT,
+                runArrivalTimeAtEndTerminal, arrivalAtHomeDepot, ActivityLog.Description.TRAVEL_TO_DEPOT, busRouteEndTerminal, busDepotId);
+            activityLog.setStartChargeKm(busTravelToDepotLog, chargeAtEndOfRouteKm); // Charge at end of route
+            activityLog.setEndChargeKm(busTravelToDepotLog, chargeAtEndOfRouteKm - travelFromEndToHomeDepotKm);
+        }
+        if (chargeStart > arrivalAtHomeDepot) {
+            activityLog.append(ActivityLogEntry.EntityType.BUS, busState.bus.getBusId(),
+                ActivityLogEntry.ActivityType.WAITING_IDLE,
+                arrivalAtHomeDepot, chargeStart, ActivityLog.Description.CHARGER_WAIT, busDepotId, null);
+        }
+        if (charged) {
+            int chargeBeforeActualCharging = chargeAtEndOfRouteKm - travelFromEndToHomeDepotKm;
+            int chargingActivity = activityLog.append(ActivityLogEntry.EntityType.BUS, busState.bus.getBusId(),
+                ActivityLogEntry.ActivityType.CHARGING,
+                chargeStart, busState.nextAvailableMinutes, ActivityLog.Description.CHARGING, busDepotId, null);
+            activityLog.setStartChargeKm(chargingActivity, chargeBeforeActualCharging < 0 ? 0 : chargeBeforeActualCharging); // Ensure not negative
+            activityLog.setEndChargeKm(chargingActivity, busState.bus.getRangeKm());
+        }
+        if (!withdrawnBusIds.contains(busState.bus.getBusId())) { busIndex.add(busState); }
+        List<RouteRun> busRuns = runsByBus.computeIfAbsent(busState.bus.getBusId(), id -> new ArrayList<>());
+        busRuns.add(run);
+        if (busRuns.size() == 1) { scoreTracker.add(ScoreTracker.Constraint.BUS_USED, 1); }
+    }
+
+    private void completeDriverRun(DriverState driverState, RouteRun run, BusRoute routeTemplate) {
+        advanceDriver(driverState, clock.departureMinutes(run), clock.arrivalMinutes(run), routeTemplate);
+        if (isOutOfDrivingTime(driverState) || withdrawnDriverIds.contains(driverState.driver.getId())) {
+            driverIndex.retire(driverState); // Cannot fit any further run today
+        } else {
+            driverIndex.update(driverState);
+        }
+        runsByDriver.computeIfAbsent(driverState.driver.getId(), id -> new ArrayList<>()).add(run);
+    }
+
+    private boolean isOutOfDrivingTime(DriverState driverState) {
+        int drivingAfterShortestRun = driverState.totalDrivingTimeMinutesToday + shortestRouteTravelTimeMinutes;
+        return drivingAfterShortestRun > config.getMaxDrivingMinsPerDay()
+                || driverState.drivingMinutesEarlierThisWeek + drivingAfterShortestRun > config.getMaxDrivingMinsPerWeek();
+    }
+}
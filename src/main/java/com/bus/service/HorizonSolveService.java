@@ -0,0 +1,83 @@
+package com.bus.service;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionSummary;
+import com.bus.domain.SolverConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Plans several days of the current timetable in a row, with bus charge and location and driver
+ * hours carried from each day into the next (see MultiDaySolve). Every day is stored in the
+ * solution history as its own solution, based on the day before; only the last day is kept here,
+ * so a long horizon costs no more memory than a short one. Runs as a solve job (SolveJobService).
+ */
+@ApplicationScoped
+public class HorizonSolveService {
+
+    @Inject
+    DataService dataService;
+
+    @Inject
+    SchedulingService schedulingService;
+
+    @Inject
+    SolutionStore solutionStore;
+
+    // Days accepted in one request
+    @ConfigProperty(name = "bus.scheduler.horizon.max-days", defaultValue = "28")
+    int maxDays = 28;
+
+    private ExecutorService handOff;
+
+    @PostConstruct
+    void start() {
+        handOff = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "horizon-hand-off");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        handOff.shutdownNow();
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    // Each day's summary goes to daySaved once the day is stored, in order; a day that cannot be stored
+    // has a summary without a solutionId. Returns the last day.
+    ScheduleSolution solve(SolverConfig config, int days, SolveListener listener, Consumer<SolutionSummary> daySaved) {
+        if (days < 1 || days > maxDays) { throw new IllegalArgumentException("days must be between 1 and " + maxDays + ", was " + days); }
+        Dataset data = dataService.getDataset(); // One version for every day
+        String[] previousSolutionId = new String[1];
+        ScheduleSolution[] lastDay = new ScheduleSolution[1];
+        MultiDaySolve.solve(schedulingService, data.routeRunsToSolve(), data.buses(), data.busDrivers(), data.busRoutes(),
+                data.busDepots(), data.busStops(), config, days, listener, handOff, (day, solution) -> {
+                    solution.setDatasetVersion(data.version());
+                    solution.setSolutionId(UUID.randomUUID().toString());
+                    SolutionSummary summary = solutionStore.save(solution, SolutionSummary.Origin.HORIZON, previousSolutionId[0]);
+                    if (summary == null) {
+                        solution.setSolutionId(null); // Not in the history
+                        summary = new SolutionSummary(null, SolutionSummary.Origin.HORIZON, previousSolutionId[0], solution);
+                    }
+                    previousSolutionId[0] = summary.getSolutionId();
+                    lastDay[0] = solution;
+                    daySaved.accept(summary);
+                });
+        return lastDay[0];
+    }
+}
@@ -0,0 +1,198 @@
+package com.bus.service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleChange;
+import com.bus.domain.ScheduleSolution;
+
+/**
+ * Applies ScheduleChanges to a copy of a finished solve instead of solving from scratch.
+ *
+ * Every resource a change touches is put back to its start-of-day state and its remaining runs
+ * are replayed in order; a run it can no longer make loses that resource only (a broken bus
+ * keeps the run's driver, a sick driver keeps the run's bus). The freed roles, added runs and
+ * runs the previous solve left unassigned are then reassigned in departure order with the
+ * solver's own search, against the end-of-day states of all other resources. A run whose freed
+ * role cannot be filled is unassigned completely and its other resource is replayed without it.
+ *
+ * Cost per change is in proportion to the runs and log entries of the touched resources: bus and
+ * driver states, depot timelines and log entries of the others are shared with the previous solve
+ * (see GreedyScheduler.copy), and a reset resource's log entries are only marked as dropped. What
+ * is paid once per batch of changes, not per change or per touched resource: a map entry per
+ * resource for the copied engine, a copy of each run, and one pass over the activity log in finish()
+ * to lay out the new log. Runs are only appended after a resource's last run, never slotted into a
+ * gap earlier in its day.
+ */
+class IncrementalRescheduler {
+
+    private final GreedyScheduler engine;
+    private final Map<String, RouteRun> runsById = new LinkedHashMap<>();
+    private final PriorityQueue<RouteRun> pending;
+    private final Set<RouteRun> queued = new HashSet<>();
+    private int reassignedRunCount;
+
+    IncrementalRescheduler(SolveCheckpoint previous) {
+        for (RouteRun run : previous.solution.getAssignedRouteRuns()) {
+            runsById.put(run.getId(), copyOf(run));
+        }
+        this.engine = previous.engine.copy(runsById);
+        this.pending = new PriorityQueue<>(Comparator.comparingInt(engine.clock::departureMinutes).thenComparing(RouteRun::getId));
+        // Runs the previous solve could not place get another chance against the new end-of-day states
+        runsById.values().stream().filter(run -> run.getAssignedBusId() == null).forEach(this::enqueue);
+    }
+
+    void apply(ScheduleChange change) {
+        if (change.getType() == null) { throw new IllegalArgumentException("Schedule change without a type"); }
+        switch (change.getType()) {
+            case BUS_UNAVAILABLE -> busUnavailable(change.getBusId(), change.getFromTime());
+            case DRIVER_UNAVAILABLE -> driverUnavailable(change.getDriverId(), change.getFromTime());
+            case RUN_ADDED -> runAdded(change);
+            case RUN_REMOVED -> runRemoved(change.getRunId());
+        }
+    }
+
+    // Reassigns everything freed by the changes and returns the new checkpoint.
+    SolveCheckpoint finish() {
+        while (!pending.isEmpty()) {
+            RouteRun run = pending.poll();
+            queued.remove(run);
+            reassignedRunCount++;
+            BusRoute routeTemplate = engine.routeTemplates.get(run.getBusRouteId());
+            if (routeTemplate == null) { continue; }
+            boolean needsBus = run.getAssignedBusId() == null;
+            boolean needsDriver = run.getAssignedDriverId() == null;
+            if (needsBus && needsDriver) {
+                engine.scheduleRun(run);
+            } else if (needsBus) {
+                BusState busState = engine.findBus(run, routeTemplate);
+                if (busState != null) {
+                    engine.assignBus(run, routeTemplate, busState);
+                } else {
+                    releaseDriver(run);
+                }
+            } else if (needsDriver) {
+                DriverState driverState = engine.findDriver(run, routeTemplate);
+                if (driverState != null) {
+                    engine.assignDriver(run, routeTemplate, driverState);
+                } else {
+                    releaseBus(run);
+                }
+            }
+        }
+        List<RouteRun> sortedRuns = new ArrayList<>(runsById.values());
+        sortedRuns.sort(Comparator.comparingInt(engine.clock::departureMinutes));
+        ScheduleSolution solution = new ScheduleSolution(sortedRuns);
+        engine.activityLog.compact(); // Published logs are plain: readers never see the layers
+        solution.setActivityLog(engine.activityLog);
+        return new SolveCheckpoint(solution, engine);
+    }
+
+    int getReassignedRunCount() { return reassignedRunCount; }
+
+    private void busUnavailable(String busId, LocalTime fromTime) {
+        if (busId == null || !engine.busStates.containsKey(busId)) { throw new IllegalArgumentException("Unknown bus " + busId); }
+        engine.withdrawBus(busId);
+        replayBus(busId, keepRunsEndingBy(fromTime));
+    }
+
+    private void driverUnavailable(String driverId, LocalTime fromTime) {
+        if (driverId == null || !engine.driverStates.containsKey(driverId)) { throw new IllegalArgumentException("Unknown driver " + driverId); }
+        engine.withdrawDriver(driverId);
+        replayDriver(driverId, keepRunsEndingBy(fromTime));
+    }
+
+    // No time means the resource is gone for the whole day.
+    private Predicate<RouteRun> keepRunsEndingBy(LocalTime fromTime) {
+        if (fromTime == null) { return run -> false; }
+        int cutOff = engine.clock.toMinutes(fromTime);
+        return run -> engine.clock.arrivalMinutes(run) <= cutOff;
+    }
+
+    private void runAdded(ScheduleChange change) {
+        BusRoute routeTemplate = change.getBusRouteId() == null ? null : engine.routeTemplates.get(change.getBusRouteId());
+        if (routeTemplate == null) { throw new IllegalArgumentException("Unknown route " + change.getBusRouteId()); }
+        if (change.getDepartureTime() == null) { throw new IllegalArgumentException("Added run needs a departureTime"); }
+        String runId = change.getRunId() != null ? change.getRunId()
+                : routeTemplate.getId() + "-" + change.getDepartureTime().toString().replace(":", "") + "-ADDED";
+        if (runsById.containsKey(runId)) { throw new IllegalArgumentException("Run " + runId + " already exists"); }
+        RouteRun run = new RouteRun(runId, routeTemplate.getId(), change.getDepartureTime(), routeTemplate.travelTimeMinutesAt(change.getDepartureTime()));
+        runsById.put(runId, run);
+        engine.addRun();
+        enqueue(run);
+    }
+
+    private void runRemoved(String runId) {
+        RouteRun run = runId == null ? null : runsById.remove(runId);
+        if (run == null) { throw new IllegalArgumentException("Unknown run " + runId); }
+        if (queued.remove(run)) { pending.remove(run); }
+        if (run.getAssignedBusId() != null) { releaseBus(run); }
+        if (run.getAssignedDriverId() != null) { releaseDriver(run); }
+        engine.removeRun();
+    }
+
+    // Takes the run away from its bus; the bus's later runs are re-checked.
+    private void releaseBus(RouteRun run) {
+        String busId = run.getAssignedBusId();
+        engine.unassignBus(run);
+        replayBus(busId, r -> true);
+    }
+
+    private void releaseDriver(RouteRun run) {
+        String driverId = run.getAssignedDriverId();
+        engine.unassignDriver(run);
+        replayDriver(driverId, r -> true);
+    }
+
+    // Rebuilds the bus's day from scratch with the runs it should (and still can) keep; the rest are freed.
+    private void replayBus(String busId, Predicate<RouteRun> keep) {
+        List<RouteRun> previousRuns = engine.runsByBus.getOrDefault(busId, List.of());
+        BusState busState = engine.resetBus(busId);
+        for (RouteRun run : previousRuns) {
+            BusRoute routeTemplate = engine.routeTemplates.get(run.getBusRouteId());
+            if (keep.test(run) && engine.canBusTake(busState, run, routeTemplate)) {
+                engine.assignBus(run, routeTemplate, busState);
+            } else {
+                enqueue(run); // resetBus already took the bus off it
+            }
+        }
+    }
+
+    private void replayDriver(String driverId, Predicate<RouteRun> keep) {
+        List<RouteRun> previousRuns = engine.runsByDriver.getOrDefault(driverId, List.of());
+        DriverState driverState = engine.resetDriver(driverId);
+        for (RouteRun run : previousRuns) {
+            BusRoute routeTemplate = engine.routeTemplates.get(run.getBusRouteId());
+            if (keep.test(run) && engine.isDriverSuitableForRun(driverState, run, routeTemplate)) {
+                engine.assignDriver(run, routeTemplate, driverState);
+            } else {
+                enqueue(run);
+            }
+        }
+    }
+
+    private void enqueue(RouteRun run) {
+        if (queued.add(run)) { pending.add(run); }
+    }
+
+    private static RouteRun copyOf(RouteRun run) {
+        RouteRun copy = new RouteRun();
+        copy.setId(run.getId());
+        copy.setBusRouteId(run.getBusRouteId());
+        copy.setDepartureTime(run.getDepartureTime());
+        copy.setArrivalTime(run.getArrivalTime());
+        copy.setAssignedBusId(run.getAssignedBusId());
+        copy.setAssignedDriverId(run.getAssignedDriverId());
+        return copy;
+    }
+}
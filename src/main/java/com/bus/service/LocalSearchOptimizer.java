@@ -0,0 +1,500 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+
+/**
+ * Improvement phase after the greedy construction: late acceptance hill climbing over the run
+ * chains of the buses and drivers, until a wall-clock budget runs out.
+ *
+ * A solution is one chain of runs (in departure order) per bus and per driver; a run is in one bus
+ * chain and one driver chain, or in none. Moves:
+ * - change: one run gets another bus (or driver)
+ * - swap: two nearby runs exchange their buses (or drivers)
+ * - chain: two buses (or drivers) exchange everything they do from a run onwards
+ * - insert: an unassigned run gets a bus and a driver; runs overlapping it there become unassigned
+ * A move only rebuilds the chains it touches. Each is checked by replaying it from the start of the
+ * day with the engine's own state rules, and the score delta only depends on runs changing
+ * assigned state and chains becoming empty or non-empty, so a step costs the length of a few
+ * chains whatever the size of the schedule.
+ *
+ * Every worker thread searches from the construction with its own seed; the best result found by
+ * the deadline is replayed through a fresh engine, so the activity log, checkpoint and score are
+ * built exactly as for a greedy solve. A result that does not replay to its score is dropped in
+ * favour of the construction.
+ */
+class LocalSearchOptimizer {
+
+    private static final int NEIGHBOURHOOD_RUNS = 64; // Move partners are picked this close in departure order
+    private static final int CHECK_INTERVAL_STEPS = 1024; // Deadline and cancellation are polled this often
+    private static final int INFEASIBLE = Integer.MIN_VALUE;
+
+    private final List<Bus> allBuses;
+    private final List<BusDriver> allDrivers;
+    private final List<BusRoute> allRoutes;
+    private final ServiceTime clock;
+    private final long timeLimitMillis;
+    private final int threadCount;
+    private final int lateAcceptanceLength;
+
+    // The problem by index: schedulable runs in departure order, buses and drivers in id order
+    private RouteRun[] runs;
+    private BusRoute[] routeOf;
+    private int[] departure;
+    private int[] arrival;
+    private Bus[] buses;
+    private BusDriver[] drivers;
+    private ServiceAreas serviceAreas;
+    private GreedyScheduler rules; // The constructed engine: only its state rules and score weights are used
+    // A run closer than this to an inserted run (before or after) is taken off that bus or driver
+    private int busTurnaroundMins;
+    private int driverTurnaroundMins;
+
+    // threadCount 0 uses every core.
+    LocalSearchOptimizer(List<Bus> allBuses, List<BusDriver> allDrivers, List<BusRoute> allRoutes, ServiceTime clock,
+                         long timeLimitMillis, int threadCount, int lateAcceptanceLength) {
+        this.allBuses = allBuses;
+        this.allDrivers = allDrivers;
+        this.allRoutes = allRoutes;
+        this.clock = clock;
+        this.timeLimitMillis = timeLimitMillis;
+        this.threadCount = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+        this.lateAcceptanceLength = Math.max(1, lateAcceptanceLength);
+    }
+
+    // Returns a better checkpoint, or the constructed one if no search improved on it.
+    SolveCheckpoint improve(SolveCheckpoint constructed, SolveListener listener) {
+        if (!constructed.engine.depotUse.capacity.isEmpty()) {
+            // Chains at a depot that can run out of bays or chargers depend on each other; moves do not model that
+            System.out.println("Local search: skipped, some depots have limited bays or chargers.");
+            return constructed;
+        }
+        index(constructed);
+        if (runs.length == 0 || buses.length == 0 || drivers.length == 0) { return constructed; }
+        Map<String, Integer> busIndexById = new HashMap<>();
+        for (int b = 0; b < buses.length; b++) { busIndexById.put(buses[b].getBusId(), b); }
+        Map<String, Integer> driverIndexById = new HashMap<>();
+        for (int d = 0; d < drivers.length; d++) { driverIndexById.put(drivers[d].getId(), d); }
+        int[] initialBusOf = new int[runs.length];
+        int[] initialDriverOf = new int[runs.length];
+        for (int r = 0; r < runs.length; r++) {
+            boolean assigned = runs[r].getAssignedBusId() != null && runs[r].getAssignedDriverId() != null;
+            initialBusOf[r] = assigned ? busIndexById.get(runs[r].getAssignedBusId()) : -1;
+            initialDriverOf[r] = assigned ? driverIndexById.get(runs[r].getAssignedDriverId()) : -1;
+        }
+
+        int constructedScore = constructed.engine.scoreTracker.score();
+        long deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount, task -> {
+            Thread thread = new Thread(task, "local-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Search>> searches = new ArrayList<>();
+            for (int seed = 0; seed < threadCount; seed++) {
+                Search search = new Search(initialBusOf, initialDriverOf, constructedScore, seed);
+                searches.add(workers.submit(() -> search.run(deadline, listener)));
+            }
+            Search best = null;
+            long steps = 0;
+            for (Future<Search> future : searches) {
+                Search search = future.get();
+                steps += search.steps;
+                if (best == null || search.bestScore > best.bestScore) { best = search; }
+            }
+            if (listener.isCancelled()) { throw new CancellationException("Solve cancelled during local search"); }
+            System.out.println("Local search: " + threadCount + " thread(s), " + steps + " steps in " + timeLimitMillis
+                    + " ms, score " + constructedScore + " -> " + best.bestScore);
+            if (best.bestScore <= constructedScore) { return constructed; }
+            return replayOrKeep(constructed, best.bestBusOf, best.bestDriverOf, best.bestScore);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted during local search");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Local search failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // Sets up the problem by index from the construction; improve() starts with it.
+    void index(SolveCheckpoint constructed) {
+        GreedyScheduler engine = constructed.engine;
+        serviceAreas = engine.serviceAreas;
+        rules = engine;
+        int longestDeadhead = engine.travel.maxMinutes();
+        double slowestBand = engine.travel.maxFactor();
+        busTurnaroundMins = (int) Math.ceil(Math.max(engine.config.getTerminalToDepotTravelMins(), longestDeadhead) * slowestBand)
+                + (int) Math.ceil(Math.max(engine.config.getDepotToTerminalTravelMins(), longestDeadhead) * slowestBand);
+        driverTurnaroundMins = Math.max(engine.config.getDriverTravelBetweenTerminalsMins(), longestDeadhead);
+        // The solution's runs are in departure order already; runs without a route stay unassigned
+        runs = constructed.solution.getAssignedRouteRuns().stream()
+                .filter(run -> engine.routeTemplates.containsKey(run.getBusRouteId())).toArray(RouteRun[]::new);
+        routeOf = new BusRoute[runs.length];
+        departure = new int[runs.length];
+        arrival = new int[runs.length];
+        for (int r = 0; r < runs.length; r++) {
+            routeOf[r] = engine.routeTemplates.get(runs[r].getBusRouteId());
+            departure[r] = clock.departureMinutes(runs[r]);
+            arrival[r] = clock.arrivalMinutes(runs[r]);
+        }
+        buses = engine.busStates.values().stream().map(bs -> bs.bus)
+                .filter(bus -> !engine.withdrawnBusIds.contains(bus.getBusId()))
+                .sorted(Comparator.comparing(Bus::getBusId)).toArray(Bus[]::new);
+        drivers = engine.driverStates.values().stream().map(ds -> ds.driver)
+                .filter(driver -> !engine.withdrawnDriverIds.contains(driver.getId()))
+                .sorted(Comparator.comparing(BusDriver::getId)).toArray(BusDriver[]::new);
+    }
+
+    /**
+     * The search's best assignment replayed through a fresh engine, or constructed if it does not
+     * replay or replays to another score than the search found. The improvement phase is optional,
+     * so a mismatch is logged and the construction kept, its runs assigned as they were.
+     */
+    SolveCheckpoint replayOrKeep(SolveCheckpoint constructed, int[] busOf, int[] driverOf, int score) {
+        List<RouteRun> solutionRuns = constructed.solution.getAssignedRouteRuns();
+        String[] busIds = new String[solutionRuns.size()];
+        String[] driverIds = new String[solutionRuns.size()];
+        for (int i = 0; i < busIds.length; i++) {
+            busIds[i] = solutionRuns.get(i).getAssignedBusId();
+            driverIds[i] = solutionRuns.get(i).getAssignedDriverId();
+        }
+        SolveCheckpoint improved = rebuild(constructed, busOf, driverOf);
+        if (improved != null && improved.engine.scoreTracker.score() == score) { return improved; }
+        System.err.println("Local search: best result " + (improved == null ? "does not replay"
+                : "replays to score " + improved.engine.scoreTracker.score() + ", not " + score) + "; keeping the constructed solution.");
+        for (int i = 0; i < busIds.length; i++) {
+            solutionRuns.get(i).setAssignedBusId(busIds[i]);
+            solutionRuns.get(i).setAssignedDriverId(driverIds[i]);
+        }
+        return constructed;
+    }
+
+    // Replays the assignment through a fresh engine in departure order; null at the first run it cannot take.
+    private SolveCheckpoint rebuild(SolveCheckpoint constructed, int[] busOf, int[] driverOf) {
+        GreedyScheduler engine = new GreedyScheduler(allBuses, allDrivers, allRoutes, clock, serviceAreas, rules.travel, rules.depotUse.capacity, rules.charging, rules.config);
+        List<RouteRun> solutionRuns = constructed.solution.getAssignedRouteRuns();
+        int r = 0;
+        for (RouteRun run : solutionRuns) {
+            engine.addRun();
+            run.setAssignedBusId(null);
+            run.setAssignedDriverId(null);
+            if (r == runs.length || runs[r] != run) { continue; } // No route: never assigned
+            if (busOf[r] >= 0) {
+                BusState busState = engine.busStates.get(buses[busOf[r]].getBusId());
+                DriverState driverState = engine.driverStates.get(drivers[driverOf[r]].getId());
+                if (!engine.canBusTake(busState, run, routeOf[r]) || !engine.isDriverSuitableForRun(driverState, run, routeOf[r])) {
+                    System.err.println("Local search: result does not replay at run " + run.getId());
+                    return null;
+                }
+                engine.assign(run, routeOf[r], busState, driverState);
+            }
+            r++;
+        }
+        ScheduleSolution solution = new ScheduleSolution(solutionRuns);
+        solution.setActivityLog(engine.activityLog);
+        return new SolveCheckpoint(solution, engine);
+    }
+
+    // Whether a bus can do these runs (in order) starting from its start-of-day state.
+    private boolean busChainFeasible(int bus, int[] chain) {
+        BusState state = rules.newBusState(buses[bus]);
+        for (int r : chain) {
+            if (!serviceAreas.busServes(buses[bus], routeOf[r].getStartTerminalId())) { return false; }
+            if (!rules.canBusTake(state, departure[r], routeOf[r])) { return false; }
+            rules.advanceBus(state, departure[r], arrival[r], routeOf[r]);
+        }
+        return true;
+    }
+
+    private boolean driverChainFeasible(int driver, int[] chain) {
+        DriverState state = new DriverState(drivers[driver]);
+        for (int r : chain) {
+            if (!serviceAreas.driverServes(drivers[driver], routeOf[r].getStartTerminalId())) { return false; }
+            if (!rules.canDriverTake(state, departure[r], arrival[r], routeOf[r])) { return false; }
+            rules.advanceDriver(state, departure[r], arrival[r], routeOf[r]);
+        }
+        return true;
+    }
+
+    // One late acceptance search. Owns all of its state; only the problem arrays are shared (read-only).
+    private final class Search {
+
+        private final SplittableRandom random;
+        private final int[] busOf;    // -1: unassigned (then driverOf is -1 too)
+        private final int[] driverOf;
+        private final int[][] busChain = new int[buses.length][];
+        private final int[][] driverChain = new int[drivers.length][];
+        private final int[] unassignedRuns = new int[runs.length];
+        private final int[] unassignedSlot = new int[runs.length];
+        private int unassignedCount;
+        private int score;
+
+        final int[] bestBusOf;
+        final int[] bestDriverOf;
+        int bestScore;
+        long steps;
+
+        // Move under evaluation: runs with their new bus and driver; moveStamp[run] == stamp marks its runs
+        private int[] moveRun = new int[16];
+        private int[] moveBus = new int[16];
+        private int[] moveDriver = new int[16];
+        private int moveSize;
+        private final int[] moveStamp = new int[runs.length];
+        private int stamp;
+        private final ChainEdit busEdit = new ChainEdit();
+        private final ChainEdit driverEdit = new ChainEdit();
+        private int[] chainBuffer = new int[64];
+
+        Search(int[] initialBusOf, int[] initialDriverOf, int initialScore, long seed) {
+            this.random = new SplittableRandom(seed);
+            this.busOf = initialBusOf.clone();
+            this.driverOf = initialDriverOf.clone();
+            this.bestBusOf = initialBusOf.clone();
+            this.bestDriverOf = initialDriverOf.clone();
+            this.score = initialScore;
+            this.bestScore = initialScore;
+            int[] busChainLength = new int[buses.length];
+            int[] driverChainLength = new int[drivers.length];
+            for (int r = 0; r < runs.length; r++) {
+                if (busOf[r] < 0) {
+                    addUnassigned(r);
+                } else {
+                    busChainLength[busOf[r]]++;
+                    driverChainLength[driverOf[r]]++;
+                }
+            }
+            for (int b = 0; b < buses.length; b++) { busChain[b] = new int[busChainLength[b]]; busChainLength[b] = 0; }
+            for (int d = 0; d < drivers.length; d++) { driverChain[d] = new int[driverChainLength[d]]; driverChainLength[d] = 0; }
+            for (int r = 0; r < runs.length; r++) { // Ascending run index keeps every chain in departure order
+                if (busOf[r] < 0) { continue; }
+                busChain[busOf[r]][busChainLength[busOf[r]]++] = r;
+                driverChain[driverOf[r]][driverChainLength[driverOf[r]]++] = r;
+            }
+        }
+
+        Search run(long deadline, SolveListener listener) {
+            int[] history = new int[lateAcceptanceLength];
+            Arrays.fill(history, score);
+            while (steps % CHECK_INTERVAL_STEPS != 0
+                    || (System.nanoTime() - deadline < 0 && !listener.isCancelled() && !Thread.currentThread().isInterrupted())) {
+                int slot = (int) (steps++ % history.length);
+                if (!proposeMove()) { continue; }
+                int delta = evaluateMove();
+                if (delta == INFEASIBLE) { continue; }
+                int candidateScore = score + delta;
+                if (candidateScore >= score || candidateScore >= history[slot]) {
+                    applyMove();
+                    score = candidateScore;
+                    if (score > bestScore) {
+                        bestScore = score;
+                        System.arraycopy(busOf, 0, bestBusOf, 0, busOf.length);
+                        System.arraycopy(driverOf, 0, bestDriverOf, 0, driverOf.length);
+                    }
+                }
+                history[slot] = score;
+            }
+            return this;
+        }
+
+        // --- Moves ---
+
+        private boolean proposeMove() {
+            moveSize = 0;
+            stamp++;
+            if (unassignedCount > 0 && random.nextInt(4) == 0) {
+                return proposeInsert(unassignedRuns[random.nextInt(unassignedCount)]);
+            }
+            int run = random.nextInt(runs.length);
+            if (busOf[run] < 0) { return proposeInsert(run); }
+            int other = nearbyAssignedRun(run);
+            switch (random.nextInt(6)) {
+                case 0 -> { // Change bus
+                    int bus = other >= 0 && random.nextBoolean() ? busOf[other] : random.nextInt(buses.length);
+                    if (bus == busOf[run]) { return false; }
+                    addToMove(run, bus, driverOf[run]);
+                }
+                case 1 -> { // Change driver
+                    int driver = other >= 0 && random.nextBoolean() ? driverOf[other] : random.nextInt(drivers.length);
+                    if (driver == driverOf[run]) { return false; }
+                    addToMove(run, busOf[run], driver);
+                }
+                case 2 -> { // Swap buses
+                    if (other < 0 || busOf[other] == busOf[run]) { return false; }
+                    addToMove(run, busOf[other], driverOf[run]);
+                    addToMove(other, busOf[run], driverOf[other]);
+                }
+                case 3 -> { // Swap drivers
+                    if (other < 0 || driverOf[other] == driverOf[run]) { return false; }
+                    addToMove(run, busOf[run], driverOf[other]);
+                    addToMove(other, busOf[other], driverOf[run]);
+                }
+                case 4 -> { // Exchange bus chains from this run's departure on
+                    int bus = busOf[run];
+                    int otherBus = other >= 0 && random.nextInt(4) != 0 ? busOf[other] : random.nextInt(buses.length);
+                    if (otherBus == bus) { return false; }
+                    for (int r : busChain[bus]) { if (r >= run) { addToMove(r, otherBus, driverOf[r]); } }
+                    for (int r : busChain[otherBus]) { if (r >= run) { addToMove(r, bus, driverOf[r]); } }
+                }
+                default -> { // Exchange driver chains from this run's departure on
+                    int driver = driverOf[run];
+                    int otherDriver = other >= 0 && random.nextInt(4) != 0 ? driverOf[other] : random.nextInt(drivers.length);
+                    if (otherDriver == driver) { return false; }
+                    for (int r : driverChain[driver]) { if (r >= run) { addToMove(r, busOf[r], otherDriver); } }
+                    for (int r : driverChain[otherDriver]) { if (r >= run) { addToMove(r, busOf[r], driver); } }
+                }
+            }
+            return true;
+        }
+
+        // Bus and driver come from runs around the same time (or at random); whatever overlaps the run there is unassigned.
+        private boolean proposeInsert(int run) {
+            int busNeighbour = nearbyAssignedRun(run);
+            int bus = busNeighbour >= 0 && random.nextBoolean() ? busOf[busNeighbour] : random.nextInt(buses.length);
+            int driverNeighbour = nearbyAssignedRun(run);
+            int driver = driverNeighbour >= 0 && random.nextBoolean() ? driverOf[driverNeighbour] : random.nextInt(drivers.length);
+            addToMove(run, bus, driver);
+            for (int r : busChain[bus]) {
+                if (overlaps(r, run, busTurnaroundMins)) { addToMove(r, -1, -1); }
+            }
+            for (int r : driverChain[driver]) {
+                if (moveStamp[r] != stamp && overlaps(r, run, driverTurnaroundMins)) { addToMove(r, -1, -1); }
+            }
+            return true;
+        }
+
+        private boolean overlaps(int r, int run, int turnaroundMinutes) {
+            return departure[r] < arrival[run] + turnaroundMinutes && arrival[r] + turnaroundMinutes > departure[run];
+        }
+
+        // An assigned run close to this one in departure order, or -1.
+        private int nearbyAssignedRun(int run) {
+            int other = run + random.nextInt(2 * NEIGHBOURHOOD_RUNS + 1) - NEIGHBOURHOOD_RUNS;
+            if (other < 0 || other >= runs.length || other == run || busOf[other] < 0) { return -1; }
+            return other;
+        }
+
+        private void addToMove(int run, int bus, int driver) {
+            if (moveSize == moveRun.length) {
+                moveRun = Arrays.copyOf(moveRun, moveSize * 2);
+                moveBus = Arrays.copyOf(moveBus, moveSize * 2);
+                moveDriver = Arrays.copyOf(moveDriver, moveSize * 2);
+            }
+            moveRun[moveSize] = run;
+            moveBus[moveSize] = bus;
+            moveDriver[moveSize] = driver;
+            moveSize++;
+            moveStamp[run] = stamp;
+        }
+
+        // Builds and checks the chains the move changes. Returns the score delta, or INFEASIBLE.
+        private int evaluateMove() {
+            busEdit.clear();
+            driverEdit.clear();
+            int unassignedDelta = 0;
+            for (int i = 0; i < moveSize; i++) {
+                int run = moveRun[i];
+                if (busOf[run] != moveBus[i]) { busEdit.touch(busOf[run]); busEdit.touch(moveBus[i]); }
+                if (driverOf[run] != moveDriver[i]) { driverEdit.touch(driverOf[run]); driverEdit.touch(moveDriver[i]); }
+                unassignedDelta += (moveBus[i] < 0 ? 1 : 0) - (busOf[run] < 0 ? 1 : 0);
+            }
+            if (busEdit.count == 0 && driverEdit.count == 0) { return INFEASIBLE; } // Nothing changes
+            int busesUsedDelta = 0;
+            for (int k = 0; k < busEdit.count; k++) {
+                int bus = busEdit.resources[k];
+                int[] chain = rebuiltChain(busChain[bus], moveBus, bus);
+                if (!busChainFeasible(bus, chain)) { return INFEASIBLE; }
+                busEdit.chains[k] = chain;
+                busesUsedDelta += (chain.length > 0 ? 1 : 0) - (busChain[bus].length > 0 ? 1 : 0);
+            }
+            for (int k = 0; k < driverEdit.count; k++) {
+                int driver = driverEdit.resources[k];
+                int[] chain = rebuiltChain(driverChain[driver], moveDriver, driver);
+                if (!driverChainFeasible(driver, chain)) { return INFEASIBLE; }
+                driverEdit.chains[k] = chain;
+            }
+            return unassignedDelta * rules.scoreTracker.weight(ScoreTracker.Constraint.UNASSIGNED_RUN)
+                    + busesUsedDelta * rules.scoreTracker.weight(ScoreTracker.Constraint.BUS_USED);
+        }
+
+        // The resource's runs outside the move plus the move's runs that go to it, in departure order.
+        private int[] rebuiltChain(int[] chain, int[] moveResource, int resource) {
+            if (chainBuffer.length < chain.length + moveSize) { chainBuffer = new int[2 * (chain.length + moveSize)]; }
+            int length = 0;
+            for (int r : chain) {
+                if (moveStamp[r] != stamp) { chainBuffer[length++] = r; }
+            }
+            for (int i = 0; i < moveSize; i++) {
+                if (moveResource[i] == resource) { chainBuffer[length++] = moveRun[i]; }
+            }
+            int[] rebuilt = Arrays.copyOf(chainBuffer, length);
+            Arrays.sort(rebuilt);
+            return rebuilt;
+        }
+
+        private void applyMove() {
+            for (int k = 0; k < busEdit.count; k++) { busChain[busEdit.resources[k]] = busEdit.chains[k]; }
+            for (int k = 0; k < driverEdit.count; k++) { driverChain[driverEdit.resources[k]] = driverEdit.chains[k]; }
+            for (int i = 0; i < moveSize; i++) {
+                int run = moveRun[i];
+                boolean wasUnassigned = busOf[run] < 0;
+                busOf[run] = moveBus[i];
+                driverOf[run] = moveDriver[i];
+                if (wasUnassigned && moveBus[i] >= 0) {
+                    removeUnassigned(run);
+                } else if (!wasUnassigned && moveBus[i] < 0) {
+                    addUnassigned(run);
+                }
+            }
+        }
+
+        private void addUnassigned(int run) {
+            unassignedSlot[run] = unassignedCount;
+            unassignedRuns[unassignedCount++] = run;
+        }
+
+        private void removeUnassigned(int run) {
+            int last = unassignedRuns[--unassignedCount];
+            unassignedRuns[unassignedSlot[run]] = last;
+            unassignedSlot[last] = unassignedSlot[run];
+        }
+    }
+
+    // The buses (or drivers) a move touches, with their rebuilt chains. -1 (no resource) is ignored.
+    private static final class ChainEdit {
+        int[] resources = new int[8];
+        int[][] chains = new int[8][];
+        int count;
+
+        void clear() { count = 0; }
+
+        void touch(int resource) {
+            if (resource < 0) { return; }
+            for (int k = 0; k < count; k++) {
+                if (resources[k] == resource) { return; }
+            }
+            if (count == resources.length) {
+                resources = Arrays.copyOf(resources, count * 2);
+                chains = Arrays.copyOf(chains, count * 2);
+            }
+            resources[count++] = resource;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.bus.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.Bus;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+
+/**
+ * Vehicle blocks from the fewest buses that can cover the runs (SolverConfig.minimumFleet), in
+ * place of TwoPhaseConstruction's greedy first pass; the driver duties are cut from them as usual.
+ *
+ * Run B can follow run A on one bus if the bus can drive back to a depot after A and out again in
+ * time for B. Every bus goes back to its depot between runs, so each run occupies its bus over a
+ * window from leaving the depot to getting back, and B can follow A exactly when A's window ends
+ * before B's starts. The compatibility graph is an interval order: its maximum matching (fleet =
+ * runs - matching, the minimum path cover) is found by one sweep over the windows in start order,
+ * reusing a bus whenever one is back, in O(n log n) with no edges built. The sweep's chains are
+ * the planned blocks, and their count the minimum fleet.
+ *
+ * Windows use the shortest legs to any depot whose buses may serve the run's start terminal,
+ * looked up once per terminal and depot, so the count is exact when those legs are the same for
+ * every depot (the fixed travel times) and a lower bound otherwise. Charging is left out of the
+ * plan: a repair pass replays the blocks through the engine in departure order, and a run the
+ * planned bus cannot take (not enough charge, still charging, a longer leg to its own depot) goes
+ * to another bus, preferably one whose block is done.
+ *
+ * Repairs can cost more buses than the plan saved, so the repaired blocks are tried on a copy of
+ * the fresh engine next to TwoPhaseConstruction's greedy first pass on another, and the engine
+ * keeps the greedy blocks if the repaired ones need more buses or leave more runs without one.
+ * The winner is replayed bus by bus, without a search; the minimum fleet reported stays the plan's.
+ */
+final class MinimumFleetBlocks {
+
+    private static final int NO_CHAIN = -1;
+
+    private MinimumFleetBlocks() {}
+
+    // Pass 1 of TwoPhaseConstruction with planned blocks. Sets engine.minimumFleetSize.
+    static void buildBlocks(GreedyScheduler engine, List<RouteRun> sortedRuns, SolveListener listener, int[] activityLogEndByRun) {
+        int[] chainOfRun = new int[sortedRuns.size()];
+        int chainCount = plan(engine, sortedRuns, chainOfRun);
+        engine.minimumFleetSize = chainCount;
+        System.out.println("Minimum fleet for " + sortedRuns.size() + " runs: " + chainCount + " buses before charging.");
+
+        // Trials on copies of the engine, which is still fresh: only cancellation reaches the listener
+        SolveListener cancelOnly = new SolveListener() {
+            @Override
+            public boolean isCancelled() { return listener.isCancelled(); }
+        };
+        GreedyScheduler planned = engine.copy(Map.of());
+        repairBlocks(planned, sortedRuns, chainOfRun, chainCount, cancelOnly);
+        String[] plannedBusOfRun = busOfRun(sortedRuns);
+        GreedyScheduler greedy = engine.copy(Map.of());
+        TwoPhaseConstruction.buildBlocks(greedy, sortedRuns, cancelOnly, null);
+        boolean keepPlan = planned.runsByBus.size() <= greedy.runsByBus.size() && unassignedRuns(plannedBusOfRun) <= unassignedRuns(busOfRun(sortedRuns));
+        System.out.println("Vehicle blocks: " + planned.runsByBus.size() + " buses after charging repairs, " + greedy.runsByBus.size()
+                + " greedy; keeping the " + (keepPlan ? "repaired plan." : "greedy blocks."));
+        String[] busIdOfRun = keepPlan ? plannedBusOfRun : busOfRun(sortedRuns);
+
+        ActivityLog activityLog = engine.activityLog;
+        for (int i = 0; i < sortedRuns.size(); i++) {
+            RouteRun run = sortedRuns.get(i);
+            TwoPhaseConstruction.checkCancelled(listener, "vehicle blocks", i, sortedRuns.size());
+            int activityLogSizeBeforeRun = activityLog.size();
+            engine.addRun();
+            run.setAssignedBusId(null);
+            run.setAssignedDriverId(null);
+            if (busIdOfRun[i] != null) { // Same engine state as in the trial, so the bus can take the run as it did there
+                engine.assignBus(run, engine.routeTemplates.get(run.getBusRouteId()), engine.busStates.get(busIdOfRun[i]));
+            }
+            if (activityLogEndByRun != null) { activityLogEndByRun[i] = activityLog.size(); }
+            listener.onActivitiesLogged(run, activityLog.subList(activityLogSizeBeforeRun, activityLog.size()));
+        }
+    }
+
+    // The planned blocks through the engine in departure order, with a new bus where the planned one cannot take a run.
+    private static void repairBlocks(GreedyScheduler engine, List<RouteRun> sortedRuns, int[] chainOfRun, int chainCount, SolveListener listener) {
+        int[] runsLeftInChain = new int[chainCount];
+        for (int chain : chainOfRun) {
+            if (chain != NO_CHAIN) { runsLeftInChain[chain]++; }
+        }
+        BusState[] busOfChain = new BusState[chainCount];
+        Map<String, Integer> chainOfBus = new HashMap<>(); // Chain each bus is driving, while it has runs left
+        for (int i = 0; i < sortedRuns.size(); i++) {
+            RouteRun run = sortedRuns.get(i);
+            TwoPhaseConstruction.checkCancelled(listener, "vehicle blocks", i, sortedRuns.size());
+            engine.addRun();
+            run.setAssignedBusId(null);
+            run.setAssignedDriverId(null);
+            int chain = chainOfRun[i];
+            if (chain != NO_CHAIN) {
+                BusRoute routeTemplate = engine.routeTemplates.get(run.getBusRouteId());
+                BusState busState = busOfChain[chain];
+                if (busState == null || engine.withdrawnBusIds.contains(busState.bus.getBusId()) || !engine.canBusTake(busState, run, routeTemplate)) {
+                    // First run of the block, or repair: a bus whose block is done or an unused one, else any bus
+                    busState = engine.findBus(run, routeTemplate, bs -> !chainOfBus.containsKey(bs.bus.getBusId()));
+                    if (busState == null) { busState = engine.findBus(run, routeTemplate); }
+                }
+                if (busState != null) {
+                    if (busOfChain[chain] != null && busOfChain[chain] != busState) { chainOfBus.remove(busOfChain[chain].bus.getBusId()); }
+                    Integer previousChain = chainOfBus.put(busState.bus.getBusId(), chain);
+                    if (previousChain != null && previousChain != chain) { busOfChain[previousChain] = null; } // Taken over: that block needs another bus
+                    engine.assignBus(run, routeTemplate, busState);
+                    busOfChain[chain] = engine.busStates.get(busState.bus.getBusId()); // The engine's own copy of a shared state
+                }
+                if (--runsLeftInChain[chain] == 0 && busOfChain[chain] != null) { chainOfBus.remove(busOfChain[chain].bus.getBusId()); }
+            }
+        }
+    }
+
+    private static String[] busOfRun(List<RouteRun> sortedRuns) {
+        return sortedRuns.stream().map(RouteRun::getAssignedBusId).toArray(String[]::new);
+    }
+
+    private static long unassignedRuns(String[] busOfRun) {
+        return Arrays.stream(busOfRun).filter(busId -> busId == null).count();
+    }
+
+    // Chains the runs into the fewest blocks: chainOfRun gets each run's block (NO_CHAIN for a run no
+    // bus can ever take). Returns the number of blocks.
+    static int plan(GreedyScheduler engine, List<RouteRun> sortedRuns, int[] chainOfRun) {
+        Map<String, List<String>> depotsByStartTerminal = new HashMap<>(); // Per-terminal bucket of the depots that may serve it
+        Map<String, Bus> busOfDepot = new HashMap<>();
+        for (BusState busState : engine.busStates.values()) {
+            if (!engine.withdrawnBusIds.contains(busState.bus.getBusId())) { busOfDepot.putIfAbsent(busState.bus.getDepotId(), busState.bus); }
+        }
+        int n = sortedRuns.size();
+        int[] windowStart = new int[n];
+        int[] windowEnd = new int[n];
+        List<Integer> plannable = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            RouteRun run = sortedRuns.get(i);
+            chainOfRun[i] = NO_CHAIN;
+            BusRoute routeTemplate = engine.routeTemplates.get(run.getBusRouteId());
+            if (routeTemplate == null) { continue; }
+            List<String> depotIds = depotsByStartTerminal.computeIfAbsent(routeTemplate.getStartTerminalId(), terminalId ->
+                    busOfDepot.entrySet().stream().filter(e -> engine.serviceAreas.busServes(e.getValue(), terminalId)).map(Map.Entry::getKey).toList());
+            if (depotIds.isEmpty()) { continue; }
+            int runDeparture = engine.clock.departureMinutes(run);
+            int runArrival = engine.clock.arrivalMinutes(run);
+            int out = Integer.MAX_VALUE;
+            int back = Integer.MAX_VALUE;
+            for (String depotId : depotIds) {
+                out = Math.min(out, engine.minutesFromDepot(depotId, routeTemplate.getStartTerminalId(), runDeparture));
+                back = Math.min(back, engine.minutesToDepot(depotId, routeTemplate, runArrival));
+            }
+            windowStart[i] = runDeparture - out;
+            windowEnd[i] = runArrival + back;
+            plannable.add(i);
+        }
+        Integer[] byStart = plannable.toArray(new Integer[0]);
+        Arrays.sort(byStart, (a, b) -> Integer.compare(windowStart[a], windowStart[b])); // Stable: departure order on ties
+
+        // Busy chains by the end of their last window; a chain is free again from then on, and the
+        // one back most recently is reused first (any free one keeps the count minimal).
+        PriorityQueue<int[]> busy = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+        ArrayDeque<Integer> free = new ArrayDeque<>();
+        int chainCount = 0;
+        for (int run : byStart) {
+            while (!busy.isEmpty() && busy.peek()[0] <= windowStart[run]) { free.push(busy.poll()[1]); }
+            int chain = free.isEmpty() ? chainCount++ : free.pop();
+            chainOfRun[run] = chain;
+            busy.add(new int[] {windowEnd[run], chain});
+        }
+        return chainCount;
+    }
+}
@@ -0,0 +1,139 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+/**
+ * Several service days in a row (POST /api/schedule/horizon): the same timetable solved once per
+ * day, each day starting from where the one before left the fleet instead of from the data as
+ * loaded. What carries over is the end state of each bus and driver:
+ *
+ * - Buses keep their location and charge, plus an overnight charge (GreedyScheduler.chargeAtNextDayKm).
+ * - Drivers add the day's driving to drivingMinsThisWeek, which counts towards maxDrivingMinsPerWeek.
+ *   Weeks run from the first day of the horizon: every 7th day the count starts again from 0.
+ *
+ * Each day is a normal solve (partitions, two-phase construction, local search as configured), so
+ * a day's end state is known as soon as its solve returns. The next day starts right away, while
+ * the day just solved is handed off on another thread (stored, summarised). At most one day waits
+ * to be handed off, and the carried state is one Bus and one BusDriver per resource, so memory
+ * stays that of two days however long the horizon.
+ *
+ * The listener follows each day's solve in turn. Cancelling it stops the day being solved; the days
+ * before it are still handed off.
+ */
+final class MultiDaySolve {
+
+    static final int DAYS_PER_WEEK = 7;
+
+    // Receives each day once it is solved, in order, on the hand-off thread.
+    interface DayHandler {
+        void daySolved(int day, ScheduleSolution solution);
+    }
+
+    private MultiDaySolve() {}
+
+    // Day 1 starts from allBuses and allDrivers, which are only read.
+    static void solve(SchedulingService schedulingService, List<RouteRun> runsOfEachDay, List<Bus> allBuses, List<BusDriver> allDrivers,
+                      List<BusRoute> allRoutes, List<BusDepot> allDepots, List<? extends BusStop> allStops, SolverConfig config,
+                      int days, SolveListener listener, ExecutorService handOff, DayHandler handler) {
+        List<Bus> buses = allBuses;
+        List<BusDriver> drivers = allDrivers;
+        Future<?> handingOff = null;
+        try {
+            for (int day = 1; day <= days; day++) {
+                SolveCheckpoint checkpoint = schedulingService.solveWithCheckpoint(copyOf(runsOfEachDay), buses, drivers, allRoutes,
+                        allDepots, allStops, config, listener);
+                buses = busesNextDay(checkpoint.engine, buses);
+                drivers = driversNextDay(checkpoint.engine, drivers, day % DAYS_PER_WEEK == 0);
+                ScheduleSolution solution = checkpoint.solution;
+                solution.setHorizonDay(day);
+                System.out.println("Horizon day " + day + " of " + days + " solved. Solution Score: " + solution.getScore());
+                waitFor(handingOff);
+                int solvedDay = day;
+                handingOff = handOff.submit(() -> handler.daySolved(solvedDay, solution));
+            }
+            waitFor(handingOff);
+        } catch (CancellationException e) {
+            waitFor(handingOff); // The days solved before the cancel are kept
+            throw e;
+        } catch (RuntimeException e) {
+            if (handingOff != null) { handingOff.cancel(true); }
+            throw e;
+        }
+    }
+
+    // Fresh runs for each day: a solve writes its assignments into the runs it is given.
+    private static List<RouteRun> copyOf(List<RouteRun> runs) {
+        List<RouteRun> copies = new ArrayList<>(runs.size());
+        for (RouteRun run : runs) {
+            RouteRun copy = new RouteRun();
+            copy.setId(run.getId());
+            copy.setBusRouteId(run.getBusRouteId());
+            copy.setDepartureTime(run.getDepartureTime());
+            copy.setArrivalTime(run.getArrivalTime());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    // A bus no part of the network used (not in the engine) starts the next day as it started this one.
+    static List<Bus> busesNextDay(GreedyScheduler engine, List<Bus> buses) {
+        List<Bus> next = new ArrayList<>(buses.size());
+        for (Bus bus : buses) {
+            BusState busState = engine.busStates.get(bus.getBusId());
+            if (busState == null) {
+                next.add(bus);
+                continue;
+            }
+            Bus copy = new Bus();
+            copy.setBusIdValue(bus.getBusId());
+            copy.setNumberPlateValue(bus.getNumberPlate());
+            copy.setDepotId(bus.getDepotId());
+            copy.setRangeKm(bus.getRangeKm());
+            copy.setCurrentChargeKm(engine.chargeAtNextDayKm(busState));
+            copy.setCurrentLocationId(busState.currentLocationId);
+            copy.setChargeCurve(bus.getChargeCurve());
+            next.add(copy);
+        }
+        return next;
+    }
+
+    static List<BusDriver> driversNextDay(GreedyScheduler engine, List<BusDriver> drivers, boolean newWeek) {
+        List<BusDriver> next = new ArrayList<>(drivers.size());
+        for (BusDriver driver : drivers) {
+            DriverState driverState = engine.driverStates.get(driver.getId());
+            BusDriver copy = new BusDriver(driver.getId(), driver.getName());
+            copy.setDepotId(driver.getDepotId());
+            if (!newWeek) {
+                copy.setDrivingMinsThisWeek(driver.getDrivingMinsThisWeek() + (driverState == null ? 0 : driverState.totalDrivingTimeMinutesToday));
+            }
+            next.add(copy);
+        }
+        return next;
+    }
+
+    private static void waitFor(Future<?> handingOff) {
+        if (handingOff == null) { return; }
+        try {
+            handingOff.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing off a solved day", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Handing off a solved day failed", e.getCause());
+        }
+    }
+}
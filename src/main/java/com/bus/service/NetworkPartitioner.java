@@ -0,0 +1,102 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+
+/**
+ * Splits a network into parts that share no bus, driver or start terminal: the connected
+ * components of the graph linking every depot to the terminals its service area covers (see
+ * ServiceAreas). Runs go to the part of their route's start terminal. Parts are independent
+ * for the greedy solver, so solving them separately gives the same schedule as solving them
+ * together, see PartitionedSolve.
+ *
+ * Route end terminals do not link parts: a bus always returns to its home depot after a run and
+ * a driver may travel to any terminal, so only where a run starts decides which resources can
+ * take it. A bus or driver that may work anywhere (no service area) links everything, and the
+ * network stays in one part.
+ */
+final class NetworkPartitioner {
+
+    private static final String NO_ROUTE = ""; // Part of runs whose route does not exist (never assigned)
+
+    static final class Part {
+        final List<RouteRun> runs = new ArrayList<>();
+        final List<Bus> buses = new ArrayList<>();
+        final List<BusDriver> drivers = new ArrayList<>();
+        final List<BusRoute> routes = new ArrayList<>();
+    }
+
+    private final Map<String, String> parent = new HashMap<>(); // Union-find over depot and terminal ids
+
+    private NetworkPartitioner() {}
+
+    // Parts keep the relative order of runs, buses, drivers and routes they were given.
+    static List<Part> partition(List<RouteRun> runs, List<Bus> buses, List<BusDriver> drivers, List<BusRoute> routes,
+                                ServiceAreas serviceAreas) {
+        NetworkPartitioner partitioner = new NetworkPartitioner();
+        for (Bus bus : buses) {
+            if (!partitioner.linkServiceArea(bus.getDepotId(), serviceAreas)) { return List.of(whole(runs, buses, drivers, routes)); }
+        }
+        for (BusDriver driver : drivers) {
+            if (!partitioner.linkServiceArea(driver.getDepotId(), serviceAreas)) { return List.of(whole(runs, buses, drivers, routes)); }
+        }
+
+        Map<String, Part> parts = new LinkedHashMap<>();
+        Map<String, String> partOfRoute = new HashMap<>();
+        for (BusRoute route : routes) {
+            String root = partitioner.find(route.getStartTerminalId());
+            partOfRoute.put(route.getId(), root);
+            parts.computeIfAbsent(root, id -> new Part()).routes.add(route);
+        }
+        for (RouteRun run : runs) {
+            String root = partOfRoute.getOrDefault(run.getBusRouteId(), NO_ROUTE);
+            parts.computeIfAbsent(root, id -> new Part()).runs.add(run);
+        }
+        for (Bus bus : buses) { parts.computeIfAbsent(partitioner.find(bus.getDepotId()), id -> new Part()).buses.add(bus); }
+        for (BusDriver driver : drivers) { parts.computeIfAbsent(partitioner.find(driver.getDepotId()), id -> new Part()).drivers.add(driver); }
+        return new ArrayList<>(parts.values());
+    }
+
+    private static Part whole(List<RouteRun> runs, List<Bus> buses, List<BusDriver> drivers, List<BusRoute> routes) {
+        Part part = new Part();
+        part.runs.addAll(runs);
+        part.buses.addAll(buses);
+        part.drivers.addAll(drivers);
+        part.routes.addAll(routes);
+        return part;
+    }
+
+    // Joins a depot with the terminals it serves. False if the depot's resources may work anywhere.
+    private boolean linkServiceArea(String depotId, ServiceAreas serviceAreas) {
+        Set<String> servedTerminals = serviceAreas.servedTerminals(depotId);
+        if (servedTerminals == null) { return false; }
+        for (String terminalId : servedTerminals) { union(depotId, terminalId); }
+        return true;
+    }
+
+    private String find(String id) {
+        String root = id;
+        for (String next = parent.get(root); next != null && !next.equals(root); next = parent.get(root)) { root = next; }
+        for (String node = id; !node.equals(root); ) { // Path compression
+            String next = parent.get(node);
+            parent.put(node, root);
+            node = next;
+        }
+        return root;
+    }
+
+    private void union(String a, String b) {
+        String rootA = find(a);
+        String rootB = find(b);
+        if (!rootA.equals(rootB)) { parent.put(rootB, rootA); }
+    }
+}
@@ -0,0 +1,115 @@
+package com.bus.service;
+
+import java.util.Arrays;
+
+/**
+ * How many of a depot resource (parking bays, chargers) are in use at every minute of the service
+ * day: a segment tree over ServiceTime minutes with range add and range min/max, so booking an
+ * interval and finding the earliest free window are O(log n) each. Minutes from HORIZON on are
+ * not tracked and always free.
+ */
+final class OccupancyTimeline {
+
+    static final int HORIZON = 3 * ServiceTime.MINUTES_PER_DAY; // Covers a service day past midnight plus the returns and charging after it
+
+    private final int[] max;
+    private final int[] min;
+    private final int[] pending; // Lazy add, not yet pushed to the children
+
+    OccupancyTimeline() {
+        max = new int[4 * HORIZON];
+        min = new int[4 * HORIZON];
+        pending = new int[4 * HORIZON];
+    }
+
+    OccupancyTimeline(OccupancyTimeline other) {
+        max = Arrays.copyOf(other.max, other.max.length);
+        min = Arrays.copyOf(other.min, other.min.length);
+        pending = Arrays.copyOf(other.pending, other.pending.length);
+    }
+
+    // Adds delta to every minute of [from, to).
+    void add(int from, int to, int delta) {
+        from = Math.max(0, from);
+        to = Math.min(HORIZON, to);
+        if (from < to) { add(1, 0, HORIZON, from, to, delta); }
+    }
+
+    // Highest use in [from, to); 0 for an empty or untracked range.
+    int max(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(HORIZON, to);
+        return from < to ? max(1, 0, HORIZON, from, to) : 0;
+    }
+
+    // Earliest start at or after from of a window of this length in which fewer than capacity are
+    // in use at every minute. Each fully used stretch in the way costs two descents.
+    int earliestFree(int from, int length, int capacity) {
+        int start = Math.max(0, from);
+        while (start < HORIZON) {
+            int full = firstAtLeast(1, 0, HORIZON, start, capacity);
+            if (full < 0 || full >= start + length) { return start; }
+            int free = firstBelow(1, 0, HORIZON, full, capacity);
+            if (free < 0) { return HORIZON; }
+            start = free;
+        }
+        return start;
+    }
+
+    private void add(int node, int low, int high, int from, int to, int delta) {
+        if (from <= low && high <= to) {
+            apply(node, delta);
+            return;
+        }
+        push(node);
+        int middle = (low + high) >>> 1;
+        if (from < middle) { add(2 * node, low, middle, from, to, delta); }
+        if (to > middle) { add(2 * node + 1, middle, high, from, to, delta); }
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+        min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+    }
+
+    private int max(int node, int low, int high, int from, int to) {
+        if (from <= low && high <= to) { return max[node]; }
+        push(node);
+        int middle = (low + high) >>> 1;
+        int result = Integer.MIN_VALUE;
+        if (from < middle) { result = max(2 * node, low, middle, from, to); }
+        if (to > middle) { result = Math.max(result, max(2 * node + 1, middle, high, from, to)); }
+        return result;
+    }
+
+    // First minute at or after from with use >= limit, or -1.
+    private int firstAtLeast(int node, int low, int high, int from, int limit) {
+        if (high <= from || max[node] < limit) { return -1; }
+        if (high - low == 1) { return low; }
+        push(node);
+        int middle = (low + high) >>> 1;
+        int left = firstAtLeast(2 * node, low, middle, from, limit);
+        return left >= 0 ? left : firstAtLeast(2 * node + 1, middle, high, from, limit);
+    }
+
+    // First minute at or after from with use < limit, or -1.
+    private int firstBelow(int node, int low, int high, int from, int limit) {
+        if (high <= from || min[node] >= limit) { return -1; }
+        if (high - low == 1) { return low; }
+        push(node);
+        int middle = (low + high) >>> 1;
+        int left = firstBelow(2 * node, low, middle, from, limit);
+        return left >= 0 ? left : firstBelow(2 * node + 1, middle, high, from, limit);
+    }
+
+    private void apply(int node, int delta) {
+        max[node] += delta;
+        min[node] += delta;
+        pending[node] += delta;
+    }
+
+    private void push(int node) {
+        if (pending[node] != 0) {
+            apply(2 * node, pending[node]);
+            apply(2 * node + 1, pending[node]);
+            pending[node] = 0;
+        }
+    }
+}
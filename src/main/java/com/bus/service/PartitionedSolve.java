@@ -0,0 +1,114 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.BusDriver;
+import com.bus.domain.RouteRun;
+import com.bus.domain.SolverConfig;
+
+/**
+ * Greedy pass over a network split by NetworkPartitioner: one engine per part, all solved in
+ * parallel on a ForkJoinPool (or one after another without a pool), then merged into one engine. Drivers keep their whole-network
+ * first-fit order inside each part and the activity log is stitched back together in run order
+ * (phase by phase with TwoPhaseConstruction), so the merged engine holds exactly what a single
+ * engine would have built.
+ */
+final class PartitionedSolve {
+
+    private PartitionedSolve() {}
+
+    static GreedyScheduler solve(List<NetworkPartitioner.Part> parts, List<RouteRun> sortedRuns, List<BusDriver> allDrivers,
+                                 ServiceTime clock, ServiceAreas serviceAreas, TravelMatrix travel, DepotCapacity capacity,
+                                 ChargingNetwork charging, SolverConfig config, ForkJoinPool pool, SolveListener listener) {
+        Map<String, Integer> firstFitRanks = GreedyScheduler.firstFitRanks(allDrivers);
+        PartitionProgress progress = new PartitionProgress(listener, sortedRuns.size(), parts.size());
+        int phases = TwoPhaseConstruction.isUsedBy(config) ? TwoPhaseConstruction.PHASES : 1;
+        List<GreedyScheduler> engines = new ArrayList<>(parts.size());
+        List<int[]> activityLogEnds = new ArrayList<>(parts.size());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            NetworkPartitioner.Part part = parts.get(i);
+            GreedyScheduler engine = new GreedyScheduler(part.buses, part.drivers, part.routes, clock, serviceAreas, travel, capacity, charging, config, firstFitRanks);
+            int[] activityLogEndByRun = new int[part.runs.size() * phases];
+            SolveListener partListener = progress.forPart(i);
+            engines.add(engine);
+            activityLogEnds.add(activityLogEndByRun);
+            tasks.add(ForkJoinTask.adapt(() -> SchedulingService.constructSchedule(engine, part.runs, partListener, activityLogEndByRun)));
+        }
+        if (pool == null) {
+            tasks.forEach(ForkJoinTask::invoke); // In the calling thread
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> { ForkJoinTask.invokeAll(tasks); }));
+        }
+        return GreedyScheduler.merge(engines, mergeActivityLogs(parts, sortedRuns, engines, activityLogEnds, phases), firstFitRanks);
+    }
+
+    // Each part's log is a sequence of per-run blocks, one sequence per construction phase; the merged
+    // log takes them phase by phase in the overall run order.
+    private static ActivityLog mergeActivityLogs(List<NetworkPartitioner.Part> parts, List<RouteRun> sortedRuns,
+                                               List<GreedyScheduler> engines, List<int[]> activityLogEnds, int phases) {
+        Map<RouteRun, Integer> partOfRun = new IdentityHashMap<>();
+        int totalEntries = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            for (RouteRun run : parts.get(i).runs) { partOfRun.put(run, i); }
+            totalEntries += engines.get(i).activityLog.size();
+        }
+        ActivityLog merged = new ActivityLog(totalEntries);
+        int[] nextBlockOfPart = new int[parts.size()];
+        for (int phase = 0; phase < phases; phase++) {
+            for (RouteRun run : sortedRuns) {
+                int part = partOfRun.get(run);
+                int[] ends = activityLogEnds.get(part);
+                int block = nextBlockOfPart[part]++;
+                int start = block == 0 ? 0 : ends[block - 1];
+                merged.appendAll(engines.get(part).activityLog, start, ends[block]);
+            }
+        }
+        return merged;
+    }
+
+    // Funnels progress from parts solved in parallel into the caller's listener, one call at a time:
+    // processed run counts and the parts' scores add up to the whole solve's.
+    private static final class PartitionProgress {
+        private final SolveListener listener;
+        private final int totalRuns;
+        private final int[] partScores;
+        private int processedRuns;
+        private int score;
+
+        PartitionProgress(SolveListener listener, int totalRuns, int partCount) {
+            this.listener = listener;
+            this.totalRuns = totalRuns;
+            this.partScores = new int[partCount];
+        }
+
+        SolveListener forPart(int part) {
+            return new SolveListener() {
+                @Override
+                public void onActivitiesLogged(RouteRun run, List<ActivityLogEntry> entries) {
+                    synchronized (PartitionProgress.this) { listener.onActivitiesLogged(run, entries); }
+                }
+
+                @Override
+                public void onRunProcessed(RouteRun run, int processedRunsInPart, int totalRunsInPart, int currentScoreOfPart) {
+                    synchronized (PartitionProgress.this) {
+                        processedRuns++;
+                        score += currentScoreOfPart - partScores[part];
+                        partScores[part] = currentScoreOfPart;
+                        listener.onRunProcessed(run, processedRuns, totalRuns, score);
+                    }
+                }
+
+                @Override
+                public boolean isCancelled() { return listener.isCancelled(); }
+            };
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.ScheduleStreamMessage;
+import com.bus.domain.ScheduleStreamMessage.Type;
+
+// Collects what the solver produces into BATCH messages: flushed every batchSize items or
+// maxBatchDelayMs, whichever comes first. Called from the solver thread only.
+class ScheduleStreamPublisher implements SolveListener {
+
+    private final ScheduleStreamService streamService;
+    private final String jobId;
+    private final int batchSize;
+    private final long maxBatchDelayNanos;
+    private final boolean streamActivities; // False: BATCH messages carry runs only
+
+    private List<RouteRun> pendingRuns = new ArrayList<>();
+    private List<ActivityLogEntry> pendingActivities = new ArrayList<>();
+    private long lastFlushNanos = System.nanoTime();
+    private int runsProcessed;
+    private int totalRuns;
+    private int currentScore;
+
+    ScheduleStreamPublisher(ScheduleStreamService streamService, String jobId, int batchSize, long maxBatchDelayMs,
+                            boolean streamActivities) {
+        this.streamService = streamService;
+        this.jobId = jobId;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchDelayNanos = maxBatchDelayMs * 1_000_000L;
+        this.streamActivities = streamActivities;
+    }
+
+    @Override
+    public void onActivitiesLogged(RouteRun run, List<ActivityLogEntry> entries) {
+        if (streamActivities) { pendingActivities.addAll(entries); }
+    }
+
+    @Override
+    public void onRunProcessed(RouteRun run, int processedRuns, int totalRuns, int currentScore) {
+        pendingRuns.add(run);
+        this.runsProcessed = processedRuns;
+        this.totalRuns = totalRuns;
+        this.currentScore = currentScore;
+        if (pendingRuns.size() + pendingActivities.size() >= batchSize
+                || System.nanoTime() - lastFlushNanos >= maxBatchDelayNanos) {
+            flush();
+        }
+    }
+
+    void completed(ScheduleSolution solution) {
+        flush();
+        ScheduleStreamMessage message = progressMessage(Type.COMPLETED);
+        message.setCurrentScore(solution.getScore());
+        message.setScore(solution.getScore());
+        message.setScoreExplanation(solution.getScoreExplanation());
+        message.setUnassignedRunCount(solution.getUnassignedRunCount());
+        message.setTotalBusesUsedCount(solution.getTotalBusesUsedCount());
+        streamService.publish(message, solution, streamActivities);
+    }
+
+    void cancelled() {
+        flush();
+        streamService.publish(progressMessage(Type.CANCELLED));
+    }
+
+    void failed(String errorMessage) {
+        flush();
+        ScheduleStreamMessage message = progressMessage(Type.FAILED);
+        message.setErrorMessage(errorMessage);
+        streamService.publish(message);
+    }
+
+    private void flush() {
+        lastFlushNanos = System.nanoTime();
+        if (pendingRuns.isEmpty() && pendingActivities.isEmpty()) { return; }
+        ScheduleStreamMessage message = progressMessage(Type.BATCH);
+        message.setRuns(pendingRuns);
+        message.setActivities(pendingActivities);
+        pendingRuns = new ArrayList<>();
+        pendingActivities = new ArrayList<>();
+        streamService.publish(message);
+    }
+
+    private ScheduleStreamMessage progressMessage(Type type) {
+        ScheduleStreamMessage message = new ScheduleStreamMessage(type, jobId);
+        message.setRunsProcessed(runsProcessed);
+        message.setTotalRuns(totalRuns);
+        message.setCurrentScore(currentScore);
+        return message;
+    }
+}
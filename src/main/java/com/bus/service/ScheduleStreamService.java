@@ -0,0 +1,205 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.ScheduleStreamMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Per-job channels of schedule stream messages. Solve jobs publish batches into their channel and
+ * subscribers (websocket sessions) receive them as JSON text. A subscriber that joins late is first
+ * replayed everything already sent on the channel, so it never sees a partial timeline.
+ *
+ * Sent messages are not kept as JSON: while the job runs the channel holds the runs already sent
+ * (the solver's own objects), the activities sent in a columnar ActivityLog and a few numbers per
+ * batch, and rebuilds the same batches for a late subscriber. Runs are written as they are at replay
+ * time. Once the final message is out all of it is dropped: a subscriber joining after that is
+ * replayed the completed job's solution in batches
+ * (runs, and activities if the job streamed them), then the final message, with sequence numbers
+ * of its own from 0. A cancelled or failed job has no solution, so it replays the final message only.
+ *
+ * Transport-agnostic: a subscriber is just a Consumer of JSON strings.
+ */
+@ApplicationScoped
+public class ScheduleStreamService {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "bus.scheduler.stream.batch-size", defaultValue = "250")
+    int batchSize;
+
+    @ConfigProperty(name = "bus.scheduler.stream.max-batch-delay-ms", defaultValue = "200")
+    long maxBatchDelayMs;
+
+    private static class Channel {
+        // What the batches sent so far carried, until the final message
+        List<RouteRun> sentRuns = new ArrayList<>();
+        ActivityLog sentActivities = new ActivityLog();
+        int[] sentBatches = new int[8 * BATCH_FIELDS];
+        int sentBatchCount;
+        final List<Consumer<String>> subscribers = new ArrayList<>();
+        long nextSequence;
+        ScheduleStreamMessage finalMessage; // Set once finished
+        ScheduleSolution solution; // Of a completed job, for late subscribers
+        boolean streamActivities;
+    }
+
+    // Per sent batch: runs and activities sent up to its end, then its runsProcessed, totalRuns and currentScore
+    private static final int BATCH_FIELDS = 5;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    void open(String jobId) {
+        channels.putIfAbsent(jobId, new Channel());
+    }
+
+    // Dropped together with the job; subscribers still attached simply stop receiving.
+    void discard(String jobId) {
+        channels.remove(jobId);
+    }
+
+    ScheduleStreamPublisher publisherFor(String jobId) {
+        return publisherFor(jobId, true);
+    }
+
+    ScheduleStreamPublisher publisherFor(String jobId, boolean streamActivities) {
+        return new ScheduleStreamPublisher(this, jobId, batchSize, maxBatchDelayMs, streamActivities);
+    }
+
+    // Returns false if there is no channel for the job (unknown or already evicted).
+    public boolean subscribe(String jobId, Consumer<String> subscriber) {
+        Channel channel = channels.get(jobId);
+        if (channel == null) { return false; }
+        synchronized (channel) {
+            if (channel.finalMessage == null) {
+                replaySent(channel, jobId, subscriber);
+                channel.subscribers.add(subscriber);
+                return true;
+            }
+        }
+        replay(channel, subscriber); // Nothing of a finished channel changes any more
+        return true;
+    }
+
+    // The batches sent so far, rebuilt with their own sequence numbers and progress.
+    private void replaySent(Channel channel, String jobId, Consumer<String> subscriber) {
+        int runsFrom = 0;
+        int activitiesFrom = 0;
+        for (int batch = 0; batch < channel.sentBatchCount; batch++) {
+            int field = batch * BATCH_FIELDS;
+            int runsTo = channel.sentBatches[field];
+            int activitiesTo = channel.sentBatches[field + 1];
+            ScheduleStreamMessage message = new ScheduleStreamMessage(ScheduleStreamMessage.Type.BATCH, jobId);
+            message.setSequence(batch);
+            message.setRuns(channel.sentRuns.subList(runsFrom, runsTo));
+            message.setActivities(channel.sentActivities.subList(activitiesFrom, activitiesTo));
+            message.setRunsProcessed(channel.sentBatches[field + 2]);
+            message.setTotalRuns(channel.sentBatches[field + 3]);
+            message.setCurrentScore(channel.sentBatches[field + 4]);
+            subscriber.accept(toJson(message));
+            runsFrom = runsTo;
+            activitiesFrom = activitiesTo;
+        }
+    }
+
+    private void replay(Channel channel, Consumer<String> subscriber) {
+        long sequence = 0;
+        if (channel.solution != null) {
+            List<RouteRun> runs = channel.solution.getAssignedRouteRuns();
+            List<ActivityLogEntry> activities = channel.streamActivities ? channel.solution.getActivityLog() : List.of();
+            for (int from = 0; from < runs.size() || from < activities.size(); from += batchSize) {
+                ScheduleStreamMessage batch = new ScheduleStreamMessage(ScheduleStreamMessage.Type.BATCH, channel.finalMessage.getJobId());
+                batch.setSequence(sequence++);
+                batch.setRuns(runs.subList(Math.min(from, runs.size()), Math.min(from + batchSize, runs.size())));
+                batch.setActivities(activities.subList(Math.min(from, activities.size()), Math.min(from + batchSize, activities.size())));
+                batch.setRunsProcessed(Math.min(from + batchSize, runs.size()));
+                batch.setTotalRuns(runs.size());
+                batch.setCurrentScore(channel.finalMessage.getCurrentScore());
+                subscriber.accept(toJson(batch));
+            }
+        }
+        String finalJson;
+        synchronized (channel.finalMessage) { // Shared by all late subscribers
+            channel.finalMessage.setSequence(sequence);
+            finalJson = toJson(channel.finalMessage);
+        }
+        subscriber.accept(finalJson);
+    }
+
+    public void unsubscribe(String jobId, Consumer<String> subscriber) {
+        Channel channel = channels.get(jobId);
+        if (channel == null) { return; }
+        synchronized (channel) {
+            channel.subscribers.remove(subscriber);
+        }
+    }
+
+    public String toJson(ScheduleStreamMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise schedule stream message", e);
+        }
+    }
+
+    void publish(ScheduleStreamMessage message) {
+        publish(message, null, false);
+    }
+
+    // The final message of a completed job, whose solution late subscribers are replayed.
+    void publish(ScheduleStreamMessage message, ScheduleSolution solution, boolean streamActivities) {
+        Channel channel = channels.get(message.getJobId());
+        if (channel == null) { return; }
+        synchronized (channel) {
+            if (channel.finalMessage != null) { return; }
+            message.setSequence(channel.nextSequence++);
+            String json = toJson(message);
+            if (message.getType() == ScheduleStreamMessage.Type.BATCH) { recordSent(channel, message); }
+            for (Consumer<String> subscriber : channel.subscribers) {
+                try {
+                    subscriber.accept(json);
+                } catch (RuntimeException e) {
+                    System.err.println("Schedule stream: dropping message for a subscriber of job " + message.getJobId() + ": " + e.getMessage());
+                }
+            }
+            if (message.getType() != ScheduleStreamMessage.Type.BATCH) {
+                channel.finalMessage = message;
+                channel.solution = solution;
+                channel.streamActivities = streamActivities;
+                channel.sentRuns = null;
+                channel.sentActivities = null;
+                channel.sentBatches = null;
+                channel.subscribers.clear();
+            }
+        }
+    }
+
+    // Batches are sent in sequence from 0, so batch n of the channel is message n.
+    private static void recordSent(Channel channel, ScheduleStreamMessage batch) {
+        channel.sentRuns.addAll(batch.getRuns());
+        for (ActivityLogEntry entry : batch.getActivities()) { channel.sentActivities.add(entry); }
+        int field = channel.sentBatchCount++ * BATCH_FIELDS;
+        if (field + BATCH_FIELDS > channel.sentBatches.length) { channel.sentBatches = Arrays.copyOf(channel.sentBatches, channel.sentBatches.length * 2); }
+        channel.sentBatches[field] = channel.sentRuns.size();
+        channel.sentBatches[field + 1] = channel.sentActivities.size();
+        channel.sentBatches[field + 2] = batch.getRunsProcessed();
+        channel.sentBatches[field + 3] = batch.getTotalRuns();
+        channel.sentBatches[field + 4] = batch.getCurrentScore();
+    }
+}
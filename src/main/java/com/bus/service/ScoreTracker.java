@@ -0,0 +1,85 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bus.domain.ConstraintScore;
+import com.bus.domain.SolverConfig;
+
+/**
+ * Running score of the schedule an engine is building. The engine reports every change that
+ * affects a constraint as it happens (a run fully assigned or losing a resource, a bus getting
+ * its first run or losing its last), so the score is a sum over the constraints and costs the
+ * same whatever the size of the schedule.
+ *
+ * Weights come from the solve's SolverConfig. New terms are a new Constraint, its weight in
+ * SolverConfig and the engine calls that keep its match count up to date.
+ */
+class ScoreTracker {
+
+    enum Constraint {
+        UNASSIGNED_RUN("unassigned runs"),
+        BUS_USED("buses used");
+
+        final String description;
+
+        Constraint(String description) {
+            this.description = description;
+        }
+
+        int weight(SolverConfig config) {
+            return switch (this) {
+                case UNASSIGNED_RUN -> config.getUnassignedRunWeight();
+                case BUS_USED -> config.getBusUsedWeight();
+            };
+        }
+    }
+
+    private static final Constraint[] CONSTRAINTS = Constraint.values();
+
+    private final int[] matchCounts = new int[CONSTRAINTS.length];
+    private final int[] weights = new int[CONSTRAINTS.length];
+
+    ScoreTracker(SolverConfig config) {
+        for (Constraint constraint : CONSTRAINTS) { weights[constraint.ordinal()] = constraint.weight(config); }
+    }
+
+    ScoreTracker(ScoreTracker other) {
+        System.arraycopy(other.matchCounts, 0, matchCounts, 0, matchCounts.length);
+        System.arraycopy(other.weights, 0, weights, 0, weights.length);
+    }
+
+    void add(Constraint constraint, int matchDelta) {
+        matchCounts[constraint.ordinal()] += matchDelta;
+    }
+
+    // Adds another tracker's matches, e.g. of a separately solved part of the network (same weights).
+    void addAll(ScoreTracker other) {
+        for (int i = 0; i < matchCounts.length; i++) { matchCounts[i] += other.matchCounts[i]; }
+    }
+
+    int matchCount(Constraint constraint) {
+        return matchCounts[constraint.ordinal()];
+    }
+
+    int weight(Constraint constraint) {
+        return weights[constraint.ordinal()];
+    }
+
+    int score() {
+        int score = 0;
+        for (Constraint constraint : CONSTRAINTS) {
+            score += matchCounts[constraint.ordinal()] * weights[constraint.ordinal()];
+        }
+        return score;
+    }
+
+    List<ConstraintScore> breakdown() {
+        List<ConstraintScore> breakdown = new ArrayList<>(CONSTRAINTS.length);
+        for (Constraint constraint : CONSTRAINTS) {
+            breakdown.add(new ConstraintScore(constraint.name(), constraint.description,
+                    matchCounts[constraint.ordinal()], weights[constraint.ordinal()]));
+        }
+        return breakdown;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bus.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+
+/**
+ * Which start terminals each bus and driver may work from. A depot with servedTerminalIds limits
+ * its buses, and the drivers based there, to runs starting at those terminals. Without a list, or
+ * for a driver without a depot, the whole network is open (the only behaviour before areas existed).
+ */
+final class ServiceAreas {
+
+    static final ServiceAreas UNRESTRICTED = new ServiceAreas(Map.of());
+
+    private final Map<String, Set<String>> servedTerminalsByDepot;
+
+    private ServiceAreas(Map<String, Set<String>> servedTerminalsByDepot) {
+        this.servedTerminalsByDepot = servedTerminalsByDepot;
+    }
+
+    static ServiceAreas of(List<BusDepot> depots) {
+        Map<String, Set<String>> servedTerminalsByDepot = new HashMap<>();
+        for (BusDepot depot : depots) {
+            if (depot.getServedTerminalIds() != null && !depot.getServedTerminalIds().isEmpty()) {
+                servedTerminalsByDepot.put(depot.getId(), new HashSet<>(depot.getServedTerminalIds()));
+            }
+        }
+        return servedTerminalsByDepot.isEmpty() ? UNRESTRICTED : new ServiceAreas(servedTerminalsByDepot);
+    }
+
+    boolean busServes(Bus bus, String startTerminalId) {
+        return depotServes(bus.getDepotId(), startTerminalId);
+    }
+
+    boolean driverServes(BusDriver driver, String startTerminalId) {
+        return driver.getDepotId() == null || depotServes(driver.getDepotId(), startTerminalId);
+    }
+
+    // Null if the depot's buses and drivers may go anywhere.
+    Set<String> servedTerminals(String depotId) {
+        return depotId == null ? null : servedTerminalsByDepot.get(depotId);
+    }
+
+    private boolean depotServes(String depotId, String startTerminalId) {
+        if (servedTerminalsByDepot.isEmpty()) { return true; }
+        Set<String> served = servedTerminalsByDepot.get(depotId);
+        return served == null || served.contains(startTerminalId);
+    }
+}
@@ -0,0 +1,50 @@
+package com.bus.service;
+
+import java.time.LocalTime;
+
+import com.bus.domain.RouteRun;
+
+/**
+ * The engine's clock: plain int minutes since midnight at the start of the service day. Values of
+ * 1440 and more are after midnight, so a service day running from 03:00 to 02:59 the next morning
+ * stays in order and durations never wrap. LocalTime only appears at the domain boundary:
+ * RouteRun times are read in; the ActivityLog keeps these minutes and turns them back into times
+ * when an entry is read.
+ */
+final class ServiceTime {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int START_OF_DAY = 0; // nextAvailable value of a resource that has not done anything yet
+
+    private final int serviceDayStartMinute;
+
+    // Times of day before serviceDayStart belong to the end of the service day (after midnight).
+    ServiceTime(LocalTime serviceDayStart) {
+        this.serviceDayStartMinute = minuteOfDay(serviceDayStart);
+    }
+
+    int toMinutes(LocalTime timeOfDay) {
+        int minute = minuteOfDay(timeOfDay);
+        return minute < serviceDayStartMinute ? minute + MINUTES_PER_DAY : minute;
+    }
+
+    // Start of the next service day, in this day's minutes.
+    int nextServiceDayStart() {
+        return serviceDayStartMinute + MINUTES_PER_DAY;
+    }
+
+    int departureMinutes(RouteRun run) {
+        return toMinutes(run.getDepartureTime());
+    }
+
+    // Arrival never comes before departure, even when the run crosses midnight.
+    int arrivalMinutes(RouteRun run) {
+        int departure = departureMinutes(run);
+        int duration = Math.floorMod(minuteOfDay(run.getArrivalTime()) - minuteOfDay(run.getDepartureTime()), MINUTES_PER_DAY);
+        return departure + duration;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,297 @@
+package com.bus.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionDiff;
+import com.bus.domain.SolutionSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * History of finished solutions, so a plan can be re-opened without solving again. With
+ * bus.scheduler.solutions.dir set every solution is kept on disk, one gzipped JSON file each
+ * (the solution, then its activity times in service-day minutes), and listed in history.jsonl:
+ * an append-only index of one SolutionSummary per line, read back at startup. A line whose
+ * solution file is missing (evicted, or cut short by a crash while saving) is dropped and the
+ * index rewritten. Without a directory only the cached solutions are kept, and only until the
+ * application stops.
+ *
+ * The most recent solutions stay in memory as well, so re-opening the day's plan does not even
+ * read a file. They are shared with every caller and must not be modified.
+ */
+@ApplicationScoped
+public class SolutionStore {
+
+    private static final String INDEX_FILE = "history.jsonl";
+    private static final String SOLUTION_FILE_SUFFIX = ".json.gz";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    // Directory for the solution history; unset keeps the cached solutions in memory only
+    @ConfigProperty(name = "bus.scheduler.solutions.dir")
+    Optional<String> solutionsDirectory = Optional.empty();
+
+    // Oldest solutions beyond this many are deleted from the directory
+    @ConfigProperty(name = "bus.scheduler.solutions.retained", defaultValue = "500")
+    int retainedSolutions = 500;
+
+    // Most recently saved or opened solutions kept in memory
+    @ConfigProperty(name = "bus.scheduler.solutions.cached", defaultValue = "4")
+    int cachedSolutions = 4;
+
+    private Path directory; // Null: in memory only
+    private final Map<String, SolutionSummary> history = new LinkedHashMap<>(); // Oldest first, guarded by this
+    private final LinkedHashMap<String, ScheduleSolution> cache = new LinkedHashMap<>(16, 0.75f, true); // Least recently used first, guarded by this
+
+    @PostConstruct
+    void open() {
+        directory = solutionsDirectory.map(Path::of).orElse(null);
+        if (directory == null) { return; }
+        try {
+            Files.createDirectories(directory);
+            Path index = directory.resolve(INDEX_FILE);
+            int lines = 0;
+            if (Files.exists(index)) {
+                for (String line : Files.readAllLines(index)) {
+                    if (line.isBlank()) { continue; }
+                    lines++;
+                    try {
+                        SolutionSummary summary = objectMapper.readValue(line, SolutionSummary.class);
+                        if (Files.exists(solutionFile(summary.getSolutionId()))) { history.put(summary.getSolutionId(), summary); }
+                    } catch (IOException e) {
+                        System.err.println("Skipping unreadable line in " + index + ": " + e.getMessage());
+                    }
+                }
+            }
+            evictOldest();
+            if (history.size() != lines) { rewriteIndex(); }
+            System.out.println("Solution history: " + history.size() + " solution(s) in " + directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open the solution history in " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adds a finished solution, under its solutionId, to the history. A solution that cannot be
+     * written is logged and left out (returns null): the solve itself has still succeeded.
+     */
+    public SolutionSummary save(ScheduleSolution solution, SolutionSummary.Origin origin, String basedOnSolutionId) {
+        String solutionId = Objects.requireNonNull(solution.getSolutionId(), "solutionId");
+        SolutionSummary summary = new SolutionSummary(solutionId, origin, basedOnSolutionId, solution);
+        try {
+            if (directory != null) { writeSolution(solution); } // Before the index line, so every line has its file
+            synchronized (this) {
+                if (directory != null) {
+                    Files.writeString(directory.resolve(INDEX_FILE), objectMapper.writeValueAsString(summary) + "\n",
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                history.put(solutionId, summary);
+                cache(solutionId, solution);
+                evictOldest();
+            }
+            return summary;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot store solution " + solutionId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Newest first.
+    public synchronized List<SolutionSummary> history() {
+        List<SolutionSummary> newestFirst = new ArrayList<>(history.values());
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    // Null if the id is unknown or has been evicted.
+    public ScheduleSolution get(String solutionId) {
+        synchronized (this) {
+            if (!history.containsKey(solutionId)) { return null; }
+            ScheduleSolution cached = cache.get(solutionId);
+            if (cached != null || directory == null) { return cached; }
+        }
+        ScheduleSolution solution;
+        try {
+            solution = readSolution(solutionId);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read stored solution " + solutionId + ": " + e.getMessage(), e);
+        }
+        synchronized (this) {
+            if (history.containsKey(solutionId)) { cache(solutionId, solution); }
+        }
+        return solution;
+    }
+
+    // The most recently saved solution, or null if there is none.
+    public ScheduleSolution latest() {
+        String latestId;
+        synchronized (this) {
+            latestId = null;
+            for (String solutionId : history.keySet()) { latestId = solutionId; }
+        }
+        return latestId == null ? null : get(latestId);
+    }
+
+    // Null if either id is unknown.
+    public SolutionDiff diff(String fromSolutionId, String toSolutionId) {
+        ScheduleSolution from = get(fromSolutionId);
+        ScheduleSolution to = get(toSolutionId);
+        if (from == null || to == null) { return null; }
+        return compare(fromSolutionId, from, toSolutionId, to);
+    }
+
+    // Runs are matched by id; a bus or driver appears in the diff if its set of runs changed.
+    static SolutionDiff compare(String fromSolutionId, ScheduleSolution from, String toSolutionId, ScheduleSolution to) {
+        SolutionDiff diff = new SolutionDiff();
+        diff.setFromSolutionId(fromSolutionId);
+        diff.setToSolutionId(toSolutionId);
+        diff.setSameDataset(Objects.equals(from.getDatasetVersion(), to.getDatasetVersion()));
+        diff.setScoreChange(to.getScore() - from.getScore());
+
+        Map<String, RouteRun> fromRuns = new HashMap<>();
+        for (RouteRun run : from.getAssignedRouteRuns()) { fromRuns.put(run.getId(), run); }
+        Map<String, SolutionDiff.ResourceChange> buses = new TreeMap<>();
+        Map<String, SolutionDiff.ResourceChange> drivers = new TreeMap<>();
+        for (RouteRun run : to.getAssignedRouteRuns()) {
+            RouteRun before = fromRuns.remove(run.getId());
+            if (before == null) {
+                diff.getRunsOnlyInTo().add(run.getId());
+                moved(buses, run.getId(), null, run.getAssignedBusId());
+                moved(drivers, run.getId(), null, run.getAssignedDriverId());
+            } else if (!Objects.equals(before.getAssignedBusId(), run.getAssignedBusId())
+                    || !Objects.equals(before.getAssignedDriverId(), run.getAssignedDriverId())) {
+                diff.getRunChanges().add(new SolutionDiff.RunChange(run.getId(), before.getAssignedBusId(), run.getAssignedBusId(),
+                        before.getAssignedDriverId(), run.getAssignedDriverId()));
+                moved(buses, run.getId(), before.getAssignedBusId(), run.getAssignedBusId());
+                moved(drivers, run.getId(), before.getAssignedDriverId(), run.getAssignedDriverId());
+            }
+        }
+        for (RouteRun run : from.getAssignedRouteRuns()) {
+            if (fromRuns.containsKey(run.getId())) { // Not in the later solution
+                diff.getRunsOnlyInFrom().add(run.getId());
+                moved(buses, run.getId(), run.getAssignedBusId(), null);
+                moved(drivers, run.getId(), run.getAssignedDriverId(), null);
+            }
+        }
+        diff.setBusChanges(new ArrayList<>(buses.values()));
+        diff.setDriverChanges(new ArrayList<>(drivers.values()));
+        return diff;
+    }
+
+    private static void moved(Map<String, SolutionDiff.ResourceChange> changes, String runId, String fromId, String toId) {
+        if (Objects.equals(fromId, toId)) { return; }
+        if (fromId != null) { changes.computeIfAbsent(fromId, SolutionDiff.ResourceChange::new).getRunsLost().add(runId); }
+        if (toId != null) { changes.computeIfAbsent(toId, SolutionDiff.ResourceChange::new).getRunsGained().add(runId); }
+    }
+
+    // Guarded by this. Without a directory a solution leaving the cache leaves the history too.
+    private void cache(String solutionId, ScheduleSolution solution) {
+        cache.put(solutionId, solution);
+        Iterator<String> leastRecentlyUsed = cache.keySet().iterator();
+        while (cache.size() > Math.max(1, cachedSolutions)) {
+            String evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            if (directory == null) { history.remove(evicted); }
+        }
+    }
+
+    // Guarded by this. The index keeps the lines of evicted solutions until the next startup drops them.
+    private void evictOldest() throws IOException {
+        Iterator<String> oldestFirst = history.keySet().iterator();
+        while (history.size() > Math.max(1, retainedSolutions)) {
+            String evicted = oldestFirst.next();
+            oldestFirst.remove();
+            cache.remove(evicted);
+            if (directory != null) { Files.deleteIfExists(solutionFile(evicted)); }
+        }
+    }
+
+    private void rewriteIndex() throws IOException {
+        Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+        StringBuilder lines = new StringBuilder();
+        for (SolutionSummary summary : history.values()) { lines.append(objectMapper.writeValueAsString(summary)).append('\n'); }
+        Files.writeString(temporary, lines);
+        Files.move(temporary, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The solution, then its activity times as the log keeps them (see ActivityLog.startMinutes).
+    private void writeSolution(ScheduleSolution solution) throws IOException {
+        Path file = solutionFile(solution.getSolutionId());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 1 << 16) {
+            { def.setLevel(Deflater.BEST_SPEED); } // Half the time of the default level, for files about a third larger
+        }; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            objectMapper.writeValue(generator, solution);
+            if (solution.getActivityLog() instanceof ActivityLog log) { objectMapper.writeValue(generator, ActivityTimes.of(log)); }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private ScheduleSolution readSolution(String solutionId) throws IOException {
+        ScheduleSolution solution;
+        ActivityTimes times = null;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(solutionFile(solutionId)), 1 << 16);
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            solution = objectMapper.readValue(parser, ScheduleSolution.class);
+            if (parser.nextToken() != null) { times = objectMapper.readValue(parser, ActivityTimes.class); }
+        }
+        List<ActivityLogEntry> entries = solution.getActivityLog();
+        ActivityLog activityLog = new ActivityLog(entries.size()); // Columnar again: far smaller in the cache
+        if (times != null && times.startMinutes().length == entries.size() && times.endMinutes().length == entries.size()) {
+            for (int i = 0; i < entries.size(); i++) { activityLog.add(entries.get(i), times.startMinutes()[i], times.endMinutes()[i]); }
+        } else {
+            activityLog.addAll(entries); // Written without the times: nothing after midnight is told apart
+        }
+        solution.setActivityLog(activityLog);
+        return solution;
+    }
+
+    // The LocalTimes in the solution's JSON lose whether an activity is after midnight; these keep it.
+    record ActivityTimes(int[] startMinutes, int[] endMinutes) {
+        static ActivityTimes of(ActivityLog log) {
+            int[] start = new int[log.size()];
+            int[] end = new int[log.size()];
+            for (int i = 0; i < start.length; i++) {
+                start[i] = log.startMinutes(i);
+                end[i] = log.endMinutes(i);
+            }
+            return new ActivityTimes(start, end);
+        }
+    }
+
+    // Only ever called with ids from the history, never straight from a request.
+    private Path solutionFile(String solutionId) {
+        return directory.resolve(solutionId + SOLUTION_FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,156 @@
+package com.bus.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionSummary;
+import com.bus.domain.SolveCacheStats;
+import com.bus.domain.SolverConfig;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Solutions of POST /api/schedule/solve and of solve jobs, keyed by SchedulingService.inputFingerprint:
+ * a solve of inputs that have not changed (same buses, drivers, routes, runs, solver settings and
+ * SolverConfig, whatever the data version) returns the solution already computed. Requests that
+ * arrive while the same solve is still running wait for it instead of starting their own. The
+ * least recently used solution is dropped beyond bus.scheduler.solve-cache.size; a failed or
+ * cancelled solve is not kept.
+ *
+ * Every caller gets the same checkpoint, and the same ScheduleSolution, also stored once in the
+ * SolutionStore, so neither may be modified.
+ */
+@ApplicationScoped
+public class SolveCache {
+
+    @Inject
+    DataService dataService;
+
+    @Inject
+    SchedulingService schedulingService;
+
+    @Inject
+    SolutionStore solutionStore;
+
+    // Solutions kept, each for one set of inputs; 0 solves on every request
+    @ConfigProperty(name = "bus.scheduler.solve-cache.size", defaultValue = "4")
+    int capacity = 4;
+
+    private final LinkedHashMap<String, CompletableFuture<SolveCheckpoint>> entries = new LinkedHashMap<>(16, 0.75f, true); // Guarded by this
+    private long hits;
+    private long coalesced;
+    private long misses;
+    private long evictions;
+
+    // Solves the current data with this configuration, or returns the solution for the same inputs.
+    public ScheduleSolution solve(SolverConfig config) {
+        Dataset data = dataService.getDataset();
+        return getOrSolve(schedulingService.inputFingerprint(data, config), () -> {
+            SolveCheckpoint checkpoint = schedulingService.solveWithCheckpoint(data, config, SolveListener.NONE);
+            checkpoint.solution.setSolutionId(UUID.randomUUID().toString());
+            if (solutionStore.save(checkpoint.solution, SolutionSummary.Origin.SOLVE, null) == null) {
+                checkpoint.solution.setSolutionId(null); // Not in the history
+            }
+            return checkpoint;
+        }, SolveListener.NONE).solution;
+    }
+
+    // For solve jobs. The listener follows the solve only if this call runs it; the solution then has
+    // solutionId set and is left to the caller to store. Otherwise it is one stored before.
+    SolveCheckpoint solveWithCheckpoint(SolverConfig config, SolveListener listener, String solutionId) {
+        Dataset data = dataService.getDataset();
+        return getOrSolve(schedulingService.inputFingerprint(data, config), () -> {
+            SolveCheckpoint checkpoint = schedulingService.solveWithCheckpoint(data, config, listener);
+            checkpoint.solution.setSolutionId(solutionId);
+            return checkpoint;
+        }, listener);
+    }
+
+    public synchronized SolveCacheStats getStats() {
+        return new SolveCacheStats(capacity, entries.size(), hits, coalesced, misses, evictions);
+    }
+
+    // A caller waiting for someone else's solve stops when its listener is cancelled. If that solve
+    // is cancelled instead, the caller solves the inputs itself.
+    SolveCheckpoint getOrSolve(String key, Supplier<SolveCheckpoint> solve, SolveListener listener) {
+        if (capacity <= 0) {
+            synchronized (this) { misses++; }
+            return solve.get();
+        }
+        while (true) {
+            CompletableFuture<SolveCheckpoint> checkpoint;
+            boolean solveHere = false;
+            synchronized (this) {
+                checkpoint = entries.get(key);
+                if (checkpoint == null) {
+                    checkpoint = new CompletableFuture<>();
+                    entries.put(key, checkpoint);
+                    solveHere = true;
+                    misses++;
+                    evictLeastRecentlyUsed();
+                } else if (checkpoint.isDone()) {
+                    hits++;
+                } else {
+                    coalesced++;
+                }
+            }
+            if (solveHere) {
+                try {
+                    SolveCheckpoint solved = solve.get();
+                    checkpoint.complete(solved);
+                    return solved;
+                } catch (RuntimeException | Error e) {
+                    synchronized (this) { entries.remove(key, checkpoint); } // The next request tries again
+                    checkpoint.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            try {
+                return await(checkpoint, listener);
+            } catch (CancellationException e) {
+                if (listener.isCancelled()) { throw e; }
+                // The solve waited for was cancelled, and its entry removed: try again
+            }
+        }
+    }
+
+    private static SolveCheckpoint await(CompletableFuture<SolveCheckpoint> checkpoint, SolveListener listener) {
+        while (true) {
+            if (listener.isCancelled()) { throw new CancellationException("Cancelled while waiting for the same solve"); }
+            try {
+                return checkpoint.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still running
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the same solve");
+            } catch (ExecutionException e) {
+                // The solve that this request waited for failed
+                throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+            }
+        }
+    }
+
+    // Guarded by this. A solve still running when dropped finishes for the requests already waiting on it.
+    private void evictLeastRecentlyUsed() {
+        Iterator<Map.Entry<String, CompletableFuture<SolveCheckpoint>>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (entries.size() > capacity) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            evictions++;
+        }
+    }
+}
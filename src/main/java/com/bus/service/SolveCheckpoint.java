@@ -0,0 +1,15 @@
+package com.bus.service;
+
+import com.bus.domain.ScheduleSolution;
+
+// A finished solution together with the engine state that produced it. Never modified once
+// created: incremental re-solves work on a copy of the engine.
+class SolveCheckpoint {
+    final ScheduleSolution solution;
+    final GreedyScheduler engine;
+
+    SolveCheckpoint(ScheduleSolution solution, GreedyScheduler engine) {
+        this.solution = solution;
+        this.engine = engine;
+    }
+}
@@ -0,0 +1,137 @@
+package com.bus.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionSummary;
+import com.bus.domain.SolveJobStatus;
+import com.bus.domain.SolveJobStatus.State;
+import com.bus.domain.SolverConfig;
+
+// One asynchronous solve. The solver thread writes progress, REST threads read snapshots of it.
+class SolveJob implements SolveListener {
+
+    final String id;
+    final Instant submittedAt = Instant.now();
+
+    private State state = State.QUEUED;
+    private volatile int runsProcessed;
+    private volatile int totalRuns;
+    private volatile int currentScore;
+    private volatile boolean cancelRequested;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String errorMessage;
+    private ScheduleSolution result;
+    private SolveCheckpoint checkpoint; // Engine state behind result, for incremental re-solves
+    private final List<SolutionSummary> days; // Stored so far, for horizon jobs; null for other jobs
+    String basedOnJobId;                // Set on jobs created by applying changes to another job's result
+    volatile Future<?> future;
+    ScheduleStreamPublisher stream; // Set once at submission
+    SolverConfig config;            // Set once at submission, for solves
+    final int horizonDays;          // 0 unless the job plans several days
+
+    SolveJob(String id) {
+        this(id, 0);
+    }
+
+    SolveJob(String id, int horizonDays) {
+        this.id = id;
+        this.horizonDays = horizonDays;
+        this.days = horizonDays > 0 ? new ArrayList<>(horizonDays) : null;
+    }
+
+    @Override
+    public void onRunProcessed(RouteRun run, int processedRuns, int totalRuns, int currentScore) {
+        this.runsProcessed = processedRuns;
+        this.totalRuns = totalRuns;
+        this.currentScore = currentScore;
+    }
+
+    @Override
+    public boolean isCancelled() { return cancelRequested; }
+
+    // Returns false if the job was cancelled while it was still queued.
+    synchronized boolean markRunning() {
+        if (state != State.QUEUED) { return false; }
+        state = State.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    // A horizon day, stored in the history; called in day order.
+    synchronized void daySaved(SolutionSummary day) {
+        days.add(day);
+    }
+
+    synchronized void complete(SolveCheckpoint finished) {
+        checkpoint = finished;
+        complete(finished.solution);
+    }
+
+    // Without a checkpoint, as for the last day of a horizon: no changes can be applied to it.
+    synchronized void complete(ScheduleSolution solution) {
+        result = solution;
+        totalRuns = solution.getAssignedRouteRuns().size();
+        currentScore = solution.getScore();
+        finish(State.COMPLETED);
+    }
+
+    synchronized void fail(Throwable error) {
+        errorMessage = error.getClass().getSimpleName() + ": " + error.getMessage();
+        finish(State.FAILED);
+    }
+
+    synchronized void markCancelled() {
+        finish(State.CANCELLED);
+    }
+
+    // A queued job is cancelled on the spot (returns true); a running one stops at the next run it looks at.
+    synchronized boolean requestCancel() {
+        if (isFinished()) { return false; }
+        cancelRequested = true;
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED);
+            if (future != null) { future.cancel(false); }
+            return true;
+        }
+        return false;
+    }
+
+    synchronized boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    synchronized State getState() { return state; }
+
+    synchronized ScheduleSolution getResult() { return result; }
+
+    synchronized SolveCheckpoint getCheckpoint() { return checkpoint; }
+
+    synchronized SolveJobStatus toStatus() {
+        SolveJobStatus status = new SolveJobStatus();
+        status.setJobId(id);
+        status.setState(state);
+        status.setRunsProcessed(runsProcessed);
+        status.setTotalRuns(totalRuns);
+        status.setCurrentScore(currentScore);
+        status.setCancelRequested(cancelRequested);
+        status.setSubmittedAt(submittedAt);
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt);
+        status.setErrorMessage(errorMessage);
+        status.setBasedOnJobId(basedOnJobId);
+        status.setHorizonDays(horizonDays);
+        status.setDays(days == null ? null : List.copyOf(days));
+        return status;
+    }
+
+    private void finish(State finalState) {
+        state = finalState;
+        finishedAt = Instant.now();
+    }
+}
@@ -0,0 +1,209 @@
+package com.bus.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.ScheduleChange;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionSummary;
+import com.bus.domain.SolveJobStatus;
+import com.bus.domain.SolverConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Runs solves in the background on a small, bounded pool so REST worker threads return at once.
+ * Extra jobs wait in a bounded queue; when that is full too, submit() throws
+ * RejectedExecutionException and the caller should retry later.
+ */
+@ApplicationScoped
+public class SolveJobService {
+
+    @Inject
+    SchedulingService schedulingService;
+
+    @Inject
+    ScheduleStreamService scheduleStreamService;
+
+    @Inject
+    SolutionStore solutionStore;
+
+    @Inject
+    HorizonSolveService horizonSolveService;
+
+    @Inject
+    SolveCache solveCache;
+
+    @ConfigProperty(name = "bus.scheduler.jobs.worker-threads", defaultValue = "2")
+    int workerThreads;
+
+    @ConfigProperty(name = "bus.scheduler.jobs.queue-capacity", defaultValue = "16")
+    int queueCapacity;
+
+    @ConfigProperty(name = "bus.scheduler.jobs.retained-finished-jobs", defaultValue = "50")
+    int retainedFinishedJobs;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, SolveJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> finishedJobIds = new ConcurrentLinkedQueue<>(); // Oldest first
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "solve-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        jobs.values().forEach(SolveJob::requestCancel);
+        executor.shutdownNow();
+    }
+
+    // Without streamActivities the job's stream carries runs and progress only.
+    public SolveJobStatus submit(boolean streamActivities, SolverConfig config) {
+        SolveJob job = new SolveJob(UUID.randomUUID().toString());
+        job.config = config;
+        job.stream = scheduleStreamService.publisherFor(job.id, streamActivities);
+        return enqueue(job);
+    }
+
+    /**
+     * Plans the current timetable for this many days in a row (see HorizonSolveService). The status counts
+     * the runs of the day being solved and lists the days stored so far; the result is the last day.
+     * Cancelling keeps the days already stored. The stream carries the final message only.
+     */
+    public SolveJobStatus submitHorizon(SolverConfig config, int days) {
+        if (days < 1 || days > horizonSolveService.getMaxDays()) {
+            throw new IllegalArgumentException("days must be between 1 and " + horizonSolveService.getMaxDays() + ", was " + days);
+        }
+        SolveJob job = new SolveJob(UUID.randomUUID().toString(), days);
+        job.config = config;
+        job.stream = scheduleStreamService.publisherFor(job.id, false);
+        return enqueue(job);
+    }
+
+    private SolveJobStatus enqueue(SolveJob job) {
+        jobs.put(job.id, job);
+        scheduleStreamService.open(job.id);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            scheduleStreamService.discard(job.id);
+            throw e;
+        }
+        return job.toStatus();
+    }
+
+    // Null if the job id is unknown or has been evicted.
+    public SolveJobStatus getStatus(String jobId) {
+        SolveJob job = jobs.get(jobId);
+        return job == null ? null : job.toStatus();
+    }
+
+    // Null unless the job completed successfully.
+    public ScheduleSolution getResult(String jobId) {
+        SolveJob job = jobs.get(jobId);
+        return job == null ? null : job.getResult();
+    }
+
+    public SolveJobStatus cancel(String jobId) {
+        SolveJob job = jobs.get(jobId);
+        if (job == null) { return null; }
+        if (job.requestCancel()) {
+            // Cancelled before it started: nobody else will close its stream
+            executor.purge(); // Drop cancelled jobs from the queue so they stop taking up slots
+            job.stream.cancelled();
+            retire(job);
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * Applies changes to the result of a completed job and registers the outcome as a new, already
+     * completed job (so changes can be chained). Runs on the caller's thread: only the runs the
+     * changes touch are reassigned. Returns null if the job is unknown; throws IllegalStateException
+     * if it has no result yet and IllegalArgumentException for changes that do not fit the schedule.
+     */
+    public SolveJobStatus applyChanges(String jobId, List<ScheduleChange> changes) {
+        SolveJob previous = jobs.get(jobId);
+        if (previous == null) { return null; }
+        SolveCheckpoint checkpoint = previous.getCheckpoint();
+        if (checkpoint == null) { throw new IllegalStateException("Solve job " + jobId + " has no result to change"); }
+
+        SolveJob job = new SolveJob(UUID.randomUUID().toString());
+        job.basedOnJobId = jobId;
+        job.markRunning();
+        SolveCheckpoint changed = schedulingService.resolveIncrementally(checkpoint, changes);
+        changed.solution.setSolutionId(job.id);
+        job.complete(changed);
+        job.stream = scheduleStreamService.publisherFor(job.id);
+        jobs.put(job.id, job);
+        scheduleStreamService.open(job.id);
+        job.stream.completed(job.getResult());
+        retire(job);
+        solutionStore.save(changed.solution, SolutionSummary.Origin.CHANGES, jobId);
+        return job.toStatus();
+    }
+
+    private void run(SolveJob job) {
+        if (!job.markRunning()) { return; }
+        try {
+            if (job.horizonDays > 0) {
+                ScheduleSolution lastDay = horizonSolveService.solve(job.config, job.horizonDays, job, job::daySaved);
+                job.complete(lastDay);
+                job.stream.completed(lastDay);
+                return;
+            }
+            // Stored under the job's id once the job is done, unless the same inputs were solved before
+            SolveCheckpoint checkpoint = solveCache.solveWithCheckpoint(job.config, SolveListener.combine(job, job.stream), job.id);
+            job.complete(checkpoint);
+            job.stream.completed(checkpoint.solution);
+            if (job.id.equals(checkpoint.solution.getSolutionId())) {
+                solutionStore.save(checkpoint.solution, SolutionSummary.Origin.JOB, null);
+            }
+        } catch (CancellationException e) {
+            job.markCancelled();
+            job.stream.cancelled();
+        } catch (RuntimeException e) {
+            System.err.println("Solve job " + job.id + " failed: " + e.getMessage());
+            job.fail(e);
+            job.stream.failed(job.toStatus().getErrorMessage());
+        } finally {
+            retire(job);
+        }
+    }
+
+    // Finished jobs stay queryable until more than retainedFinishedJobs have piled up.
+    private synchronized void retire(SolveJob job) {
+        if (finishedJobIds.contains(job.id)) { return; }
+        finishedJobIds.add(job.id);
+        while (finishedJobIds.size() > retainedFinishedJobs) {
+            String oldest = finishedJobIds.poll();
+            if (oldest != null) {
+                jobs.remove(oldest);
+                scheduleStreamService.discard(oldest);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bus.service;
+
+import java.util.List;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.RouteRun;
+
+// Hooks into a running solve. Everything is optional: the synchronous /solve endpoint uses NONE.
+public interface SolveListener {
+
+    SolveListener NONE = new SolveListener() {};
+
+    // Activity entries logged while processing one run (possibly none), in log order.
+    default void onActivitiesLogged(RouteRun run, List<ActivityLogEntry> entries) {}
+
+    // Called after each run has been considered, whether or not it got a bus and driver.
+    default void onRunProcessed(RouteRun run, int processedRuns, int totalRuns, int currentScore) {}
+
+    // Polled once per run; returning true stops the solve with a CancellationException.
+    default boolean isCancelled() { return false; }
+
+    // Notifies both listeners; the solve is cancelled if either asks for it.
+    static SolveListener combine(SolveListener first, SolveListener second) {
+        return new SolveListener() {
+            @Override
+            public void onActivitiesLogged(RouteRun run, List<ActivityLogEntry> entries) {
+                first.onActivitiesLogged(run, entries);
+                second.onActivitiesLogged(run, entries);
+            }
+
+            @Override
+            public void onRunProcessed(RouteRun run, int processedRuns, int totalRuns, int currentScore) {
+                first.onRunProcessed(run, processedRuns, totalRuns, currentScore);
+                second.onRunProcessed(run, processedRuns, totalRuns, currentScore);
+            }
+
+            @Override
+            public boolean isCancelled() { return first.isCancelled() || second.isCancelled(); }
+        };
+    }
+}
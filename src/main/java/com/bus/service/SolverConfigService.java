@@ -0,0 +1,159 @@
+package com.bus.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.bus.domain.SolverConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * The solver configuration of every solve: bus.scheduler.solver.* (checked at startup), with the
+ * overrides of a single request on top. An override names a SolverConfig property, e.g.
+ * {"maxContinuousDrivingMins": 300, "busUsedWeight": -250}; properties it does not name keep
+ * their configured value.
+ */
+@ApplicationScoped
+public class SolverConfigService {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "bus.scheduler.solver.depot-to-terminal-travel-mins", defaultValue = "15")
+    int depotToTerminalTravelMins;
+
+    @ConfigProperty(name = "bus.scheduler.solver.depot-to-terminal-distance-km", defaultValue = "5")
+    int depotToTerminalDistanceKm;
+
+    @ConfigProperty(name = "bus.scheduler.solver.terminal-to-depot-travel-mins", defaultValue = "20")
+    int terminalToDepotTravelMins;
+
+    @ConfigProperty(name = "bus.scheduler.solver.terminal-to-depot-distance-km", defaultValue = "10")
+    int terminalToDepotDistanceKm;
+
+    @ConfigProperty(name = "bus.scheduler.solver.charging-duration-mins", defaultValue = "120")
+    int chargingDurationMins;
+
+    @ConfigProperty(name = "bus.scheduler.solver.min-charge-fraction-after-return", defaultValue = "0.20")
+    double minChargeFractionAfterReturn;
+
+    @ConfigProperty(name = "bus.scheduler.solver.minimal-next-route-distance-km", defaultValue = "20")
+    int minimalNextRouteDistanceKm;
+
+    @ConfigProperty(name = "bus.scheduler.solver.partial-charging", defaultValue = "false")
+    boolean partialCharging;
+
+    @ConfigProperty(name = "bus.scheduler.solver.deadhead-speed-kmh", defaultValue = "25")
+    int deadheadSpeedKmh;
+
+    @ConfigProperty(name = "bus.scheduler.solver.road-distance-factor", defaultValue = "1.3")
+    double roadDistanceFactor;
+
+    @ConfigProperty(name = "bus.scheduler.solver.reposition-buses", defaultValue = "false")
+    boolean repositionBuses;
+
+    @ConfigProperty(name = "bus.scheduler.solver.max-continuous-driving-mins", defaultValue = "240")
+    int maxContinuousDrivingMins;
+
+    @ConfigProperty(name = "bus.scheduler.solver.mandatory-break-mins", defaultValue = "30")
+    int mandatoryBreakMins;
+
+    @ConfigProperty(name = "bus.scheduler.solver.max-driving-mins-per-day", defaultValue = "600")
+    int maxDrivingMinsPerDay;
+
+    @ConfigProperty(name = "bus.scheduler.solver.max-driving-mins-per-week", defaultValue = "3360")
+    int maxDrivingMinsPerWeek;
+
+    @ConfigProperty(name = "bus.scheduler.solver.break-reset-wait-mins", defaultValue = "15")
+    int breakResetWaitMins;
+
+    @ConfigProperty(name = "bus.scheduler.solver.driver-travel-between-terminals-mins", defaultValue = "15")
+    int driverTravelBetweenTerminalsMins;
+
+    @ConfigProperty(name = "bus.scheduler.solver.two-phase-construction", defaultValue = "false")
+    boolean twoPhaseConstruction;
+
+    @ConfigProperty(name = "bus.scheduler.solver.minimum-fleet", defaultValue = "false")
+    boolean minimumFleet;
+
+    @ConfigProperty(name = "bus.scheduler.solver.unassigned-run-weight", defaultValue = "-1000")
+    int unassignedRunWeight;
+
+    @ConfigProperty(name = "bus.scheduler.solver.bus-used-weight", defaultValue = "-100")
+    int busUsedWeight;
+
+    private SolverConfig defaults = new SolverConfig();
+
+    // An invalid configuration stops the application at startup rather than failing every solve.
+    @PostConstruct
+    void start() {
+        SolverConfig config = new SolverConfig();
+        config.setDepotToTerminalTravelMins(depotToTerminalTravelMins);
+        config.setDepotToTerminalDistanceKm(depotToTerminalDistanceKm);
+        config.setTerminalToDepotTravelMins(terminalToDepotTravelMins);
+        config.setTerminalToDepotDistanceKm(terminalToDepotDistanceKm);
+        config.setChargingDurationMins(chargingDurationMins);
+        config.setMinChargeFractionAfterReturn(minChargeFractionAfterReturn);
+        config.setMinimalNextRouteDistanceKm(minimalNextRouteDistanceKm);
+        config.setPartialCharging(partialCharging);
+        config.setDeadheadSpeedKmh(deadheadSpeedKmh);
+        config.setRoadDistanceFactor(roadDistanceFactor);
+        config.setRepositionBuses(repositionBuses);
+        config.setMaxContinuousDrivingMins(maxContinuousDrivingMins);
+        config.setMandatoryBreakMins(mandatoryBreakMins);
+        config.setMaxDrivingMinsPerDay(maxDrivingMinsPerDay);
+        config.setMaxDrivingMinsPerWeek(maxDrivingMinsPerWeek);
+        config.setBreakResetWaitMins(breakResetWaitMins);
+        config.setDriverTravelBetweenTerminalsMins(driverTravelBetweenTerminalsMins);
+        config.setTwoPhaseConstruction(twoPhaseConstruction);
+        config.setMinimumFleet(minimumFleet);
+        config.setUnassignedRunWeight(unassignedRunWeight);
+        config.setBusUsedWeight(busUsedWeight);
+        List<String> errors = config.validate();
+        if (!errors.isEmpty()) { throw new IllegalStateException("Invalid bus.scheduler.solver configuration: " + String.join("; ", errors)); }
+        defaults = config;
+    }
+
+    // A copy: callers may change it.
+    public SolverConfig defaults() {
+        return new SolverConfig(defaults);
+    }
+
+    // The defaults with the overrides in this JSON object applied; a blank body overrides nothing.
+    public SolverConfig resolve(String overridesJson) {
+        if (overridesJson == null || overridesJson.isBlank()) { return defaults(); }
+        try {
+            return resolve(objectMapper.readTree(overridesJson));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid solver configuration: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    // The defaults with these overrides applied. Throws IllegalArgumentException for an unknown
+    // property, a value of the wrong type or a result that does not validate.
+    public SolverConfig resolve(JsonNode overrides) {
+        if (overrides == null || overrides.isNull() || overrides.isMissingNode()) { return defaults(); }
+        if (!overrides.isObject()) { throw new IllegalArgumentException("Invalid solver configuration: expected a JSON object"); }
+        SolverConfig config;
+        try {
+            config = objectMapper.readerForUpdating(defaults())
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(overrides);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid solver configuration: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid solver configuration: " + e.getMessage(), e);
+        }
+        List<String> errors = config.validate();
+        if (!errors.isEmpty()) { throw new IllegalArgumentException("Invalid solver configuration: " + String.join("; ", errors)); }
+        return config;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.SolverConfig;
+
+/**
+ * Deadhead times and distances between every pair of locations a solve can drive between that has
+ * coordinates: depots, route terminals and where the buses start the day. Built once per solve,
+ * before the first run, as two dense arrays indexed by an interned location index, so a lookup is
+ * a hash of the id plus an array read and allocates nothing.
+ *
+ * Distance is the great-circle distance times SolverConfig.roadDistanceFactor, rounded up to a
+ * whole km; time is that distance at SolverConfig.deadheadSpeedKmh, rounded up to a whole minute.
+ * A pair without coordinates on both ends is UNKNOWN, and the engine uses its fixed travel values.
+ *
+ * Depots with travel time bands make every deadhead to or from them slower or faster by time of
+ * day (atTime), whichever way its minutes were found. The band is the one at the end of the leg
+ * next to the run: the departure for a leg to the start terminal, the arrival for a leg back to
+ * the depot.
+ */
+final class TravelMatrix {
+
+    static final int UNKNOWN = -1;
+    static final TravelMatrix NONE = new TravelMatrix(Map.of(), new int[0], new int[0], Map.of());
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Map<String, Integer> indexById;
+    private final int size;
+    private final int[] minutes;    // [from * size + to]
+    private final int[] distanceKm; // [from * size + to]
+    private final int maxMinutes;
+    private final Map<String, BusDepot> bandedDepots; // Depots with travel time bands, by id
+    private final double maxFactor;
+
+    private TravelMatrix(Map<String, Integer> indexById, int[] minutes, int[] distanceKm, Map<String, BusDepot> bandedDepots) {
+        this.indexById = indexById;
+        this.size = indexById.size();
+        this.minutes = minutes;
+        this.distanceKm = distanceKm;
+        int max = 0;
+        for (int value : minutes) { max = Math.max(max, value); }
+        this.maxMinutes = max;
+        this.bandedDepots = bandedDepots;
+        this.maxFactor = Math.max(1, bandedDepots.values().stream().mapToDouble(BusDepot::maxTravelTimeFactor).max().orElse(1));
+    }
+
+    // The matrix over the stops a solve of these buses and routes can drive between. Other stops are left out.
+    static TravelMatrix forSolve(List<? extends BusStop> stops, List<Bus> buses, List<BusRoute> routes, SolverConfig config) {
+        Set<String> locationIds = new HashSet<>();
+        for (Bus bus : buses) {
+            locationIds.add(bus.getDepotId());
+            locationIds.add(bus.getCurrentLocationId());
+        }
+        for (BusRoute route : routes) {
+            locationIds.add(route.getStartTerminalId());
+            locationIds.add(route.getEndTerminalId());
+        }
+        List<BusStop> locations = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Map<String, BusDepot> bandedDepots = new HashMap<>();
+        for (BusStop stop : stops) {
+            if (!locationIds.contains(stop.getId())) { continue; }
+            if (stop.hasCoordinates() && seen.add(stop.getId())) { locations.add(stop); }
+            if (stop instanceof BusDepot depot && depot.hasTravelTimeBands()) { bandedDepots.put(depot.getId(), depot); }
+        }
+        if (locations.isEmpty() && bandedDepots.isEmpty()) { return NONE; }
+        return between(locations, config, bandedDepots);
+    }
+
+    static TravelMatrix between(List<? extends BusStop> locations, SolverConfig config) {
+        return between(locations, config, Map.of());
+    }
+
+    private static TravelMatrix between(List<? extends BusStop> locations, SolverConfig config, Map<String, BusDepot> bandedDepots) {
+        int n = locations.size();
+        Map<String, Integer> indexById = new HashMap<>(n * 4 / 3 + 1);
+        double[] latitude = new double[n];
+        double[] longitude = new double[n];
+        for (int i = 0; i < n; i++) {
+            BusStop location = locations.get(i);
+            if (indexById.putIfAbsent(location.getId(), i) != null) { throw new IllegalArgumentException("Duplicate location " + location.getId()); }
+            latitude[i] = Math.toRadians(location.getLatitude());
+            longitude[i] = Math.toRadians(location.getLongitude());
+        }
+        int[] minutes = new int[n * n];
+        int[] distanceKm = new int[n * n];
+        for (int from = 0; from < n; from++) {
+            for (int to = from + 1; to < n; to++) {
+                double km = greatCircleKm(latitude[from], longitude[from], latitude[to], longitude[to]) * config.getRoadDistanceFactor();
+                int wholeKm = (int) Math.ceil(km);
+                int wholeMinutes = (int) Math.ceil(km * 60 / config.getDeadheadSpeedKmh());
+                distanceKm[from * n + to] = distanceKm[to * n + from] = wholeKm;
+                minutes[from * n + to] = minutes[to * n + from] = wholeMinutes;
+            }
+        }
+        return new TravelMatrix(indexById, minutes, distanceKm, bandedDepots);
+    }
+
+    private static double greatCircleKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinLatitude = Math.sin((latitude2 - latitude1) / 2);
+        double sinLongitude = Math.sin((longitude2 - longitude1) / 2);
+        double a = sinLatitude * sinLatitude + Math.cos(latitude1) * Math.cos(latitude2) * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // UNKNOWN for a location without coordinates.
+    int indexOf(String locationId) {
+        Integer index = indexById.get(locationId);
+        return index == null ? UNKNOWN : index;
+    }
+
+    int minutes(String fromId, String toId) {
+        return lookup(minutes, indexOf(fromId), indexOf(toId));
+    }
+
+    int distanceKm(String fromId, String toId) {
+        return lookup(distanceKm, indexOf(fromId), indexOf(toId));
+    }
+
+    int minutes(int from, int to) {
+        return lookup(minutes, from, to);
+    }
+
+    int distanceKm(int from, int to) {
+        return lookup(distanceKm, from, to);
+    }
+
+    private int lookup(int[] values, int from, int to) {
+        return from == UNKNOWN || to == UNKNOWN ? UNKNOWN : values[from * size + to];
+    }
+
+    // A deadhead of these minutes between two locations at this minute of the service day, with
+    // the larger band factor of the two ends applied (rounded up). Two map lookups and array reads.
+    int atTime(String fromId, String toId, int minutes, int minute) {
+        if (bandedDepots.isEmpty() || minutes <= 0) { return minutes; }
+        BusDepot from = bandedDepots.get(fromId);
+        BusDepot to = bandedDepots.get(toId);
+        if (from == null && to == null) { return minutes; }
+        double factor = Math.max(from == null ? 0 : from.travelTimeFactorAt(minute), to == null ? 0 : to.travelTimeFactorAt(minute));
+        return (int) Math.ceil(minutes * factor);
+    }
+
+    // Largest factor atTime can apply, at least 1 (legs away from banded depots keep their time).
+    double maxFactor() {
+        return maxFactor;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Longest deadhead in the matrix, 0 if it is empty.
+    int maxMinutes() {
+        return maxMinutes;
+    }
+}
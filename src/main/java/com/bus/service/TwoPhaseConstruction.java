@@ -0,0 +1,106 @@
+package com.bus.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.SolverConfig;
+
+/**
+ * Greedy construction in two passes over the runs (SolverConfig.twoPhaseConstruction), instead of
+ * picking a bus and a driver for each run in one step:
+ *
+ * 1. Vehicle blocks: every run gets the first bus that can take it, with the same bus search as
+ *    the single pass, or the bus of its block on the fewest buses (MinimumFleetBlocks). A bus's
+ *    runs in departure order are its block for the day.
+ * 2. Driver duties: the blocks are cut into duties in departure order. A run is driven by the
+ *    driver of the previous run of its block while they can legally take it (continuous driving,
+ *    mandatory break, daily driving limit); otherwise the duty is cut there and the first free
+ *    driver takes over.
+ *
+ * The second pass works on the engine the first one left, so nothing is rebuilt between them. A
+ * run no bus can take gets no driver; a run no driver can take keeps its bus and counts as
+ * unassigned. Each pass logs one block of entries per run, bus entries first: the activity log
+ * holds the vehicle blocks' entries, then the duties'. Parts of a network are still solved in
+ * parallel, each with both passes (see PartitionedSolve).
+ */
+final class TwoPhaseConstruction {
+
+    static final int PHASES = 2;
+
+    private TwoPhaseConstruction() {}
+
+    // Whether a solve with this configuration is built in two passes.
+    static boolean isUsedBy(SolverConfig config) {
+        return config.isTwoPhaseConstruction() || config.isMinimumFleet();
+    }
+
+    // Both passes. activityLogEndByRun (optional, 2 per run) receives the log size after each run of each pass.
+    static void construct(GreedyScheduler engine, List<RouteRun> sortedRuns, SolveListener listener, int[] activityLogEndByRun) {
+        if (engine.config.isMinimumFleet()) {
+            MinimumFleetBlocks.buildBlocks(engine, sortedRuns, listener, activityLogEndByRun);
+        } else {
+            buildBlocks(engine, sortedRuns, listener, activityLogEndByRun);
+        }
+        cutDuties(engine, sortedRuns, listener, activityLogEndByRun);
+    }
+
+    // Pass 1: buses only. Reports the logged entries; runs count as processed once pass 2 has seen them.
+    static void buildBlocks(GreedyScheduler engine, List<RouteRun> sortedRuns, SolveListener listener, int[] activityLogEndByRun) {
+        ActivityLog activityLog = engine.activityLog;
+        for (int i = 0; i < sortedRuns.size(); i++) {
+            RouteRun run = sortedRuns.get(i);
+            checkCancelled(listener, "vehicle blocks", i, sortedRuns.size());
+            int activityLogSizeBeforeRun = activityLog.size();
+            engine.addRun();
+            run.setAssignedBusId(null); // Pass 2 goes by what pass 1 assigned, not what an earlier solve left on the run
+            run.setAssignedDriverId(null);
+            BusRoute routeTemplate = engine.routeTemplates.get(run.getBusRouteId());
+            if (routeTemplate != null) {
+                BusState busState = engine.findBus(run, routeTemplate);
+                if (busState != null) { engine.assignBus(run, routeTemplate, busState); }
+            }
+            if (activityLogEndByRun != null) { activityLogEndByRun[i] = activityLog.size(); }
+            listener.onActivitiesLogged(run, activityLog.subList(activityLogSizeBeforeRun, activityLog.size()));
+        }
+    }
+
+    // Pass 2: drivers for the runs pass 1 gave a bus, following each bus's block.
+    static void cutDuties(GreedyScheduler engine, List<RouteRun> sortedRuns, SolveListener listener, int[] activityLogEndByRun) {
+        ActivityLog activityLog = engine.activityLog;
+        Map<String, DriverState> driverByBus = new HashMap<>(); // Driver of each block's current duty
+        for (int i = 0; i < sortedRuns.size(); i++) {
+            RouteRun run = sortedRuns.get(i);
+            checkCancelled(listener, "driver duties", i, sortedRuns.size());
+            int activityLogSizeBeforeRun = activityLog.size();
+            String busId = run.getAssignedBusId();
+            if (busId != null) {
+                BusRoute routeTemplate = engine.routeTemplates.get(run.getBusRouteId());
+                DriverState driverState = driverByBus.get(busId);
+                if (driverState == null || engine.withdrawnDriverIds.contains(driverState.driver.getId())
+                        || !engine.isDriverSuitableForRun(driverState, run, routeTemplate)) {
+                    driverState = engine.findDriver(run, routeTemplate); // Cuts the duty: relief by the first free driver
+                }
+                if (driverState != null) {
+                    engine.assignDriver(run, routeTemplate, driverState);
+                    driverByBus.put(busId, driverState);
+                } else {
+                    driverByBus.remove(busId);
+                }
+            }
+            if (activityLogEndByRun != null) { activityLogEndByRun[sortedRuns.size() + i] = activityLog.size(); }
+            listener.onActivitiesLogged(run, activityLog.subList(activityLogSizeBeforeRun, activityLog.size()));
+            listener.onRunProcessed(run, i + 1, sortedRuns.size(), engine.scoreTracker.score());
+        }
+    }
+
+    static void checkCancelled(SolveListener listener, String phase, int processedRuns, int totalRuns) {
+        if (listener.isCancelled()) {
+            throw new CancellationException("Solve cancelled after " + processedRuns + " of " + totalRuns + " runs (" + phase + ")");
+        }
+    }
+}
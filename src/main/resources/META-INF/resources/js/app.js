@@ -93,45 +93,25 @@ document.addEventListener('DOMContentLoaded', () => {
                 }
             });
 
+            const outputs = {
+                summary: scheduleSummaryOutputElement,
+                assignedRuns: assignedRunsOutputElement,
+                activityLog: fullActivityLogOutputElement
+            };
             try {
-                const response = await fetch('/api/schedule/solve', {
+                // Submit a background job, then render its schedule batch by batch as it streams in. Activity
+                // timelines are left out of the stream and fetched one bus or driver at a time when expanded.
+                const response = await fetch('/api/schedule/jobs?activities=false', {
                     method: 'POST', headers: { 'Accept': 'application/json' }
                 });
                 if (!response.ok) { 
                     const errorText = await response.text();
                     throw new Error(`HTTP error! status: ${response.status} ${response.statusText}. Server says: ${errorText}`);
                 }
-                const solution = await response.json();
-                
-                let summaryText = `Schedule Score: ${solution.score !== undefined ? solution.score : 'N/A'}\n`;
-                summaryText += `(Buses Used: ${solution.totalBusesUsedCount !== undefined ? solution.totalBusesUsedCount : 'N/A'}, Unassigned Runs: ${solution.unassignedRunCount !== undefined ? solution.unassignedRunCount : 'N/A'})\n`;
-                summaryText += `Score Explanation: ${solution.scoreExplanation || ''}\n\n`;
-                scheduleSummaryOutputElement.textContent = summaryText;
-
-                if (solution.assignedRouteRuns && solution.assignedRouteRuns.length > 0) {
-                    let runsText = "Assigned Route Runs Details:\n\n";
-                    solution.assignedRouteRuns.forEach(run => {
-                        runsText += `Run ID: ${run.id} (Route: ${run.busRouteId})\n`;
-                        runsText += `  Time: ${run.departureTime} - ${run.arrivalTime}\n`;
-                        runsText += `  Bus: ${run.assignedBusId || 'N/A'}, Driver: ${run.assignedDriverId || 'N/A'}\n\n`;
-                    });
-                    assignedRunsOutputElement.textContent = runsText;
-                } else {
-                    assignedRunsOutputElement.textContent = "No route runs assigned or found in the solution.";
-                }
-
-                fullActivityLogOutputElement.innerHTML = ''; 
-                if (solution.activityLog && solution.activityLog.length > 0) {
-                    renderActivityLogs(solution.activityLog, fullActivityLogOutputElement);
-                } else {
-                    fullActivityLogOutputElement.textContent = 'No detailed activity logs available.';
-                }
-
+                const job = await response.json();
+                streamSolveJob(job.jobId, outputs);
             } catch (error) { 
-                console.error('Error solving schedule:', error);
-                scheduleSummaryOutputElement.textContent = `Error: ${error.message}`;
-                assignedRunsOutputElement.textContent = 'Error retrieving data.';
-                fullActivityLogOutputElement.textContent = 'Error retrieving data.';
+                showSolveError(error, outputs);
             }
         });
     } else {
@@ -154,54 +134,254 @@ document.addEventListener('DOMContentLoaded', () => {
 // Make sure to include the FULL, PREVIOUSLY WORKING renderActivityLogs, fetchData, populateList, and all loadX functions.
 // The snippet below just shows where they go relative to the modified setupToggleButtons.
 
-function renderActivityLogs(logs, containerElement) {
-    // ... (This should be your fully working version from the previous step) ...
-    const logsByEntity = {};
-    logs.forEach(log => {
-        const key = `${log.entityType}-${log.entityId}`;
-        if (!logsByEntity[key]) {
-            logsByEntity[key] = { entityType: log.entityType, entityId: log.entityId, activities: [] };
+// Streams a solve job over the websocket. Falls back to polling the job API if the socket fails.
+function streamSolveJob(jobId, outputs) {
+    const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
+    const socket = new WebSocket(`${protocol}//${window.location.host}/start-websocket/${jobId}`);
+    let finished = false;
+    let receivedAny = false;
+    let lastSequence = -1;
+
+    outputs.summary.textContent = 'Solving...';
+    outputs.assignedRuns.textContent = 'Assigned Route Runs Details:\n\n';
+    outputs.activityLog.textContent = 'Activity logs are listed once the solve completes.';
+
+    socket.onmessage = event => {
+        const message = JSON.parse(event.data);
+        if (message.sequence !== undefined && message.sequence <= lastSequence) { return; } // Replayed twice
+        lastSequence = message.sequence;
+        receivedAny = true;
+        switch (message.type) {
+            case 'BATCH':
+                appendAssignedRuns(message.runs || [], outputs.assignedRuns);
+                outputs.summary.textContent = `Solving... ${message.runsProcessed} of ${message.totalRuns} runs processed\n`
+                    + `Current Score: ${message.currentScore}\n`;
+                break;
+            case 'COMPLETED':
+                finished = true;
+                outputs.summary.textContent = formatScheduleSummary(message);
+                socket.close();
+                // The streamed runs are the construction's assignments: the local search may have changed them since
+                showJobResult(jobId, outputs);
+                break;
+            default: // FAILED, CANCELLED, ERROR
+                finished = true;
+                outputs.summary.textContent = `Solve ${message.type.toLowerCase()}${message.errorMessage ? ': ' + message.errorMessage : ''}`;
+                socket.close();
         }
-        logsByEntity[key].activities.push(log);
-    });
-    for (const key in logsByEntity) {
-        logsByEntity[key].activities.sort((a, b) => (a.startTime < b.startTime ? -1 : 1));
+    };
+    socket.onclose = () => {
+        if (!finished) {
+            if (receivedAny) { console.warn('Schedule stream closed early, fetching the final result instead.'); }
+            pollSolveJob(jobId, outputs);
+        }
+        finished = true;
+    };
+}
+
+// Polls the job status until it is done, then renders the full result in one go.
+async function pollSolveJob(jobId, outputs) {
+    try {
+        while (true) {
+            const statusResponse = await fetch(`/api/schedule/jobs/${jobId}`, { headers: { 'Accept': 'application/json' } });
+            if (!statusResponse.ok) { throw new Error(`HTTP error! status: ${statusResponse.status}`); }
+            const status = await statusResponse.json();
+            if (status.state === 'COMPLETED') { break; }
+            if (status.state === 'FAILED' || status.state === 'CANCELLED') {
+                throw new Error(`Solve ${status.state.toLowerCase()}${status.errorMessage ? ': ' + status.errorMessage : ''}`);
+            }
+            outputs.summary.textContent = `Solving... ${status.runsProcessed} of ${status.totalRuns} runs processed\n`;
+            await new Promise(resolve => setTimeout(resolve, 500));
+        }
+    } catch (error) {
+        showSolveError(error, outputs);
+        return;
     }
-    const sortedEntityKeys = Object.keys(logsByEntity).sort((keyA, keyB) => {
-        const entityA = logsByEntity[keyA];
-        const entityB = logsByEntity[keyB];
-        if (entityA.entityType !== entityB.entityType) { return entityA.entityType === 'BUS' ? -1 : 1; }
-        return entityA.entityId.localeCompare(entityB.entityId);
+    await showJobResult(jobId, outputs);
+}
+
+// Renders a completed job's final solution; timelines are fetched when a bus or driver is expanded.
+async function showJobResult(jobId, outputs) {
+    try {
+        const resultResponse = await fetch(`/api/schedule/jobs/${jobId}/result?activityLog=false`, { headers: { 'Accept': 'application/json' } });
+        if (!resultResponse.ok) { throw new Error(`HTTP error! status: ${resultResponse.status}`); }
+        renderSolution(await resultResponse.json(), outputs, `/api/schedule/jobs/${jobId}/activities`);
+    } catch (error) {
+        showSolveError(error, outputs);
+    }
+}
+
+// Without an activity log in the solution, timelines are fetched from activitiesUrl on demand.
+function renderSolution(solution, outputs, activitiesUrl) {
+    outputs.summary.textContent = formatScheduleSummary(solution);
+    if (solution.assignedRouteRuns && solution.assignedRouteRuns.length > 0) {
+        outputs.assignedRuns.textContent = 'Assigned Route Runs Details:\n\n';
+        appendAssignedRuns(solution.assignedRouteRuns, outputs.assignedRuns);
+    } else {
+        outputs.assignedRuns.textContent = "No route runs assigned or found in the solution.";
+    }
+    outputs.activityLog.innerHTML = '';
+    if (solution.activityLog && solution.activityLog.length > 0) {
+        renderActivityLogs(solution.activityLog, outputs.activityLog);
+    } else if (activitiesUrl) {
+        const entities = new Map();
+        addRunEntities(solution.assignedRouteRuns || [], entities);
+        renderActivityEntityList(activitiesUrl, entities, outputs.activityLog);
+    } else {
+        outputs.activityLog.textContent = 'No detailed activity logs available.';
+    }
+}
+
+function formatScheduleSummary(solution) {
+    let summaryText = `Schedule Score: ${solution.score !== undefined ? solution.score : 'N/A'}\n`;
+    summaryText += `(Buses Used: ${solution.totalBusesUsedCount !== undefined ? solution.totalBusesUsedCount : 'N/A'}, Unassigned Runs: ${solution.unassignedRunCount !== undefined ? solution.unassignedRunCount : 'N/A'})\n`;
+    summaryText += `Score Explanation: ${solution.scoreExplanation || ''}\n\n`;
+    return summaryText;
+}
+
+function appendAssignedRuns(runs, outputElement) {
+    let runsText = '';
+    runs.forEach(run => {
+        runsText += `Run ID: ${run.id} (Route: ${run.busRouteId})\n`;
+        runsText += `  Time: ${run.departureTime} - ${run.arrivalTime}\n`;
+        runsText += `  Bus: ${run.assignedBusId || 'N/A'}, Driver: ${run.assignedDriverId || 'N/A'}\n\n`;
     });
-    containerElement.innerHTML = ''; // Clear previous logs
-    sortedEntityKeys.forEach(key => {
-        const entityLog = logsByEntity[key];
+    outputElement.appendChild(document.createTextNode(runsText));
+}
+
+function showSolveError(error, outputs) {
+    console.error('Error solving schedule:', error);
+    outputs.summary.textContent = `Error: ${error.message}`;
+    outputs.assignedRuns.textContent = 'Error retrieving data.';
+    outputs.activityLog.textContent = 'Error retrieving data.';
+}
+
+function renderActivityLogs(logs, containerElement) {
+    createActivityLogRenderer(containerElement).append(logs);
+}
+
+// The buses and drivers on the runs: exactly the ones with activities in the log.
+function addRunEntities(runs, entities) {
+    runs.forEach(run => {
+        if (run.assignedBusId) { entities.set(`BUS-${run.assignedBusId}`, { entityType: 'BUS', entityId: run.assignedBusId }); }
+        if (run.assignedDriverId) { entities.set(`DRIVER-${run.assignedDriverId}`, { entityType: 'DRIVER', entityId: run.assignedDriverId }); }
+    });
+}
+
+// Lists every bus and driver collapsed, buses first; a timeline is fetched from the paged
+// activities endpoint, and rendered page by page, only when the dispatcher expands it.
+function renderActivityEntityList(activitiesUrl, entities, containerElement) {
+    containerElement.innerHTML = '';
+    if (entities.size === 0) {
+        containerElement.textContent = 'No detailed activity logs available.';
+        return;
+    }
+    const sorted = Array.from(entities.values()).sort((a, b) =>
+        a.entityType !== b.entityType ? (a.entityType === 'BUS' ? -1 : 1) : a.entityId.localeCompare(b.entityId));
+    sorted.forEach(({ entityType, entityId }) => {
         const block = document.createElement('div'); block.className = 'entity-activity-block';
-        const title = document.createElement('h4'); title.textContent = `${entityLog.entityType}: ${entityLog.entityId}`; block.appendChild(title);
-        const table = document.createElement('table'); table.className = 'activity-table';
-        const thead = table.createTHead(); const headerRow = thead.insertRow();
-        const headers = ['Start', 'End', 'Activity', 'Description', 'Location (S->E)', 'Charge (S->E)'];
-        headers.forEach(text => { const th = document.createElement('th'); th.textContent = text; headerRow.appendChild(th); });
-        const tbody = table.createTBody();
-        entityLog.activities.forEach(act => {
-            const row = tbody.insertRow();
-            row.insertCell().textContent = act.startTime || 'N/A';
-            row.insertCell().textContent = act.endTime || 'N/A';
-            const activityCell = row.insertCell(); activityCell.textContent = act.activityType || 'N/A';
-            if(act.activityType) { activityCell.classList.add(`activity-type-${act.activityType}`); }
-            row.insertCell().textContent = act.description || '';
-            row.insertCell().textContent = `${act.startLocationId || ''}${act.startLocationId && act.endLocationId ? ' -> ' : ''}${act.endLocationId || ''}`;
-            let chargeText = '';
-            if (act.entityType === 'BUS' && (act.startChargeKm !== null || act.endChargeKm !== null)) {
-                chargeText = `${act.startChargeKm !== null ? act.startChargeKm + 'km' : '-'} -> ${act.endChargeKm !== null ? act.endChargeKm + 'km' : '-'}`;
+        const title = document.createElement('h4'); title.className = 'entity-toggle';
+        const icon = document.createElement('span'); icon.className = 'toggle-icon'; icon.textContent = '+';
+        title.appendChild(icon); title.appendChild(document.createTextNode(`${entityType}: ${entityId}`));
+        const body = document.createElement('div'); body.className = 'hidden';
+        block.appendChild(title); block.appendChild(body);
+        containerElement.appendChild(block);
+
+        let loaded = false;
+        title.addEventListener('click', async () => {
+            body.classList.toggle('hidden');
+            title.classList.toggle('expanded', !body.classList.contains('hidden'));
+            if (loaded || body.classList.contains('hidden')) { return; }
+            loaded = true;
+            body.textContent = 'Loading...';
+            try {
+                let tbody = null;
+                let cursor = null;
+                do {
+                    const params = new URLSearchParams({ entityType, entityId });
+                    if (cursor) { params.set('cursor', cursor); }
+                    const response = await fetch(`${activitiesUrl}?${params}`, { headers: { 'Accept': 'application/json' } });
+                    if (!response.ok) { throw new Error(`HTTP error! status: ${response.status}`); }
+                    const page = await response.json();
+                    if (!tbody) { body.innerHTML = ''; tbody = createActivityTable(body); }
+                    page.entries.forEach(act => appendActivityRow(tbody, act));
+                    cursor = page.nextCursor;
+                } while (cursor);
+            } catch (error) {
+                loaded = false; // Try again on the next expand
+                body.textContent = `Error loading activities: ${error.message}`;
             }
-            row.insertCell().textContent = chargeText;
-            Array.from(row.cells).forEach((cell, index) => { cell.setAttribute('data-label', headers[index]); });
         });
-        block.appendChild(table); containerElement.appendChild(block);
     });
 }
 
+// Renders activity entries straight into per-entity tables as they arrive, keeping buses before
+// drivers, entities sorted by id and each table sorted by start time. Nothing is buffered.
+function createActivityLogRenderer(containerElement) {
+    const tablesByEntity = new Map();
+    containerElement.innerHTML = ''; // Clear previous logs
+
+    const compareEntities = (typeA, idA, typeB, idB) => {
+        if (typeA !== typeB) { return typeA === 'BUS' ? -1 : 1; }
+        return idA.localeCompare(idB);
+    };
+
+    const entityTableBody = (entityType, entityId) => {
+        const key = `${entityType}-${entityId}`;
+        if (tablesByEntity.has(key)) { return tablesByEntity.get(key); }
+        const block = document.createElement('div'); block.className = 'entity-activity-block';
+        block.dataset.entityType = entityType; block.dataset.entityId = entityId;
+        const title = document.createElement('h4'); title.textContent = `${entityType}: ${entityId}`; block.appendChild(title);
+        const tbody = createActivityTable(block);
+        const nextBlock = Array.from(containerElement.children).find(other =>
+            compareEntities(entityType, entityId, other.dataset.entityType, other.dataset.entityId) < 0);
+        containerElement.insertBefore(block, nextBlock || null);
+        tablesByEntity.set(key, tbody);
+        return tbody;
+    };
+
+    return {
+        append(logs) { logs.forEach(act => appendActivityRow(entityTableBody(act.entityType, act.entityId), act)); }
+    };
+}
+
+const ACTIVITY_HEADERS = ['Start', 'End', 'Activity', 'Description', 'Location (S->E)', 'Charge (S->E)'];
+
+// Appends an empty activity table to the element and returns its body.
+function createActivityTable(parentElement) {
+    const table = document.createElement('table'); table.className = 'activity-table';
+    const thead = table.createTHead(); const headerRow = thead.insertRow();
+    ACTIVITY_HEADERS.forEach(text => { const th = document.createElement('th'); th.textContent = text; headerRow.appendChild(th); });
+    const tbody = table.createTBody();
+    parentElement.appendChild(table);
+    return tbody;
+}
+
+// Inserts a row keeping the table sorted by start time.
+function appendActivityRow(tbody, act) {
+    // Entries mostly arrive in time order, so look for the insertion point from the end
+    const startTime = act.startTime || '';
+    let before = null;
+    for (let i = tbody.rows.length - 1; i >= 0 && tbody.rows[i].dataset.startTime > startTime; i--) {
+        before = tbody.rows[i];
+    }
+    const row = document.createElement('tr');
+    row.dataset.startTime = startTime;
+    tbody.insertBefore(row, before);
+    row.insertCell().textContent = act.startTime || 'N/A';
+    row.insertCell().textContent = act.endTime || 'N/A';
+    const activityCell = row.insertCell(); activityCell.textContent = act.activityType || 'N/A';
+    if(act.activityType) { activityCell.classList.add(`activity-type-${act.activityType}`); }
+    row.insertCell().textContent = act.description || '';
+    row.insertCell().textContent = `${act.startLocationId || ''}${act.startLocationId && act.endLocationId ? ' -> ' : ''}${act.endLocationId || ''}`;
+    let chargeText = '';
+    if (act.entityType === 'BUS' && (act.startChargeKm != null || act.endChargeKm != null)) {
+        chargeText = `${act.startChargeKm != null ? act.startChargeKm + 'km' : '-'} -> ${act.endChargeKm != null ? act.endChargeKm + 'km' : '-'}`;
+    }
+    row.insertCell().textContent = chargeText;
+    Array.from(row.cells).forEach((cell, index) => { cell.setAttribute('data-label', ACTIVITY_HEADERS[index]); });
+}
+
 async function fetchData(url) { 
     try {
         const response = await fetch(url);
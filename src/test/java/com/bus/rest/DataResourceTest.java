@@ -0,0 +1,48 @@
+package com.bus.rest;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+
+@QuarkusTest
+class DataResourceTest {
+    @Test
+    void unchangedDataIsNotModified() {
+        String etag = given()
+          .when().get("/api/data/buses")
+          .then()
+             .statusCode(200)
+             .header("ETag", notNullValue())
+          .extract().header("ETag");
+
+        given()
+          .header("If-None-Match", etag)
+          .when().get("/api/data/buses")
+          .then()
+             .statusCode(304);
+    }
+
+    @Test
+    void gzippedDataHasAWeakTagAndIsNotModified() {
+        String etag = given()
+          .header("Accept-Encoding", "gzip")
+          .when().get("/api/data/buses")
+          .then()
+             .statusCode(200)
+             .header("ETag", startsWith("W/"))
+             .header("Vary", containsString("Accept-Encoding"))
+          .extract().header("ETag");
+
+        given()
+          .header("Accept-Encoding", "gzip")
+          .header("If-None-Match", etag)
+          .when().get("/api/data/buses")
+          .then()
+             .statusCode(304)
+             .header("Vary", containsString("Accept-Encoding"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.bus.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.BatchJobStatus;
+import com.bus.domain.SolveJobStatus;
+import com.bus.domain.SolverConfig;
+import com.bus.service.BatchSolveService;
+import com.bus.service.SolveJobService;
+import com.bus.service.SolverConfigService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import jakarta.ws.rs.core.Response;
+
+class SchedulingResourceTest {
+
+    @Test
+    void fullJobQueueAsksTheClientToRetry() {
+        SchedulingResource resource = new SchedulingResource();
+        resource.solverConfigService = new SolverConfigService() {
+            @Override
+            public SolverConfig resolve(String overridesJson) { return new SolverConfig(); }
+        };
+        resource.solveJobService = new SolveJobService() {
+            @Override
+            public SolveJobStatus submit(boolean streamActivities, SolverConfig config) {
+                throw new RejectedExecutionException("Queue full"); // As the job pool does once its queue is full
+            }
+        };
+
+        Response response = resource.submitJob(true, null);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("5", response.getHeaderString("Retry-After"));
+    }
+
+    @Test
+    void fullBatchQueueAsksTheClientToRetry() {
+        SchedulingResource resource = new SchedulingResource();
+        resource.solverConfigService = new SolverConfigService() {
+            @Override
+            public SolverConfig resolve(JsonNode overrides) { return new SolverConfig(); }
+        };
+        resource.batchSolveService = new BatchSolveService() {
+            @Override
+            public int getQueueCapacity() { return 10; }
+
+            @Override
+            public BatchJobStatus submit(List<SolverConfig> configs) {
+                throw new RejectedExecutionException("No room in the batch queue"); // Other batches fill the queue
+            }
+        };
+
+        Response response = resource.submitBatch(List.of(JsonNodeFactory.instance.objectNode()));
+
+        assertEquals(503, response.getStatus());
+        assertEquals("30", response.getHeaderString("Retry-After"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.syntheticFleet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.ActivityLogPage;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.service.TestData.Fleet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ActivityLogServiceTest {
+
+    @Test
+    void activityLogPagesFollowTheCursorAndFilters() throws Exception {
+        Fleet fleet = syntheticFleet(11);
+        ScheduleSolution solution = new SchedulingService().solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes);
+        ActivityLogService activityLogService = new ActivityLogService();
+        activityLogService.schedulingService = new SchedulingService();
+        activityLogService.objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        String busId = solution.getAssignedRouteRuns().stream().map(RouteRun::getAssignedBusId).filter(Objects::nonNull).findFirst().orElseThrow();
+        LocalTime from = LocalTime.of(8, 0);
+        LocalTime to = LocalTime.of(14, 0);
+        List<String> expected = solution.getActivityLog().stream()
+                .filter(entry -> entry.getEntityType() == ActivityLogEntry.EntityType.BUS && entry.getEntityId().equals(busId))
+                .filter(entry -> entry.getStartTime().isBefore(to) && (entry.getEndTime().isAfter(from) || !entry.getStartTime().isBefore(from)))
+                .map(Object::toString).toList();
+        ActivityLogService.Selection selection = activityLogService.select(ActivityLogEntry.EntityType.BUS, busId, from, to);
+        List<String> paged = new ArrayList<>();
+        int pages = 0;
+        String cursor = null;
+        do {
+            ActivityLogPage page = activityLogService.page(solution, selection, cursor, 2);
+            page.getEntries().forEach(entry -> paged.add(entry.toString()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, paged);
+        assertEquals((expected.size() + 1) / 2, pages); // The last full page already has no cursor
+        assertThrows(IllegalArgumentException.class, () -> activityLogService.page(solution, selection, "-1", 2));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        activityLogService.write(solution, activityLogService.select(ActivityLogEntry.EntityType.DRIVER, null, null, null), null, out);
+        List<String> drivers = new ArrayList<>();
+        for (ActivityLogEntry entry : solution.getActivityLog()) {
+            if (entry.getEntityType() == ActivityLogEntry.EntityType.DRIVER) { drivers.add(activityLogService.objectMapper.writeValueAsString(entry)); }
+        }
+        assertEquals(drivers, out.toString(StandardCharsets.UTF_8).lines().toList());
+        assertTrue(solution.withoutActivityLog().getActivityLog().isEmpty());
+
+        // A window through midnight, on the 03:00 service day
+        BusRoute route = new BusRoute("R1", "Night line", "T1", "T1", List.of("T1"), 20, 60);
+        Bus bus = new Bus();
+        bus.setBusIdValue("B1");
+        bus.setDepotId("D1");
+        bus.setRangeKm(200);
+        bus.setCurrentChargeKm(200);
+        bus.setCurrentLocationId("D1");
+        ScheduleSolution night = new SchedulingService().solveSchedule(List.of(new RouteRun("R1-0110", "R1", LocalTime.of(1, 10), 60),
+                new RouteRun("R1-2330", "R1", LocalTime.of(23, 30), 60), new RouteRun("R1-1800", "R1", LocalTime.of(18, 0), 60)),
+                List.of(bus), List.of(new BusDriver("DR1", "Driver 1")), List.of(route));
+        List<String> services = activityLogService.page(night, activityLogService.select(ActivityLogEntry.EntityType.BUS, "B1",
+                LocalTime.of(23, 0), LocalTime.of(2, 0)), null, 100).getEntries().stream()
+                .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.ROUTE_SERVICE).map(ActivityLogEntry::getDescription).toList();
+        assertEquals(List.of("Run R1-2330 (Route R1)", "Run R1-0110 (Route R1)"), services);
+    }
+}
@@ -0,0 +1,131 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.copyBundledData;
+import static com.bus.service.TestData.dataService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.BatchJobStatus;
+import com.bus.domain.BatchSolveResult;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolveJobStatus.State;
+import com.bus.domain.SolverConfig;
+
+class BatchSolveServiceTest {
+
+    // Holds each solve until the test releases it (or the batch is cancelled).
+    private static class HeldSchedulingService extends SchedulingService {
+        final BlockingQueue<CountDownLatch> started = new LinkedBlockingQueue<>();
+
+        @Override
+        SolveCheckpoint solveSingleThreaded(Dataset data, SolverConfig config, SolveListener listener) {
+            CountDownLatch release = new CountDownLatch(1);
+            started.add(release);
+            try {
+                while (!release.await(10, TimeUnit.MILLISECONDS)) {
+                    if (listener.isCancelled()) { throw new CancellationException("Solve cancelled while held"); }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while held");
+            }
+            return super.solveSingleThreaded(data, config, listener);
+        }
+    }
+
+    private BatchSolveService batchSolveService;
+
+    @AfterEach
+    void stop() {
+        batchSolveService.stop();
+    }
+
+    @Test
+    void everyConfigurationIsSolvedAsOnItsOwn() throws Exception {
+        batchSolveService = batchSolveService(new SchedulingService(), 2, 100);
+        SolverConfig strict = new SolverConfig();
+        strict.setMaxDrivingMinsPerDay(90);
+        SolverConfig slowCharging = new SolverConfig();
+        slowCharging.setChargingDurationMins(600);
+
+        BatchJobStatus submitted = batchSolveService.submit(List.of(new SolverConfig(), strict, slowCharging));
+        assertEquals(3, submitted.getConfigCount());
+        BatchJobStatus finished = awaitFinished(submitted.getBatchId());
+        assertEquals(State.COMPLETED, finished.getState());
+        assertEquals(3, finished.getSolvedCount());
+        assertEquals(0, finished.getFailedCount());
+
+        List<BatchSolveResult> results = batchSolveService.getResults(submitted.getBatchId(), 0, 100);
+        assertEquals(List.of(0, 1, 2), results.stream().map(BatchSolveResult::getIndex).toList());
+        assertEquals(List.of(1), batchSolveService.getResults(submitted.getBatchId(), 1, 1).stream().map(BatchSolveResult::getIndex).toList());
+        for (BatchSolveResult result : results) {
+            ScheduleSolution alone = batchSolveService.schedulingService.solveWithCheckpoint(batchSolveService.dataService.getDataset(),
+                    result.getSolverConfig(), SolveListener.NONE).solution;
+            assertEquals(alone.getScore(), result.getScore(), "configuration " + result.getIndex());
+            assertEquals(alone.getUnassignedRunCount(), result.getUnassignedRunCount());
+            assertNull(result.getError());
+        }
+    }
+
+    @Test
+    void queueBoundsTheBatchesAndCancelDropsWhatIsLeft() throws Exception {
+        HeldSchedulingService schedulingService = new HeldSchedulingService();
+        batchSolveService = batchSolveService(schedulingService, 1, 3);
+        BatchJobStatus first = batchSolveService.submit(Collections.nCopies(3, new SolverConfig()));
+        CountDownLatch running = schedulingService.started.poll(5, TimeUnit.SECONDS); // The one thread is busy, two wait
+        assertNotNull(running);
+        assertThrows(RejectedExecutionException.class, () -> batchSolveService.submit(Collections.nCopies(2, new SolverConfig())), "one place left");
+        assertThrows(IllegalArgumentException.class, () -> batchSolveService.submit(Collections.nCopies(4, new SolverConfig())), "larger than the queue");
+
+        BatchJobStatus cancelling = batchSolveService.cancel(first.getBatchId());
+        assertTrue(cancelling.isCancelRequested());
+        BatchJobStatus cancelled = awaitFinished(first.getBatchId());
+        assertEquals(State.CANCELLED, cancelled.getState());
+        assertEquals(0, cancelled.getSolvedCount());
+        assertTrue(batchSolveService.getResults(first.getBatchId(), 0, 100).isEmpty());
+
+        BatchJobStatus next = batchSolveService.submit(Collections.nCopies(3, new SolverConfig())); // The queue is free again
+        for (int i = 0; i < 3; i++) {
+            CountDownLatch release = schedulingService.started.poll(5, TimeUnit.SECONDS);
+            assertNotNull(release);
+            release.countDown();
+        }
+        assertEquals(State.COMPLETED, awaitFinished(next.getBatchId()).getState());
+        assertEquals(3, batchSolveService.getResults(next.getBatchId(), 0, 100).size());
+    }
+
+    private BatchJobStatus awaitFinished(String batchId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            BatchJobStatus status = batchSolveService.getStatus(batchId);
+            if (status.getState() != State.RUNNING) { return status; }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Batch " + batchId + " did not finish");
+    }
+
+    private static BatchSolveService batchSolveService(SchedulingService schedulingService, int parallelism, int queueCapacity) throws Exception {
+        BatchSolveService batchSolveService = new BatchSolveService();
+        batchSolveService.dataService = dataService(copyBundledData(), null);
+        batchSolveService.schedulingService = schedulingService;
+        batchSolveService.parallelism = parallelism;
+        batchSolveService.queueCapacity = queueCapacity;
+        batchSolveService.start();
+        return batchSolveService;
+    }
+}
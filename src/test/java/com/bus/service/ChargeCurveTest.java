@@ -0,0 +1,94 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.depot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.ChargeRate;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+class ChargeCurveTest {
+
+    @Test
+    void chargeFollowsTheRateOfEachBand() {
+        List<ChargeRate> fastThenSlow = List.of(new ChargeRate(0, 2), new ChargeRate(80, 0.5));
+        ChargeCurve curve = new ChargeCurve(100, fastThenSlow, 120);
+        assertEquals(80, curve.chargeAfter(0, 40));
+        assertEquals(90, curve.chargeAfter(80, 20));
+        assertEquals(20, curve.minutesToFull(90));
+        assertEquals(75, new ChargeCurve(100, null, 120).chargeAfter(50, 30), "Linear: empty to full in chargingDurationMins");
+        Bus invalid = new Bus();
+        assertThrows(IllegalArgumentException.class, () -> invalid.setChargeCurve(List.of(new ChargeRate(10, 2))));
+    }
+
+    @Test
+    void partialChargingTopsUpAlongTheChargeCurve() {
+        List<ChargeRate> fastThenSlow = List.of(new ChargeRate(0, 2), new ChargeRate(80, 0.5));
+        // 70 km leaves 15 km after the depot runs: a full charge takes the bus out until 08:50
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 70, 30);
+        BiFunction<Integer, List<ChargeRate>, List<Bus>> bus = (chargeKm, chargeCurve) -> {
+            Bus b1 = new Bus();
+            b1.setBusIdValue("B1");
+            b1.setDepotId("D1");
+            b1.setRangeKm(100);
+            b1.setCurrentChargeKm(chargeKm);
+            b1.setCurrentLocationId("D1");
+            b1.setChargeCurve(chargeCurve);
+            return List.of(b1);
+        };
+        Supplier<List<RouteRun>> runs = () -> List.of(new RouteRun("R1-0600", "R1", LocalTime.of(6, 0), 30),
+                new RouteRun("R1-0830", "R1", LocalTime.of(8, 30), 30));
+        List<BusDriver> drivers = List.of(new BusDriver("DR1", "Driver 1"));
+        BusDepot depot = depot("D1");
+        depot.setHasChargingStation(true);
+        BusTerminal terminal = new BusTerminal("T1", "North");
+        List<BusStop> stops = List.of(depot, terminal);
+        SolverConfig partial = new SolverConfig();
+        partial.setPartialCharging(true);
+
+        ScheduleSolution full = new SchedulingService().solveWithCheckpoint(runs.get(), bus.apply(100, fastThenSlow), drivers, List.of(route),
+                List.of(depot), stops, new SolverConfig(), SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0830 null null"), assignments(full));
+        ScheduleSolution toppedUp = new SchedulingService().solveWithCheckpoint(runs.get(), bus.apply(100, fastThenSlow), drivers, List.of(route),
+                List.of(depot), stops, partial, SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0830 B1 DR1"), assignments(toppedUp));
+        ActivityLogEntry charge = toppedUp.getActivityLog().stream()
+                .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.CHARGING).findFirst().orElseThrow();
+        assertEquals(LocalTime.of(6, 50), charge.getStartTime());
+        assertEquals(LocalTime.of(8, 2), charge.getEndTime(), "15 -> 80 km in 32.5 minutes, the last 20 km in 40");
+        assertEquals(15, charge.getStartChargeKm());
+        assertEquals(100, charge.getEndChargeKm());
+        ActivityLogEntry approach = toppedUp.getActivityLog().stream()
+                .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.TRAVEL_TO_START_TERMINAL).reduce((a, b) -> b).orElseThrow();
+        assertEquals(LocalTime.of(8, 15), approach.getStartTime(), "Plugged in until it has to leave");
+
+        // Without a charger at the depot, the bus tops up while it waits at a start terminal with one
+        depot.setHasChargingStation(false);
+        terminal.setHasChargingStation(true);
+        ScheduleSolution atTerminal = new SchedulingService().solveWithCheckpoint(runs.get().subList(0, 1), bus.apply(40, null), drivers,
+                List.of(route), List.of(depot), stops, partial, SolveListener.NONE).solution;
+        assertEquals(0, atTerminal.getUnassignedRunCount());
+        ActivityLogEntry terminalCharge = atTerminal.getActivityLog().stream()
+                .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.CHARGING).findFirst().orElseThrow();
+        assertEquals("Charging at T1", terminalCharge.getDescription());
+        assertEquals(35, terminalCharge.getStartChargeKm());
+        assertEquals(100, terminalCharge.getEndChargeKm());
+    }
+}
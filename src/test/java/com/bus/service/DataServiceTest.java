@@ -0,0 +1,50 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.copyBundledData;
+import static com.bus.service.TestData.dataService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.Bus;
+
+class DataServiceTest {
+
+    @Test
+    void dataDirectoryReloadSwapsOnlyValidData() throws Exception {
+        Path directory = copyBundledData();
+        DataService dataService = dataService(directory, null);
+        int busCount = dataService.getAllBuses().size();
+        Dataset before = dataService.getDataset();
+        assertSame(dataService.getAllBuses(), dataService.getAllBuses(), "lists are built once per version");
+
+        Files.writeString(directory.resolve("buses.json"),
+                "[{\"bus_id\": \"B9\", \"depotId\": \"D1\", \"rangeKm\": 250, \"currentChargeKm\": 250, \"currentLocationId\": \"D1\"}]");
+        dataService.reload();
+        assertEquals(List.of("B9"), dataService.getAllBuses().stream().map(Bus::getBusId).toList());
+        assertNotEquals(before.version(), dataService.getDataset().version(), "a reload is a new version");
+        assertEquals(busCount, before.buses().size(), "earlier version unchanged");
+
+        Files.writeString(directory.resolve("buses.json"),
+                "[{\"bus_id\": \"B10\", \"depotId\": \"NO-SUCH-DEPOT\", \"rangeKm\": 250}]");
+        IllegalStateException rejected = assertThrows(IllegalStateException.class, dataService::reload);
+        assertTrue(rejected.getMessage().contains("NO-SUCH-DEPOT"), rejected.getMessage());
+        assertEquals(List.of("B9"), dataService.getAllBuses().stream().map(Bus::getBusId).toList(), "previous data kept");
+
+        Files.writeString(directory.resolve("buses.json"),
+                "[\n  {\"bus_id\": \"B11\", \"depotId\": \"D1\", \"rangeKm\": 250},\n  {\"bus_id\": \"B11\", \"depotId\": \"D1\", \"rangeKm\": 250}\n]");
+        rejected = assertThrows(IllegalStateException.class, dataService::reload);
+        assertTrue(rejected.getMessage().contains("buses.json line 3"), rejected.getMessage());
+        assertEquals(2, dataService.getLoadStatus().getSuccessfulLoads());
+        assertEquals(2, dataService.getLoadStatus().getFailedReloads());
+        assertTrue(busCount > 1);
+    }
+}
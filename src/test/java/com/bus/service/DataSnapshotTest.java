@@ -0,0 +1,120 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.copyBundledData;
+import static com.bus.service.TestData.dataService;
+import static com.bus.service.TestData.depot;
+import static com.bus.service.TestData.setCoordinates;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.ChargeRate;
+import com.bus.domain.RouteRun;
+import com.bus.domain.TravelTimeBand;
+
+class DataSnapshotTest {
+
+    @Test
+    void dataSnapshotIsUsedOnlyWhileTheJsonFilesAreUnchanged() throws Exception {
+        Path directory = copyBundledData();
+        Path snapshot = directory.resolve("data.snapshot");
+        DataService fromJson = dataService(directory, snapshot);
+        assertFalse(fromJson.getLoadStatus().isLastLoadFromSnapshot());
+        assertTrue(Files.exists(snapshot), "written after the JSON load");
+
+        DataService fromSnapshot = dataService(directory, snapshot);
+        assertTrue(fromSnapshot.getLoadStatus().isLastLoadFromSnapshot());
+        assertEquals(fromJson.getAllBusStops().toString(), fromSnapshot.getAllBusStops().toString());
+        assertEquals(fromJson.getAllBusDepots().toString(), fromSnapshot.getAllBusDepots().toString());
+        assertEquals(fromJson.getAllBusRoutes().toString(), fromSnapshot.getAllBusRoutes().toString());
+        assertEquals(fromJson.getAllBusDrivers().toString(), fromSnapshot.getAllBusDrivers().toString());
+        assertEquals(fromJson.getRouteRunsToSchedule().toString(), fromSnapshot.getRouteRunsToSchedule().toString());
+        assertEquals(fromJson.getAllBuses().stream().map(bus -> bus.getBusId() + "@" + bus.getCurrentLocationId() + ":" + bus.getCurrentChargeKm()).toList(),
+                fromSnapshot.getAllBuses().stream().map(bus -> bus.getBusId() + "@" + bus.getCurrentLocationId() + ":" + bus.getCurrentChargeKm()).toList());
+        assertSame(fromSnapshot.getBusDepotById("D1"), fromSnapshot.getBusStopById("D1"), "depots are stops too");
+
+        Files.writeString(directory.resolve("buses.json"),
+                "[{\"bus_id\": \"B9\", \"depotId\": \"D1\", \"rangeKm\": 250, \"currentChargeKm\": 250, \"currentLocationId\": \"D1\"}]");
+        DataService afterEdit = dataService(directory, snapshot);
+        assertFalse(afterEdit.getLoadStatus().isLastLoadFromSnapshot(), "stale snapshot ignored");
+        assertEquals(List.of("B9"), afterEdit.getAllBuses().stream().map(Bus::getBusId).toList());
+        assertTrue(dataService(directory, snapshot).getLoadStatus().isLastLoadFromSnapshot(), "and rewritten");
+    }
+
+    @Test
+    void stopCoordinatesAreKept(@TempDir Path directory) throws IOException {
+        BusDepot depot = depot("D1");
+        List<BusStop> stops = List.of(depot, new BusTerminal("T1", "North"), new BusTerminal("T2", "Unmapped"));
+        setCoordinates(stops.get(0), 18.50, 73.85);
+        setCoordinates(stops.get(1), 18.52, 73.90);
+        Dataset readBack = writeAndRead(directory, Dataset.ofLists("v1", stops, List.of(depot), List.of(), List.of(), List.of(),
+                List.of(), List.of()));
+        assertEquals(18.52, readBack.busStop("T1").getLatitude());
+        assertEquals(73.90, readBack.busStop("T1").getLongitude());
+        assertFalse(readBack.busStop("T2").hasCoordinates());
+    }
+
+    @Test
+    void travelTimeBandsAreKept(@TempDir Path directory) throws IOException {
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 20, 30);
+        route.setTravelTimeBands(List.of(new TravelTimeBand(LocalTime.of(7, 0), LocalTime.of(10, 0), 1.5)));
+        BusDepot depot = depot("D1");
+        depot.setTravelTimeBands(List.of(new TravelTimeBand(LocalTime.of(22, 0), LocalTime.of(9, 0), 2))); // Past midnight
+        LocalTime departure = LocalTime.of(8, 0);
+        List<RouteRun> runs = List.of(new RouteRun("R1-0800", "R1", departure, route.travelTimeMinutesAt(departure)));
+        Dataset readBack = writeAndRead(directory, Dataset.ofLists("v1", List.of(depot), List.of(depot), List.of(), List.of(),
+                List.of(), List.of(route), runs));
+        assertEquals(45, readBack.busRoute("R1").travelTimeMinutesAt(departure));
+        assertEquals(LocalTime.of(8, 45), readBack.routeRunsToSchedule().get(0).getArrivalTime());
+        assertEquals(2, readBack.busDepot("D1").travelTimeFactorAt(60));
+    }
+
+    @Test
+    void chargerCountIsKept(@TempDir Path directory) throws IOException {
+        BusDepot depot = depot("D1");
+        depot.setHasChargingStation(true);
+        depot.setChargerCount(1);
+        Dataset readBack = writeAndRead(directory, Dataset.ofLists("v1", List.of(depot), List.of(depot), List.of(), List.of(),
+                List.of(), List.of(), List.of()));
+        assertEquals(1, readBack.busDepot("D1").getChargerCount());
+    }
+
+    @Test
+    void terminalChargersAndChargeCurvesAreKept(@TempDir Path directory) throws IOException {
+        BusTerminal terminal = new BusTerminal("T1", "North");
+        terminal.setHasChargingStation(true);
+        Bus bus = new Bus();
+        bus.setBusIdValue("B1");
+        bus.setDepotId("D1");
+        bus.setRangeKm(100);
+        bus.setCurrentChargeKm(100);
+        bus.setCurrentLocationId("D1");
+        bus.setChargeCurve(List.of(new ChargeRate(0, 2), new ChargeRate(80, 0.5)));
+        BusDepot depot = depot("D1");
+        Dataset readBack = writeAndRead(directory, Dataset.ofLists("v1", List.of(depot, terminal), List.of(depot), List.of(terminal),
+                List.of(bus), List.of(), List.of(), List.of()));
+        assertTrue(readBack.busTerminal("T1").isHasChargingStation());
+        assertEquals(0.5, readBack.bus("B1").getChargeCurve().get(1).getKmPerMinute());
+    }
+
+    private static Dataset writeAndRead(Path directory, Dataset data) throws IOException {
+        Path snapshot = directory.resolve("data.snapshot");
+        DataSnapshot.write(snapshot, data, 1);
+        return DataSnapshot.read(snapshot, 1, data.version());
+    }
+}
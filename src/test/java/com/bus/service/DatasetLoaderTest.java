@@ -0,0 +1,99 @@
+package com.bus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class DatasetLoaderTest {
+
+    // How the loader used to read route_runs_config.json: bound by ObjectMapper, each time through LocalTime.parse.
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record RunsEntry(String busRouteId, List<String> departureTimes) {}
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void routeRunsMatchObjectMapperBinding() throws Exception {
+        // "HH:mm" takes the character-buffer path; seconds, and the unknown fields around the departures, do not.
+        Path directory = dataWithRuns("""
+                [
+                    {"busRouteId": "R1", "note": {"added": ["by", "hand"]}, "departureTimes": ["00:00", "08:05", "23:59", "07:05:30"]},
+                    {"departureTimes": ["09:00:00", "12:30", "06:00:00.5"], "extra": [1, 2, {"x": null}], "busRouteId": "R2"},
+                    {"busRouteId": "R3", "departureTimes": [], "comment": "no runs today"}
+                ]
+                """);
+
+        Dataset dataset = DatasetLoader.load(objectMapper, directory, "v");
+
+        List<RouteRun> expected = boundRuns(dataset, directory);
+        List<RouteRun> actual = dataset.routeRunsToSchedule();
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(List.of("R1-0000", "R1-0805", "R1-2359", "R1-070530", "R2-0900", "R2-1230", "R2-060000.500"),
+                actual.stream().map(RouteRun::getId).toList());
+        for (RouteRun run : actual) {
+            assertEquals(DatasetLoader.runId(run.getBusRouteId(), run.getDepartureTime()), run.getId());
+        }
+    }
+
+    @Test
+    void unparseableDeparturesAreReported() throws Exception {
+        // Not "HH:mm", so these fall back to LocalTime.parse, which rejects them as it always has.
+        for (String departure : List.of("7:05", "24:00", "08:60", "08-05", "")) {
+            Path directory = dataWithRuns("[{\"busRouteId\": \"R1\", \"departureTimes\": [\"08:00\", \"" + departure + "\"]}]");
+            assertThrows(Exception.class, () -> LocalTime.parse(departure));
+
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> DatasetLoader.load(objectMapper, directory, "v"));
+            assertTrue(e.getMessage().contains("route_runs_config.json line 1")
+                    && e.getMessage().contains("invalid departure time " + departure), e.getMessage());
+        }
+    }
+
+    private List<RouteRun> boundRuns(Dataset dataset, Path directory) throws IOException {
+        List<RunsEntry> entries = objectMapper.readValue(directory.resolve("route_runs_config.json").toFile(), new TypeReference<List<RunsEntry>>() {});
+        List<RouteRun> runs = new ArrayList<>();
+        for (RunsEntry entry : entries) {
+            BusRoute route = dataset.busRoute(entry.busRouteId());
+            for (String time : entry.departureTimes()) {
+                LocalTime departureTime = LocalTime.parse(time);
+                runs.add(new RouteRun(route.getId() + "-" + departureTime.toString().replace(":", ""), route.getId(),
+                        departureTime, route.travelTimeMinutesAt(departureTime)));
+            }
+        }
+        return runs;
+    }
+
+    private static List<String> describe(List<RouteRun> runs) {
+        return runs.stream()
+                .map(run -> run.getId() + " " + run.getBusRouteId() + " " + run.getDepartureTime() + "-" + run.getArrivalTime())
+                .toList();
+    }
+
+    // The bundled data with route_runs_config.json replaced.
+    private static Path dataWithRuns(String routeRuns) throws IOException {
+        Path directory = Files.createTempDirectory("bus-data");
+        for (String file : List.of("bus_stops.json", "bus_depots.json", "bus_terminals.json", "buses.json",
+                "bus_drivers.json", "bus_routes.json")) {
+            try (InputStream in = DataService.class.getResourceAsStream("/data/" + file)) {
+                Files.copy(in, directory.resolve(file));
+            }
+        }
+        Files.writeString(directory.resolve("route_runs_config.json"), routeRuns);
+        return directory;
+    }
+}
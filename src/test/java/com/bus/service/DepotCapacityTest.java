@@ -0,0 +1,72 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.depot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+class DepotCapacityTest {
+
+    @Test
+    void depotChargersAndBaysAreBookedOverTheDay() {
+        // 70 km leaves 15 km after the depot runs, so each bus charges on returning
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 70, 30);
+        Function<String, List<Bus>> buses = secondBusLocation -> {
+            List<Bus> fleet = new ArrayList<>();
+            for (String location : List.of("D1", secondBusLocation)) {
+                Bus bus = new Bus();
+                bus.setBusIdValue("B" + (fleet.size() + 1));
+                bus.setDepotId("D1");
+                bus.setRangeKm(100);
+                bus.setCurrentChargeKm(100);
+                bus.setCurrentLocationId(location);
+                fleet.add(bus);
+            }
+            return fleet;
+        };
+        Supplier<List<RouteRun>> runs = () -> List.of(new RouteRun("R1-0600", "R1", LocalTime.of(6, 0), 30),
+                new RouteRun("R1-0605", "R1", LocalTime.of(6, 5), 30));
+        List<BusDriver> drivers = List.of(new BusDriver("DR1", "Driver 1"), new BusDriver("DR2", "Driver 2"));
+
+        BusDepot oneCharger = depot("D1");
+        oneCharger.setHasChargingStation(true);
+        oneCharger.setChargerCount(1);
+        ScheduleSolution queued = new SchedulingService().solveWithCheckpoint(runs.get(), buses.apply("D1"), drivers, List.of(route),
+                List.of(oneCharger), new SolverConfig(), SolveListener.NONE).solution;
+        assertEquals(0, queued.getUnassignedRunCount());
+        List<ActivityLogEntry> charging = queued.getActivityLog().stream()
+                .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.CHARGING).toList();
+        assertEquals(List.of(LocalTime.of(6, 50), LocalTime.of(8, 50)), charging.stream().map(ActivityLogEntry::getStartTime).sorted().toList());
+        ActivityLogEntry wait = queued.getActivityLog().stream()
+                .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.WAITING_IDLE).findFirst().orElseThrow();
+        assertEquals("Waiting for a charger at Depot D1", wait.getDescription());
+        assertEquals(LocalTime.of(6, 55), wait.getStartTime(), "Back at 06:55, the charger is busy until 08:50");
+        assertEquals(LocalTime.of(8, 50), wait.getEndTime());
+
+        BusDepot oneBay = depot("D1");
+        oneBay.setMaxCapacity(1);
+        ScheduleSolution parked = new SchedulingService().solveWithCheckpoint(runs.get(), buses.apply("T1"), drivers, List.of(route),
+                List.of(oneBay), new SolverConfig(), SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0605 null null"), assignments(parked),
+                "B2 at T1 has no bay to return to while B1 or its own first return holds the only one");
+        ScheduleSolution unlimited = new SchedulingService().solveWithCheckpoint(runs.get(), buses.apply("T1"), drivers, List.of(route),
+                List.of(depot("D1")), new SolverConfig(), SolveListener.NONE).solution;
+        assertEquals(0, unlimited.getUnassignedRunCount());
+    }
+}
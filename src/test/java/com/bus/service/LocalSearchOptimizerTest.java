@@ -0,0 +1,43 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.activityLog;
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.syntheticFleet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.service.TestData.Fleet;
+
+class LocalSearchOptimizerTest {
+
+    @Test
+    void resultThatDoesNotReplayKeepsTheConstruction() {
+        Fleet fleet = syntheticFleet(1);
+        SchedulingService schedulingService = new SchedulingService();
+        SolveCheckpoint constructed = schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, SolveListener.NONE);
+        List<String> assignments = assignments(constructed.solution);
+        List<String> log = activityLog(constructed.solution);
+        int score = constructed.engine.scoreTracker.score();
+        LocalSearchOptimizer optimizer = new LocalSearchOptimizer(fleet.buses, fleet.drivers, fleet.routes, schedulingService.serviceTime(), 100, 1, 1);
+        optimizer.index(constructed);
+        int runCount = constructed.solution.getAssignedRouteRuns().size();
+
+        // Every run on the first bus and driver: overlapping runs stop the replay part way
+        int[] first = new int[runCount];
+        assertSame(constructed, optimizer.replayOrKeep(constructed, first, first, score + 1));
+        assertEquals(assignments, assignments(constructed.solution), "runs assigned as constructed again");
+        assertEquals(log, activityLog(constructed.solution));
+
+        // Nothing assigned replays, but not to the score the search claims
+        int[] none = new int[runCount];
+        Arrays.fill(none, -1);
+        assertSame(constructed, optimizer.replayOrKeep(constructed, none, none, score + 1));
+        assertEquals(assignments, assignments(constructed.solution));
+        assertEquals(score, constructed.engine.scoreTracker.score());
+    }
+}
@@ -0,0 +1,83 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assertNoOverlaps;
+import static com.bus.service.TestData.syntheticFleet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+import com.bus.service.TestData.Fleet;
+
+class MinimumFleetBlocksTest {
+
+    @Test
+    void minimumFleetPlansBlocksAndRepairsCharging() {
+        // Each run holds its bus from 15 minutes before departure until 20 after arrival: two buses cover them
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 30, 30);
+        Function<Integer, List<Bus>> buses = rangeKm -> {
+            List<Bus> list = new ArrayList<>();
+            for (int i = 1; i <= 4; i++) {
+                Bus bus = new Bus();
+                bus.setBusIdValue("B" + i);
+                bus.setDepotId("D1");
+                bus.setRangeKm(rangeKm);
+                bus.setCurrentChargeKm(rangeKm);
+                bus.setCurrentLocationId("D1");
+                list.add(bus);
+            }
+            return list;
+        };
+        Supplier<List<RouteRun>> runs = () -> List.of("06:00", "06:30", "07:30", "08:00", "09:00", "09:30").stream()
+                .map(time -> new RouteRun("R1-" + time, "R1", LocalTime.parse(time), 30)).collect(Collectors.toList());
+        List<BusDriver> drivers = List.of(new BusDriver("DR1", "Driver 1"), new BusDriver("DR2", "Driver 2"), new BusDriver("DR3", "Driver 3"));
+        SolverConfig minimumFleet = new SolverConfig();
+        minimumFleet.setMinimumFleet(true);
+        int[] chainOfRun = new int[6];
+        ServiceTime clock = new ServiceTime(LocalTime.of(3, 0));
+        GreedyScheduler engine = new GreedyScheduler(buses.apply(1000), drivers, List.of(route), clock, ServiceAreas.UNRESTRICTED,
+                TravelMatrix.NONE, DepotCapacity.NONE, ChargingNetwork.NONE, minimumFleet);
+        assertEquals(2, MinimumFleetBlocks.plan(engine, runs.get(), chainOfRun));
+        assertEquals(List.of(0, 1, 0, 1, 0, 1), Arrays.stream(chainOfRun).boxed().toList());
+
+        ScheduleSolution planned = new SchedulingService().solveWithCheckpoint(runs.get(), buses.apply(1000), drivers, List.of(route),
+                List.of(), minimumFleet, SolveListener.NONE).solution;
+        assertEquals(2, planned.getMinimumFleetSize());
+        assertEquals(2, planned.getTotalBusesUsedCount());
+        assertEquals(0, planned.getUnassignedRunCount());
+        assertNull(new SchedulingService().solveSchedule(runs.get(), buses.apply(1000), drivers, List.of(route)).getMinimumFleetSize());
+
+        // 45 km per run on a 100 km bus: both charge after their second run, so 09:00 and 09:30 need two more
+        ScheduleSolution repaired = new SchedulingService().solveWithCheckpoint(runs.get(), buses.apply(100), drivers, List.of(route),
+                List.of(), minimumFleet, SolveListener.NONE).solution;
+        assertEquals(2, repaired.getMinimumFleetSize());
+        assertEquals(4, repaired.getTotalBusesUsedCount());
+        assertEquals(0, repaired.getUnassignedRunCount());
+        assertNoOverlaps(repaired, RouteRun::getAssignedBusId);
+
+        // Repairs never leave more buses (or unassigned runs) than the greedy blocks: those are kept instead
+        for (long seed = 1; seed <= 5; seed++) {
+            Fleet fleet = syntheticFleet(seed);
+            ScheduleSolution greedy = new SchedulingService().solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes);
+            ScheduleSolution fewest = new SchedulingService().solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers, fleet.routes,
+                    List.of(), minimumFleet, SolveListener.NONE).solution;
+            assertTrue(fewest.getTotalBusesUsedCount() <= greedy.getTotalBusesUsedCount(), "buses used, seed " + seed);
+            assertNoOverlaps(fewest, RouteRun::getAssignedBusId);
+        }
+    }
+}
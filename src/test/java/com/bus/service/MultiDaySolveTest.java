@@ -0,0 +1,69 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assignments;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+class MultiDaySolveTest {
+
+    @Test
+    void multiDayHorizonCarriesChargeAndWeeklyDrivingHours() {
+        // One 4-hour run a day, 45 km with the depot runs, back at the depot at 12:20
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 30, 240);
+        Bus bus = new Bus();
+        bus.setBusIdValue("B1");
+        bus.setDepotId("D1");
+        bus.setRangeKm(100);
+        bus.setCurrentChargeKm(100);
+        bus.setCurrentLocationId("D1");
+        List<RouteRun> runs = List.of(new RouteRun("R1-0800", "R1", LocalTime.of(8, 0), 240));
+        List<BusDriver> drivers = List.of(new BusDriver("DR1", "Driver 1"));
+        SolverConfig config = new SolverConfig();
+        config.setMaxDrivingMinsPerWeek(600);
+
+        // The weekly limit stops the third day's run: 480 minutes driven already, 240 more would exceed 600
+        List<ScheduleSolution> days = new ArrayList<>();
+        ExecutorService handOff = Executors.newSingleThreadExecutor();
+        try {
+            MultiDaySolve.solve(new SchedulingService(), runs, List.of(bus), drivers, List.of(route), List.of(), List.of(), config, 3,
+                    SolveListener.NONE, handOff, (day, solution) -> days.add(solution));
+        } finally {
+            handOff.shutdown();
+        }
+        assertEquals(List.of(1, 2, 3), days.stream().map(ScheduleSolution::getHorizonDay).toList());
+        assertEquals(List.of("R1-0800 B1 DR1"), assignments(days.get(0)));
+        assertEquals(List.of("R1-0800 B1 DR1"), assignments(days.get(1)));
+        assertEquals(1, days.get(2).getUnassignedRunCount());
+        assertNull(runs.get(0).getAssignedBusId(), "Each day solves copies of the runs");
+        assertEquals(100, bus.getCurrentChargeKm(), "The input data is only read");
+        assertEquals(0, drivers.get(0).getDrivingMinsThisWeek());
+
+        // 55 km left at the end of the day: full again overnight, unless charging takes longer than the night
+        SolveCheckpoint checkpoint = new SchedulingService().solveWithCheckpoint(List.of(new RouteRun("R1-0800", "R1", LocalTime.of(8, 0), 240)),
+                List.of(bus), drivers, List.of(route), List.of(), config, SolveListener.NONE);
+        Bus nextDay = MultiDaySolve.busesNextDay(checkpoint.engine, List.of(bus)).get(0);
+        assertEquals(100, nextDay.getCurrentChargeKm());
+        assertEquals("D1", nextDay.getCurrentLocationId());
+        assertEquals(240, MultiDaySolve.driversNextDay(checkpoint.engine, drivers, false).get(0).getDrivingMinsThisWeek());
+        assertEquals(0, MultiDaySolve.driversNextDay(checkpoint.engine, drivers, true).get(0).getDrivingMinsThisWeek(), "A new week starts from 0");
+        config.setChargingDurationMins(15 * 60);
+        checkpoint = new SchedulingService().solveWithCheckpoint(List.of(new RouteRun("R1-0800", "R1", LocalTime.of(8, 0), 240)),
+                List.of(bus), drivers, List.of(route), List.of(), config, SolveListener.NONE);
+        assertEquals(55, MultiDaySolve.busesNextDay(checkpoint.engine, List.of(bus)).get(0).getCurrentChargeKm());
+    }
+}
@@ -0,0 +1,19 @@
+package com.bus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class OccupancyTimelineTest {
+
+    @Test
+    void earliestFreeSkipsGapsTooShortForTheStay() {
+        OccupancyTimeline timeline = new OccupancyTimeline();
+        timeline.add(10, 20, 1);
+        timeline.add(25, 30, 1);
+        assertEquals(0, timeline.earliestFree(0, 10, 1));
+        assertEquals(30, timeline.earliestFree(5, 10, 1), "20-25 is too short");
+        assertEquals(0, timeline.earliestFree(0, 60, 2));
+        assertEquals(1, timeline.max(0, OccupancyTimeline.HORIZON));
+    }
+}
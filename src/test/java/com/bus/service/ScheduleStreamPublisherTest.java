@@ -0,0 +1,92 @@
+package com.bus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.RouteRun;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ScheduleStreamPublisherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void batchIsFlushedOnceItHoldsBatchSizeItems() throws Exception {
+        ScheduleStreamService streamService = streamService(3, 60_000);
+        List<String> received = subscribe(streamService, "J1");
+        ScheduleStreamPublisher publisher = streamService.publisherFor("J1");
+
+        publisher.onActivitiesLogged(run(0), List.of(entry(0)));
+        publisher.onRunProcessed(run(0), 1, 4, -100);
+        assertTrue(received.isEmpty(), "one run and one activity: 2 of 3 items");
+        publisher.onActivitiesLogged(run(1), List.of());
+        publisher.onRunProcessed(run(1), 2, 4, -200);
+        publisher.onRunProcessed(run(2), 3, 4, -300);
+        assertEquals(1, received.size());
+        publisher.onRunProcessed(run(3), 4, 4, -400);
+        assertEquals(1, received.size(), "next batch not full yet");
+
+        JsonNode batch = objectMapper.readTree(received.get(0));
+        assertEquals("BATCH", batch.get("type").asText());
+        assertEquals(2, batch.get("runs").size());
+        assertEquals(1, batch.get("activities").size());
+        assertEquals(2, batch.get("runsProcessed").asInt());
+        assertEquals(4, batch.get("totalRuns").asInt());
+        assertEquals(-200, batch.get("currentScore").asInt());
+    }
+
+    @Test
+    void batchIsFlushedOnceMaxBatchDelayHasPassed() throws Exception {
+        ScheduleStreamService streamService = streamService(1000, 200);
+        List<String> received = subscribe(streamService, "J1");
+        ScheduleStreamPublisher publisher = streamService.publisherFor("J1", false);
+
+        publisher.onActivitiesLogged(run(0), List.of(entry(0)));
+        publisher.onRunProcessed(run(0), 1, 3, -100);
+        assertTrue(received.isEmpty(), "well within the delay");
+        Thread.sleep(250);
+        publisher.onRunProcessed(run(1), 2, 3, -200);
+        assertEquals(1, received.size());
+        JsonNode batch = objectMapper.readTree(received.get(0));
+        assertEquals(2, batch.get("runs").size());
+        assertEquals(0, batch.get("activities").size(), "activities=false streams runs only");
+
+        publisher.onRunProcessed(run(2), 3, 3, -300);
+        assertEquals(1, received.size(), "delay starts again after a flush");
+    }
+
+    private List<String> subscribe(ScheduleStreamService streamService, String jobId) {
+        List<String> received = new ArrayList<>();
+        streamService.open(jobId);
+        streamService.subscribe(jobId, received::add);
+        return received;
+    }
+
+    static ScheduleStreamService streamService(int batchSize, long maxBatchDelayMs) {
+        ScheduleStreamService streamService = new ScheduleStreamService();
+        streamService.objectMapper = new ObjectMapper().findAndRegisterModules();
+        streamService.batchSize = batchSize;
+        streamService.maxBatchDelayMs = maxBatchDelayMs;
+        return streamService;
+    }
+
+    static RouteRun run(int index) {
+        return new RouteRun("R1-" + index, "R1", LocalTime.of(6, 0).plusMinutes(10 * index), 30);
+    }
+
+    static ActivityLogEntry entry(int index) {
+        ActivityLog log = new ActivityLog();
+        log.append(ActivityLogEntry.EntityType.BUS, "B1", ActivityLogEntry.ActivityType.ROUTE_SERVICE, 360 + 10 * index, 390 + 10 * index,
+                ActivityLog.Description.RUN, "R1-" + index, "R1");
+        return log.get(0);
+    }
+}
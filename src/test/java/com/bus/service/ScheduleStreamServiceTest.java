@@ -0,0 +1,107 @@
+package com.bus.service;
+
+import static com.bus.service.ScheduleStreamPublisherTest.entry;
+import static com.bus.service.ScheduleStreamPublisherTest.run;
+import static com.bus.service.ScheduleStreamPublisherTest.streamService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ScheduleStreamServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void lateSubscribersAreReplayedWhatTheyMissed() throws Exception {
+        ScheduleStreamService streamService = streamService(2, 60_000);
+        streamService.open("J1");
+        List<String> early = new ArrayList<>();
+        streamService.subscribe("J1", early::add);
+        ScheduleStreamPublisher publisher = streamService.publisherFor("J1");
+        List<RouteRun> runs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            runs.add(run(i));
+            publisher.onActivitiesLogged(run(i), List.of(entry(i)));
+            publisher.onRunProcessed(run(i), i + 1, 5, -100 * (i + 1));
+            if (i == 2) { assertEquals(3, early.size()); }
+        }
+
+        // Joins while the job runs: everything sent so far, then live
+        List<String> whileRunning = new ArrayList<>();
+        streamService.subscribe("J1", whileRunning::add);
+        assertEquals(early, whileRunning);
+
+        ScheduleSolution solution = new ScheduleSolution(runs);
+        ActivityLog log = new ActivityLog();
+        for (int i = 0; i < 5; i++) { log.add(entry(i)); }
+        solution.setActivityLog(log);
+        publisher.completed(solution);
+        assertEquals(early, whileRunning);
+        List<String> types = types(early);
+        assertEquals("COMPLETED", types.get(types.size() - 1));
+        assertSequential(early);
+
+        // Joins once the job is done: the solution in batches, then the final message
+        List<String> afterwards = new ArrayList<>();
+        streamService.subscribe("J1", afterwards::add);
+        assertEquals(List.of("BATCH", "BATCH", "BATCH", "COMPLETED"), types(afterwards));
+        assertSequential(afterwards);
+        assertEquals(runIds(early), runIds(afterwards));
+        assertEquals(5, objectMapper.readTree(afterwards.get(2)).get("runsProcessed").asInt());
+        assertEquals(objectMapper.readTree(early.get(early.size() - 1)).get("score"), objectMapper.readTree(afterwards.get(3)).get("score"));
+    }
+
+    @Test
+    void nothingIsDeliveredAfterTheFinalMessage() throws Exception {
+        ScheduleStreamService streamService = streamService(1, 60_000);
+        streamService.open("J1");
+        List<String> received = new ArrayList<>();
+        streamService.subscribe("J1", received::add);
+        ScheduleStreamPublisher publisher = streamService.publisherFor("J1");
+        publisher.onRunProcessed(run(0), 1, 2, -100);
+        publisher.cancelled();
+        publisher.onRunProcessed(run(1), 2, 2, -200);
+        publisher.failed("too late");
+        assertEquals(List.of("BATCH", "CANCELLED"), types(received));
+        assertSequential(received);
+
+        // A cancelled job has no solution: a late subscriber gets the final message only
+        List<String> late = new ArrayList<>();
+        streamService.subscribe("J1", late::add);
+        assertEquals(List.of("CANCELLED"), types(late));
+        assertEquals(0, objectMapper.readTree(late.get(0)).get("sequence").asLong());
+
+        streamService.discard("J1");
+        assertFalse(streamService.subscribe("J1", late::add), "no channel once the job is evicted");
+    }
+
+    private void assertSequential(List<String> messages) throws Exception {
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(i, objectMapper.readTree(messages.get(i)).get("sequence").asLong(), "sequence of message " + i);
+        }
+    }
+
+    private List<String> types(List<String> messages) throws Exception {
+        List<String> types = new ArrayList<>();
+        for (String message : messages) { types.add(objectMapper.readTree(message).get("type").asText()); }
+        return types;
+    }
+
+    private List<String> runIds(List<String> messages) throws Exception {
+        List<String> runIds = new ArrayList<>();
+        for (String message : messages) {
+            for (JsonNode run : objectMapper.readTree(message).get("runs")) { runIds.add(run.get("id").asText()); }
+        }
+        return runIds;
+    }
+}
@@ -0,0 +1,253 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.activityLog;
+import static com.bus.service.TestData.assertNoOverlaps;
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.dataService;
+import static com.bus.service.TestData.depot;
+import static com.bus.service.TestData.syntheticFleet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLog;
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleChange;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+import com.bus.service.TestData.Fleet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SchedulingServiceTest {
+
+    @Test
+    void bundledDataAssignmentsMatchGreedyBaseline() {
+        DataService dataService = new DataService();
+        dataService.objectMapper = new ObjectMapper();
+        dataService.initializeData();
+        SchedulingService schedulingService = new SchedulingService();
+        schedulingService.dataService = dataService;
+
+        ScheduleSolution solution = schedulingService.solveSchedule();
+
+        assertEquals(List.of(
+                "R1-0800 B0001 DR1",
+                "R2-0830 B0002 DR3",
+                "R1-0900 B0001 DR1",
+                "R3-0915 B0005 DR3",
+                "R2-1000 B0002 DR1",
+                "R3-1115 B0001 DR1",
+                "R2-1130 B0005 DR3"), assignments(solution));
+        assertEquals(-300, solution.getScore());
+        assertEquals(30, solution.getActivityLog().size());
+    }
+
+    @Test
+    void syntheticFleetMatchesLinearScanReference() {
+        for (long seed = 1; seed <= 5; seed++) {
+            ScheduleSolution expected = solveWith(seed, true);
+            ScheduleSolution actual = solveWith(seed, false);
+
+            assertEquals(assignments(expected), assignments(actual), "assignments, seed " + seed);
+            assertEquals(activityLog(expected), activityLog(actual), "activity log, seed " + seed);
+            assertEquals(expected.getScore(), actual.getScore(), "score, seed " + seed);
+            assertEquals(expected.getScoreExplanation(), actual.getScoreExplanation(), "score explanation, seed " + seed);
+        }
+    }
+
+    @Test
+    void serviceDayContinuesPastMidnight() {
+        BusRoute route = new BusRoute("R1", "Night line", "T1", "T1", List.of("T1"), 20, 60);
+        Bus bus = new Bus();
+        bus.setBusIdValue("B1");
+        bus.setDepotId("D1");
+        bus.setRangeKm(200);
+        bus.setCurrentChargeKm(200);
+        bus.setCurrentLocationId("D1");
+        List<RouteRun> runs = List.of(
+                new RouteRun("R1-0110", "R1", LocalTime.of(1, 10), 60),
+                new RouteRun("R1-2330", "R1", LocalTime.of(23, 30), 60));
+
+        ScheduleSolution solution = new SchedulingService().solveSchedule(runs, List.of(bus),
+                List.of(new BusDriver("DR1", "Driver 1")), List.of(route));
+
+        // 01:10 is the end of the 03:00 service day: the bus is back at the depot at 00:50 and makes it
+        assertEquals(List.of("R1-2330 B1 DR1", "R1-0110 B1 DR1"), assignments(solution));
+    }
+
+    @Test
+    void incrementalChangesKeepScheduleConsistent() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Fleet fleet = syntheticFleet(seed);
+            SchedulingService schedulingService = new SchedulingService();
+            SolveCheckpoint checkpoint = schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers,
+                    fleet.routes, SolveListener.NONE);
+            List<String> previousAssignments = assignments(checkpoint.solution);
+            RouteRun removed = checkpoint.solution.getAssignedRouteRuns().get(100);
+
+            SolveCheckpoint changed = schedulingService.resolveIncrementally(checkpoint, List.of(
+                    ScheduleChange.busUnavailable("B0001", LocalTime.of(10, 0)),
+                    ScheduleChange.driverUnavailable("DR2", null),
+                    ScheduleChange.runRemoved(removed.getId()),
+                    ScheduleChange.runAdded("EXTRA", "R1", LocalTime.of(16, 0))));
+
+            assertEquals(previousAssignments, assignments(checkpoint.solution), "previous solution untouched, seed " + seed);
+            ScheduleSolution solution = changed.solution;
+            assertEquals(fleet.runs.size(), solution.getAssignedRouteRuns().size(), "one run removed, one added, seed " + seed);
+            assertTrue(solution.getAssignedRouteRuns().stream().noneMatch(run -> run.getId().equals(removed.getId())));
+            for (RouteRun run : solution.getAssignedRouteRuns()) {
+                assertEquals(run.getAssignedBusId() == null, run.getAssignedDriverId() == null, "fully assigned or not at all: " + run);
+                assertTrue(!"B0001".equals(run.getAssignedBusId()) || !run.getArrivalTime().isAfter(LocalTime.of(10, 0)), "broken bus: " + run);
+                assertTrue(!"DR2".equals(run.getAssignedDriverId()), "sick driver: " + run);
+            }
+            long unassigned = solution.getAssignedRouteRuns().stream().filter(run -> run.getAssignedBusId() == null).count();
+            long busesUsed = solution.getAssignedRouteRuns().stream().map(RouteRun::getAssignedBusId).filter(Objects::nonNull).distinct().count();
+            assertEquals(-1000 * unassigned - 100 * busesUsed, solution.getScore(), "tracked score matches a recount, seed " + seed);
+            assertNoOverlaps(solution, RouteRun::getAssignedBusId);
+            assertNoOverlaps(solution, RouteRun::getAssignedDriverId);
+            // Exactly one ROUTE_SERVICE entry per assigned run and role
+            long assigned = solution.getAssignedRouteRuns().stream().filter(run -> run.getAssignedBusId() != null).count();
+            long serviceEntries = solution.getActivityLog().stream()
+                    .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.ROUTE_SERVICE).count();
+            assertEquals(2 * assigned, serviceEntries, "route service entries, seed " + seed);
+        }
+    }
+
+    @Test
+    void localSearchOnlyKeepsImprovementsThatReplay() {
+        for (long seed = 1; seed <= 3; seed++) {
+            Fleet fleet = syntheticFleet(seed);
+            int greedyScore = new SchedulingService().solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes).getScore();
+
+            fleet = syntheticFleet(seed);
+            SchedulingService schedulingService = new SchedulingService();
+            schedulingService.localSearchTimeLimitMillis = 300;
+            schedulingService.localSearchThreads = 2;
+            ScheduleSolution solution = schedulingService.solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes);
+
+            assertTrue(solution.getScore() >= greedyScore, "no worse than greedy, seed " + seed);
+            long unassigned = solution.getAssignedRouteRuns().stream().filter(run -> run.getAssignedBusId() == null).count();
+            long busesUsed = solution.getAssignedRouteRuns().stream().map(RouteRun::getAssignedBusId).filter(Objects::nonNull).distinct().count();
+            assertEquals(-1000 * unassigned - 100 * busesUsed, solution.getScore(), "score matches a recount, seed " + seed);
+            assertNoOverlaps(solution, RouteRun::getAssignedBusId);
+            assertNoOverlaps(solution, RouteRun::getAssignedDriverId);
+        }
+    }
+
+    @Test
+    void partitionedSolveMatchesSingleEngine() {
+        for (long seed = 1; seed <= 3; seed++) {
+            List<BusDepot> depots = List.of(depot("D1", "T1", "T2", "T3"), depot("D2", "T3", "T4", "T5"), depot("D3", "T6", "T7", "T8"));
+            ServiceAreas serviceAreas = ServiceAreas.of(depots);
+            Fleet fleet = syntheticFleet(seed);
+            fleet.drivers.forEach(driver -> driver.setDepotId(depots.get(Integer.parseInt(driver.getId().substring(2)) % 3).getId()));
+            assertEquals(2, NetworkPartitioner.partition(fleet.runs, fleet.buses, fleet.drivers, fleet.routes, serviceAreas).size(),
+                    "D1 and D2 share T3, D3 is on its own");
+            SchedulingService schedulingService = new SchedulingService();
+            schedulingService.partitionParallelism = 2;
+            ScheduleSolution partitioned = schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers,
+                    fleet.routes, depots, SolveListener.NONE).solution;
+
+            Fleet sameFleet = syntheticFleet(seed);
+            sameFleet.drivers.forEach(driver -> driver.setDepotId(depots.get(Integer.parseInt(driver.getId().substring(2)) % 3).getId()));
+            ServiceTime clock = new ServiceTime(LocalTime.of(3, 0));
+            GreedyScheduler engine = new GreedyScheduler(sameFleet.buses, sameFleet.drivers, sameFleet.routes, clock, serviceAreas,
+                    TravelMatrix.NONE, DepotCapacity.NONE, ChargingNetwork.NONE, new SolverConfig());
+            List<RouteRun> sortedRuns = new ArrayList<>(sameFleet.runs);
+            sortedRuns.sort(Comparator.comparingInt(clock::departureMinutes));
+            SchedulingService.constructSchedule(engine, sortedRuns, SolveListener.NONE, null);
+            ScheduleSolution single = new ScheduleSolution(sortedRuns);
+            single.setActivityLog(engine.activityLog);
+
+            assertEquals(assignments(single), assignments(partitioned), "assignments, seed " + seed);
+            assertEquals(activityLog(single), activityLog(partitioned), "activity log, seed " + seed);
+            assertEquals(engine.scoreTracker.score(), partitioned.getScore(), "score, seed " + seed);
+
+            // As a batch solves it: the parts one after another on the calling thread
+            Fleet batchFleet = syntheticFleet(seed);
+            batchFleet.drivers.forEach(driver -> driver.setDepotId(depots.get(Integer.parseInt(driver.getId().substring(2)) % 3).getId()));
+            Dataset data = new Dataset("v", inOrder(depots, BusStop::getId), inOrder(depots, BusDepot::getId), Map.of(),
+                    inOrder(batchFleet.buses, Bus::getBusId), inOrder(batchFleet.drivers, BusDriver::getId),
+                    inOrder(batchFleet.routes, BusRoute::getId), batchFleet.runs);
+            ScheduleSolution sequential = schedulingService.solveSingleThreaded(data, new SolverConfig(), SolveListener.NONE).solution;
+            assertEquals(assignments(partitioned), assignments(sequential), "single-threaded assignments, seed " + seed);
+            assertEquals(activityLog(partitioned), activityLog(sequential), "single-threaded activity log, seed " + seed);
+
+            Map<String, String> depotOfBus = fleet.buses.stream().collect(Collectors.toMap(Bus::getBusId, Bus::getDepotId));
+            Map<String, BusRoute> routes = fleet.routes.stream().collect(Collectors.toMap(BusRoute::getId, route -> route));
+            for (RouteRun run : partitioned.getAssignedRouteRuns()) {
+                if (run.getAssignedBusId() == null) { continue; }
+                String startTerminal = routes.get(run.getBusRouteId()).getStartTerminalId();
+                assertTrue(serviceAreas.servedTerminals(depotOfBus.get(run.getAssignedBusId())).contains(startTerminal), "bus area: " + run);
+            }
+        }
+    }
+
+    @Test
+    void columnarActivityLogReadsLikeEntryList() throws Exception {
+        Fleet fleet = syntheticFleet(1);
+        ScheduleSolution solution = new SchedulingService().solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers,
+                fleet.routes, SolveListener.NONE).solution;
+        ActivityLog log = (ActivityLog) solution.getActivityLog();
+        List<ActivityLogEntry> entries = new ArrayList<>(log);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        assertEquals(objectMapper.writeValueAsString(entries), objectMapper.writeValueAsString(log));
+
+        int logSize = log.size();
+        ActivityLog copy = new ActivityLog(log);
+        String busId = fleet.buses.get(0).getBusId();
+        copy.removeEntity(ActivityLogEntry.EntityType.BUS, busId);
+        copy.add(entries.get(0));
+        entries.removeIf(entry -> entry.getEntityType() == ActivityLogEntry.EntityType.BUS && entry.getEntityId().equals(busId));
+        entries.add(log.get(0));
+        assertEquals(entries.stream().map(Objects::toString).toList(), copy.stream().map(Objects::toString).toList());
+        assertEquals(logSize, log.size(), "copy is independent");
+
+        // A layered log reads like the copy after the same changes, entries dropped twice included
+        ActivityLog layered = ActivityLog.layeredOn(log);
+        String driverId = fleet.drivers.get(0).getId();
+        ActivityLog expected = new ActivityLog(log);
+        for (ActivityLog changed : List.of(layered, expected)) {
+            changed.removeEntity(ActivityLogEntry.EntityType.BUS, busId);
+            changed.append(ActivityLogEntry.EntityType.BUS, busId, ActivityLogEntry.ActivityType.WAITING_IDLE, 600, 610, ActivityLog.Description.CHARGER_WAIT, "D1", null);
+            changed.append(ActivityLogEntry.EntityType.DRIVER, driverId, ActivityLogEntry.ActivityType.WAITING_IDLE, 620, 630, ActivityLog.Description.CHARGER_WAIT, "D1", null);
+            changed.removeEntity(ActivityLogEntry.EntityType.BUS, busId);
+            int index = changed.append(ActivityLogEntry.EntityType.BUS, busId, ActivityLogEntry.ActivityType.WAITING_IDLE, 640, 650, ActivityLog.Description.CHARGER_WAIT, "D1", null);
+            changed.setEndChargeKm(index, 42);
+        }
+        assertEquals(expected.stream().map(Objects::toString).toList(), layered.stream().map(Objects::toString).toList());
+        assertEquals(logSize, log.size(), "base is only read");
+    }
+
+    // Keyed by id, in list order
+    private static <T> Map<String, T> inOrder(List<? extends T> items, Function<T, String> id) {
+        Map<String, T> map = new LinkedHashMap<>();
+        items.forEach(item -> map.put(id.apply(item), item));
+        return map;
+    }
+
+    private static ScheduleSolution solveWith(long seed, boolean reference) {
+        Fleet fleet = syntheticFleet(seed);
+        if (reference) {
+            return new LegacyGreedyScheduler().solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes);
+        }
+        return new SchedulingService().solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.solutionStore;
+import static com.bus.service.TestData.syntheticFleet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleChange;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionDiff;
+import com.bus.domain.SolutionSummary;
+import com.bus.service.TestData.Fleet;
+
+class SolutionStoreTest {
+
+    @Test
+    void solutionHistorySurvivesRestartAndDiffsAssignments() throws Exception {
+        Fleet fleet = syntheticFleet(1);
+        SchedulingService schedulingService = new SchedulingService();
+        SolveCheckpoint checkpoint = schedulingService.solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers,
+                fleet.routes, SolveListener.NONE);
+        SolveCheckpoint changed = schedulingService.resolveIncrementally(checkpoint,
+                List.of(ScheduleChange.busUnavailable("B0001", LocalTime.of(10, 0))));
+        Path directory = Files.createTempDirectory("bus-solutions");
+        SolutionStore store = solutionStore(directory);
+        checkpoint.solution.setSolutionId("first");
+        changed.solution.setSolutionId("second");
+        store.save(checkpoint.solution, SolutionSummary.Origin.JOB, null);
+        store.save(changed.solution, SolutionSummary.Origin.CHANGES, "first");
+
+        SolutionStore reopened = solutionStore(directory);
+        assertEquals(List.of("second", "first"), reopened.history().stream().map(SolutionSummary::getSolutionId).toList());
+        assertEquals("first", reopened.history().get(0).getBasedOnSolutionId());
+        ScheduleSolution first = reopened.get("first");
+        assertEquals(assignments(checkpoint.solution), assignments(first));
+        assertEquals(checkpoint.solution.getActivityLog().stream().map(Objects::toString).toList(),
+                first.getActivityLog().stream().map(Objects::toString).toList());
+        assertEquals(checkpoint.solution.getScoreExplanation(), first.getScoreExplanation());
+
+        SolutionDiff diff = reopened.diff("first", "second");
+        assertEquals(changed.solution.getScore() - checkpoint.solution.getScore(), diff.getScoreChange());
+        assertFalse(diff.getRunChanges().isEmpty());
+        SolutionDiff.ResourceChange brokenBus = diff.getBusChanges().stream().filter(bus -> bus.getId().equals("B0001")).findFirst().orElseThrow();
+        assertTrue(brokenBus.getRunsGained().isEmpty() && !brokenBus.getRunsLost().isEmpty(), "broken bus only loses runs");
+        for (SolutionDiff.RunChange runChange : diff.getRunChanges()) {
+            RouteRun before = first.getAssignedRouteRuns().stream().filter(run -> run.getId().equals(runChange.getRunId())).findFirst().orElseThrow();
+            assertEquals(before.getAssignedBusId(), runChange.getFromBusId());
+        }
+        assertTrue(diff.getRunsOnlyInFrom().isEmpty() && diff.getRunsOnlyInTo().isEmpty());
+    }
+
+    @Test
+    void reopenedSolutionKeepsActivitiesAfterMidnight() throws Exception {
+        BusRoute route = new BusRoute("R1", "Night line", "T1", "T1", List.of("T1"), 20, 60);
+        Bus bus = new Bus();
+        bus.setBusIdValue("B1");
+        bus.setDepotId("D1");
+        bus.setRangeKm(200);
+        bus.setCurrentChargeKm(200);
+        bus.setCurrentLocationId("D1");
+        ScheduleSolution night = new SchedulingService().solveSchedule(List.of(new RouteRun("R1-0030", "R1", LocalTime.of(0, 30), 60),
+                new RouteRun("R1-2230", "R1", LocalTime.of(22, 30), 60)), List.of(bus), List.of(new BusDriver("DR1", "Driver 1")), List.of(route));
+        Path directory = Files.createTempDirectory("bus-solutions");
+        night.setSolutionId("night");
+        solutionStore(directory).save(night, SolutionSummary.Origin.JOB, null);
+        ScheduleSolution reopened = solutionStore(directory).get("night");
+
+        ActivityLogService activityLogService = new ActivityLogService();
+        activityLogService.schedulingService = new SchedulingService();
+        for (LocalTime[] window : new LocalTime[][] {{LocalTime.of(22, 0), LocalTime.of(2, 0)}, {LocalTime.of(3, 0), LocalTime.of(10, 0)}, {null, null}}) {
+            ActivityLogService.Selection selection = activityLogService.select(ActivityLogEntry.EntityType.BUS, "B1", window[0], window[1]);
+            List<String> live = activityLogService.page(night, selection, null, 100).getEntries().stream().map(Object::toString).toList();
+            assertEquals(live, activityLogService.page(reopened, selection, null, 100).getEntries().stream().map(Object::toString).toList(),
+                    window[0] + "-" + window[1]);
+        }
+        assertTrue(activityLogService.page(reopened, activityLogService.select(ActivityLogEntry.EntityType.BUS, "B1", LocalTime.of(22, 0), LocalTime.of(2, 0)),
+                null, 100).getEntries().stream().anyMatch(entry -> entry.getDescription().equals("Run R1-0030 (Route R1)")));
+        assertTrue(activityLogService.page(reopened, activityLogService.select(ActivityLogEntry.EntityType.BUS, "B1", LocalTime.of(3, 0), LocalTime.of(10, 0)),
+                null, 100).getEntries().isEmpty(), "nothing in the morning");
+    }
+}
@@ -0,0 +1,112 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.copyBundledData;
+import static com.bus.service.TestData.dataService;
+import static com.bus.service.TestData.solutionStore;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolveCacheStats;
+import com.bus.domain.SolverConfig;
+
+class SolveCacheTest {
+
+    @Test
+    void solveCacheSolvesUnchangedInputsOnce() throws Exception {
+        Path directory = copyBundledData();
+        SolveCache solveCache = new SolveCache();
+        solveCache.dataService = dataService(directory, null);
+        solveCache.schedulingService = new SchedulingService();
+        solveCache.schedulingService.dataService = solveCache.dataService;
+        solveCache.solutionStore = solutionStore(null);
+        solveCache.capacity = 1;
+
+        ScheduleSolution first = solveCache.solve(new SolverConfig());
+        assertSame(first, solveCache.solve(new SolverConfig()));
+        solveCache.dataService.reload(); // New version, same content
+        assertSame(first, solveCache.solve(new SolverConfig()));
+        assertEquals(first.getSolutionId(), solveCache.solutionStore.latest().getSolutionId());
+
+        Files.writeString(directory.resolve("buses.json"),
+                "[{\"bus_id\": \"B9\", \"depotId\": \"D1\", \"rangeKm\": 250, \"currentChargeKm\": 40, \"currentLocationId\": \"D1\"}]");
+        solveCache.dataService.reload();
+        ScheduleSolution changed = solveCache.solve(new SolverConfig());
+        assertNotEquals(first.getSolutionId(), changed.getSolutionId());
+
+        CountDownLatch bothWaiting = new CountDownLatch(1);
+        AtomicInteger solves = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Supplier<SolveCheckpoint> slowSolve = () -> {
+                solves.incrementAndGet();
+                try { bothWaiting.await(10, TimeUnit.SECONDS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                return new SolveCheckpoint(new ScheduleSolution(), null);
+            };
+            Future<SolveCheckpoint> one = callers.submit(() -> solveCache.getOrSolve("same inputs", slowSolve, SolveListener.NONE));
+            while (solves.get() == 0) { Thread.sleep(1); }
+            Future<SolveCheckpoint> other = callers.submit(() -> solveCache.getOrSolve("same inputs", slowSolve, SolveListener.NONE));
+            while (solveCache.getStats().getCoalesced() == 0) { Thread.sleep(1); }
+            bothWaiting.countDown();
+            assertSame(one.get(), other.get());
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, solves.get());
+        SolveCacheStats stats = solveCache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getCoalesced());
+        assertEquals(3, stats.getMisses());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void waiterSolvesItselfWhenTheSolveItWaitsForIsCancelled() throws Exception {
+        SolveCache solveCache = new SolveCache();
+        SolveCheckpoint solved = new SolveCheckpoint(new ScheduleSolution(), null);
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicInteger solves = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<SolveCheckpoint> cancelled = callers.submit(() -> solveCache.getOrSolve("same inputs", () -> {
+                solves.incrementAndGet();
+                try { waiting.await(10, TimeUnit.SECONDS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                throw new CancellationException("Solve cancelled");
+            }, SolveListener.NONE));
+            while (solves.get() == 0) { Thread.sleep(1); }
+            Future<SolveCheckpoint> waiter = callers.submit(() -> solveCache.getOrSolve("same inputs", () -> {
+                solves.incrementAndGet();
+                return solved;
+            }, SolveListener.NONE));
+            while (solveCache.getStats().getCoalesced() == 0) { Thread.sleep(1); }
+            waiting.countDown();
+
+            ExecutionException e = assertThrows(ExecutionException.class, cancelled::get);
+            assertInstanceOf(CancellationException.class, e.getCause());
+            assertSame(solved, waiter.get());
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(2, solves.get());
+        assertSame(solved, solveCache.getOrSolve("same inputs", () -> { throw new AssertionError("solved again"); }, SolveListener.NONE),
+                "the waiter's solve is kept");
+    }
+}
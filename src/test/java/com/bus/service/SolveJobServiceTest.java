@@ -0,0 +1,260 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.copyBundledData;
+import static com.bus.service.TestData.dataService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolutionSummary;
+import com.bus.domain.SolveJobStatus;
+import com.bus.domain.SolveJobStatus.State;
+import com.bus.domain.SolverConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SolveJobServiceTest {
+
+    // Holds each solve until the test releases it (or the job is cancelled). A job solves one run, a horizon day the data given.
+    private static class HeldSchedulingService extends SchedulingService {
+        final BlockingQueue<CountDownLatch> started = new LinkedBlockingQueue<>();
+
+        @Override
+        SolveCheckpoint solveWithCheckpoint(Dataset data, SolverConfig config, SolveListener listener) {
+            BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 30, 30);
+            Bus bus = new Bus();
+            bus.setBusIdValue("B1");
+            bus.setDepotId("D1");
+            bus.setRangeKm(200);
+            bus.setCurrentChargeKm(200);
+            bus.setCurrentLocationId("D1");
+            return solveWithCheckpoint(List.of(new RouteRun("R1-0600", "R1", LocalTime.of(6, 0), 30)), List.of(bus),
+                    List.of(new BusDriver("DR1", "Driver 1")), List.of(route), List.of(), config, listener);
+        }
+
+        @Override
+        SolveCheckpoint solveWithCheckpoint(List<RouteRun> originalRunsToSchedule, List<Bus> allBuses, List<BusDriver> allDrivers,
+                                            List<BusRoute> allRoutes, List<BusDepot> allDepots, List<? extends BusStop> allStops,
+                                            SolverConfig config, SolveListener listener) {
+            CountDownLatch release = new CountDownLatch(1);
+            started.add(release);
+            try {
+                while (!release.await(10, TimeUnit.MILLISECONDS)) {
+                    if (listener.isCancelled()) { throw new CancellationException("Solve cancelled while held"); }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while held");
+            }
+            return super.solveWithCheckpoint(originalRunsToSchedule, allBuses, allDrivers, allRoutes, allDepots, allStops, config, listener);
+        }
+
+        // The next solve to start, released at once
+        void releaseNext() throws InterruptedException {
+            CountDownLatch release = started.poll(5, TimeUnit.SECONDS);
+            assertNotNull(release, "a solve started");
+            release.countDown();
+        }
+    }
+
+    private final HeldSchedulingService schedulingService = new HeldSchedulingService();
+    private SolveJobService jobs;
+
+    @BeforeEach
+    void start() throws IOException {
+        jobs = solveJobService(schedulingService);
+    }
+
+    @AfterEach
+    void stop() {
+        jobs.stop();
+    }
+
+    @Test
+    void queueIsBoundedAndCancelledJobsFreeTheirSlot() throws Exception {
+        SolveJobStatus running = jobs.submit(true, new SolverConfig());
+        CountDownLatch runningRelease = schedulingService.started.poll(5, TimeUnit.SECONDS); // The one worker is busy
+        assertNotNull(runningRelease);
+        SolveJobStatus queued = jobs.submit(true, new SolverConfig());
+        assertEquals(State.QUEUED, jobs.getStatus(queued.getJobId()).getState());
+        assertThrows(RejectedExecutionException.class, () -> jobs.submit(true, new SolverConfig()), "queue of one is full");
+
+        // A queued job is cancelled on the spot and gives its place in the queue back
+        assertEquals(State.CANCELLED, jobs.cancel(queued.getJobId()).getState());
+        SolveJobStatus next = jobs.submit(true, new SolverConfig());
+
+        // A running job stops at the next run it looks at
+        SolveJobStatus cancelling = jobs.cancel(running.getJobId());
+        assertEquals(State.RUNNING, cancelling.getState());
+        assertTrue(cancelling.isCancelRequested());
+        assertEquals(State.CANCELLED, awaitFinished(running.getJobId()).getState());
+        assertNull(jobs.getResult(running.getJobId()));
+
+        schedulingService.releaseNext();
+        assertEquals(State.COMPLETED, awaitFinished(next.getJobId()).getState());
+        assertEquals(1, jobs.getResult(next.getJobId()).getAssignedRouteRuns().size());
+        assertEquals(State.COMPLETED, jobs.cancel(next.getJobId()).getState(), "a finished job cannot be cancelled");
+    }
+
+    @Test
+    void onlyTheNewestFinishedJobsAreKept() throws Exception {
+        String[] jobIds = new String[3];
+        for (int i = 0; i < jobIds.length; i++) {
+            jobIds[i] = jobs.submit(true, new SolverConfig()).getJobId();
+            schedulingService.releaseNext();
+            assertEquals(State.COMPLETED, awaitFinished(jobIds[i]).getState());
+        }
+        assertNull(jobs.getStatus(jobIds[0]), "evicted once more than two finished jobs piled up");
+        assertNull(jobs.getResult(jobIds[0]));
+        assertEquals(State.COMPLETED, jobs.getStatus(jobIds[1]).getState());
+        assertEquals(State.COMPLETED, jobs.getStatus(jobIds[2]).getState());
+        assertFalse(jobs.scheduleStreamService.subscribe(jobIds[0], json -> {}), "stream dropped with the job");
+        assertTrue(jobs.scheduleStreamService.subscribe(jobIds[2], json -> {}));
+    }
+
+    @Test
+    void identicalJobsAreSolvedOnce() throws Exception {
+        jobs.solveCache.capacity = 1;
+        SolveJobStatus first = jobs.submit(true, new SolverConfig());
+        schedulingService.releaseNext();
+        assertEquals(State.COMPLETED, awaitFinished(first.getJobId()).getState());
+
+        // Not held: the second job finds the first one's solution
+        SolveJobStatus second = jobs.submit(true, new SolverConfig());
+        assertEquals(State.COMPLETED, awaitFinished(second.getJobId()).getState());
+        assertNull(schedulingService.started.poll(), "solved once");
+        ScheduleSolution solution = jobs.getResult(second.getJobId());
+        assertSame(jobs.getResult(first.getJobId()), solution);
+        assertEquals(first.getJobId(), solution.getSolutionId(), "stored once, under the first job's id");
+        assertEquals(1, jobs.solutionStore.history().size());
+        assertEquals(1, jobs.solveCache.getStats().getHits());
+
+        SolverConfig otherConfig = new SolverConfig();
+        otherConfig.setMandatoryBreakMins(45);
+        SolveJobStatus other = jobs.submit(true, otherConfig);
+        schedulingService.releaseNext();
+        assertEquals(State.COMPLETED, awaitFinished(other.getJobId()).getState());
+        assertEquals(other.getJobId(), jobs.getResult(other.getJobId()).getSolutionId());
+    }
+
+    @Test
+    void horizonJobListsEachDayAndStopsWhenCancelled() throws Exception {
+        jobs.horizonSolveService = horizonSolveService(jobs);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> jobs.submitHorizon(new SolverConfig(), 29), "more than max-days");
+
+            SolveJobStatus horizon = jobs.submitHorizon(new SolverConfig(), 3);
+            assertEquals(3, horizon.getHorizonDays());
+            assertEquals(List.of(), horizon.getDays());
+            schedulingService.releaseNext();
+            schedulingService.releaseNext();
+            CountDownLatch thirdDay = schedulingService.started.poll(5, TimeUnit.SECONDS);
+            assertNotNull(thirdDay, "day 3 started");
+            List<SolutionSummary> days = awaitDays(horizon.getJobId(), 2);
+            assertEquals(days.get(0).getSolutionId(), days.get(1).getBasedOnSolutionId());
+            assertNotNull(jobs.solutionStore.get(days.get(1).getSolutionId()), "each day is in the history");
+
+            // Day 3 stops where it is held; the days before it stay stored
+            assertTrue(jobs.cancel(horizon.getJobId()).isCancelRequested());
+            SolveJobStatus cancelled = awaitFinished(horizon.getJobId());
+            assertEquals(State.CANCELLED, cancelled.getState());
+            assertEquals(days.stream().map(SolutionSummary::getSolutionId).toList(),
+                    cancelled.getDays().stream().map(SolutionSummary::getSolutionId).toList());
+            assertNull(jobs.getResult(horizon.getJobId()));
+
+            SolveJobStatus oneDay = jobs.submitHorizon(new SolverConfig(), 1);
+            schedulingService.releaseNext();
+            SolveJobStatus completed = awaitFinished(oneDay.getJobId());
+            assertEquals(State.COMPLETED, completed.getState());
+            assertEquals(1, completed.getDays().size());
+            ScheduleSolution lastDay = jobs.getResult(oneDay.getJobId());
+            assertEquals(1, lastDay.getHorizonDay());
+            assertEquals(completed.getDays().get(0).getSolutionId(), lastDay.getSolutionId());
+            assertThrows(IllegalStateException.class, () -> jobs.applyChanges(oneDay.getJobId(), List.of()),
+                    "a horizon has no engine state to change");
+        } finally {
+            jobs.horizonSolveService.stop();
+        }
+    }
+
+    private List<SolutionSummary> awaitDays(String jobId, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            List<SolutionSummary> days = jobs.getStatus(jobId).getDays();
+            if (days.size() >= count) { return days; }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Job " + jobId + " did not store " + count + " days");
+    }
+
+    private SolveJobStatus awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            SolveJobStatus status = jobs.getStatus(jobId);
+            if (status.getState() != State.QUEUED && status.getState() != State.RUNNING) { return status; }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    // On the jobs' data, storing each day with their solutions.
+    private static HorizonSolveService horizonSolveService(SolveJobService jobs) {
+        HorizonSolveService horizon = new HorizonSolveService();
+        horizon.dataService = jobs.solveCache.dataService;
+        horizon.schedulingService = jobs.schedulingService;
+        horizon.solutionStore = jobs.solutionStore;
+        horizon.start();
+        return horizon;
+    }
+
+    // One worker, a queue of one and two finished jobs kept; the solve cache is off.
+    private static SolveJobService solveJobService(SchedulingService schedulingService) throws IOException {
+        ScheduleStreamService streamService = new ScheduleStreamService();
+        streamService.objectMapper = new ObjectMapper().findAndRegisterModules();
+        streamService.batchSize = 250;
+        streamService.maxBatchDelayMs = 200;
+        SolutionStore solutionStore = new SolutionStore();
+        solutionStore.objectMapper = streamService.objectMapper;
+        solutionStore.solutionsDirectory = Optional.empty();
+        solutionStore.open();
+        SolveJobService jobs = new SolveJobService();
+        jobs.schedulingService = schedulingService;
+        jobs.scheduleStreamService = streamService;
+        jobs.solutionStore = solutionStore;
+        jobs.solveCache = new SolveCache();
+        jobs.solveCache.dataService = dataService(copyBundledData(), null);
+        jobs.solveCache.schedulingService = schedulingService;
+        jobs.solveCache.solutionStore = solutionStore;
+        jobs.solveCache.capacity = 0;
+        jobs.workerThreads = 1;
+        jobs.queueCapacity = 1;
+        jobs.retainedFinishedJobs = 2;
+        jobs.start();
+        return jobs;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assertNoOverlaps;
+import static com.bus.service.TestData.syntheticFleet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+import com.bus.service.TestData.Fleet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SolverConfigServiceTest {
+
+    @Test
+    void solverConfigOverridesAreCheckedAndApplied() {
+        SolverConfigService solverConfigService = new SolverConfigService();
+        solverConfigService.objectMapper = new ObjectMapper();
+        assertEquals(new SolverConfig().toString(), solverConfigService.resolve(" ").toString());
+        SolverConfig strict = solverConfigService.resolve("{\"maxDrivingMinsPerDay\": 90, \"busUsedWeight\": 0}");
+        assertEquals(90, strict.getMaxDrivingMinsPerDay());
+        assertEquals(new SolverConfig().getMandatoryBreakMins(), strict.getMandatoryBreakMins());
+        for (String invalid : List.of("{\"maxBreakMins\": 1}", "{\"mandatoryBreakMins\": -5}", "{\"mandatoryBreakMins\": \"long\"}",
+                "[1]", "{\"unassignedRunWeight\": 10}")) {
+            assertThrows(IllegalArgumentException.class, () -> solverConfigService.resolve(invalid), invalid);
+        }
+
+        Fleet fleet = syntheticFleet(5);
+        ScheduleSolution byDefault = new SchedulingService().solveSchedule(fleet.runs, fleet.buses, fleet.drivers, fleet.routes);
+        Fleet sameFleet = syntheticFleet(5);
+        ScheduleSolution strictSolution = new SchedulingService().solveWithCheckpoint(sameFleet.runs, sameFleet.buses,
+                sameFleet.drivers, sameFleet.routes, List.of(), strict, SolveListener.NONE).solution;
+        assertSame(strict, strictSolution.getSolverConfig());
+        assertTrue(strictSolution.getUnassignedRunCount() > byDefault.getUnassignedRunCount());
+        assertEquals(-1000 * strictSolution.getUnassignedRunCount(), strictSolution.getScore()); // Buses are free
+        assertNoOverlaps(strictSolution, RouteRun::getAssignedDriverId);
+        Map<String, Integer> travelMinutes = sameFleet.routes.stream().collect(Collectors.toMap(BusRoute::getId, BusRoute::getTravelTimeMinutes));
+        Map<String, Integer> drivingMinutes = strictSolution.getAssignedRouteRuns().stream().filter(run -> run.getAssignedDriverId() != null)
+                .collect(Collectors.groupingBy(RouteRun::getAssignedDriverId, Collectors.summingInt(run -> travelMinutes.get(run.getBusRouteId()))));
+        drivingMinutes.forEach((driverId, minutes) -> assertTrue(minutes <= 90, driverId + " drives " + minutes + " minutes"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.bus.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Fixtures shared by the service tests.
+final class TestData {
+
+    // 400 runs on 20 routes between 8 terminals, for 40 buses at 3 depots and 60 drivers.
+    static final class Fleet {
+        final List<RouteRun> runs;
+        final List<Bus> buses;
+        final List<BusDriver> drivers;
+        final List<BusRoute> routes;
+
+        private Fleet(List<RouteRun> runs, List<Bus> buses, List<BusDriver> drivers, List<BusRoute> routes) {
+            this.runs = runs;
+            this.buses = buses;
+            this.drivers = drivers;
+            this.routes = routes;
+        }
+    }
+
+    private TestData() {
+    }
+
+    // The same seed always gives the same fleet, in new objects.
+    static Fleet syntheticFleet(long seed) {
+        Random random = new Random(seed);
+        List<String> terminals = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) { terminals.add("T" + i); }
+        List<String> depots = List.of("D1", "D2", "D3");
+
+        List<BusRoute> routes = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            String start = terminals.get(random.nextInt(terminals.size()));
+            String end = terminals.get(random.nextInt(terminals.size()));
+            routes.add(new BusRoute("R" + i, "Route " + i, start, end, List.of(start, end),
+                    5 + random.nextInt(40), 15 + random.nextInt(90)));
+        }
+        List<Bus> buses = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            Bus bus = new Bus();
+            bus.setBusIdValue(String.format("B%04d", i));
+            bus.setNumberPlateValue("MH12" + i);
+            bus.setDepotId(depots.get(random.nextInt(depots.size())));
+            bus.setRangeKm(150 + random.nextInt(150));
+            bus.setCurrentChargeKm(60 + random.nextInt(bus.getRangeKm() - 60));
+            bus.setCurrentLocationId(random.nextInt(3) == 0 ? terminals.get(random.nextInt(terminals.size())) : bus.getDepotId());
+            buses.add(bus);
+        }
+        List<BusDriver> drivers = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) { drivers.add(new BusDriver("DR" + i, "Driver " + i)); }
+        List<RouteRun> runs = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            BusRoute route = routes.get(random.nextInt(routes.size()));
+            // Daytime departures, 05:00 to 16:59; each seed must keep giving the same fleet
+            LocalTime departure = LocalTime.of(5, 0).plusMinutes(random.nextInt(12 * 60));
+            runs.add(new RouteRun(route.getId() + "-" + i, route.getId(), departure, route.getTravelTimeMinutes()));
+        }
+        return new Fleet(runs, buses, drivers, routes);
+    }
+
+    // "runId busId driverId" for each run, in solution order.
+    static List<String> assignments(ScheduleSolution solution) {
+        return solution.getAssignedRouteRuns().stream()
+                .map(run -> run.getId() + " " + run.getAssignedBusId() + " " + run.getAssignedDriverId())
+                .collect(Collectors.toList());
+    }
+
+    // Each entry's toString, in log order.
+    static List<String> activityLog(ScheduleSolution solution) {
+        return solution.getActivityLog().stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    // A temporary directory holding a copy of the bundled data files.
+    static Path copyBundledData() throws IOException {
+        Path directory = Files.createTempDirectory("bus-data");
+        for (String file : List.of("bus_stops.json", "bus_depots.json", "bus_terminals.json", "buses.json",
+                "bus_drivers.json", "bus_routes.json", "route_runs_config.json")) {
+            try (InputStream in = DataService.class.getResourceAsStream("/data/" + file)) {
+                Files.copy(in, directory.resolve(file));
+            }
+        }
+        return directory;
+    }
+
+    // Loaded from directory, not watched; with a snapshot file if one is given.
+    static DataService dataService(Path directory, Path snapshot) {
+        DataService dataService = new DataService();
+        dataService.objectMapper = new ObjectMapper();
+        dataService.dataDirectory = Optional.of(directory.toString());
+        dataService.snapshotFile = Optional.ofNullable(snapshot).map(Path::toString);
+        dataService.watchDataDirectory = false;
+        dataService.initializeData();
+        return dataService;
+    }
+
+    // Fails if a resource has a run that starts before its previous one arrives.
+    static void assertNoOverlaps(ScheduleSolution solution, Function<RouteRun, String> resource) {
+        Map<String, List<RouteRun>> runsByResource = solution.getAssignedRouteRuns().stream()
+                .filter(run -> resource.apply(run) != null)
+                .collect(Collectors.groupingBy(resource));
+        runsByResource.forEach((id, runs) -> {
+            for (int i = 1; i < runs.size(); i++) {
+                assertTrue(!runs.get(i).getDepartureTime().isBefore(runs.get(i - 1).getArrivalTime()), id + " double-booked at " + runs.get(i));
+            }
+        });
+    }
+
+    // Serving only the given terminals, or every terminal when none are given.
+    static BusDepot depot(String id, String... servedTerminalIds) {
+        BusDepot depot = new BusDepot(id, "Depot " + id, 100);
+        depot.setServedTerminalIds(List.of(servedTerminalIds));
+        return depot;
+    }
+
+    static void setCoordinates(BusStop stop, double latitude, double longitude) {
+        stop.setLatitude(latitude);
+        stop.setLongitude(longitude);
+    }
+
+    // Kept in directory, or in memory only when it is null.
+    static SolutionStore solutionStore(Path directory) {
+        SolutionStore store = new SolutionStore();
+        store.objectMapper = new ObjectMapper().findAndRegisterModules();
+        store.solutionsDirectory = Optional.ofNullable(directory).map(Path::toString);
+        store.open();
+        return store;
+    }
+}
@@ -0,0 +1,81 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.depot;
+import static com.bus.service.TestData.setCoordinates;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.BusStop;
+import com.bus.domain.BusTerminal;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+
+class TravelMatrixTest {
+
+    @Test
+    void travelMatrixGivesDeadheadsAndRepositionsBuses() {
+        BusDepot depot = depot("D1");
+        List<BusStop> stops = List.of(depot, new BusTerminal("T1", "North"), new BusTerminal("T2", "East"), new BusTerminal("T3", "Unmapped"));
+        setCoordinates(stops.get(0), 18.50, 73.85);
+        setCoordinates(stops.get(1), 18.52, 73.85);
+        setCoordinates(stops.get(2), 18.52, 73.90);
+        TravelMatrix travel = TravelMatrix.between(stops.subList(0, 3), new SolverConfig());
+        assertEquals(3, travel.distanceKm("D1", "T1")); // 2.22 km apart, 2.89 km by road
+        assertEquals(7, travel.minutes("T1", "D1"));
+        assertEquals(17, travel.minutes("T2", "T1"));
+        assertEquals(travel.minutes("T1", "T2"), travel.minutes("T2", "T1"));
+        assertEquals(0, travel.minutes("T2", "T2"));
+        assertEquals(TravelMatrix.UNKNOWN, travel.minutes("T1", "T3"));
+
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 20, 30);
+        Supplier<List<Bus>> buses = () -> {
+            Bus atDepot = new Bus();
+            atDepot.setBusIdValue("B1");
+            atDepot.setDepotId("D1");
+            atDepot.setRangeKm(200);
+            atDepot.setCurrentChargeKm(200);
+            atDepot.setCurrentLocationId("D1");
+            Bus parkedAway = new Bus();
+            parkedAway.setBusIdValue("B2");
+            parkedAway.setDepotId("D1");
+            parkedAway.setRangeKm(200);
+            parkedAway.setCurrentChargeKm(200);
+            parkedAway.setCurrentLocationId("T2");
+            return List.of(atDepot, parkedAway);
+        };
+        Supplier<List<RouteRun>> runs = () -> List.of(new RouteRun("R1-0600", "R1", LocalTime.of(6, 0), 30),
+                new RouteRun("R1-0610", "R1", LocalTime.of(6, 10), 30));
+        List<BusDriver> drivers = List.of(new BusDriver("DR1", "Driver 1"), new BusDriver("DR2", "Driver 2"));
+        SolverConfig repositioning = new SolverConfig();
+        repositioning.setRepositionBuses(true);
+
+        ScheduleSolution fixed = new SchedulingService().solveWithCheckpoint(runs.get(), buses.get(), drivers, List.of(route),
+                List.of(depot), stops, new SolverConfig(), SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0610 null null"), assignments(fixed), "B2 is not at a depot or T1");
+        ActivityLogEntry approach = fixed.getActivityLog().stream()
+                .filter(entry -> entry.getActivityType() == ActivityLogEntry.ActivityType.TRAVEL_TO_START_TERMINAL).findFirst().orElseThrow();
+        assertEquals(approach.getStartTime().plusMinutes(7), approach.getEndTime(), "7 minutes from D1 instead of the fixed 15");
+        assertEquals(200 - 3, fixed.getActivityLog().stream().filter(entry -> entry.getEntityType() == ActivityLogEntry.EntityType.BUS
+                && entry.getActivityType() == ActivityLogEntry.ActivityType.ROUTE_SERVICE).findFirst().orElseThrow().getStartChargeKm());
+
+        ScheduleSolution repositioned = new SchedulingService().solveWithCheckpoint(runs.get(), buses.get(), drivers, List.of(route),
+                List.of(depot), stops, repositioning, SolveListener.NONE).solution;
+        assertEquals(0, repositioned.getUnassignedRunCount());
+        assertTrue(repositioned.getActivityLog().stream().anyMatch(entry -> entry.getEntityId().equals("B2")
+                && entry.getActivityType() == ActivityLogEntry.ActivityType.TRAVEL_TO_START_TERMINAL
+                && entry.getDescription().equals("Travel from T2 to T1") && entry.getEndTime().equals(entry.getStartTime().plusMinutes(17))));
+    }
+}
@@ -0,0 +1,64 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.depot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+import com.bus.domain.TravelTimeBand;
+
+class TravelTimeBandTest {
+
+    @Test
+    void travelTimeBandsSetRunDurationsAndDeadheadsByTimeOfDay() {
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 20, 30);
+        route.setTravelTimeBands(List.of(new TravelTimeBand(LocalTime.of(7, 0), LocalTime.of(10, 0), 1.5)));
+        assertEquals(30, route.travelTimeMinutesAt(LocalTime.of(6, 59)));
+        assertEquals(45, route.travelTimeMinutesAt(LocalTime.of(8, 0)));
+        assertEquals(30, route.travelTimeMinutesAt(LocalTime.of(10, 0)));
+        assertEquals(30, route.shortestTravelTimeMinutes());
+        BusRoute other = new BusRoute("R2", "Other", "T1", "T1", List.of("T1"), 20, 30);
+        assertThrows(IllegalArgumentException.class, () -> other.setTravelTimeBands(List.of(new TravelTimeBand(LocalTime.of(7, 10), LocalTime.of(9, 0), 1.5))));
+        assertThrows(IllegalArgumentException.class, () -> other.setTravelTimeBands(List.of(new TravelTimeBand(LocalTime.of(7, 0), LocalTime.of(9, 0), 1.5),
+                new TravelTimeBand(LocalTime.of(8, 45), LocalTime.of(10, 0), 1.2))));
+        BusDepot depot = depot("D1");
+        depot.setTravelTimeBands(List.of(new TravelTimeBand(LocalTime.of(22, 0), LocalTime.of(9, 0), 2))); // Past midnight
+        assertEquals(2, depot.travelTimeFactorAt(8 * 60 + 59));
+        assertEquals(1, depot.travelTimeFactorAt(9 * 60));
+        assertEquals(2, depot.travelTimeFactorAt(24 * 60 + 30)); // 00:30 the next morning
+
+        Bus bus = new Bus();
+        bus.setBusIdValue("B1");
+        bus.setDepotId("D1");
+        bus.setRangeKm(200);
+        bus.setCurrentChargeKm(200);
+        bus.setCurrentLocationId("D1");
+        LocalTime departure = LocalTime.of(8, 0);
+        List<RouteRun> runs = List.of(new RouteRun("R1-0800", "R1", departure, route.travelTimeMinutesAt(departure)));
+        ScheduleSolution solution = new SchedulingService().solveWithCheckpoint(runs, List.of(bus), List.of(new BusDriver("DR1", "Driver 1")),
+                List.of(route), List.of(depot), new SolverConfig(), SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0800 B1 DR1"), assignments(solution));
+        Map<ActivityLogEntry.ActivityType, ActivityLogEntry> busLog = solution.getActivityLog().stream()
+                .filter(entry -> entry.getEntityType() == ActivityLogEntry.EntityType.BUS)
+                .collect(Collectors.toMap(ActivityLogEntry::getActivityType, entry -> entry));
+        assertEquals(LocalTime.of(8, 45), busLog.get(ActivityLogEntry.ActivityType.ROUTE_SERVICE).getEndTime());
+        ActivityLogEntry approach = busLog.get(ActivityLogEntry.ActivityType.TRAVEL_TO_START_TERMINAL);
+        assertEquals(approach.getStartTime().plusMinutes(30), approach.getEndTime(), "The fixed 15 minutes, doubled at 08:00");
+        assertEquals(LocalTime.of(9, 25), busLog.get(ActivityLogEntry.ActivityType.TRAVEL_TO_DEPOT).getEndTime(), "The fixed 20 minutes, doubled at 08:45");
+    }
+}
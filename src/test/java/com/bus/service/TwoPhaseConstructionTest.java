@@ -0,0 +1,93 @@
+package com.bus.service;
+
+import static com.bus.service.TestData.activityLog;
+import static com.bus.service.TestData.assertNoOverlaps;
+import static com.bus.service.TestData.assignments;
+import static com.bus.service.TestData.depot;
+import static com.bus.service.TestData.syntheticFleet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.domain.ActivityLogEntry;
+import com.bus.domain.Bus;
+import com.bus.domain.BusDepot;
+import com.bus.domain.BusDriver;
+import com.bus.domain.BusRoute;
+import com.bus.domain.RouteRun;
+import com.bus.domain.ScheduleSolution;
+import com.bus.domain.SolverConfig;
+import com.bus.service.TestData.Fleet;
+
+class TwoPhaseConstructionTest {
+
+    @Test
+    void twoPhaseConstructionKeepsDriversOnTheirBusBlock() {
+        // B1 charges after the 06:00 run, so B2 takes both 06:10 and 08:00
+        BusRoute route = new BusRoute("R1", "North line", "T1", "T1", List.of("T1"), 30, 30);
+        Supplier<List<Bus>> buses = () -> {
+            List<Bus> list = new ArrayList<>();
+            for (String id : List.of("B1", "B2")) {
+                Bus bus = new Bus();
+                bus.setBusIdValue(id);
+                bus.setDepotId("D1");
+                bus.setRangeKm(100);
+                bus.setCurrentChargeKm(id.equals("B1") ? 60 : 100);
+                bus.setCurrentLocationId("D1");
+                list.add(bus);
+            }
+            return list;
+        };
+        Supplier<List<RouteRun>> runs = () -> List.of(new RouteRun("R1-0600", "R1", LocalTime.of(6, 0), 30),
+                new RouteRun("R1-0610", "R1", LocalTime.of(6, 10), 30), new RouteRun("R1-0800", "R1", LocalTime.of(8, 0), 30));
+        List<BusDriver> drivers = List.of(new BusDriver("DR1", "Driver 1"), new BusDriver("DR2", "Driver 2"), new BusDriver("DR3", "Driver 3"));
+        SolverConfig twoPhase = new SolverConfig();
+        twoPhase.setTwoPhaseConstruction(true);
+
+        ScheduleSolution joint = new SchedulingService().solveSchedule(runs.get(), buses.get(), drivers.subList(0, 2), List.of(route));
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0610 B2 DR2", "R1-0800 B2 DR1"), assignments(joint));
+        ScheduleSolution blocks = new SchedulingService().solveWithCheckpoint(runs.get(), buses.get(), drivers.subList(0, 2), List.of(route),
+                List.of(), twoPhase, SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0610 B2 DR2", "R1-0800 B2 DR2"), assignments(blocks));
+        assertEquals(joint.getScore(), blocks.getScore());
+        assertEquals(ActivityLogEntry.EntityType.BUS, blocks.getActivityLog().get(0).getEntityType(), "Vehicle blocks are logged first");
+
+        // The daily driving limit cuts the duty: a fresh driver takes over, or nobody and the run keeps its bus
+        twoPhase.setMaxDrivingMinsPerDay(30);
+        ScheduleSolution relieved = new SchedulingService().solveWithCheckpoint(runs.get(), buses.get(), drivers, List.of(route),
+                List.of(), twoPhase, SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0610 B2 DR3", "R1-0800 B2 DR2"), assignments(relieved));
+        ScheduleSolution cut = new SchedulingService().solveWithCheckpoint(runs.get(), buses.get(), drivers.subList(0, 2), List.of(route),
+                List.of(), twoPhase, SolveListener.NONE).solution;
+        assertEquals(List.of("R1-0600 B1 DR1", "R1-0610 B2 DR2", "R1-0800 B2 null"), assignments(cut));
+        assertEquals(1, cut.getUnassignedRunCount());
+
+        // Both phases run per part of a split network, and the merged log matches a single engine's
+        List<BusDepot> depots = List.of(depot("D1", "T1", "T2", "T3"), depot("D2", "T3", "T4", "T5"), depot("D3", "T6", "T7", "T8"));
+        SolverConfig config = new SolverConfig();
+        config.setTwoPhaseConstruction(true);
+        Fleet fleet = syntheticFleet(1);
+        fleet.drivers.forEach(driver -> driver.setDepotId(depots.get(Integer.parseInt(driver.getId().substring(2)) % 3).getId()));
+        ScheduleSolution partitioned = new SchedulingService().solveWithCheckpoint(fleet.runs, fleet.buses, fleet.drivers,
+                fleet.routes, depots, config, SolveListener.NONE).solution;
+        Fleet sameFleet = syntheticFleet(1);
+        sameFleet.drivers.forEach(driver -> driver.setDepotId(depots.get(Integer.parseInt(driver.getId().substring(2)) % 3).getId()));
+        ServiceTime clock = new ServiceTime(LocalTime.of(3, 0));
+        GreedyScheduler engine = new GreedyScheduler(sameFleet.buses, sameFleet.drivers, sameFleet.routes, clock, ServiceAreas.of(depots),
+                TravelMatrix.NONE, DepotCapacity.NONE, ChargingNetwork.NONE, config);
+        List<RouteRun> sortedRuns = new ArrayList<>(sameFleet.runs);
+        sortedRuns.sort(Comparator.comparingInt(clock::departureMinutes));
+        SchedulingService.constructSchedule(engine, sortedRuns, SolveListener.NONE, null);
+        ScheduleSolution single = new ScheduleSolution(sortedRuns);
+        single.setActivityLog(engine.activityLog);
+        assertEquals(assignments(single), assignments(partitioned));
+        assertEquals(activityLog(single), activityLog(partitioned));
+        assertNoOverlaps(partitioned, RouteRun::getAssignedDriverId);
+    }
+}